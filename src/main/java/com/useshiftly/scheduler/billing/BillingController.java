@@ -1,7 +1,12 @@
 package com.useshiftly.scheduler.billing;
 
+import com.useshiftly.scheduler.export.CsvExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -18,17 +23,28 @@ public class BillingController {
     private BillingEventLogger billingEventLogger;
     @Autowired
     private BillingReportService billingReportService;
+    @Autowired
+    private InvoiceNotificationScheduler invoiceNotificationScheduler;
+    @Autowired
+    private StripeGateway stripeGateway;
+    @Autowired
+    private SeatCounterService seatCounterService;
+    @Autowired
+    private CsvExportService csvExportService;
 
-    // Get all billing events (audit log)
+    // Get billing events (audit log), newest first
     @GetMapping("/events")
-    public List<Map<String, Object>> getAllEvents() {
-        return billingEventLogger.getAllEvents();
+    public List<Map<String, Object>> getAllEvents(@RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "100") int size) {
+        return billingEventLogger.getAllEvents(page, size);
     }
 
-    // Get billing events for a specific admin
+    // Get billing events for a specific admin, newest first
     @GetMapping("/events/{adminEmail}")
-    public List<Map<String, Object>> getEventsForAdmin(@PathVariable String adminEmail) {
-        return billingEventLogger.getEventsForAdmin(adminEmail);
+    public List<Map<String, Object>> getEventsForAdmin(@PathVariable String adminEmail,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "100") int size) {
+        return billingEventLogger.getEventsForAdmin(adminEmail, page, size);
     }
 
     // Preview bills for all admins
@@ -44,32 +60,34 @@ public class BillingController {
     public List<Map<String, Object>> generateReceipts(@RequestParam String period) {
         Map<String, Integer> adminEmployeeCounts = billingUsageService.getAdminEmployeeCounts();
         Map<String, String> adminPackageTypes = billingUsageService.getAdminPackageTypes();
-        List<Map<String, Object>> receipts = new java.util.ArrayList<>();
+        Map<String, Integer> amounts = new java.util.HashMap<>();
         for (Map.Entry<String, Integer> entry : adminEmployeeCounts.entrySet()) {
             String email = entry.getKey();
             int count = entry.getValue();
             String packageType = adminPackageTypes.getOrDefault(email, "Basic");
-            int amount = billingCalculationService.calculateBill(count, packageType);
-            receipts.add(billingReceiptService.generateReceipt(email, amount, period));
+            amounts.put(email, billingCalculationService.calculateBill(count, packageType));
         }
-        return receipts;
+        return billingReceiptService.generateReceipts(amounts, period);
     }
 
-    // Get all receipts (super admin)
+    // Get all receipts (super admin), newest first
     @GetMapping("/receipts")
-    public List<Map<String, Object>> getAllReceipts() {
-        return billingReceiptService.getAllReceipts();
+    public List<Map<String, Object>> getAllReceipts(@RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "100") int size) {
+        return billingReceiptService.getAllReceipts(page, size);
     }
 
-    // Get receipts for a specific admin
+    // Get receipts for a specific admin, newest first
     @GetMapping("/receipts/{adminEmail}")
-    public List<Map<String, Object>> getReceiptsForAdmin(@PathVariable String adminEmail) {
-        return billingReceiptService.getReceiptsForAdmin(adminEmail);
+    public List<Map<String, Object>> getReceiptsForAdmin(@PathVariable String adminEmail,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "100") int size) {
+        return billingReceiptService.getReceiptsForAdmin(adminEmail, page, size);
     }
 
     // Get total revenue
     @GetMapping("/analytics/total-revenue")
-    public int getTotalRevenue() {
+    public long getTotalRevenue() {
         return billingReportService.getTotalRevenue();
     }
 
@@ -81,13 +99,46 @@ public class BillingController {
 
     // Get revenue by admin
     @GetMapping("/analytics/revenue-by-admin")
-    public Map<String, Integer> getRevenueByAdmin() {
+    public Map<String, Long> getRevenueByAdmin() {
         return billingReportService.getRevenueByAdmin();
     }
 
-    // Export all receipts as CSV
+    // Timing and throughput of the most recent upcoming-invoice notification run
+    @GetMapping("/invoice-runs/last")
+    public InvoiceNotificationScheduler.RunMetrics getLastInvoiceRun() {
+        return invoiceNotificationScheduler.getLastRunMetrics();
+    }
+
+    // Stripe gateway counters (coalesced changes, updates sent, read cache hits)
+    @GetMapping("/stripe/stats")
+    public Map<String, Object> getStripeGatewayStats() {
+        return stripeGateway.getStats();
+    }
+
+    // Current seats and prorated seat-days for a building over [from, to)
+    @GetMapping("/seats/{buildingId}")
+    public Map<String, Object> getSeatUsage(@PathVariable Long buildingId,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return Map.of(
+            "buildingId", buildingId,
+            "seats", seatCounterService.getSeats(buildingId),
+            "seatDays", seatCounterService.getSeatDays(buildingId, from, to)
+        );
+    }
+
+    // Link a building's seats to the Stripe subscription billed for them; later seat changes update its quantity
+    @PutMapping("/seats/{buildingId}/subscription")
+    public Map<String, Object> linkSeatSubscription(@PathVariable Long buildingId, @RequestParam String subscriptionId) {
+        seatCounterService.linkSubscription(buildingId, subscriptionId);
+        return Map.of("buildingId", buildingId, "subscriptionId", subscriptionId);
+    }
+
+    // Export receipts as CSV, streamed (gzipped when accepted); optionally for one admin
     @GetMapping(value = "/analytics/export-receipts", produces = "text/csv")
-    public String exportReceiptsCsv() {
-        return billingReportService.exportReceiptsCsv();
+    public ResponseEntity<StreamingResponseBody> exportReceiptsCsv(@RequestParam(required = false) String adminEmail,
+                                                                   @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        return csvExportService.export("receipts", acceptEncoding, BillingReportService.RECEIPT_CSV_HEADER,
+            csv -> billingReportService.writeReceiptsCsv(csv, adminEmail));
     }
 }
@@ -1,36 +1,97 @@
 package com.useshiftly.scheduler.billing;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useshiftly.scheduler.billing.BillingLedgerEntry.EntryType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * Billing audit log, stored as EVENT rows in the append-only billing ledger.
+ */
 @Service
+@Slf4j
 public class BillingEventLogger {
-    private final List<Map<String, Object>> events = new ArrayList<>();
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final BillingLedgerRepository ledgerRepository;
+    private final ObjectMapper objectMapper;
+
+    public BillingEventLogger(BillingLedgerRepository ledgerRepository, ObjectMapper objectMapper) {
+        this.ledgerRepository = ledgerRepository;
+        this.objectMapper = objectMapper;
+    }
 
     public void logEvent(String type, String adminEmail, Map<String, Object> details) {
+        ledgerRepository.save(buildEvent(type, adminEmail, details));
+    }
+
+    /**
+     * Builds an EVENT ledger row without saving it, for callers that batch their writes.
+     */
+    BillingLedgerEntry buildEvent(String type, String adminEmail, Map<String, Object> details) {
+        Object period = details != null ? details.get("period") : null;
+        return BillingLedgerEntry.builder()
+            .entryType(EntryType.EVENT)
+            .eventType(type)
+            .adminEmail(adminEmail)
+            .period(period != null ? period.toString() : null)
+            .details(writeDetails(details))
+            .build();
+    }
+
+    public List<Map<String, Object>> getAllEvents(int page, int size) {
+        return ledgerRepository.findByEntryTypeOrderByCreatedAtDesc(EntryType.EVENT, pageRequest(page, size))
+            .stream().map(this::toMap).collect(Collectors.toList());
+    }
+
+    public List<Map<String, Object>> getEventsForAdmin(String adminEmail, int page, int size) {
+        return ledgerRepository.findByEntryTypeAndAdminEmailOrderByCreatedAtDesc(EntryType.EVENT, adminEmail, pageRequest(page, size))
+            .stream().map(this::toMap).collect(Collectors.toList());
+    }
+
+    static Pageable pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private Map<String, Object> toMap(BillingLedgerEntry entry) {
         Map<String, Object> event = new HashMap<>();
-        event.put("type", type);
-        event.put("adminEmail", adminEmail);
-        event.put("details", details);
-        event.put("timestamp", LocalDateTime.now());
-        events.add(event);
+        event.put("type", entry.getEventType());
+        event.put("adminEmail", entry.getAdminEmail());
+        event.put("details", readDetails(entry.getDetails()));
+        event.put("timestamp", entry.getCreatedAt());
+        return event;
     }
 
-    public List<Map<String, Object>> getAllEvents() {
-        return events;
+    private String writeDetails(Map<String, Object> details) {
+        if (details == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(details);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize billing event details: {}", e.getMessage());
+            return null;
+        }
     }
 
-    public List<Map<String, Object>> getEventsForAdmin(String adminEmail) {
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Map<String, Object> e : events) {
-            if (e.get("adminEmail").equals(adminEmail)) {
-                result.add(e);
-            }
+    private Map<String, Object> readDetails(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Could not parse billing event details: {}", e.getMessage());
+            return Map.of();
         }
-        return result;
     }
 }
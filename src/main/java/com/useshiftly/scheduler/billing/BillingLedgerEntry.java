@@ -0,0 +1,53 @@
+package com.useshiftly.scheduler.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+/**
+ * One append-only row in the billing ledger: either a generated receipt or an audit event.
+ * Rows are never updated or deleted. Ids come from a pooled sequence so inserts can be JDBC-batched.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Table(name = "billing_ledger")
+public class BillingLedgerEntry {
+
+    public enum EntryType {
+        RECEIPT,
+        EVENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "billing_ledger_seq")
+    @SequenceGenerator(name = "billing_ledger_seq", sequenceName = "billing_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private EntryType entryType;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "admin_email", nullable = false)
+    private String adminEmail;
+
+    @Column(name = "period", length = 20)
+    private String period;
+
+    @Column(name = "amount")
+    private Integer amount;
+
+    @Column(name = "details", columnDefinition = "TEXT")
+    private String details; // JSON
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,51 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.billing.BillingLedgerEntry.EntryType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface BillingLedgerRepository extends JpaRepository<BillingLedgerEntry, Long> {
+
+    Page<BillingLedgerEntry> findByEntryTypeOrderByCreatedAtDesc(EntryType entryType, Pageable pageable);
+
+    Page<BillingLedgerEntry> findByEntryTypeAndAdminEmailOrderByCreatedAtDesc(EntryType entryType, String adminEmail, Pageable pageable);
+
+    /**
+     * Streams [adminEmail, amount, period, createdAt] rows in id order for CSV export.
+     * Must be consumed inside a transaction; rows are fetched from a cursor in batches.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.adminEmail, e.amount, e.period, e.createdAt FROM BillingLedgerEntry e " +
+           "WHERE e.entryType = :entryType ORDER BY e.id")
+    Stream<Object[]> streamForExport(@Param("entryType") EntryType entryType);
+
+    /**
+     * Same as {@link #streamForExport(EntryType)}, limited to one admin.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.adminEmail, e.amount, e.period, e.createdAt FROM BillingLedgerEntry e " +
+           "WHERE e.entryType = :entryType AND e.adminEmail = :adminEmail ORDER BY e.id")
+    Stream<Object[]> streamForExportByAdmin(@Param("entryType") EntryType entryType, @Param("adminEmail") String adminEmail);
+
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM BillingLedgerEntry e WHERE e.entryType = :entryType")
+    long sumAmountByEntryType(@Param("entryType") EntryType entryType);
+
+    @Query("SELECT COUNT(DISTINCT e.adminEmail) FROM BillingLedgerEntry e WHERE e.entryType = :entryType")
+    long countDistinctAdminsByEntryType(@Param("entryType") EntryType entryType);
+
+    /**
+     * Returns [adminEmail, totalAmount] rows.
+     */
+    @Query("SELECT e.adminEmail, COALESCE(SUM(e.amount), 0) FROM BillingLedgerEntry e WHERE e.entryType = :entryType GROUP BY e.adminEmail")
+    List<Object[]> sumAmountByAdmin(@Param("entryType") EntryType entryType);
+}
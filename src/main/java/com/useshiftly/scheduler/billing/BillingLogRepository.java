@@ -0,0 +1,8 @@
+package com.useshiftly.scheduler.billing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BillingLogRepository extends JpaRepository<BillingLog, Long> {
+}
@@ -1,18 +1,27 @@
 package com.useshiftly.scheduler.billing;
 
+import com.useshiftly.scheduler.model.Building;
 import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.BuildingRepository;
 import com.useshiftly.scheduler.repository.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class BillingLogService {
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private BuildingRepository buildingRepository;
+    @Autowired
+    private BillingLogRepository billingLogRepository;
+    @Autowired
+    private BillingCalculationService billingCalculationService;
 
     /**
      * For each admin/building, log billable users for a billing period.
@@ -29,8 +38,18 @@ public class BillingLogService {
                 .map(Employee::getId)
                 .collect(Collectors.toList());
         int billable = Math.max(0, employeeIds.size() - 5);
-        // TODO: Insert into BillingLog table (use JDBC or JPA)
-        // Example: billingLogRepository.save(new BillingLog(...));
+        Employee admin = buildingRepository.findById(buildingId).map(Building::getAdmin).orElse(null);
+        if (admin == null) {
+            log.warn("No admin found for building {}, billing log not written", buildingId);
+            return billable;
+        }
+        billingLogRepository.save(BillingLog.builder()
+                .adminId(admin.getId())
+                .billingPeriod(periodStart.toLocalDate())
+                .employeeIds(employeeIds.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .billableUsers(billable)
+                .amount((double) billingCalculationService.calculateBill(employeeIds.size(), admin.getPackageType()))
+                .build());
         return billable;
     }
 }
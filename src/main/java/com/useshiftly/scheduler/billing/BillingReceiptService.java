@@ -1,19 +1,27 @@
 package com.useshiftly.scheduler.billing;
 
+import com.useshiftly.scheduler.billing.BillingLedgerEntry.EntryType;
 import org.springframework.stereotype.Service;
-import java.time.LocalDate;
-import java.util.List;
-import java.util.Map;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * Generates billing receipts and stores them as RECEIPT rows in the append-only billing ledger.
+ */
 @Service
 public class BillingReceiptService {
-    private final List<Map<String, Object>> receipts = new ArrayList<>();
+    private final BillingLedgerRepository ledgerRepository;
     private final BillingEventLogger eventLogger;
     private final EmailService emailService;
 
-    public BillingReceiptService(BillingEventLogger eventLogger, EmailService emailService) {
+    public BillingReceiptService(BillingLedgerRepository ledgerRepository, BillingEventLogger eventLogger, EmailService emailService) {
+        this.ledgerRepository = ledgerRepository;
         this.eventLogger = eventLogger;
         this.emailService = emailService;
     }
@@ -26,45 +34,95 @@ public class BillingReceiptService {
      * @return The generated receipt
      */
     public Map<String, Object> generateReceipt(String adminEmail, int amount, String period) {
-        Map<String, Object> receipt = new HashMap<>();
-        receipt.put("adminEmail", adminEmail);
-        receipt.put("amount", amount);
-        receipt.put("period", period);
-        receipt.put("date", LocalDate.now());
-        receipts.add(receipt);
-        // Log the receipt generation event for compliance
-        if (eventLogger != null) {
+        return generateReceipts(Map.of(adminEmail, amount), period).get(0);
+    }
+
+    /**
+     * Generate and store receipts for several admins. Receipts and their audit events are inserted
+     * in one batched transaction; receipt emails are sent only once it has committed.
+     * @param amountsByAdmin Admin email to amount billed
+     * @param period Billing period (e.g., 2025-07)
+     * @return The generated receipts
+     */
+    @Transactional
+    public List<Map<String, Object>> generateReceipts(Map<String, Integer> amountsByAdmin, String period) {
+        List<BillingLedgerEntry> entries = new ArrayList<>(amountsByAdmin.size() * 2);
+        for (Map.Entry<String, Integer> entry : amountsByAdmin.entrySet()) {
+            entries.add(BillingLedgerEntry.builder()
+                .entryType(EntryType.RECEIPT)
+                .eventType("RECEIPT")
+                .adminEmail(entry.getKey())
+                .period(period)
+                .amount(entry.getValue())
+                .build());
+            // Log the receipt generation event for compliance
             Map<String, Object> details = new HashMap<>();
-            details.put("amount", amount);
+            details.put("amount", entry.getValue());
             details.put("period", period);
-            eventLogger.logEvent("RECEIPT_GENERATED", adminEmail, details);
+            entries.add(eventLogger.buildEvent("RECEIPT_GENERATED", entry.getKey(), details));
+        }
+        List<BillingLedgerEntry> saved = ledgerRepository.saveAll(entries);
+
+        List<Map<String, Object>> receipts = new ArrayList<>(amountsByAdmin.size());
+        List<BillingLedgerEntry> toEmail = new ArrayList<>(amountsByAdmin.size());
+        for (BillingLedgerEntry entry : saved) {
+            if (entry.getEntryType() != EntryType.RECEIPT) {
+                continue;
+            }
+            receipts.add(toMap(entry));
+            toEmail.add(entry);
         }
-        // Send receipt email
         if (emailService != null) {
-            String subject = "Your Monthly Billing Receipt - Period: " + period;
-            String body = String.format("Dear Admin,\n\nYour billing receipt for period %s is $%d.\n\nThank you.\n", period, amount);
-            emailService.sendReceiptEmail(adminEmail, subject, body);
+            afterCommit(() -> sendReceiptEmails(toEmail, period));
         }
-        return receipt;
+        return receipts;
+    }
+
+    private void sendReceiptEmails(List<BillingLedgerEntry> receipts, String period) {
+        String subject = "Your Monthly Billing Receipt - Period: " + period;
+        for (BillingLedgerEntry entry : receipts) {
+            String body = String.format("Dear Admin,\n\nYour billing receipt for period %s is $%d.\n\nThank you.\n", period, entry.getAmount());
+            emailService.sendReceiptEmail(entry.getAdminEmail(), subject, body);
+        }
+    }
+
+    // A rolled-back batch must not have emailed anyone
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
-     * Get all receipts for an admin.
+     * Get receipts for an admin, newest first.
      */
-    public List<Map<String, Object>> getReceiptsForAdmin(String adminEmail) {
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Map<String, Object> r : receipts) {
-            if (r.get("adminEmail").equals(adminEmail)) {
-                result.add(r);
-            }
-        }
-        return result;
+    public List<Map<String, Object>> getReceiptsForAdmin(String adminEmail, int page, int size) {
+        return ledgerRepository.findByEntryTypeAndAdminEmailOrderByCreatedAtDesc(EntryType.RECEIPT, adminEmail,
+                BillingEventLogger.pageRequest(page, size))
+            .stream().map(BillingReceiptService::toMap).collect(Collectors.toList());
     }
 
     /**
-     * Get all receipts (for super admin).
+     * Get all receipts (for super admin), newest first.
      */
-    public List<Map<String, Object>> getAllReceipts() {
-        return receipts;
+    public List<Map<String, Object>> getAllReceipts(int page, int size) {
+        return ledgerRepository.findByEntryTypeOrderByCreatedAtDesc(EntryType.RECEIPT, BillingEventLogger.pageRequest(page, size))
+            .stream().map(BillingReceiptService::toMap).collect(Collectors.toList());
+    }
+
+    static Map<String, Object> toMap(BillingLedgerEntry entry) {
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("adminEmail", entry.getAdminEmail());
+        receipt.put("amount", entry.getAmount());
+        receipt.put("period", entry.getPeriod());
+        receipt.put("date", entry.getCreatedAt().toLocalDate());
+        return receipt;
     }
 }
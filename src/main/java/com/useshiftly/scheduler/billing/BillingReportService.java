@@ -1,62 +1,70 @@
 package com.useshiftly.scheduler.billing;
 
+import com.useshiftly.scheduler.billing.BillingLedgerEntry.EntryType;
+import com.useshiftly.scheduler.export.CsvExportService;
+import com.useshiftly.scheduler.export.CsvWriter;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Revenue analytics over the billing ledger. Totals are computed in the database rather than by
+ * loading every receipt.
+ */
 @Service
 public class BillingReportService {
-    private final BillingReceiptService receiptService;
+    static final String[] RECEIPT_CSV_HEADER = {"adminEmail", "amount", "period", "date"};
 
-    public BillingReportService(BillingReceiptService receiptService) {
-        this.receiptService = receiptService;
+    private final BillingLedgerRepository ledgerRepository;
+
+    public BillingReportService(BillingLedgerRepository ledgerRepository) {
+        this.ledgerRepository = ledgerRepository;
     }
 
     /**
      * Returns total revenue for all time.
      */
-    public int getTotalRevenue() {
-        return receiptService.getAllReceipts().stream()
-                .mapToInt(r -> (int) r.getOrDefault("amount", 0))
-                .sum();
+    public long getTotalRevenue() {
+        return ledgerRepository.sumAmountByEntryType(EntryType.RECEIPT);
     }
 
     /**
      * Returns ARPU (average revenue per admin) for all time.
      */
     public double getARPU() {
-        List<Map<String, Object>> receipts = receiptService.getAllReceipts();
-        Set<String> admins = receipts.stream().map(r -> (String) r.get("adminEmail")).collect(Collectors.toSet());
-        if (admins.isEmpty()) return 0.0;
-        return (double) getTotalRevenue() / admins.size();
+        long admins = ledgerRepository.countDistinctAdminsByEntryType(EntryType.RECEIPT);
+        if (admins == 0) return 0.0;
+        return (double) ledgerRepository.sumAmountByEntryType(EntryType.RECEIPT) / admins;
     }
 
     /**
      * Returns a map of adminEmail to total paid.
      */
-    public Map<String, Integer> getRevenueByAdmin() {
-        Map<String, Integer> result = new HashMap<>();
-        for (Map<String, Object> r : receiptService.getAllReceipts()) {
-            String email = (String) r.get("adminEmail");
-            int amt = (int) r.getOrDefault("amount", 0);
-            result.put(email, result.getOrDefault(email, 0) + amt);
+    public Map<String, Long> getRevenueByAdmin() {
+        Map<String, Long> result = new HashMap<>();
+        for (Object[] row : ledgerRepository.sumAmountByAdmin(EntryType.RECEIPT)) {
+            result.put((String) row[0], ((Number) row[1]).longValue());
         }
         return result;
     }
 
     /**
-     * Returns all receipts as CSV for export.
+     * Writes receipts as CSV rows, streamed from a database cursor. Must run inside a transaction,
+     * which {@link CsvExportService} provides.
+     *
+     * @param adminEmail limit to one admin, or null for all receipts
      */
-    public String exportReceiptsCsv() {
-        List<Map<String, Object>> receipts = receiptService.getAllReceipts();
-        StringBuilder sb = new StringBuilder();
-        sb.append("adminEmail,amount,period,date\n");
-        for (Map<String, Object> r : receipts) {
-            sb.append(r.get("adminEmail")).append(",")
-              .append(r.get("amount")).append(",")
-              .append(r.get("period")).append(",")
-              .append(r.get("date")).append("\n");
+    public void writeReceiptsCsv(CsvWriter csv, String adminEmail) throws IOException {
+        try (Stream<Object[]> rows = adminEmail == null
+                ? ledgerRepository.streamForExport(EntryType.RECEIPT)
+                : ledgerRepository.streamForExportByAdmin(EntryType.RECEIPT, adminEmail)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] r = it.next();
+                csv.row(r[0], r[1], r[2], ((LocalDateTime) r[3]).toLocalDate());
+            }
         }
-        return sb.toString();
     }
 }
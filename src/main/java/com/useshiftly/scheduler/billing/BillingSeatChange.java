@@ -0,0 +1,37 @@
+package com.useshiftly.scheduler.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a building's billable seat count, kept for prorated billing and auditing.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "billing_seat_history")
+public class BillingSeatChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "billing_seat_history_id_seq")
+    @SequenceGenerator(name = "billing_seat_history_id_seq", sequenceName = "billing_seat_history_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "building_id", nullable = false)
+    private Long buildingId;
+
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    @Column(name = "reason", nullable = false, length = 50)
+    private String reason;
+
+    @Column(name = "changed_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime changedAt = LocalDateTime.now();
+}
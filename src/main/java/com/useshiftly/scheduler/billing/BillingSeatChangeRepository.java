@@ -0,0 +1,22 @@
+package com.useshiftly.scheduler.billing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BillingSeatChangeRepository extends JpaRepository<BillingSeatChange, Long> {
+
+    List<BillingSeatChange> findByBuildingIdAndChangedAtAfterOrderByChangedAtDesc(Long buildingId, LocalDateTime since);
+
+    /**
+     * Returns the buildings where the employee currently holds a seat (normally zero or one).
+     */
+    @Query("SELECT h.buildingId FROM BillingSeatChange h WHERE h.employeeId = :employeeId " +
+           "GROUP BY h.buildingId HAVING SUM(h.delta) > 0")
+    List<Long> findSeatedBuildingIds(@Param("employeeId") Long employeeId);
+}
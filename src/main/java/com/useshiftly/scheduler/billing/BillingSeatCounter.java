@@ -0,0 +1,32 @@
+package com.useshiftly.scheduler.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Current number of billable seats (active, non-deleted EMPLOYEE-role accounts) in a building.
+ * Maintained incrementally by {@link SeatCounterService}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "billing_seat_counter")
+public class BillingSeatCounter {
+    @Id
+    @Column(name = "building_id")
+    private Long buildingId;
+
+    @Column(name = "seats", nullable = false)
+    private Integer seats;
+
+    // Stripe subscription whose quantity follows this count, or null if the building is not billed through Stripe
+    @Column(name = "stripe_subscription_id")
+    private String stripeSubscriptionId;
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,46 @@
+package com.useshiftly.scheduler.billing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BillingSeatCounterRepository extends JpaRepository<BillingSeatCounter, Long> {
+
+    /**
+     * Atomically adjusts the seat count. Returns 0 if the building has no counter row yet.
+     */
+    @Modifying
+    @Query("UPDATE BillingSeatCounter c SET c.seats = c.seats + :delta, c.updatedAt = :now WHERE c.buildingId = :buildingId")
+    int addSeats(@Param("buildingId") Long buildingId, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    @Query("SELECT c.seats FROM BillingSeatCounter c WHERE c.buildingId = :buildingId")
+    Optional<Integer> findSeats(@Param("buildingId") Long buildingId);
+
+    @Query("SELECT c.stripeSubscriptionId FROM BillingSeatCounter c WHERE c.buildingId = :buildingId AND c.stripeSubscriptionId IS NOT NULL")
+    Optional<String> findSubscriptionId(@Param("buildingId") Long buildingId);
+
+    /**
+     * Links the building's counter to a Stripe subscription. Returns 0 if the building has no counter row yet.
+     */
+    @Modifying
+    @Query("UPDATE BillingSeatCounter c SET c.stripeSubscriptionId = :subscriptionId WHERE c.buildingId = :buildingId")
+    int linkSubscription(@Param("buildingId") Long buildingId, @Param("subscriptionId") String subscriptionId);
+
+    /**
+     * Returns [adminEmail, seats] rows for every active admin whose building has a counter.
+     */
+    @Query("SELECT admin.email, c.seats FROM Employee admin JOIN BillingSeatCounter c ON c.buildingId = admin.building.id " +
+           "WHERE admin.role = 'ADMIN' AND admin.active = true")
+    List<Object[]> findSeatsByAdminEmail();
+
+    @Query("SELECT c.seats FROM Employee admin JOIN BillingSeatCounter c ON c.buildingId = admin.building.id " +
+           "WHERE admin.email = :adminEmail AND admin.role = 'ADMIN'")
+    Optional<Integer> findSeatsForAdmin(@Param("adminEmail") String adminEmail);
+}
@@ -10,20 +10,29 @@ import java.util.Map;
 public class BillingSelfServiceController {
     @Autowired
     private BillingReceiptService billingReceiptService;
+    @Autowired
+    private BillingUsageService billingUsageService;
+    @Autowired
+    private BillingCalculationService billingCalculationService;
 
     // Get receipts for the logged-in admin (stub: adminEmail as param)
     @GetMapping("/receipts/{adminEmail}")
-    public List<Map<String, Object>> getReceipts(@PathVariable String adminEmail) {
-        return billingReceiptService.getReceiptsForAdmin(adminEmail);
+    public List<Map<String, Object>> getReceipts(@PathVariable String adminEmail,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "100") int size) {
+        return billingReceiptService.getReceiptsForAdmin(adminEmail, page, size);
     }
 
-    // Show current usage and projected next bill (stub)
+    // Show current usage and projected next bill, read from the maintained seat counter
     @GetMapping("/projected-bill/{adminEmail}")
     public Map<String, Object> getProjectedBill(@PathVariable String adminEmail) {
-        // TODO: Integrate with real usage and billing logic
+        int seats = billingUsageService.getAdminSeats(adminEmail);
+        String packageType = billingUsageService.getAdminPackageType(adminEmail);
         return Map.of(
             "adminEmail", adminEmail,
-            "projectedAmount", 0
+            "packageType", packageType,
+            "seats", seats,
+            "projectedAmount", billingCalculationService.calculateBill(seats, packageType)
         );
     }
 }
@@ -2,15 +2,24 @@ package com.useshiftly.scheduler.billing;
 
 import com.useshiftly.scheduler.model.Employee;
 import com.useshiftly.scheduler.repository.EmployeeRepository;
-import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository.AdminUsageRow;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 
+/**
+ * Per-admin usage for billing. Every method reads all tenants with a constant number of queries,
+ * so month-end runs don't scale their round-trips with the number of admins.
+ */
 @Service
 @RequiredArgsConstructor
 public class BillingUsageService {
+    private static final int FREE_EMPLOYEES = 5;
+
+    private final EmployeeRepository employeeRepository;
+    private final BillingSeatCounterRepository seatCounterRepository;
+
     /**
      * Returns a map of admin email to package type for billing.
      */
@@ -22,41 +31,50 @@ public class BillingUsageService {
         }
         return result;
     }
+
+    /**
+     * Returns the package type for one admin, defaulting to Basic.
+     */
+    public String getAdminPackageType(String adminEmail) {
+        return employeeRepository.findByEmail(adminEmail)
+            .map(Employee::getPackageType)
+            .filter(type -> !type.isEmpty())
+            .orElse("Basic");
+    }
+
     /**
-     * Returns a map of admin email to employee count for billing.
+     * Returns a map of admin email to billable seat count, read from the maintained seat counters.
      * This is used by the billing calculation logic.
      */
     public Map<String, Integer> getAdminEmployeeCounts() {
-        // TODO: Replace with real repository logic
-        // Example stub: fetch all admins and their employee counts
-        Map<String, Integer> result = new java.util.HashMap<>();
-        // result.put("admin1@company.com", 8);
-        // result.put("admin2@company.com", 4);
+        Map<String, Integer> result = new HashMap<>();
+        for (Object[] row : seatCounterRepository.findSeatsByAdminEmail()) {
+            result.put((String) row[0], (Integer) row[1]);
+        }
         return result;
     }
-    private final EmployeeRepository employeeRepository;
-    private final BuildingRepository buildingRepository;
+
+    /**
+     * Returns the billable seat count for one admin's building, or 0 if none is recorded.
+     */
+    public int getAdminSeats(String adminEmail) {
+        return seatCounterRepository.findSeatsForAdmin(adminEmail).orElse(0);
+    }
 
     /**
      * Returns a list of usage stats for each admin: employees, managers, buildings, billable users, over free tier.
      */
     public List<Map<String, Object>> getAllAdminUsage() {
-        // Find all admins
-        List<Employee> admins = employeeRepository.findByRoleAndActiveTrue(Employee.Role.ADMIN);
         List<Map<String, Object>> result = new ArrayList<>();
-        for (Employee admin : admins) {
-            long employees = employeeRepository.countByAdminIdAndRole(admin.getId(), Employee.Role.EMPLOYEE);
-            long managers = employeeRepository.countByAdminIdAndRole(admin.getId(), Employee.Role.MANAGER);
-            long buildings = buildingRepository.countByAdminId(admin.getId());
-            long billable = Math.max(0, employees - 5);
-            boolean overFree = employees > 5;
+        for (AdminUsageRow usage : employeeRepository.findAdminUsage()) {
+            long employees = usage.getEmployees();
             Map<String, Object> row = new HashMap<>();
-            row.put("adminEmail", admin.getEmail());
+            row.put("adminEmail", usage.getAdminEmail());
             row.put("employees", employees);
-            row.put("managers", managers);
-            row.put("buildings", buildings);
-            row.put("billableUsers", billable);
-            row.put("overFreeTier", overFree);
+            row.put("managers", usage.getManagers());
+            row.put("buildings", usage.getBuildings());
+            row.put("billableUsers", Math.max(0, employees - FREE_EMPLOYEES));
+            row.put("overFreeTier", employees > FREE_EMPLOYEES);
             result.add(row);
         }
         return result;
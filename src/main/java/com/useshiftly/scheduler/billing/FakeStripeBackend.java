@@ -0,0 +1,70 @@
+package com.useshiftly.scheduler.billing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for Stripe, enabled with <code>stripe.backend=fake</code>, for running and load-testing
+ * the billing flow offline.
+ * <p>
+ * Subscriptions are created on first use with quantity 0 and status "active". Idempotency keys are honoured the
+ * way Stripe honours them: a repeated key returns the first result without applying the change again.
+ * <code>stripe.fake.latency-ms</code> adds an artificial delay per call to approximate network round-trips.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "stripe.backend", havingValue = "fake")
+public class FakeStripeBackend implements StripeBackend {
+
+    @Value("${stripe.fake.latency-ms:0}")
+    private long latencyMs;
+
+    private final ConcurrentHashMap<String, SubscriptionState> subscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SubscriptionState> idempotentResults = new ConcurrentHashMap<>();
+    private final AtomicLong retrieveCalls = new AtomicLong();
+    private final AtomicLong updateCalls = new AtomicLong();
+
+    @Override
+    public SubscriptionState retrieveSubscription(String subscriptionId) throws InterruptedException {
+        simulateLatency();
+        retrieveCalls.incrementAndGet();
+        return subscriptions.computeIfAbsent(subscriptionId, id -> new SubscriptionState(id, "active", 0L));
+    }
+
+    @Override
+    public SubscriptionState updateSubscriptionQuantity(String subscriptionId, long quantity, String idempotencyKey) throws InterruptedException {
+        simulateLatency();
+        updateCalls.incrementAndGet();
+        return idempotentResults.computeIfAbsent(idempotencyKey, key -> {
+            SubscriptionState updated = new SubscriptionState(subscriptionId, "active", quantity);
+            subscriptions.put(subscriptionId, updated);
+            return updated;
+        });
+    }
+
+    /**
+     * Sets the starting state of a subscription (for test setup).
+     */
+    public void seed(String subscriptionId, long quantity) {
+        subscriptions.put(subscriptionId, new SubscriptionState(subscriptionId, "active", quantity));
+    }
+
+    public long getRetrieveCalls() {
+        return retrieveCalls.get();
+    }
+
+    public long getUpdateCalls() {
+        return updateCalls.get();
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+    }
+}
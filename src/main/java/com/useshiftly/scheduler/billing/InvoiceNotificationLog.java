@@ -0,0 +1,46 @@
+package com.useshiftly.scheduler.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint row for the upcoming-invoice run: one per admin per billing period.
+ * A row is claimed (CLAIMED) before the email is sent and marked SENT afterwards, so a restarted run
+ * skips admins that were already handled. Rows for failed sends are removed so the next run retries them.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "invoice_notification_log",
+       uniqueConstraints = @UniqueConstraint(name = "uk_invoice_notification_period_admin", columnNames = {"period", "admin_id"}))
+public class InvoiceNotificationLog {
+
+    public enum Status {
+        CLAIMED,
+        SENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period", nullable = false, length = 20)
+    private String period;
+
+    @Column(name = "admin_id", nullable = false)
+    private Long adminId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
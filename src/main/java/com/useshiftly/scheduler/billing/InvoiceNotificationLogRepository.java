@@ -0,0 +1,15 @@
+package com.useshiftly.scheduler.billing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Set;
+
+@Repository
+public interface InvoiceNotificationLogRepository extends JpaRepository<InvoiceNotificationLog, Long> {
+
+    @Query("SELECT l.adminId FROM InvoiceNotificationLog l WHERE l.period = :period")
+    Set<Long> findAdminIdsByPeriod(@Param("period") String period);
+}
@@ -1,83 +1,243 @@
-
 package com.useshiftly.scheduler.billing;
 
-import com.useshiftly.scheduler.model.Employee;
-import com.useshiftly.scheduler.service.EmployeeService;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository.AdminUsageRow;
 import com.useshiftly.scheduler.service.NotificationService;
 import com.useshiftly.scheduler.service.UserActionLogService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.beans.factory.annotation.Autowired;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Sends upcoming-invoice emails to every admin a few days before the monthly billing date.
+ * <p>
+ * Active admins are read with one grouped query and their billable seats from the maintained seat counters (the
+ * same counts the billing views use), then admins are split into chunks that run in parallel on a small
+ * dedicated pool. Each admin is claimed in <code>invoice_notification_log</code> before
+ * the email goes out, so a crashed or restarted run resumes where it stopped and never emails anyone twice
+ * (an admin claimed right before a crash is left CLAIMED rather than re-sent). A claim is marked SENT only once
+ * the mail server accepted the email; otherwise it is released for the next run. The job fires hourly during
+ * the business day so a restart is picked up the same day.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>app.billing.invoice-run.lead-days</code> - days before the billing date to notify (default: 2)</li>
+ *   <li><code>app.billing.invoice-run.parallelism</code> - worker threads (default: 4)</li>
+ *   <li><code>app.billing.invoice-run.chunk-size</code> - admins per work item (default: 50)</li>
+ * </ul>
+ */
 @Component
+@Slf4j
 public class InvoiceNotificationScheduler {
     @Autowired
-    private EmployeeService employeeService;
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private InvoiceNotificationLogRepository invoiceNotificationLogRepository;
+    @Autowired
+    private BillingCalculationService billingCalculationService;
+    @Autowired
+    private BillingUsageService billingUsageService;
     @Autowired
     private NotificationService notificationService;
     @Autowired
     private UserActionLogService userActionLogService;
+    @Autowired
+    private Clock clock;
+
+    @Value("${app.billing.invoice-run.lead-days:2}")
+    private long leadDays;
+
+    @Value("${app.billing.invoice-run.chunk-size:50}")
+    private int chunkSize;
+
+    private final ExecutorService executor;
+    private final AtomicReference<RunMetrics> lastRun = new AtomicReference<>();
 
-    // Runs every day at 8:00 AM
-    @Scheduled(cron = "0 0 8 * * *")
+    public InvoiceNotificationScheduler(@Value("${app.billing.invoice-run.parallelism:4}") int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "invoice-run-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs hourly from 8:00 AM to 6:00 PM; already-notified admins are skipped via the checkpoint table
+    @Scheduled(cron = "0 0 8-18 * * *")
     public void sendUpcomingInvoiceNotifications() {
-        List<Employee> admins = employeeService.getAllAdmins();
-        LocalDate today = LocalDate.now();
-        for (Employee admin : admins) {
-            // Example: Assume billing is monthly on the 1st
-            LocalDate nextBillingDate = today.withDayOfMonth(1).plusMonths(1);
-            long daysUntilBilling = ChronoUnit.DAYS.between(today, nextBillingDate);
-            if (daysUntilBilling == 2) {
-                // Get all employees for this admin
-                List<Employee> employees = employeeService.getAllByAdminId(admin.getId());
-                // --- PACKAGE LOGIC ---
-                // For now, assume admin has a field or method getPackageType() returning "Basic" or "Pro"
-                // TODO: Replace with actual package field or method on Employee
-                String packageType = "Basic";
-                if (admin instanceof Employee && admin.getRole() == Employee.Role.ADMIN) {
-                    // Example: If you add a getPackageType() method, use it here
-                    // packageType = admin.getPackageType();
-                    // For now, fallback to email domain logic for demo purposes
-                    if (admin.getEmail() != null && admin.getEmail().endsWith("@pro.com")) {
-                        packageType = "Pro";
+        LocalDate today = LocalDate.now(clock);
+        // Billing is monthly on the 1st
+        LocalDate nextBillingDate = today.withDayOfMonth(1).plusMonths(1);
+        if (ChronoUnit.DAYS.between(today, nextBillingDate) != leadDays) {
+            return;
+        }
+        runInvoiceNotifications(nextBillingDate);
+    }
+
+    /**
+     * Runs the invoice notification batch for the billing period starting on the given date.
+     *
+     * @param nextBillingDate first day of the period being billed
+     * @return metrics for this run
+     */
+    public RunMetrics runInvoiceNotifications(LocalDate nextBillingDate) {
+        String periodKey = YearMonth.from(nextBillingDate).toString();
+        String periodLabel = nextBillingDate.getMonth() + " " + nextBillingDate.getYear();
+        Instant started = clock.instant();
+
+        List<AdminUsageRow> usage = employeeRepository.findAdminUsage();
+        Map<String, Integer> seats = billingUsageService.getAdminEmployeeCounts();
+        Set<Long> alreadyHandled = invoiceNotificationLogRepository.findAdminIdsByPeriod(periodKey);
+        List<AdminUsageRow> pending = new ArrayList<>(usage.size());
+        for (AdminUsageRow row : usage) {
+            if (!alreadyHandled.contains(row.getAdminId())) {
+                pending.add(row);
+            }
+        }
+
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger(usage.size() - pending.size());
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        int size = Math.max(1, chunkSize);
+        for (int from = 0; from < pending.size(); from += size) {
+            List<AdminUsageRow> chunk = pending.subList(from, Math.min(from + size, pending.size()));
+            chunks.add(CompletableFuture.runAsync(() -> {
+                for (AdminUsageRow admin : chunk) {
+                    int employees = seats.getOrDefault(admin.getAdminEmail(), 0);
+                    switch (notifyAdmin(admin, employees, periodKey, periodLabel)) {
+                        case SENT -> sent.incrementAndGet();
+                        case FAILED -> failed.incrementAndGet();
+                        case SKIPPED -> skipped.incrementAndGet();
                     }
                 }
-                int billableUsers;
-                double projectedBill;
-                if (packageType.equals("Basic")) {
-                    billableUsers = Math.max(0, employees.size() - 5);
-                    projectedBill = billableUsers * 4.0;
-                } else if (packageType.equals("Pro")) {
-                    billableUsers = employees.size();
-                    projectedBill = billableUsers * 7.0;
-                } else {
-                    billableUsers = 0;
-                    projectedBill = 0.0;
-                }
-                String period = nextBillingDate.getMonth() + " " + nextBillingDate.getYear();
-                // Compose email
-                StringBuilder body = new StringBuilder();
-                body.append("Dear ").append(admin.getEmail()).append(",\n\n");
-                body.append("Your upcoming invoice for period ").append(period).append(" is due in 2 days.\n");
-                body.append("Package: ").append(packageType).append("\n");
-                body.append("Employees: ").append(employees.size()).append("\n");
-                body.append("Billable Users: ").append(billableUsers).append("\n");
-                body.append("Projected Charge: $").append(projectedBill).append("\n\n");
-                if (packageType.equals("Pro")) {
-                    body.append("Includes website, email, and full Android/iPhone app access.\n\n");
-                } else {
-                    body.append("Includes website and email access only.\n\n");
-                }
-                body.append("Please ensure payment to avoid service interruption.\n\n");
-                body.append("Thank you,\nShiftly Scheduler Team");
-                // Send email
-                notificationService.sendEmail(admin.getEmail(), "Upcoming Invoice Notification", body.toString());
-                // Log notification event in audit log
-                userActionLogService.logAction("INVOICE_NOTIFICATION_SENT", admin.getId());
+            }, executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+        long durationMs = Math.max(1, ChronoUnit.MILLIS.between(started, clock.instant()));
+        RunMetrics metrics = new RunMetrics(periodKey, LocalDateTime.ofInstant(started, clock.getZone()), durationMs,
+            usage.size(), sent.get(), skipped.get(), failed.get());
+        lastRun.set(metrics);
+        log.info("Invoice notification run for {}: {} admins, {} sent, {} skipped, {} failed in {} ms ({} admins/s)",
+            periodKey, metrics.getAdmins(), metrics.getSent(), metrics.getSkipped(), metrics.getFailed(),
+            durationMs, String.format("%.1f", metrics.getThroughputPerSecond()));
+        return metrics;
+    }
+
+    /**
+     * Returns metrics for the most recent run, or null if none has run since startup.
+     */
+    public RunMetrics getLastRunMetrics() {
+        return lastRun.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Outcome notifyAdmin(AdminUsageRow admin, int employees, String periodKey, String periodLabel) {
+        InvoiceNotificationLog claim;
+        try {
+            claim = invoiceNotificationLogRepository.saveAndFlush(InvoiceNotificationLog.builder()
+                .period(periodKey)
+                .adminId(admin.getAdminId())
+                .status(InvoiceNotificationLog.Status.CLAIMED)
+                .build());
+        } catch (DataIntegrityViolationException e) {
+            // Another run (or instance) already claimed this admin for the period
+            return Outcome.SKIPPED;
+        }
+        try {
+            String packageType = "Pro".equalsIgnoreCase(admin.getPackageType()) ? "Pro" : "Basic";
+            int billableUsers = packageType.equals("Pro") ? employees : Math.max(0, employees - 5);
+            int projectedBill = billingCalculationService.calculateBill(employees, packageType);
+            // Compose email
+            StringBuilder body = new StringBuilder();
+            body.append("Dear ").append(admin.getAdminEmail()).append(",\n\n");
+            body.append("Your upcoming invoice for period ").append(periodLabel).append(" is due in ").append(leadDays).append(" days.\n");
+            body.append("Package: ").append(packageType).append("\n");
+            body.append("Employees: ").append(employees).append("\n");
+            body.append("Billable Users: ").append(billableUsers).append("\n");
+            body.append("Projected Charge: $").append(projectedBill).append("\n\n");
+            if (packageType.equals("Pro")) {
+                body.append("Includes website, email, and full Android/iPhone app access.\n\n");
+            } else {
+                body.append("Includes website and email access only.\n\n");
             }
+            body.append("Please ensure payment to avoid service interruption.\n\n");
+            body.append("Thank you,\nShiftly Scheduler Team");
+            // Send email; throws unless it was actually handed to the mail server
+            notificationService.sendEmailOrThrow(admin.getAdminEmail(), "Upcoming Invoice Notification", body.toString());
+            claim.setStatus(InvoiceNotificationLog.Status.SENT);
+            claim.setSentAt(LocalDateTime.now(clock));
+            invoiceNotificationLogRepository.save(claim);
+            // Log notification event in audit log
+            userActionLogService.logAction("INVOICE_NOTIFICATION_SENT", admin.getAdminId());
+            return Outcome.SENT;
+        } catch (Exception e) {
+            log.error("Invoice notification failed for admin {}: {}", admin.getAdminId(), e.getMessage());
+            // Release the claim so the next run retries this admin
+            invoiceNotificationLogRepository.delete(claim);
+            return Outcome.FAILED;
         }
     }
+
+    private enum Outcome {
+        SENT,
+        SKIPPED,
+        FAILED
+    }
+
+    /**
+     * Timing and throughput for one invoice notification run.
+     */
+    public static final class RunMetrics {
+        private final String period;
+        private final LocalDateTime startedAt;
+        private final long durationMs;
+        private final int admins;
+        private final int sent;
+        private final int skipped;
+        private final int failed;
+
+        RunMetrics(String period, LocalDateTime startedAt, long durationMs, int admins, int sent, int skipped, int failed) {
+            this.period = period;
+            this.startedAt = startedAt;
+            this.durationMs = durationMs;
+            this.admins = admins;
+            this.sent = sent;
+            this.skipped = skipped;
+            this.failed = failed;
+        }
+
+        public String getPeriod() { return period; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public long getDurationMs() { return durationMs; }
+        public int getAdmins() { return admins; }
+        public int getSent() { return sent; }
+        public int getSkipped() { return skipped; }
+        public int getFailed() { return failed; }
+        public double getThroughputPerSecond() { return (sent + failed) * 1000.0 / durationMs; }
+    }
 }
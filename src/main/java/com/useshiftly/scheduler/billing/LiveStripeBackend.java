@@ -0,0 +1,41 @@
+package com.useshiftly.scheduler.billing;
+
+import com.stripe.model.Subscription;
+import com.stripe.model.SubscriptionItem;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link StripeBackend} that calls the real Stripe API through {@link StripeService}. Active by default.
+ */
+@Component
+@ConditionalOnProperty(name = "stripe.backend", havingValue = "live", matchIfMissing = true)
+public class LiveStripeBackend implements StripeBackend {
+    private final StripeService stripeService;
+
+    public LiveStripeBackend(StripeService stripeService) {
+        this.stripeService = stripeService;
+    }
+
+    @Override
+    public SubscriptionState retrieveSubscription(String subscriptionId) throws Exception {
+        return toState(stripeService.getSubscription(subscriptionId));
+    }
+
+    @Override
+    public SubscriptionState updateSubscriptionQuantity(String subscriptionId, long quantity, String idempotencyKey) throws Exception {
+        return toState(stripeService.updateSubscriptionQuantity(subscriptionId, (int) quantity, idempotencyKey));
+    }
+
+    private static SubscriptionState toState(Subscription subscription) {
+        long quantity = 0L;
+        if (subscription.getItems() != null) {
+            for (SubscriptionItem item : subscription.getItems().getData()) {
+                if (item.getQuantity() != null) {
+                    quantity = item.getQuantity();
+                }
+            }
+        }
+        return new SubscriptionState(subscription.getId(), subscription.getStatus(), quantity);
+    }
+}
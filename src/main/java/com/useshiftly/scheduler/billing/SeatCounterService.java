@@ -0,0 +1,210 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.model.Employee;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the billable seat count of each building as employees are created, updated, deactivated and deleted.
+ * <p>
+ * A seat is an active, non-deleted EMPLOYEE-role account assigned to a building. Every change appends a row to
+ * <code>billing_seat_history</code> and adjusts <code>billing_seat_counter</code> in the caller's transaction, so
+ * the counter can never drift from the employee rows. Billing reads the counter directly instead of counting
+ * employees, and prorated charges are computed from the history.
+ * <p>
+ * Where an employee is currently counted is derived from the history rather than from the employee row, so
+ * callers only pass the employee after the change and it does not matter whether the entity is managed.
+ * <p>
+ * When a building's counter is linked to a Stripe subscription, every change hands the new count to
+ * {@link StripeGateway} after commit, so a bulk import still results in one debounced subscription update.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@Transactional
+public class SeatCounterService {
+
+    private static final double SECONDS_PER_DAY = 86400.0;
+
+    private final BillingSeatCounterRepository counterRepository;
+    private final BillingSeatChangeRepository changeRepository;
+    private final StripeGateway stripeGateway;
+    private final Clock clock;
+
+    /**
+     * Returns the building the employee occupies a seat in, or null if the employee is not billable.
+     */
+    public static Long seatBuildingId(Employee employee) {
+        if (employee == null
+                || employee.getRole() != Employee.Role.EMPLOYEE
+                || !Boolean.TRUE.equals(employee.getActive())
+                || employee.getDeletedAt() != null
+                || employee.getBuilding() == null) {
+            return null;
+        }
+        return employee.getBuilding().getId();
+    }
+
+    /**
+     * Brings the seat count in line with the employee's current state. No-op if the seat did not move.
+     *
+     * @param employee the saved employee, after the change
+     * @param reason   short label stored in the history, e.g. <code>CREATED</code> or <code>DEACTIVATED</code>
+     */
+    public void recordChange(Employee employee, String reason) {
+        if (employee == null || employee.getId() == null) {
+            return;
+        }
+        Long target = seatBuildingId(employee);
+        List<Long> seated = changeRepository.findSeatedBuildingIds(employee.getId());
+        LocalDateTime now = LocalDateTime.now(clock);
+        boolean targetSeated = false;
+        for (Long buildingId : seated) {
+            if (buildingId.equals(target)) {
+                targetSeated = true;
+            } else {
+                applyDelta(buildingId, employee.getId(), -1, reason, now);
+            }
+        }
+        if (target != null && !targetSeated) {
+            applyDelta(target, employee.getId(), 1, reason, now);
+        }
+    }
+
+    /**
+     * Records seats for newly created employees, with one counter update per building instead of one per
+     * employee. The employees must not have been counted before.
+     */
+    public void recordCreated(List<Employee> employees, String reason) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<Long, Integer> deltas = new HashMap<>();
+        List<BillingSeatChange> changes = new ArrayList<>();
+        for (Employee employee : employees) {
+            Long buildingId = seatBuildingId(employee);
+            if (buildingId == null || employee.getId() == null) {
+                continue;
+            }
+            deltas.merge(buildingId, 1, Integer::sum);
+            changes.add(BillingSeatChange.builder()
+                .buildingId(buildingId)
+                .employeeId(employee.getId())
+                .delta(1)
+                .reason(reason)
+                .changedAt(now)
+                .build());
+        }
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            adjustCounter(entry.getKey(), entry.getValue(), now);
+        }
+        changeRepository.saveAll(changes);
+    }
+
+    /**
+     * Links the building's seats to a Stripe subscription and queues the current count for it.
+     */
+    public void linkSubscription(Long buildingId, String subscriptionId) {
+        if (counterRepository.linkSubscription(buildingId, subscriptionId) == 0) {
+            counterRepository.save(BillingSeatCounter.builder()
+                .buildingId(buildingId)
+                .seats(0)
+                .stripeSubscriptionId(subscriptionId)
+                .updatedAt(LocalDateTime.now(clock))
+                .build());
+        }
+        syncSubscription(buildingId);
+    }
+
+    /**
+     * Returns the current seat count for the building.
+     */
+    @Transactional(readOnly = true)
+    public int getSeats(Long buildingId) {
+        return counterRepository.findSeats(buildingId).orElse(0);
+    }
+
+    /**
+     * Returns seat-days used by the building between the two instants, for prorated billing. The current seat
+     * count is assumed to hold for any part of the window that lies in the future.
+     */
+    @Transactional(readOnly = true)
+    public double getSeatDays(Long buildingId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime cursor = to.isAfter(now) ? to : now;
+        int level = getSeats(buildingId);
+        double seatSeconds = 0;
+        // Walk backwards from the current count, undoing each change
+        for (BillingSeatChange change : changeRepository.findByBuildingIdAndChangedAtAfterOrderByChangedAtDesc(buildingId, from)) {
+            seatSeconds += level * overlapSeconds(change.getChangedAt(), cursor, from, to);
+            level -= change.getDelta();
+            cursor = change.getChangedAt();
+        }
+        seatSeconds += level * overlapSeconds(from, cursor, from, to);
+        return seatSeconds / SECONDS_PER_DAY;
+    }
+
+    private void applyDelta(Long buildingId, Long employeeId, int delta, String reason, LocalDateTime now) {
+        adjustCounter(buildingId, delta, now);
+        changeRepository.save(BillingSeatChange.builder()
+            .buildingId(buildingId)
+            .employeeId(employeeId)
+            .delta(delta)
+            .reason(reason)
+            .changedAt(now)
+            .build());
+        log.debug("Seat count for building {} changed by {} ({}, employee {})", buildingId, delta, reason, employeeId);
+    }
+
+    private void adjustCounter(Long buildingId, int delta, LocalDateTime now) {
+        if (counterRepository.addSeats(buildingId, delta, now) == 0) {
+            // A new counter row is not linked to a subscription yet
+            counterRepository.save(BillingSeatCounter.builder()
+                .buildingId(buildingId)
+                .seats(Math.max(0, delta))
+                .updatedAt(now)
+                .build());
+            return;
+        }
+        syncSubscription(buildingId);
+    }
+
+    /**
+     * Queues the building's seat count for its Stripe subscription once the transaction commits, so a rolled-back
+     * change is never billed. The gateway keeps only the latest count per subscription.
+     */
+    private void syncSubscription(Long buildingId) {
+        counterRepository.findSubscriptionId(buildingId).ifPresent(subscriptionId -> {
+            int seats = counterRepository.findSeats(buildingId).orElse(0);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                stripeGateway.requestQuantityChange(subscriptionId, seats);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stripeGateway.requestQuantityChange(subscriptionId, seats);
+                }
+            });
+        });
+    }
+
+    private static long overlapSeconds(LocalDateTime start, LocalDateTime end, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime lo = start.isAfter(from) ? start : from;
+        LocalDateTime hi = end.isBefore(to) ? end : to;
+        return hi.isAfter(lo) ? Duration.between(lo, hi).getSeconds() : 0;
+    }
+}
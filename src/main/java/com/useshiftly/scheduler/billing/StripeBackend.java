@@ -0,0 +1,39 @@
+package com.useshiftly.scheduler.billing;
+
+/**
+ * The Stripe calls {@link StripeGateway} needs, behind an interface so billing can run against the real API
+ * ({@link LiveStripeBackend}) or an in-process fake ({@link FakeStripeBackend}) selected with
+ * <code>stripe.backend</code>.
+ */
+public interface StripeBackend {
+
+    /**
+     * Reads the current state of a subscription.
+     */
+    SubscriptionState retrieveSubscription(String subscriptionId) throws Exception;
+
+    /**
+     * Sets the quantity on every item of a subscription. Repeating a call with the same idempotency key must not
+     * apply the change twice.
+     */
+    SubscriptionState updateSubscriptionQuantity(String subscriptionId, long quantity, String idempotencyKey) throws Exception;
+
+    /**
+     * Backend-neutral view of a subscription.
+     */
+    final class SubscriptionState {
+        private final String id;
+        private final String status;
+        private final long quantity;
+
+        public SubscriptionState(String id, String status, long quantity) {
+            this.id = id;
+            this.status = status;
+            this.quantity = quantity;
+        }
+
+        public String getId() { return id; }
+        public String getStatus() { return status; }
+        public long getQuantity() { return quantity; }
+    }
+}
@@ -0,0 +1,179 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.billing.StripeBackend.SubscriptionState;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single entry point for subscription quantity changes and reads.
+ * <p>
+ * Quantity changes are debounced per subscription: each call only records the latest desired quantity, and a
+ * scheduled flush sends one update once the subscription has been quiet for the debounce window (or the max wait
+ * has passed since the first change). A bulk import that adds hundreds of employees therefore results in one
+ * Stripe update. Every update carries an idempotency key derived from the subscription, quantity and window, so
+ * a retry after a timeout is never applied twice. Reads are cached briefly and refreshed by our own writes.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>stripe.gateway.debounce-ms</code> - quiet period before a change is sent (default: 10000)</li>
+ *   <li><code>stripe.gateway.max-wait-ms</code> - longest a change may be held back (default: 60000)</li>
+ *   <li><code>stripe.gateway.flush-interval-ms</code> - how often pending changes are checked (default: 2000)</li>
+ *   <li><code>stripe.gateway.read-cache-ttl-ms</code> - how long a subscription read is reused (default: 30000)</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class StripeGateway {
+
+    @Value("${stripe.gateway.debounce-ms:10000}")
+    private long debounceMs;
+
+    @Value("${stripe.gateway.max-wait-ms:60000}")
+    private long maxWaitMs;
+
+    @Value("${stripe.gateway.read-cache-ttl-ms:30000}")
+    private long readCacheTtlMs;
+
+    private final StripeBackend backend;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, PendingChange> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedRead> readCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong changesRequested = new AtomicLong();
+    private final AtomicLong updatesSent = new AtomicLong();
+    private final AtomicLong updatesFailed = new AtomicLong();
+    private final AtomicLong readCacheHits = new AtomicLong();
+    private final AtomicLong readCacheMisses = new AtomicLong();
+
+    public StripeGateway(StripeBackend backend, Clock clock) {
+        this.backend = backend;
+        this.clock = clock;
+    }
+
+    /**
+     * Records the desired quantity for a subscription. The latest value wins; it is sent on a later flush.
+     */
+    public void requestQuantityChange(String subscriptionId, long quantity) {
+        long now = clock.millis();
+        changesRequested.incrementAndGet();
+        pending.compute(subscriptionId, (id, existing) -> existing == null
+            ? new PendingChange(quantity, now, now)
+            : new PendingChange(quantity, existing.firstRequestedAt, now));
+    }
+
+    /**
+     * Returns the subscription, served from the read cache when fresh.
+     */
+    public SubscriptionState getSubscription(String subscriptionId) throws Exception {
+        CachedRead cached = readCache.get(subscriptionId);
+        if (cached != null && clock.millis() - cached.readAt < readCacheTtlMs) {
+            readCacheHits.incrementAndGet();
+            return cached.state;
+        }
+        readCacheMisses.incrementAndGet();
+        SubscriptionState state = backend.retrieveSubscription(subscriptionId);
+        readCache.put(subscriptionId, new CachedRead(state, clock.millis()));
+        return state;
+    }
+
+    /**
+     * Sends every pending change whose debounce window has closed.
+     */
+    @Scheduled(fixedDelayString = "${stripe.gateway.flush-interval-ms:2000}")
+    public void flushDueChanges() {
+        long now = clock.millis();
+        flush(change -> now - change.lastRequestedAt >= debounceMs || now - change.firstRequestedAt >= maxWaitMs);
+    }
+
+    /**
+     * Sends everything still pending on shutdown.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush(change -> true);
+    }
+
+    /**
+     * Returns gateway counters for monitoring.
+     */
+    public java.util.Map<String, Object> getStats() {
+        java.util.Map<String, Object> stats = new java.util.LinkedHashMap<>();
+        stats.put("pendingSubscriptions", pending.size());
+        stats.put("changesRequested", changesRequested.get());
+        stats.put("updatesSent", updatesSent.get());
+        stats.put("updatesFailed", updatesFailed.get());
+        stats.put("readCacheHits", readCacheHits.get());
+        stats.put("readCacheMisses", readCacheMisses.get());
+        return stats;
+    }
+
+    private void flush(java.util.function.Predicate<PendingChange> isDue) {
+        List<String> due = new ArrayList<>();
+        List<PendingChange> changes = new ArrayList<>();
+        for (String subscriptionId : pending.keySet()) {
+            pending.computeIfPresent(subscriptionId, (id, change) -> {
+                if (!isDue.test(change)) {
+                    return change;
+                }
+                due.add(id);
+                changes.add(change);
+                return null;
+            });
+        }
+        for (int i = 0; i < due.size(); i++) {
+            send(due.get(i), changes.get(i));
+        }
+    }
+
+    private void send(String subscriptionId, PendingChange change) {
+        CachedRead cached = readCache.get(subscriptionId);
+        if (cached != null && clock.millis() - cached.readAt < readCacheTtlMs && cached.state.getQuantity() == change.quantity) {
+            log.debug("Subscription {} already at quantity {}, skipping update", subscriptionId, change.quantity);
+            return;
+        }
+        String idempotencyKey = "qty-" + subscriptionId + "-" + change.quantity + "-" + change.firstRequestedAt;
+        try {
+            SubscriptionState updated = backend.updateSubscriptionQuantity(subscriptionId, change.quantity, idempotencyKey);
+            readCache.put(subscriptionId, new CachedRead(updated, clock.millis()));
+            updatesSent.incrementAndGet();
+            log.info("Stripe subscription {} quantity set to {}", subscriptionId, change.quantity);
+        } catch (Exception e) {
+            updatesFailed.incrementAndGet();
+            log.error("Stripe quantity update failed for {}: {}", subscriptionId, e.getMessage());
+            // Requeue for the next flush unless a newer change has arrived; the same key makes the retry safe
+            pending.merge(subscriptionId, change, (newer, failed) -> newer);
+        }
+    }
+
+    private static final class PendingChange {
+        final long quantity;
+        final long firstRequestedAt;
+        final long lastRequestedAt;
+
+        PendingChange(long quantity, long firstRequestedAt, long lastRequestedAt) {
+            this.quantity = quantity;
+            this.firstRequestedAt = firstRequestedAt;
+            this.lastRequestedAt = lastRequestedAt;
+        }
+    }
+
+    private static final class CachedRead {
+        final SubscriptionState state;
+        final long readAt;
+
+        CachedRead(SubscriptionState state, long readAt) {
+            this.state = state;
+            this.readAt = readAt;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.useshiftly.scheduler.billing;
 
 import com.stripe.Stripe;
+import com.stripe.net.RequestOptions;
 import com.stripe.model.Subscription;
 import com.stripe.model.SubscriptionItem;
 import com.stripe.model.Customer;
@@ -14,7 +15,7 @@ import java.util.ArrayList;
 
 @Service
 public class StripeService {
-    public StripeService(@Value("${stripe.secret-key}") String stripeSecretKey) {
+    public StripeService(@Value("${stripe.secret-key:}") String stripeSecretKey) {
         // Set Stripe secret key from application-prod.yml or environment variable
         Stripe.apiKey = stripeSecretKey;
     }
@@ -57,6 +58,18 @@ public class StripeService {
      * @return Updated Subscription object
      */
     public Subscription updateSubscriptionQuantity(String subscriptionId, int newQuantity) throws Exception {
+        return updateSubscriptionQuantity(subscriptionId, newQuantity, null);
+    }
+
+    /**
+     * Update the quantity of billable users in a subscription, sending an idempotency key so a retried
+     * request is applied at most once. Prefer {@link StripeGateway#requestQuantityChange}, which coalesces changes.
+     * @param subscriptionId Stripe subscription ID
+     * @param newQuantity New quantity of billable users
+     * @param idempotencyKey Stripe idempotency key, or null for none
+     * @return Updated Subscription object
+     */
+    public Subscription updateSubscriptionQuantity(String subscriptionId, int newQuantity, String idempotencyKey) throws Exception {
         Subscription subscription = Subscription.retrieve(subscriptionId);
         Map<String, Object> params = new HashMap<>();
         List<Object> items = new ArrayList<>();
@@ -67,7 +80,10 @@ public class StripeService {
             items.add(itemParams);
         }
         params.put("items", items);
-        return subscription.update(params);
+        if (idempotencyKey == null) {
+            return subscription.update(params);
+        }
+        return subscription.update(params, RequestOptions.builder().setIdempotencyKey(idempotencyKey).build());
     }
 
     /**
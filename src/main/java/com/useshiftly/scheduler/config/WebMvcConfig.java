@@ -1,12 +1,24 @@
 package com.useshiftly.scheduler.config;
 
+import com.useshiftly.scheduler.diagnostics.QueryTracingInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 
 @Configuration
+@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final QueryTracingInterceptor queryTracingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Per-request SQL statement counts, keyed by controller method
+        registry.addInterceptor(queryTracingInterceptor).addPathPatterns("/api/**");
+    }
     
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
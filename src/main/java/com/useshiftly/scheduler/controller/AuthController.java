@@ -136,9 +136,13 @@ public class AuthController {
             return ResponseEntity.status(401).body(new MessageResponse("Not authenticated"));
         }
         // Allow password change for authenticated users (especially those with mustChangePassword=true)
-        employeeService.updatePassword(employee, newPassword);
+        Employee updated = employeeService.updatePassword(employee, newPassword);
         userActionLogService.logAction("CHANGE_PASSWORD", employee.getId());
-        return ResponseEntity.ok(new MessageResponse("Password changed successfully!"));
+        // The change revoked the caller's current token, so hand back one carrying the new token version
+        return ResponseEntity.ok(java.util.Map.of(
+                "message", "Password changed successfully!",
+                "token", jwtUtils.generateJwtToken(updated),
+                "type", "Bearer"));
     }
 
     private final com.useshiftly.scheduler.service.UserActionLogService userActionLogService;
@@ -288,6 +292,8 @@ public class AuthController {
             employee.setEmergencyContactPhone(signUpRequest.getEmergencyContactPhone());
             if (department != null) {
                 employee.setDepartment(department);
+                // Seats and tenant scoping go by the employee's building, so take it from the department
+                employee.setBuilding(department.getBuilding());
             }
             employeeService.createEmployee(employee, false);
             invitationService.markInvitationUsed(code);
@@ -489,7 +495,7 @@ public class AuthController {
             log.info(infoMsg);
             fw.write(infoMsg + "\n");
             // Generate new JWT token
-            String jwt = jwtUtils.generateTokenFromUsername(employee.getEmail());
+            String jwt = jwtUtils.generateJwtToken(employee);
 
             // Build response using DTO
             JwtResponse response = JwtResponse.builder()
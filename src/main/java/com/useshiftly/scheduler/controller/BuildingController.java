@@ -4,6 +4,8 @@ import com.useshiftly.scheduler.model.Building;
 import com.useshiftly.scheduler.dto.BuildingDTO;
 import com.useshiftly.scheduler.repository.BuildingRepository;
 import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.security.BuildingAccessCache;
+import com.useshiftly.scheduler.security.PrincipalCache;
 import com.useshiftly.scheduler.model.Employee;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.http.ResponseEntity;
@@ -35,6 +37,8 @@ public class BuildingController {
     }
     private final BuildingRepository buildingRepository;
     private final EmployeeRepository employeeRepository;
+    private final PrincipalCache principalCache;
+    private final BuildingAccessCache buildingAccessCache;
 
 
     /**
@@ -59,9 +63,12 @@ public class BuildingController {
         // Note: Building doesn't have setAdmin anymore - admin is determined by employees with ADMIN role
         try {
             Building saved = buildingRepository.save(building);
-            //Assign current user (admin) to the building
-            currentUser.setBuilding(saved);
-            employeeRepository.save(currentUser);
+            //Assign current user (admin) to the building, on a freshly loaded row rather than the principal
+            Employee admin = employeeRepository.findById(currentUser.getId()).orElseThrow();
+            admin.setBuilding(saved);
+            employeeRepository.save(admin);
+            principalCache.invalidate(admin);
+            buildingAccessCache.invalidate(currentUser.getId());
             return ResponseEntity.ok(toDTO(saved));
         } catch (org.springframework.dao.DataIntegrityViolationException ex) {
             return ResponseEntity.status(409).body("Building name already exists for this admin");
@@ -143,6 +150,7 @@ public class BuildingController {
         }
         building.getManagers().add(manager);
         buildingRepository.save(building);
+        buildingAccessCache.invalidate(managerId);
         return ResponseEntity.ok(Map.of("success", true, "message", "Manager added", "buildingId", buildingId, "managerId", managerId));
     }
 
@@ -168,6 +176,7 @@ public class BuildingController {
         }
         building.getManagers().remove(manager);
         buildingRepository.save(building);
+        buildingAccessCache.invalidate(managerId);
         return ResponseEntity.ok(Map.of("success", true, "message", "Manager removed", "buildingId", buildingId, "managerId", managerId));
     }
 
@@ -3,26 +3,37 @@ package com.useshiftly.scheduler.controller;
 
 import com.useshiftly.scheduler.dto.BulkEmployeeImportResult;
 import com.useshiftly.scheduler.model.Employee;
-import com.useshiftly.scheduler.service.EmployeeService;
+import com.useshiftly.scheduler.model.EmployeeImportJob;
+import com.useshiftly.scheduler.service.EmployeeImportJobService;
+import com.useshiftly.scheduler.service.EmployeeImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/employees/import")
 @RequiredArgsConstructor
 @Slf4j
 public class BulkEmployeeImportController {
-    private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
+    private final EmployeeImportJobService employeeImportJobService;
+
+    @Value("${app.import.max-file-bytes:5242880}")
+    private long maxFileBytes;
+
+    @Value("${app.import.jobs.max-file-bytes:52428800}")
+    private long maxJobFileBytes;
 
     @PostMapping("/csv")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
@@ -30,10 +41,7 @@ public class BulkEmployeeImportController {
                                                                       @RequestHeader(value = "X-Forwarded-For", required = false) String xForwardedFor,
                                                                       @RequestHeader(value = "Host", required = false) String host,
                                                                       @RequestHeader(value = "User-Agent", required = false) String userAgent,
-                                                                      @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.User principal) {
-        List<String> errors = new ArrayList<>();
-        int success = 0;
-        int total = 0;
+                                                                      @AuthenticationPrincipal Employee principal) {
         String filename = file.getOriginalFilename();
         String ip = xForwardedFor != null ? xForwardedFor.split(",")[0].trim() : "unknown";
         String user = (principal != null) ? principal.getUsername() : "unknown";
@@ -46,86 +54,61 @@ public class BulkEmployeeImportController {
             log.warn("Bulk import attempt by user={} ip={} host={} userAgent={} - REJECTED: invalid file type: {} ({})", user, ip, host, userAgent, filename, file.getContentType());
             return ResponseEntity.badRequest().body(new BulkEmployeeImportResult(0, 0, 0, List.of("Invalid file type. Only CSV allowed.")));
         }
-        // 2. File size limit (1MB)
-        if (file.getSize() > 1_048_576) {
+        // 2. File size limit
+        if (file.getSize() > maxFileBytes) {
             log.warn("Bulk import attempt by user={} ip={} host={} userAgent={} - REJECTED: file too large: {} ({} bytes)", user, ip, host, userAgent, filename, file.getSize());
-            return ResponseEntity.badRequest().body(new BulkEmployeeImportResult(0, 0, 0, List.of("File too large. Max 1MB.")));
+            return ResponseEntity.badRequest().body(new BulkEmployeeImportResult(0, 0, 0, List.of("File too large. Max " + (maxFileBytes / 1_048_576) + "MB.")));
         }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            String header = reader.readLine();
-            if (header == null) {
-                log.warn("Bulk import attempt by user={} ip={} host={} userAgent={} - REJECTED: empty file: {}", user, ip, host, userAgent, filename);
-                return ResponseEntity.badRequest().body(new BulkEmployeeImportResult(0, 0, 0, List.of("Empty file")));
-            }
-            String line;
-            while ((line = reader.readLine()) != null) {
-                total++;
-                if (line.matches(".*(<script|</script|<iframe|<img|<svg|<object|<embed|<applet|<form|<input|<body|<html|<link|<style|<meta|<base|<a |javascript:|data:|onerror=|onload=|eval\\().*")) {
-                    errors.add("Row " + total + ": Suspicious content detected");
-                    continue;
-                }
-                if (!line.chars().allMatch(c -> c == 9 || (c >= 32 && c <= 126) || c == 10 || c == 13 || c == 44)) {
-                    errors.add("Row " + total + ": Non-printable or binary data detected");
-                    continue;
-                }
-                String[] cols = line.split(",");
-                if (cols.length < 5) {
-                    errors.add("Row " + total + ": Not enough columns");
-                    continue;
-                }
-                try {
-                    Employee emp = new Employee();
-                    emp.setFirstName(sanitize(cols[0]));
-                    emp.setLastName(sanitize(cols[1]));
-                    emp.setEmail(sanitize(cols[2]));
-                    emp.setPhoneNumber(sanitize(cols[3]));
-                    emp.setDateOfBirth(cols.length > 4 ? sanitize(cols[4]) : null);
-                    emp.setAddress(cols.length > 5 ? sanitize(cols[5]) : null);
-                    emp.setEmergencyContactName(cols.length > 6 ? sanitize(cols[6]) : null);
-                    emp.setEmergencyContactRelation(cols.length > 7 ? sanitize(cols[7]) : null);
-                    emp.setEmergencyContactPhone(cols.length > 8 ? sanitize(cols[8]) : null);
-                    emp.setRole(cols.length > 9 ? Employee.Role.valueOf(sanitize(cols[9]).toUpperCase()) : Employee.Role.EMPLOYEE);
-                    emp.setActive(true);
-                    emp.setMustChangePassword(true); // Always force password change for imported accounts
-                    // Generate a secure random password for imported employees
-                    String generatedPassword = java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 12) + "!";
-                    emp.setPassword(generatedPassword);
-
-                    // Store departmentId in a local variable
-                    Long departmentId = null;
-                    if (cols.length > 10 && cols[10] != null && !cols[10].isBlank()) {
-                        try {
-                            departmentId = Long.parseLong(sanitize(cols[10]));
-                        } catch (NumberFormatException nfe) {
-                            errors.add("Row " + total + ": Invalid departmentId format");
-                        }
-                    }
-
-                    // Create employee and assign department if needed
-                    Employee saved = employeeService.createEmployee(emp, true);
-                    if (departmentId != null) {
-                        employeeService.assignEmployeeToDepartment(saved, departmentId);
-                    }
-                    success++;
-                } catch (Exception ex) {
-                    errors.add("Row " + total + ": " + ex.getMessage());
-                }
-            }
+        BulkEmployeeImportResult result;
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            result = employeeImportService.importCsv(reader, principal);
         } catch (Exception e) {
             log.error("Bulk import failed for user={} ip={} host={} userAgent={} file={}: {}", user, ip, host, userAgent, filename, e.getMessage());
             return ResponseEntity.badRequest().body(new BulkEmployeeImportResult(0, 0, 0, List.of(e.getMessage())));
         }
-        log.info("Bulk import by user={} ip={} host={} userAgent={} file={} - totalRows={} success={} errors={}", user, ip, host, userAgent, filename, total, success, errors.size());
-        if (!errors.isEmpty()) {
-            log.warn("Bulk import errors for user={} file={}: {}", user, filename, errors);
+        log.info("Bulk import by user={} ip={} host={} userAgent={} file={} - totalRows={} success={} errors={}", user, ip, host, userAgent, filename, result.getTotal(), result.getSuccess(), result.getErrors().size());
+        if (!result.getErrors().isEmpty()) {
+            log.warn("Bulk import errors for user={} file={}: {}", user, filename, result.getErrors());
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Queues a CSV import as a background job and returns its id straight away.
+     * Poll GET /api/employees/import/{jobId} for progress.
+     */
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<?> submitImportJob(@RequestParam("file") MultipartFile file,
+                                             @AuthenticationPrincipal Employee principal) {
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.toLowerCase().endsWith(".csv")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File must be a .csv"));
+        }
+        if (!"text/csv".equalsIgnoreCase(file.getContentType()) && !"application/vnd.ms-excel".equalsIgnoreCase(file.getContentType())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid file type. Only CSV allowed."));
+        }
+        if (file.getSize() > maxJobFileBytes) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File too large. Max " + (maxJobFileBytes / 1_048_576) + "MB."));
+        }
+        try {
+            EmployeeImportJob job = employeeImportJobService.submit(file, principal);
+            return ResponseEntity.accepted().body(employeeImportJobService.describe(job));
+        } catch (Exception e) {
+            log.warn("Import job rejected for user={} file={}: {}", principal.getUsername(), filename, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
         }
-        return ResponseEntity.ok(new BulkEmployeeImportResult(total, success, total - success, errors));
     }
 
-    private String sanitize(String input) {
-        if (input == null) return null;
-        // Remove < > " ' ` ;
-        String clean = input.trim().replaceAll("[<>\\\"'`;]", "");
-        return clean.length() > 128 ? clean.substring(0, 128) : clean;
+    /**
+     * Returns progress, errors and throughput for an import job started by the caller.
+     */
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId,
+                                          @AuthenticationPrincipal Employee principal) {
+        return employeeImportJobService.getJob(jobId, principal.getId())
+            .<ResponseEntity<?>>map(job -> ResponseEntity.ok(employeeImportJobService.describe(job)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 }
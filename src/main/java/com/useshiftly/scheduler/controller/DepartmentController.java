@@ -4,6 +4,7 @@ import com.useshiftly.scheduler.dto.DepartmentDTO;
 import com.useshiftly.scheduler.model.Department;
 import com.useshiftly.scheduler.model.Employee;
 import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.security.BuildingAccessCache;
 import com.useshiftly.scheduler.model.Building;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -40,6 +41,7 @@ public class DepartmentController {
     
     private final DepartmentRepository departmentRepository;
     private final com.useshiftly.scheduler.repository.BuildingRepository buildingRepository;
+    private final BuildingAccessCache buildingAccessCache;
     
     /**
      * Returns a list of all UseShiftly departments.
@@ -72,16 +74,10 @@ public class DepartmentController {
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<DepartmentDTO> getDepartment(@PathVariable Long id, @AuthenticationPrincipal Employee currentUser) {
+        if (!buildingAccessCache.canAccessDepartment(currentUser, id)) {
+            return ResponseEntity.status(403).build();
+        }
         return departmentRepository.findById(id)
-                .filter(department -> {
-                    if (currentUser.getRole() == Employee.Role.ADMIN) {
-                        return department.getBuilding().getAdmin().getId().equals(currentUser.getId());
-                    } else if (currentUser.getRole() == Employee.Role.MANAGER) {
-                        return department.getBuilding().getManagers() != null &&
-                               department.getBuilding().getManagers().stream().anyMatch(m -> m.getId().equals(currentUser.getId()));
-                    }
-                    return false;
-                })
                 .map(department -> ResponseEntity.ok(DepartmentDTO.fromEntity(department)))
                 .orElse(ResponseEntity.status(403).build());
     }
@@ -106,13 +102,7 @@ public class DepartmentController {
                 return ResponseEntity.badRequest().body(new MessageResponse("Building not found"));
             }
             var building = buildingOpt.get();
-            boolean allowed = false;
-            if (currentUser.getRole() == Employee.Role.ADMIN) {
-                allowed = building.getAdmin().getId().equals(currentUser.getId());
-            } else if (currentUser.getRole() == Employee.Role.MANAGER) {
-                allowed = building.getManagers() != null && building.getManagers().stream().anyMatch(m -> m.getId().equals(currentUser.getId()));
-            }
-            if (!allowed) {
+            if (!buildingAccessCache.get(currentUser).canAccessBuilding(buildingId)) {
                 return ResponseEntity.status(403).body(new MessageResponse("Forbidden: Not your building"));
             }
             Department department = new Department();
@@ -129,6 +119,7 @@ public class DepartmentController {
             }
             department.setBuilding(building);
             Department saved = departmentRepository.save(department);
+            buildingAccessCache.invalidateBuilding(buildingId);
             userActionLogService.logAction("CREATED_DEPARTMENT", currentUser.getId());
             return ResponseEntity.ok(DepartmentDTO.fromEntity(saved));
         } catch (Exception e) {
@@ -152,14 +143,7 @@ public class DepartmentController {
         try {
             Department existing = departmentRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Department not found"));
-            boolean allowed = false;
-            if (currentUser.getRole() == Employee.Role.ADMIN) {
-                allowed = existing.getBuilding().getAdmin().getId().equals(currentUser.getId());
-            } else if (currentUser.getRole() == Employee.Role.MANAGER) {
-                allowed = existing.getBuilding().getManagers() != null &&
-                          existing.getBuilding().getManagers().stream().anyMatch(m -> m.getId().equals(currentUser.getId()));
-            }
-            if (!allowed) {
+            if (!buildingAccessCache.canAccessDepartment(currentUser, existing.getId())) {
                 return ResponseEntity.status(403).body(new MessageResponse("Forbidden: Not your department/building"));
             }
             if (request.containsKey("name")) {
@@ -197,14 +181,7 @@ public class DepartmentController {
         try {
             Department existing = departmentRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Department not found"));
-            boolean allowed = false;
-            if (currentUser.getRole() == Employee.Role.ADMIN) {
-                allowed = existing.getBuilding().getAdmin().getId().equals(currentUser.getId());
-            } else if (currentUser.getRole() == Employee.Role.MANAGER) {
-                allowed = existing.getBuilding().getManagers() != null &&
-                          existing.getBuilding().getManagers().stream().anyMatch(m -> m.getId().equals(currentUser.getId()));
-            }
-            if (!allowed) {
+            if (!buildingAccessCache.canAccessDepartment(currentUser, existing.getId())) {
                 return ResponseEntity.status(403).body(new MessageResponse("Forbidden: Not your department/building"));
             }
             departmentRepository.deleteById(id);
@@ -227,20 +204,11 @@ public class DepartmentController {
                                                                         @AuthenticationPrincipal Employee currentUser) {
         try {
             // Check if user has access to this building
-            Building building = buildingRepository.findById(buildingId).orElse(null);
-            if (building == null) {
+            if (!buildingRepository.existsById(buildingId)) {
                 return ResponseEntity.notFound().build();
             }
             
-            boolean hasAccess = false;
-            if (currentUser.getRole() == Employee.Role.ADMIN) {
-                hasAccess = building.getAdmin().getId().equals(currentUser.getId());
-            } else if (currentUser.getRole() == Employee.Role.MANAGER) {
-                hasAccess = building.getManagers() != null &&
-                           building.getManagers().stream().anyMatch(m -> m.getId().equals(currentUser.getId()));
-            }
-            
-            if (!hasAccess) {
+            if (!buildingAccessCache.get(currentUser).canAccessBuilding(buildingId)) {
                 return ResponseEntity.status(403).build();
             }
             
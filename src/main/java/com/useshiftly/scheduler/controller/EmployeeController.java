@@ -2,6 +2,7 @@ package com.useshiftly.scheduler.controller;
 
 import com.useshiftly.scheduler.dto.EmployeeDTO;
 import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.security.BuildingAccessCache;
 import com.useshiftly.scheduler.service.EmployeeService;
 import com.useshiftly.scheduler.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -43,14 +44,7 @@ public class EmployeeController {
     }
     // Utility: Check if current user is admin for a building
     private void assertAdminForBuilding(Long buildingId, Employee currentUser) {
-        var buildingOpt = employeeService.getBuildingById(buildingId);
-        if (buildingOpt.isEmpty()) {
-            throw new org.springframework.security.access.AccessDeniedException("Not your building");
-        }
-        var building = buildingOpt.get();
-        boolean isAdmin = building.getAdmin() != null && building.getAdmin().getId().equals(currentUser.getId());
-        boolean isManager = building.getManagers() != null && building.getManagers().stream().anyMatch(m -> m.getId().equals(currentUser.getId()));
-        if (!(isAdmin || isManager)) {
+        if (!buildingAccessCache.get(currentUser).canAccessBuilding(buildingId)) {
             throw new org.springframework.security.access.AccessDeniedException("Not your building");
         }
     }
@@ -80,6 +74,9 @@ public class EmployeeController {
 
     private final com.useshiftly.scheduler.service.UserActionLogService userActionLogService;
     private final NotificationService notificationService;
+    private final com.useshiftly.scheduler.repository.EmployeeRepository employeeRepository;
+    private final com.useshiftly.scheduler.export.CsvExportService csvExportService;
+    private final com.useshiftly.scheduler.security.JwtUtils jwtUtils;
 
     /**
      * Lists all employees assigned to a specific building.
@@ -172,29 +169,37 @@ public class EmployeeController {
     }
 
     /**
-     * Export employees as CSV (Manager/Admin only)
+     * Export active employees of the caller's building as CSV (Manager/Admin only).
+     * Rows are streamed from a database cursor; the body is gzipped when the client accepts it.
      */
     @GetMapping("/export")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<String> exportEmployeesCsv(@AuthenticationPrincipal Employee currentUser) {
-        List<Employee> employees = employeeService.getAllActiveEmployees();
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,First Name,Last Name,Email,Phone,Role,Department,Active\n");
-        for (Employee e : employees) {
-            csv.append(e.getId()).append(",")
-                .append(e.getFirstName()).append(",")
-                .append(e.getLastName()).append(",")
-                .append(e.getEmail()).append(",")
-                .append(e.getPhoneNumber() != null ? e.getPhoneNumber() : "").append(",")
-                .append(e.getRole().name()).append(",")
-                .append(e.getDepartment() != null ? e.getDepartment().getName() : "Unassigned").append(",")
-                .append(e.getActive() ? "Active" : "Inactive").append("\n");
+    public ResponseEntity<?> exportEmployeesCsv(@AuthenticationPrincipal Employee currentUser,
+                                                @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        Long buildingId = currentUser.getRole() == Employee.Role.MANAGER
+                ? employeeService.getBuildingForManager(currentUser.getId()).map(b -> b.getId()).orElse(null)
+                : (currentUser.getBuilding() != null ? currentUser.getBuilding().getId() : null);
+        if (buildingId == null) {
+            return ResponseEntity.status(404).body(new MessageResponse("No building assigned."));
         }
         userActionLogService.logAction("EXPORTED_EMPLOYEES", currentUser.getId());
-        return ResponseEntity.ok()
-                .header("Content-Type", "text/csv")
-                .body(csv.toString());
+        return csvExportService.export("employees", acceptEncoding, EMPLOYEE_CSV_HEADER, csv -> {
+            try (var rows = employeeRepository.streamActiveForExport(buildingId)) {
+                var it = rows.iterator();
+                while (it.hasNext()) {
+                    var e = it.next();
+                    csv.row(e.getId(), e.getFirstName(), e.getLastName(), e.getEmail(), e.getPhoneNumber(),
+                            e.getRole().name(),
+                            e.getDepartmentName() != null ? e.getDepartmentName() : "Unassigned",
+                            Boolean.TRUE.equals(e.getActive()) ? "Active" : "Inactive");
+                }
+            }
+        });
     }
+
+    private static final String[] EMPLOYEE_CSV_HEADER =
+            {"ID", "First Name", "Last Name", "Email", "Phone", "Role", "Department", "Active"};
+
     /**
      * EmployeeController: Handles all employee-related REST API endpoints for the UseShiftly system.
      * 
@@ -258,6 +263,7 @@ public class EmployeeController {
     }
     
     private final EmployeeService employeeService;
+    private final BuildingAccessCache buildingAccessCache;
     
     @GetMapping
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
@@ -287,18 +293,21 @@ public class EmployeeController {
     public ResponseEntity<?> updateCurrentEmployee(@RequestBody Map<String, Object> employeeUpdate, 
                                                    @AuthenticationPrincipal Employee currentUser) {
         try {
+            // Edit a freshly loaded row, not the authenticated principal
+            Employee employee = employeeService.getEmployeeById(currentUser.getId())
+                    .orElseThrow(() -> new RuntimeException("Employee not found"));
             // Only allow updating certain fields for regular employees
             if (employeeUpdate.containsKey("firstName")) {
-                currentUser.setFirstName((String) employeeUpdate.get("firstName"));
+                employee.setFirstName((String) employeeUpdate.get("firstName"));
             }
             if (employeeUpdate.containsKey("lastName")) {
-                currentUser.setLastName((String) employeeUpdate.get("lastName"));
+                employee.setLastName((String) employeeUpdate.get("lastName"));
             }
             if (employeeUpdate.containsKey("phoneNumber")) {
-                currentUser.setPhoneNumber((String) employeeUpdate.get("phoneNumber"));
+                employee.setPhoneNumber((String) employeeUpdate.get("phoneNumber"));
             }
             
-            Employee updated = employeeService.updateEmployee(currentUser);
+            Employee updated = employeeService.updateEmployee(employee);
             return ResponseEntity.ok(EmployeeDTO.fromEntity(updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
@@ -456,8 +465,7 @@ public class EmployeeController {
         
         // If user must change password, skip old password check
         if (currentUser.isMustChangePassword()) {
-            employeeService.updatePassword(currentUser, newPassword);
-            return ResponseEntity.ok(new MessageResponse("Password changed successfully"));
+            return passwordChanged(employeeService.updatePassword(currentUser, newPassword));
         }
         
         // Normal password change requires old password
@@ -467,8 +475,17 @@ public class EmployeeController {
         if (!employeeService.checkPassword(currentUser, oldPassword)) {
             return ResponseEntity.badRequest().body(new MessageResponse("Old password is incorrect"));
         }
-        employeeService.updatePassword(currentUser, newPassword);
-        return ResponseEntity.ok(new MessageResponse("Password changed successfully"));
+        return passwordChanged(employeeService.updatePassword(currentUser, newPassword));
+    }
+
+    /**
+     * The change revoked the caller's current token, so the response carries one with the new token version.
+     */
+    private ResponseEntity<?> passwordChanged(Employee updated) {
+        return ResponseEntity.ok(Map.of(
+                "message", "Password changed successfully",
+                "token", jwtUtils.generateJwtToken(updated),
+                "type", "Bearer"));
     }
 
     /**
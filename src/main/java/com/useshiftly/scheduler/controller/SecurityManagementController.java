@@ -1,8 +1,14 @@
 package com.useshiftly.scheduler.controller;
 
 import com.useshiftly.scheduler.security.AbuseDetectionService;
+import com.useshiftly.scheduler.security.BuildingAccessCache;
+import com.useshiftly.scheduler.security.GcraRateLimiter;
+import com.useshiftly.scheduler.security.LatencyHistogram;
+import com.useshiftly.scheduler.security.JwtUtils;
+import com.useshiftly.scheduler.security.PrincipalCache;
 import com.useshiftly.scheduler.security.RateLimitingService;
 import com.useshiftly.scheduler.security.SecurityEventService;
+import com.useshiftly.scheduler.security.SecurityMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -10,7 +16,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Security management controller for monitoring and administering security features.
@@ -34,6 +42,10 @@ public class SecurityManagementController {
     private final RateLimitingService rateLimitingService;
     private final AbuseDetectionService abuseDetectionService;
     private final SecurityEventService securityEventService;
+    private final PrincipalCache principalCache;
+    private final BuildingAccessCache buildingAccessCache;
+    private final JwtUtils jwtUtils;
+    private final SecurityMetrics securityMetrics;
 
     /**
      * Get comprehensive security dashboard statistics.
@@ -54,6 +66,21 @@ public class SecurityManagementController {
             
             // Security event statistics
             dashboard.put("security_events", securityEventService.getSecurityStatistics());
+
+            // Authentication principal cache (hit rate, size, invalidations)
+            dashboard.put("principal_cache", principalCache.getStatistics());
+
+            // Building/department access sets used by manager and admin checks
+            dashboard.put("building_access_cache", buildingAccessCache.getStatistics());
+
+            // Verified JWT cache (signature checks avoided for repeat tokens)
+            dashboard.put("jwt_cache", jwtUtils.getClaimsCacheStatistics());
+
+            // Filter and JWT verification latency percentiles
+            Map<String, Object> latency = new LinkedHashMap<>();
+            securityMetrics.getFilterLatencies().forEach((filter, histogram) -> latency.put(filter, histogram.getSnapshot()));
+            latency.put("jwt_verify", jwtUtils.getVerifyLatency().getSnapshot());
+            dashboard.put("latency", latency);
             
             // Overall system status
             dashboard.put("system_status", Map.of(
@@ -75,6 +102,61 @@ public class SecurityManagementController {
         }
     }
 
+    /**
+     * Security metrics in the Prometheus text format, for scraping with a super admin bearer token.
+     */
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public ResponseEntity<String> getMetrics() {
+        SecurityMetrics.PrometheusWriter writer = new SecurityMetrics.PrometheusWriter();
+
+        for (Map.Entry<String, LatencyHistogram> filter : securityMetrics.getFilterLatencies().entrySet()) {
+            writer.histogram("security_filter_duration_seconds",
+                "Time spent in each security filter, excluding downstream processing",
+                filter.getValue(), "filter", filter.getKey());
+        }
+        writer.histogram("security_jwt_verify_duration_seconds",
+            "JWT signature verification time on claims cache misses", jwtUtils.getVerifyLatency());
+
+        for (GcraRateLimiter.Policy policy : rateLimitingService.getPolicies()) {
+            writer.counter("security_rate_limit_decisions_total", "Rate limiter decisions by policy",
+                policy.getAllowed(), "policy", policy.getName(), "decision", "allowed");
+            writer.counter("security_rate_limit_decisions_total", "Rate limiter decisions by policy",
+                policy.getRejected(), "policy", policy.getName(), "decision", "rejected");
+        }
+
+        for (Map.Entry<String, Long> hit : abuseDetectionService.getSignatureHitCounts().entrySet()) {
+            int separator = hit.getKey().indexOf(':');
+            writer.counter("security_abuse_signature_hits_total", "Malicious-request signature matches",
+                hit.getValue(), "category", hit.getKey().substring(0, separator),
+                "signature", hit.getKey().substring(separator + 1));
+        }
+        Map<String, Object> abuse = abuseDetectionService.getAbuseStatistics();
+        writer.gauge("security_abuse_tracked_ips", "IPs with a resident abuse tracker", number(abuse.get("tracked_ips")));
+        writer.gauge("security_abuse_permanent_blocks", "Permanently blacklisted IPs", number(abuse.get("permanent_blocks")));
+
+        writeCache(writer, "principal", principalCache.getStatistics());
+        writeCache(writer, "building_access", buildingAccessCache.getStatistics());
+        writeCache(writer, "jwt_claims", jwtUtils.getClaimsCacheStatistics());
+
+        Map<String, Long> events = new TreeMap<>(securityEventService.getSecurityStatistics());
+        Long buffered = events.remove("events_buffered");
+        events.forEach((counter, value) ->
+            writer.counter("security_events_total", "Security event counters", value, "counter", counter));
+        writer.gauge("security_events_buffered", "Security events waiting for the writer", buffered != null ? buffered : 0);
+        return ResponseEntity.ok(writer.toString());
+    }
+
+    private static void writeCache(SecurityMetrics.PrometheusWriter writer, String cache, Map<String, Object> stats) {
+        writer.counter("security_auth_cache_requests_total", "Authentication cache lookups by result",
+            number(stats.get("hits")), "cache", cache, "result", "hit");
+        writer.counter("security_auth_cache_requests_total", "Authentication cache lookups by result",
+            number(stats.get("misses")), "cache", cache, "result", "miss");
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number n ? n.doubleValue() : 0.0;
+    }
+
     /**
      * Get rate limiting status for a specific IP.
      */
@@ -7,6 +7,7 @@ import com.useshiftly.scheduler.model.Employee;
 import com.useshiftly.scheduler.model.Shift;
 import com.useshiftly.scheduler.model.ShiftTrade;
 import com.useshiftly.scheduler.repository.ShiftTradeRepository;
+import com.useshiftly.scheduler.security.TenantContext;
 import com.useshiftly.scheduler.service.ShiftService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -131,6 +132,7 @@ public class ShiftController {
     
     private final ShiftService shiftService;
     private final ShiftTradeRepository shiftTradeRepository;
+    private final TenantContext tenantContext;
     private final com.useshiftly.scheduler.service.UserActionLogService userActionLogService;
     private final com.useshiftly.scheduler.service.EmployeeService employeeService;
     /**
@@ -378,7 +380,7 @@ public class ShiftController {
     /**
      * Returns all shift trades visible to the current user.
      * GET /api/shifts/trades
-     * Employees see only their own trades; managers/admins see all.
+     * Employees see only their own trades; managers/admins see the trades in their buildings.
      */
     @GetMapping("/trades")
     public ResponseEntity<List<com.useshiftly.scheduler.dto.shift.ShiftTradeResponse>> getShiftTrades(@AuthenticationPrincipal Employee currentUser) {
@@ -387,7 +389,8 @@ public class ShiftController {
             if (currentUser.getRole() == Employee.Role.EMPLOYEE) {
                 trades = shiftTradeRepository.findByEmployeeInvolved(currentUser.getId());
             } else {
-                trades = shiftTradeRepository.findAll();
+                List<Long> buildingIds = tenantContext.getBuildingIds();
+                trades = buildingIds.isEmpty() ? List.of() : shiftTradeRepository.findByBuildingIds(buildingIds);
             }
             List<com.useshiftly.scheduler.dto.shift.ShiftTradeResponse> response = trades.stream().map(trade -> {
                 com.useshiftly.scheduler.dto.shift.ShiftTradeResponse dto = new com.useshiftly.scheduler.dto.shift.ShiftTradeResponse();
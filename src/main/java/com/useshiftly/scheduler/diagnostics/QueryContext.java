@@ -0,0 +1,98 @@
+package com.useshiftly.scheduler.diagnostics;
+
+/**
+ * Per-thread counters of the JDBC work done while the context is open: statements executed, rows fetched and
+ * time spent in the driver. Filled in by {@link TracingDataSource}.
+ * <p>
+ * Contexts nest: work is counted in the innermost context and every enclosing one, so a test can open a context
+ * around a MockMvc call and still see the statements of the request context opened by
+ * {@link QueryTracingInterceptor}:
+ * <pre>
+ * try (QueryContext queries = QueryContext.open()) {
+ *     mockMvc.perform(get("/api/shifts"));
+ *     assertTrue(queries.getStatementCount() &lt;= 5);
+ * }
+ * </pre>
+ */
+public final class QueryContext implements AutoCloseable {
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final QueryContext parent;
+    private final long startedAt = System.nanoTime();
+    private boolean closed;
+    private int statements;
+    private long rows;
+    private long dbNanos;
+
+    private QueryContext(QueryContext parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a context on the current thread; close it on the same thread.
+     */
+    public static QueryContext open() {
+        QueryContext context = new QueryContext(CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * The innermost open context on this thread, or null if none is open.
+     */
+    public static QueryContext current() {
+        return CURRENT.get();
+    }
+
+    static void recordStatement(long nanos) {
+        for (QueryContext context = CURRENT.get(); context != null; context = context.parent) {
+            context.statements++;
+            context.dbNanos += nanos;
+        }
+    }
+
+    static void recordFetch(boolean row, long nanos) {
+        for (QueryContext context = CURRENT.get(); context != null; context = context.parent) {
+            if (row) {
+                context.rows++;
+            }
+            context.dbNanos += nanos;
+        }
+    }
+
+    public int getStatementCount() {
+        return statements;
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    public long getDbTimeMillis() {
+        return dbNanos / 1_000_000;
+    }
+
+    long getDbNanos() {
+        return dbNanos;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
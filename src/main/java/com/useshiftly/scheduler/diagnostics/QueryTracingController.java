@@ -0,0 +1,39 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-endpoint database statistics collected by {@link QueryTracingInterceptor}. Super Admin only.
+ */
+@RestController
+@RequestMapping("/api/super-admin/diagnostics/queries")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class QueryTracingController {
+
+    private final QueryTracingService queryTracingService;
+
+    /**
+     * Endpoints with the most SQL statements per request.
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getWorstOffenders(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(queryTracingService.getWorstOffenders(Math.max(1, Math.min(limit, 500))));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, String>> reset() {
+        queryTracingService.reset();
+        return ResponseEntity.ok(Map.of("message", "Query statistics reset"));
+    }
+}
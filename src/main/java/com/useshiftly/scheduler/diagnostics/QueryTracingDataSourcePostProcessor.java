@@ -0,0 +1,29 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource in a {@link TracingDataSource} unless
+ * <code>app.query-tracing.enabled=false</code>.
+ */
+@Component
+public class QueryTracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final boolean enabled;
+
+    public QueryTracingDataSourcePostProcessor(Environment environment) {
+        this.enabled = environment.getProperty("app.query-tracing.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return new TracingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
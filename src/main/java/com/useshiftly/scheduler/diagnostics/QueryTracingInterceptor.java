@@ -0,0 +1,59 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Opens a {@link QueryContext} around each controller method and hands it to {@link QueryTracingService}.
+ * Registered in {@code WebMvcConfig}.
+ * <p>
+ * For async handlers (e.g. {@code StreamingResponseBody} exports) only the work done on the request thread is
+ * recorded: the context is closed when concurrent handling starts, and the async dispatch does not open another.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryTracingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String CONTEXT_ATTRIBUTE = QueryTracingInterceptor.class.getName() + ".context";
+
+    private final QueryTracingService queryTracingService;
+
+    @Value("${app.query-tracing.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (enabled && handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(CONTEXT_ATTRIBUTE, QueryContext.open());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The request thread goes back to the pool here, so the context must not outlive this call
+        finish(request, handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish(request, handler);
+    }
+
+    private void finish(HttpServletRequest request, Object handler) {
+        if (!(request.getAttribute(CONTEXT_ATTRIBUTE) instanceof QueryContext context)) {
+            return;
+        }
+        request.removeAttribute(CONTEXT_ATTRIBUTE);
+        context.close();
+        HandlerMethod method = (HandlerMethod) handler;
+        queryTracingService.record(method.getBeanType().getSimpleName() + "." + method.getMethod().getName(),
+            request.getRequestURI(), context);
+    }
+}
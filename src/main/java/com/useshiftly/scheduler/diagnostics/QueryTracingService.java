@@ -0,0 +1,119 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates per-request JDBC counts by controller method and logs requests over the query budget.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>app.query-tracing.enabled</code> - wrap the DataSource and trace requests (default: true)</li>
+ *   <li><code>app.query-tracing.statement-budget</code> - statements per request before a warning (default: 50)</li>
+ *   <li><code>app.query-tracing.db-time-budget-ms</code> - database time per request before a warning (default: 1000)</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class QueryTracingService {
+
+    @Value("${app.query-tracing.statement-budget:50}")
+    private int statementBudget;
+
+    @Value("${app.query-tracing.db-time-budget-ms:1000}")
+    private long dbTimeBudgetMs;
+
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records a finished request.
+     *
+     * @param endpoint controller method, e.g. <code>ShiftController.getAllShifts</code>
+     * @param uri      request URI, for the budget warning
+     */
+    public void record(String endpoint, String uri, QueryContext context) {
+        EndpointStats stats = endpoints.get(endpoint);
+        if (stats == null) {
+            stats = endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+        }
+        int statements = context.getStatementCount();
+        long dbMillis = context.getDbTimeMillis();
+        stats.record(statements, context.getRowCount(), context.getDbNanos());
+        if (statements > statementBudget || dbMillis > dbTimeBudgetMs) {
+            stats.overBudget.increment();
+            log.warn("Query budget exceeded by {} ({}): {} statements, {} rows, {} ms in database, {} ms total",
+                endpoint, uri, statements, context.getRowCount(), dbMillis, context.getElapsedMillis());
+        }
+    }
+
+    /**
+     * Statistics for one controller method, or null if it has not been called.
+     */
+    public Map<String, Object> getEndpointStatistics(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null ? null : stats.toMap(endpoint);
+    }
+
+    /**
+     * Endpoints with the most statements per request, worst first.
+     */
+    public List<Map<String, Object>> getWorstOffenders(int limit) {
+        return endpoints.entrySet().stream()
+            .sorted(Comparator.comparingDouble((Map.Entry<String, EndpointStats> e) -> e.getValue().averageStatements())
+                .reversed())
+            .limit(limit)
+            .map(e -> e.getValue().toMap(e.getKey()))
+            .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder dbNanos = new LongAdder();
+        final LongAdder overBudget = new LongAdder();
+        final AtomicLong maxStatements = new AtomicLong();
+        final AtomicLong maxRows = new AtomicLong();
+
+        void record(int statementCount, long rowCount, long nanos) {
+            requests.increment();
+            statements.add(statementCount);
+            rows.add(rowCount);
+            dbNanos.add(nanos);
+            maxStatements.accumulateAndGet(statementCount, Math::max);
+            maxRows.accumulateAndGet(rowCount, Math::max);
+        }
+
+        double averageStatements() {
+            long count = requests.sum();
+            return count == 0 ? 0.0 : (double) statements.sum() / count;
+        }
+
+        Map<String, Object> toMap(String endpoint) {
+            long count = requests.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", endpoint);
+            map.put("requests", count);
+            map.put("avg_statements", averageStatements());
+            map.put("max_statements", maxStatements.get());
+            map.put("avg_rows", count == 0 ? 0.0 : (double) rows.sum() / count);
+            map.put("max_rows", maxRows.get());
+            map.put("avg_db_ms", count == 0 ? 0.0 : dbNanos.sum() / 1e6 / count);
+            map.put("over_budget", overBudget.sum());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource proxy that counts statements, fetched rows and driver time into the thread's {@link QueryContext}.
+ * <p>
+ * Connections are always wrapped, but statements and result sets are only proxied when a context is open at the
+ * time they are created, so work outside a traced request costs one ThreadLocal read per statement.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public TracingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                Object result = invoke(proxy, connection, method, args);
+                if (result instanceof Statement statement && QueryContext.current() != null) {
+                    return wrapStatement(statement);
+                }
+                return result;
+            });
+    }
+
+    private static Statement wrapStatement(Statement statement) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                long start = System.nanoTime();
+                try {
+                    return wrapResultSet(invoke(proxy, statement, method, args));
+                } finally {
+                    QueryContext.recordStatement(System.nanoTime() - start);
+                }
+            }
+            if (method.getName().equals("getResultSet")) {
+                return wrapResultSet(invoke(proxy, statement, method, args));
+            }
+            return invoke(proxy, statement, method, args);
+        };
+        return (Statement) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object wrapResultSet(Object result) {
+        if (!(result instanceof ResultSet resultSet) || QueryContext.current() == null) {
+            return result;
+        }
+        return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("next")) {
+                    long start = System.nanoTime();
+                    boolean row = (Boolean) invoke(proxy, resultSet, method, args);
+                    QueryContext.recordFetch(row, System.nanoTime() - start);
+                    return row;
+                }
+                return invoke(proxy, resultSet, method, args);
+            });
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Proxies compare by identity, so JDBC resources can still be tracked in hash-based registries
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
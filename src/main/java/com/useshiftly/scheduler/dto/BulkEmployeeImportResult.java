@@ -3,6 +3,7 @@ package com.useshiftly.scheduler.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -13,4 +14,26 @@ public class BulkEmployeeImportResult {
     private int success;
     private int failed;
     private List<String> errors;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public BulkEmployeeImportResult(int total, int success, int failed, List<String> errors) {
+        this.total = total;
+        this.success = success;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    /**
+     * Outcome of one data row. Row numbers are 1-based and exclude the header.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private int row;
+        private String email;
+        private boolean created;
+        private Long employeeId;
+        private String message;
+    }
 }
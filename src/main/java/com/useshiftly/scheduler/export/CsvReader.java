@@ -0,0 +1,117 @@
+package com.useshiftly.scheduler.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV records one at a time from a character stream.
+ * <p>
+ * Handles quoted fields containing commas, doubled quotes and line breaks, and both LF and CRLF record
+ * separators. Only the current record is held in memory; fields longer than the configured limit are rejected
+ * so a malformed file (e.g. an unterminated quote) cannot consume the whole upload as one field.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long recordNumber;
+
+    public CsvReader(Reader in, int maxFieldLength) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * Returns the next record, or null at end of input. Blank lines are returned as a single empty field.
+     *
+     * @throws IOException if reading fails, a quote is unterminated or a field exceeds the length limit
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordNumber++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + recordNumber);
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                } else {
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int peek = read();
+                if (peek != '\n' && peek != -1) {
+                    position--;
+                }
+                break;
+            } else {
+                append(field, (char) c);
+                fieldStart = false;
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Returns the 1-based number of the record last returned by {@link #next()}.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void append(StringBuilder field, char c) throws IOException {
+        if (field.length() >= maxFieldLength) {
+            throw new IOException("Field longer than " + maxFieldLength + " characters in record " + recordNumber);
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,100 @@
+package com.useshiftly.scheduler.export;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes RFC 4180 CSV rows to a character stream.
+ * <p>
+ * A field is quoted when it contains a comma, a double quote, a line break or leading/trailing whitespace;
+ * embedded quotes are doubled. <code>null</code> is written as an empty field. The writer does not buffer
+ * whole rows, so memory use depends only on the underlying writer's buffer.
+ */
+public class CsvWriter implements Flushable, Closeable {
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one complete row.
+     */
+    public CsvWriter row(Object... fields) throws IOException {
+        for (Object field : fields) {
+            field(field);
+        }
+        return endRow();
+    }
+
+    /**
+     * Appends one field to the current row.
+     */
+    public CsvWriter field(Object value) throws IOException {
+        if (!firstField) {
+            out.write(',');
+        }
+        firstField = false;
+        if (value != null) {
+            writeEscaped(value.toString());
+        }
+        return this;
+    }
+
+    /**
+     * Terminates the current row with CRLF.
+     */
+    public CsvWriter endRow() throws IOException {
+        out.write("\r\n");
+        firstField = true;
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i - start + 1);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    static boolean needsQuoting(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -14,7 +14,8 @@ import java.util.List;
 @Table(name = "employees")
 public class Employee implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_id_seq")
+    @SequenceGenerator(name = "employees_id_seq", sequenceName = "employees_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, updatable = false)
@@ -71,6 +72,22 @@ public class Employee implements UserDetails {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    /**
+     * Embedded in issued JWTs; bumped whenever a change must revoke existing tokens (email, password, role,
+     * active flag, deletion, or a move away from a building). Assigning a first building does not revoke.
+     */
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
+    // Token-relevant state as loaded, compared in onUpdate()
+    @Transient
+    private String loadedTokenState;
+    @Transient
+    private Long loadedBuildingId;
+    @Transient
+    private int loadedTokenVersion;
+
     /**
      * Billing package type for admin: "Basic" or "Pro".
      * Basic: 5 free users, $4/user/month after 5, website/email access.
@@ -131,10 +148,74 @@ public class Employee implements UserDetails {
     public boolean isMustChangePassword() { return mustChangePassword; }
     public void setMustChangePassword(boolean mustChangePassword) { this.mustChangePassword = mustChangePassword; }
     
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+
     public void setPassword(String password) {
         this.password = password;
     }
 
+    /**
+     * Returns a detached shallow copy sharing the department and building references. The principal cache hands
+     * these out so a request that modifies its principal cannot change the one other requests see.
+     */
+    public Employee copy() {
+        Employee copy = new Employee();
+        copy.id = id;
+        copy.uuid = uuid;
+        copy.email = email;
+        copy.password = password;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.phoneNumber = phoneNumber;
+        copy.role = role;
+        copy.department = department;
+        copy.building = building;
+        copy.active = active;
+        copy.dateOfBirth = dateOfBirth;
+        copy.address = address;
+        copy.emergencyContactName = emergencyContactName;
+        copy.emergencyContactRelation = emergencyContactRelation;
+        copy.emergencyContactPhone = emergencyContactPhone;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.mustChangePassword = mustChangePassword;
+        copy.deletedAt = deletedAt;
+        copy.tokenVersion = tokenVersion;
+        copy.loadedTokenState = loadedTokenState;
+        copy.loadedBuildingId = loadedBuildingId;
+        copy.loadedTokenVersion = loadedTokenVersion;
+        copy.packageType = packageType;
+        return copy;
+    }
+
+    @PostLoad
+    void onLoad() {
+        loadedTokenState = tokenState();
+        loadedBuildingId = buildingId();
+        loadedTokenVersion = tokenVersion;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        // Never move backwards when a stale detached copy is merged
+        int version = Math.max(tokenVersion, loadedTokenVersion);
+        if (loadedTokenState != null && (!loadedTokenState.equals(tokenState())
+                || (loadedBuildingId != null && !loadedBuildingId.equals(buildingId())))) {
+            version++;
+        }
+        tokenVersion = version;
+        onLoad();
+    }
+
+    private String tokenState() {
+        return email + '|' + password + '|' + role + '|' + active + '|' + (deletedAt != null);
+    }
+
+    private Long buildingId() {
+        return building != null ? building.getId() : null;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
@@ -0,0 +1,77 @@
+package com.useshiftly.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A background employee CSV import. The uploaded file is spooled to disk and processed in chunks;
+ * <code>processedRows</code> is the checkpoint and is committed together with each chunk's employees,
+ * so an interrupted job resumes after the last committed chunk.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "employee_import_jobs")
+public class EmployeeImportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "caller_id", nullable = false)
+    private Long callerId;
+
+    // Instance holding the spool file; only it resumes the job
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "filename")
+    private String filename;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "total_rows", nullable = false)
+    @Builder.Default
+    private Integer totalRows = 0;
+
+    @Column(name = "processed_rows", nullable = false)
+    @Builder.Default
+    private Integer processedRows = 0;
+
+    @Column(name = "created_rows", nullable = false)
+    @Builder.Default
+    private Integer createdRows = 0;
+
+    @Column(name = "failed_rows", nullable = false)
+    @Builder.Default
+    private Integer failedRows = 0;
+
+    // Newline-separated, capped; failedRows has the full count
+    @Column(name = "errors", columnDefinition = "TEXT")
+    private String errors;
+
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
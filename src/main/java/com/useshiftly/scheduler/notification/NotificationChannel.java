@@ -0,0 +1,9 @@
+package com.useshiftly.scheduler.notification;
+
+/**
+ * Delivery channels a user can enable or disable independently.
+ */
+public enum NotificationChannel {
+    EMAIL,
+    IN_APP
+}
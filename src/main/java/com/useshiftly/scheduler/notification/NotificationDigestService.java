@@ -0,0 +1,200 @@
+package com.useshiftly.scheduler.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers outgoing notification emails per recipient and merges bursts into a single digest.
+ * <p>
+ * Bulk operations such as auto-scheduling or the auto-cancel job can produce one email per shift per employee.
+ * Non-urgent messages are held for a configurable window that opens with the first buffered message for a
+ * recipient; once the window closes (or the buffer reaches its size cap) everything buffered for that recipient
+ * is drained as one {@link Digest}. Urgent messages, such as last-minute cancellations, are never buffered.
+ * <p>
+ * This service only buffers and merges; delivery is handled by
+ * {@link com.useshiftly.scheduler.service.NotificationService}, which drains due digests on a schedule.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>app.notification.digest.enabled</code> - turn buffering on/off (default: true)</li>
+ *   <li><code>app.notification.digest.window-seconds</code> - how long to collect messages per recipient (default: 300)</li>
+ *   <li><code>app.notification.digest.max-entries</code> - drain early once a recipient has this many messages (default: 50)</li>
+ *   <li><code>app.notification.digest.urgent-lead-minutes</code> - cancellations of shifts starting within this many
+ *       minutes bypass the buffer (default: 60)</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class NotificationDigestService {
+
+    /**
+     * Delivery urgency for a notification. URGENT messages bypass the digest buffer.
+     */
+    public enum Urgency {
+        NORMAL,
+        URGENT
+    }
+
+    @Value("${app.notification.digest.enabled:true}")
+    private boolean digestEnabled;
+
+    @Value("${app.notification.digest.window-seconds:300}")
+    private long windowSeconds;
+
+    @Value("${app.notification.digest.max-entries:50}")
+    private int maxEntries;
+
+    @Value("${app.notification.digest.urgent-lead-minutes:60}")
+    private long urgentLeadMinutes;
+
+    private final Clock clock;
+
+    // Pending messages keyed by recipient email
+    private final ConcurrentHashMap<String, RecipientBuffer> buffers = new ConcurrentHashMap<>();
+
+    public NotificationDigestService(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns true if a message with the given urgency should be buffered instead of sent immediately.
+     */
+    public boolean shouldBuffer(Urgency urgency) {
+        return digestEnabled && urgency != Urgency.URGENT;
+    }
+
+    /**
+     * Returns the lead time (in minutes) under which a cancellation is treated as urgent.
+     */
+    public long getUrgentLeadMinutes() {
+        return urgentLeadMinutes;
+    }
+
+    /**
+     * Adds a message to the recipient's buffer, opening a new digest window if none is pending.
+     *
+     * @param recipient   recipient email address
+     * @param firstName   recipient first name, used for the digest greeting
+     * @param subject     subject the message would have been sent with on its own
+     * @param body        full body the message would have been sent with on its own
+     * @param summaryLine one-line summary used when the message is merged into a digest
+     */
+    public void enqueue(String recipient, String firstName, String subject, String body, String summaryLine) {
+        Instant now = clock.instant();
+        buffers.compute(recipient, (key, buffer) -> {
+            if (buffer == null) {
+                buffer = new RecipientBuffer(firstName, now);
+            }
+            buffer.entries.add(new Entry(subject, body, summaryLine));
+            return buffer;
+        });
+        log.debug("Buffered notification '{}' for {}", subject, recipient);
+    }
+
+    /**
+     * Removes and returns every buffer whose window has elapsed or whose size cap has been reached.
+     *
+     * @return digests ready for delivery
+     */
+    public List<Digest> drainDue() {
+        Instant cutoff = clock.instant().minusSeconds(windowSeconds);
+        List<Digest> due = new ArrayList<>();
+        for (String recipient : buffers.keySet()) {
+            buffers.computeIfPresent(recipient, (key, buffer) -> {
+                if (buffer.openedAt.isAfter(cutoff) && buffer.entries.size() < maxEntries) {
+                    return buffer;
+                }
+                due.add(buffer.toDigest(key));
+                return null;
+            });
+        }
+        return due;
+    }
+
+    /**
+     * Removes and returns every pending buffer regardless of its window (used on shutdown).
+     *
+     * @return all pending digests
+     */
+    public List<Digest> drainAll() {
+        List<Digest> all = new ArrayList<>();
+        for (String recipient : buffers.keySet()) {
+            buffers.computeIfPresent(recipient, (key, buffer) -> {
+                all.add(buffer.toDigest(key));
+                return null;
+            });
+        }
+        return all;
+    }
+
+    /**
+     * Returns the number of recipients with pending messages.
+     */
+    public int getPendingRecipientCount() {
+        return buffers.size();
+    }
+
+    /**
+     * A single buffered message.
+     */
+    public static final class Entry {
+        private final String subject;
+        private final String body;
+        private final String summaryLine;
+
+        Entry(String subject, String body, String summaryLine) {
+            this.subject = subject;
+            this.body = body;
+            this.summaryLine = summaryLine;
+        }
+
+        public String getSubject() { return subject; }
+        public String getBody() { return body; }
+        public String getSummaryLine() { return summaryLine; }
+    }
+
+    /**
+     * All messages drained for one recipient.
+     */
+    public static final class Digest {
+        private final String recipient;
+        private final String firstName;
+        private final List<Entry> entries;
+
+        Digest(String recipient, String firstName, List<Entry> entries) {
+            this.recipient = recipient;
+            this.firstName = firstName;
+            this.entries = Collections.unmodifiableList(entries);
+        }
+
+        public String getRecipient() { return recipient; }
+        public String getFirstName() { return firstName; }
+        public List<Entry> getEntries() { return entries; }
+    }
+
+    /**
+     * Internal buffer for one recipient; only mutated inside ConcurrentHashMap compute callbacks.
+     */
+    private static class RecipientBuffer {
+        final String firstName;
+        final Instant openedAt;
+        final List<Entry> entries = new ArrayList<>();
+
+        RecipientBuffer(String firstName, Instant openedAt) {
+            this.firstName = firstName;
+            this.openedAt = openedAt;
+        }
+
+        Digest toDigest(String recipient) {
+            return new Digest(recipient, firstName, entries);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.useshiftly.scheduler.notification;
+
+/**
+ * The kinds of notifications the scheduler sends. Each type has one precompiled template in
+ * {@link NotificationTemplates} and belongs to a {@link Category} that users can opt out of.
+ */
+public enum NotificationEventType {
+    SHIFT_ASSIGNED(Category.SCHEDULE),
+    SHIFT_UPDATED(Category.SCHEDULE),
+    SHIFT_CANCELLED(Category.SCHEDULE),
+    SHIFT_PICKED_UP(Category.TRADE),
+    SHIFT_PICKUP_CONFIRMED(Category.TRADE),
+    SHIFT_POSTED(Category.TRADE),
+    SHIFT_POSTED_REMINDER(Category.REMINDER),
+    TRADE_OFFERED(Category.TRADE),
+    TRADE_OFFER_REMINDER(Category.REMINDER),
+    TRADE_ACCEPTED_PICKUP(Category.TRADE),
+    TRADE_ACCEPTED_REQUESTER(Category.TRADE),
+    TRADE_DECLINED(Category.TRADE),
+    TRADE_REJECTED(Category.TRADE),
+    ACCOUNT_CREATED(Category.SYSTEM),
+    DIGEST(Category.SYSTEM);
+
+    /**
+     * Preference groups exposed in the notification settings. SYSTEM messages cannot be turned off.
+     */
+    public enum Category {
+        SCHEDULE,
+        TRADE,
+        REMINDER,
+        SYSTEM;
+
+        public boolean isOptional() {
+            return this != SYSTEM;
+        }
+    }
+
+    private final Category category;
+
+    NotificationEventType(Category category) {
+        this.category = category;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+}
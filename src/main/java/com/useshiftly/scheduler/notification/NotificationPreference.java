@@ -0,0 +1,28 @@
+package com.useshiftly.scheduler.notification;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Stored notification opt-outs for one employee. See {@link NotificationPreferenceService} for the mask layout.
+ * Employees without a row receive everything.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "notification_preferences")
+public class NotificationPreference {
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "enabled_mask", nullable = false)
+    private Long enabledMask;
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
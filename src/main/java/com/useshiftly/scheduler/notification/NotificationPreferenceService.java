@@ -0,0 +1,196 @@
+package com.useshiftly.scheduler.notification;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.notification.NotificationEventType.Category;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user notification preferences backed by the <code>notification_preferences</code> table and an in-memory
+ * bitmask cache.
+ * <p>
+ * Each user's preferences are a single <code>long</code>:
+ * <ul>
+ *   <li>bits <code>channel * 24 + eventType</code> - the event type is enabled on that channel</li>
+ *   <li>bit <code>48 + channel</code> - the channel as a whole is enabled</li>
+ * </ul>
+ * A notification goes out only if both its channel bit and its event bit are set. SYSTEM events (account
+ * creation, digests) are always delivered. Notification fan-outs call {@link #isEnabled} or
+ * {@link #filterRecipients} before rendering anything, so opted-out users cost a map lookup.
+ * <p>
+ * The settings API exposes grouped toggles: <code>emailNotifications</code> and <code>pushNotifications</code>
+ * map to the channel bits, while <code>scheduleUpdates</code>, <code>tradeNotifications</code> and
+ * <code>shiftReminders</code> map to the event bits of a {@link Category} on every channel.
+ * <p>
+ * The cache is local to this instance and written through on update.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationPreferenceService {
+
+    private static final int EVENT_BITS_PER_CHANNEL = 24;
+    private static final int CHANNEL_BIT_OFFSET = EVENT_BITS_PER_CHANNEL * 2;
+
+    /** Everything enabled; used for users who never saved preferences. */
+    public static final long DEFAULT_MASK;
+
+    private static final Map<String, Category> CATEGORY_SETTINGS = new LinkedHashMap<>();
+    private static final Map<String, NotificationChannel> CHANNEL_SETTINGS = new LinkedHashMap<>();
+
+    static {
+        if (NotificationEventType.values().length > EVENT_BITS_PER_CHANNEL
+                || NotificationChannel.values().length > 2) {
+            throw new IllegalStateException("Notification preference mask layout is too small");
+        }
+        long mask = 0L;
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            mask |= channelBit(channel);
+            for (NotificationEventType type : NotificationEventType.values()) {
+                mask |= eventBit(channel, type);
+            }
+        }
+        DEFAULT_MASK = mask;
+
+        CHANNEL_SETTINGS.put("emailNotifications", NotificationChannel.EMAIL);
+        CHANNEL_SETTINGS.put("pushNotifications", NotificationChannel.IN_APP);
+        CATEGORY_SETTINGS.put("shiftReminders", Category.REMINDER);
+        CATEGORY_SETTINGS.put("tradeNotifications", Category.TRADE);
+        CATEGORY_SETTINGS.put("scheduleUpdates", Category.SCHEDULE);
+    }
+
+    private final NotificationPreferenceRepository preferenceRepository;
+
+    // Enabled mask keyed by employee id
+    private final ConcurrentHashMap<Long, Long> maskCache = new ConcurrentHashMap<>();
+
+    /**
+     * Returns true if the user should receive the given event type on the given channel.
+     */
+    public boolean isEnabled(Long employeeId, NotificationChannel channel, NotificationEventType type) {
+        if (!type.getCategory().isOptional() || employeeId == null) {
+            return true;
+        }
+        return isEnabled(maskFor(employeeId), channel, type);
+    }
+
+    /**
+     * Returns the subset of employees who should receive the given event type on the given channel.
+     * Preferences missing from the cache are loaded with a single query.
+     */
+    public List<Employee> filterRecipients(List<Employee> employees, NotificationChannel channel, NotificationEventType type) {
+        if (!type.getCategory().isOptional()) {
+            return employees;
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Employee employee : employees) {
+            if (employee.getId() != null && !maskCache.containsKey(employee.getId())) {
+                missing.add(employee.getId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (NotificationPreference preference : preferenceRepository.findAllById(missing)) {
+                maskCache.put(preference.getEmployeeId(), preference.getEnabledMask());
+            }
+            for (Long id : missing) {
+                maskCache.putIfAbsent(id, DEFAULT_MASK);
+            }
+        }
+        List<Employee> recipients = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            if (employee.getId() == null || isEnabled(maskFor(employee.getId()), channel, type)) {
+                recipients.add(employee);
+            }
+        }
+        return recipients;
+    }
+
+    /**
+     * Returns the grouped settings for the user, in the shape the notification settings API uses.
+     */
+    public Map<String, Object> getSettings(Long employeeId) {
+        long mask = maskFor(employeeId);
+        Map<String, Object> settings = new LinkedHashMap<>();
+        for (Map.Entry<String, NotificationChannel> entry : CHANNEL_SETTINGS.entrySet()) {
+            settings.put(entry.getKey(), (mask & channelBit(entry.getValue())) != 0);
+        }
+        for (Map.Entry<String, Category> entry : CATEGORY_SETTINGS.entrySet()) {
+            settings.put(entry.getKey(), (mask & categoryBits(entry.getValue())) != 0);
+        }
+        return settings;
+    }
+
+    /**
+     * Applies grouped settings for the user and persists the resulting mask. Keys not present are left unchanged.
+     *
+     * @throws RuntimeException if a key is not a known setting
+     */
+    @Transactional
+    public void updateSettings(Long employeeId, Map<String, Object> settings) {
+        long mask = maskFor(employeeId);
+        for (Map.Entry<String, Object> entry : settings.entrySet()) {
+            long bits;
+            if (CHANNEL_SETTINGS.containsKey(entry.getKey())) {
+                bits = channelBit(CHANNEL_SETTINGS.get(entry.getKey()));
+            } else if (CATEGORY_SETTINGS.containsKey(entry.getKey())) {
+                bits = categoryBits(CATEGORY_SETTINGS.get(entry.getKey()));
+            } else {
+                throw new RuntimeException("Unknown notification setting: " + entry.getKey());
+            }
+            boolean enabled = Boolean.parseBoolean(String.valueOf(entry.getValue()));
+            mask = enabled ? mask | bits : mask & ~bits;
+        }
+        preferenceRepository.save(NotificationPreference.builder()
+            .employeeId(employeeId)
+            .enabledMask(mask)
+            .updatedAt(LocalDateTime.now())
+            .build());
+        maskCache.put(employeeId, mask);
+        log.info("Notification preferences updated for employee {}", employeeId);
+    }
+
+    private long maskFor(Long employeeId) {
+        Long cached = maskCache.get(employeeId);
+        if (cached != null) {
+            return cached;
+        }
+        long loaded = preferenceRepository.findById(employeeId)
+            .map(NotificationPreference::getEnabledMask)
+            .orElse(DEFAULT_MASK);
+        Long raced = maskCache.putIfAbsent(employeeId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private static boolean isEnabled(long mask, NotificationChannel channel, NotificationEventType type) {
+        return (mask & channelBit(channel)) != 0 && (mask & eventBit(channel, type)) != 0;
+    }
+
+    private static long channelBit(NotificationChannel channel) {
+        return 1L << (CHANNEL_BIT_OFFSET + channel.ordinal());
+    }
+
+    private static long eventBit(NotificationChannel channel, NotificationEventType type) {
+        return 1L << (channel.ordinal() * EVENT_BITS_PER_CHANNEL + type.ordinal());
+    }
+
+    private static long categoryBits(Category category) {
+        long bits = 0L;
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            for (NotificationEventType type : NotificationEventType.values()) {
+                if (type.getCategory() == category) {
+                    bits |= eventBit(channel, type);
+                }
+            }
+        }
+        return bits;
+    }
+}
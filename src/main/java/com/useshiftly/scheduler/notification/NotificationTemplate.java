@@ -0,0 +1,112 @@
+package com.useshiftly.scheduler.notification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A notification text template parsed once into literal segments and argument slots.
+ * <p>
+ * Placeholders use the form <code>{name}</code>, where <code>name</code> must be one of the variables declared
+ * at compile time. Rendering appends literals and arguments into a reusable per-thread {@link StringBuilder},
+ * so bulk fan-outs do not re-parse a format string for every recipient the way {@link String#format} does.
+ * <p>
+ * Arguments are passed positionally in the order the variables were declared. Instances are immutable and
+ * thread-safe.
+ */
+public final class NotificationTemplate {
+
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    // literals[i] is written before slot i; the last literal is written after the final slot
+    private final String[] literals;
+    private final int[] slots;
+    private final int variableCount;
+    private final int literalLength;
+
+    private NotificationTemplate(String[] literals, int[] slots, int variableCount) {
+        this.literals = literals;
+        this.slots = slots;
+        this.variableCount = variableCount;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a template source into segments.
+     *
+     * @param source    template text containing <code>{name}</code> placeholders
+     * @param variables the variable names, in the order arguments will be passed to {@link #render}
+     * @return the compiled template
+     * @throws IllegalArgumentException if a placeholder is unterminated or names an undeclared variable
+     */
+    public static NotificationTemplate compile(String source, String... variables) {
+        List<String> names = Arrays.asList(variables);
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf('{', position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            int close = source.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder at index " + open + " in template: " + source);
+            }
+            String name = source.substring(open + 1, close);
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown placeholder {" + name + "} in template: " + source);
+            }
+            literals.add(source.substring(position, open));
+            slots.add(index);
+            position = close + 1;
+        }
+        return new NotificationTemplate(
+            literals.toArray(new String[0]),
+            slots.stream().mapToInt(Integer::intValue).toArray(),
+            variables.length);
+    }
+
+    /**
+     * Renders the template into a new String using the calling thread's reusable buffer.
+     *
+     * @param args argument values in declared variable order
+     * @return the rendered text
+     */
+    public String render(String... args) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        String rendered = renderTo(buffer, args).toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            // Don't let one oversized message pin a large buffer to the thread
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    /**
+     * Appends the rendered template to the given builder.
+     *
+     * @param out  destination builder
+     * @param args argument values in declared variable order
+     * @return the same builder
+     */
+    public StringBuilder renderTo(StringBuilder out, String... args) {
+        if (args.length != variableCount) {
+            throw new IllegalArgumentException("Expected " + variableCount + " template arguments but got " + args.length);
+        }
+        out.ensureCapacity(out.length() + literalLength + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(args[slots[i]]);
+        }
+        return out.append(literals[slots.length]);
+    }
+}
@@ -0,0 +1,222 @@
+package com.useshiftly.scheduler.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Registry of precompiled subject, body and summary templates, one set per {@link NotificationEventType}.
+ * <p>
+ * All three templates for an event type are compiled against the same variable list, so a caller builds one
+ * argument array and renders the whole message from it. Variable order per event type:
+ * <ul>
+ *   <li>SHIFT_ASSIGNED, SHIFT_UPDATED, SHIFT_CANCELLED, SHIFT_PICKUP_CONFIRMED, SHIFT_POSTED_REMINDER:
+ *       firstName, start, end, department, notes</li>
+ *   <li>SHIFT_PICKED_UP, SHIFT_POSTED, TRADE_OFFERED, TRADE_OFFER_REMINDER:
+ *       firstName, otherFirstName, otherLastName, start, end, department, notes</li>
+ *   <li>TRADE_ACCEPTED_PICKUP, TRADE_ACCEPTED_REQUESTER: none</li>
+ *   <li>TRADE_DECLINED: otherFirstName, otherLastName, shiftId, start, end, department</li>
+ *   <li>TRADE_REJECTED: reason</li>
+ *   <li>ACCOUNT_CREATED: firstName, tempPassword</li>
+ *   <li>DIGEST: firstName, count, items</li>
+ * </ul>
+ * The login URL (<code>app.notification.base-url</code>) is baked into the templates when they are compiled.
+ */
+@Component
+public class NotificationTemplates {
+
+    private static final String[] SHIFT = {"firstName", "start", "end", "department", "notes"};
+    private static final String[] PARTY_SHIFT = {"firstName", "otherFirstName", "otherLastName", "start", "end", "department", "notes"};
+    private static final String[] NONE = {};
+
+    private final Map<NotificationEventType, CompiledMessage> templates = new EnumMap<>(NotificationEventType.class);
+
+    public NotificationTemplates(@Value("${app.notification.base-url:https://useshiftly.com}") String baseUrl) {
+        String footer = "You can log in at: " + baseUrl + "/\n\nBest regards,\nShiftly Team";
+
+        register(NotificationEventType.SHIFT_ASSIGNED, SHIFT,
+            "New Shift Assignment",
+            "Hello {firstName},\n\n" +
+            "You have been assigned a new shift:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "Please log into Shiftly to view more details.\n\n" + footer,
+            "New shift: {start} - {end} ({department})");
+
+        register(NotificationEventType.SHIFT_UPDATED, SHIFT,
+            "Shift Update",
+            "Hello {firstName},\n\n" +
+            "Your shift has been updated:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "Please log into Shiftly to view the updated details.\n\n" + footer,
+            "Shift updated: {start} - {end} ({department})");
+
+        register(NotificationEventType.SHIFT_CANCELLED, SHIFT,
+            "Shift Cancelled",
+            "Hello {firstName},\n\n" +
+            "Your shift has been cancelled:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n\n" +
+            "If you have any questions, please contact your manager.\n\n" + footer,
+            "Shift cancelled: {start} - {end} ({department})");
+
+        register(NotificationEventType.SHIFT_PICKED_UP, PARTY_SHIFT,
+            "Shift Picked Up",
+            "Hello {firstName},\n\n" +
+            "Your shift has been picked up by {otherFirstName} {otherLastName}:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n\n" +
+            "Thank you for making your shift available.\n\n" + footer,
+            "Your shift was picked up by {otherFirstName} {otherLastName}: {start} - {end} ({department})");
+
+        register(NotificationEventType.SHIFT_PICKUP_CONFIRMED, SHIFT,
+            "Shift Assignment Confirmation",
+            "Hello {firstName},\n\n" +
+            "You have successfully picked up a shift:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "Thank you for your flexibility.\n\n" + footer,
+            "You picked up a shift: {start} - {end} ({department})");
+
+        register(NotificationEventType.SHIFT_POSTED, PARTY_SHIFT,
+            "Shift Available for Pickup",
+            "Hello {firstName},\n\n" +
+            "{otherFirstName} {otherLastName} has posted a shift available for pickup:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "Log into Shiftly to pick up this shift if interested.\n\n" + footer,
+            "Shift available for pickup: {start} - {end} ({department})");
+
+        register(NotificationEventType.SHIFT_POSTED_REMINDER, SHIFT,
+            "Shift Posted - Responsibility Reminder",
+            "Hello {firstName},\n\n" +
+            "You have posted your shift for pickup by other employees. However, you are still responsible for this shift until someone picks it up and it is confirmed.\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "If no one picks up the shift in time, you are expected to show up for your scheduled shift.\n\n" + footer,
+            "Reminder: you are still responsible for your posted shift: {start} - {end} ({department})");
+
+        register(NotificationEventType.TRADE_OFFERED, PARTY_SHIFT,
+            "Shift Trade Offer",
+            "Hello {firstName},\n\n" +
+            "{otherFirstName} {otherLastName} has offered you a shift:\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "Please log into Shiftly to accept or decline this offer.\n\n" + footer,
+            "{otherFirstName} {otherLastName} offered you a shift: {start} - {end} ({department})");
+
+        register(NotificationEventType.TRADE_OFFER_REMINDER, PARTY_SHIFT,
+            "Shift Trade Offer - Responsibility Reminder",
+            "Hello {firstName},\n\n" +
+            "You have offered your shift to {otherFirstName} {otherLastName}. However, you are still responsible for this shift until it is accepted and confirmed.\n\n" +
+            "Date & Time: {start} - {end}\n" +
+            "Department: {department}\n" +
+            "Notes: {notes}\n\n" +
+            "If the offer is not accepted in time, you are expected to show up for your scheduled shift.\n\n" + footer,
+            "Reminder: you are still responsible for your offered shift: {start} - {end} ({department})");
+
+        register(NotificationEventType.TRADE_ACCEPTED_PICKUP, NONE,
+            "Shift Trade Accepted",
+            "You have accepted a shift trade. Awaiting manager approval.",
+            "You accepted a shift trade, awaiting manager approval");
+
+        register(NotificationEventType.TRADE_ACCEPTED_REQUESTER, NONE,
+            "Shift Trade Accepted",
+            "Your shift trade has been accepted and is pending manager approval.",
+            "Your shift trade was accepted and is pending manager approval");
+
+        register(NotificationEventType.TRADE_DECLINED, new String[]{"otherFirstName", "otherLastName", "shiftId", "start", "end", "department"},
+            "Shift Trade Declined",
+            "Your shift trade offer was declined by {otherFirstName} {otherLastName}. Shift: {shiftId} Date & Time: {start} - {end} Department: {department}",
+            "Trade declined: {start} - {end}");
+
+        register(NotificationEventType.TRADE_REJECTED, new String[]{"reason"},
+            "Shift Trade Rejected",
+            "Your shift trade was rejected by a manager.{reason}",
+            "Your shift trade was rejected by a manager.{reason}");
+
+        register(NotificationEventType.ACCOUNT_CREATED, new String[]{"firstName", "tempPassword"},
+            "Welcome to Shiftly Scheduler - Account Created",
+            "Hello {firstName},\n\n" +
+            "Your account has been created on Shiftly Scheduler.\n" +
+            "You can log in at: " + baseUrl + "\n\n" +
+            "Your temporary password: {tempPassword}\n" +
+            "You will be required to change your password on first login.\n\n" +
+            "If you have any questions, please contact your manager or HR.\n\n" +
+            "Best regards,\nShiftly Scheduler Team",
+            "Your account has been created. Temporary password: {tempPassword}. You will be required to change your password on first login.");
+
+        register(NotificationEventType.DIGEST, new String[]{"firstName", "count", "items"},
+            "Shiftly Schedule Summary ({count} updates)",
+            "Hello {firstName},\n\n" +
+            "Here is a summary of {count} recent updates to your schedule:\n\n" +
+            "{items}\n" +
+            "Please log into Shiftly to view the full details.\n\n" + footer,
+            "{count} schedule updates");
+
+        for (NotificationEventType type : NotificationEventType.values()) {
+            if (!templates.containsKey(type)) {
+                throw new IllegalStateException("No notification template registered for " + type);
+            }
+        }
+    }
+
+    /**
+     * Renders the subject, body and summary for an event type.
+     *
+     * @param type the event type
+     * @param args argument values in the event type's variable order (see class docs)
+     * @return the rendered message
+     */
+    public Message render(NotificationEventType type, String... args) {
+        CompiledMessage compiled = templates.get(type);
+        return new Message(compiled.subject.render(args), compiled.body.render(args), compiled.summary.render(args));
+    }
+
+    private void register(NotificationEventType type, String[] variables, String subject, String body, String summary) {
+        templates.put(type, new CompiledMessage(
+            NotificationTemplate.compile(subject, variables),
+            NotificationTemplate.compile(body, variables),
+            NotificationTemplate.compile(summary, variables)));
+    }
+
+    /**
+     * A rendered notification. The summary is the one-line form used in digests and in-app notifications.
+     */
+    public static final class Message {
+        private final String subject;
+        private final String body;
+        private final String summary;
+
+        Message(String subject, String body, String summary) {
+            this.subject = subject;
+            this.body = body;
+            this.summary = summary;
+        }
+
+        public String getSubject() { return subject; }
+        public String getBody() { return body; }
+        public String getSummary() { return summary; }
+    }
+
+    private static final class CompiledMessage {
+        final NotificationTemplate subject;
+        final NotificationTemplate body;
+        final NotificationTemplate summary;
+
+        CompiledMessage(NotificationTemplate subject, NotificationTemplate body, NotificationTemplate summary) {
+            this.subject = subject;
+            this.body = body;
+            this.summary = summary;
+        }
+    }
+}
@@ -20,6 +20,12 @@ public interface BuildingRepository extends JpaRepository<Building, Long> {
     // Find buildings by managers (many-to-many)
     List<Building> findByManagers_Id(Long managerId);
 
+    @Query("SELECT b.id FROM Building b JOIN b.employees e WHERE e.id = :adminId AND e.role = 'ADMIN'")
+    List<Long> findIdsByAdminId(@Param("adminId") Long adminId);
+
+    @Query("SELECT b.id FROM Building b JOIN b.managers m WHERE m.id = :managerId")
+    List<Long> findIdsByManagerId(@Param("managerId") Long managerId);
+
     @Query("SELECT COUNT(DISTINCT b) FROM Building b JOIN b.employees e WHERE e.id = :adminId AND e.role = 'ADMIN'")
     long countByAdminId(@Param("adminId") Long adminId);
 }
\ No newline at end of file
@@ -20,9 +20,19 @@ public interface DepartmentRepository extends JpaRepository<Department, Long> {
 
     boolean existsByName(String name);
 
-    @Query("SELECT d FROM Department d WHERE d.building.admin.id = :adminId")
+    // Building.getAdmin() is derived from its employees, not a mapped attribute, so join through them
+    @Query("SELECT d FROM Department d JOIN d.building b JOIN b.employees admin WHERE admin.id = :adminId AND admin.role = 'ADMIN'")
     List<Department> findAllByAdminId(@Param("adminId") Long adminId);
 
     @Query("SELECT d FROM Department d WHERE d.building.id = :buildingId")
     List<Department> findAllByBuildingId(@Param("buildingId") Long buildingId);
+
+    @Query("SELECT d FROM Department d WHERE d.building.id IN :buildingIds")
+    List<Department> findAllByBuildingIds(@Param("buildingIds") java.util.Collection<Long> buildingIds);
+
+    @Query("SELECT d.id FROM Department d WHERE d.building.id IN :buildingIds")
+    List<Long> findIdsByBuildingIds(@Param("buildingIds") java.util.Collection<Long> buildingIds);
+
+    @Query("SELECT d.building.id FROM Department d WHERE d.id = :id")
+    Optional<Long> findBuildingIdById(@Param("id") Long id);
 }
@@ -0,0 +1,14 @@
+package com.useshiftly.scheduler.repository;
+
+import com.useshiftly.scheduler.model.EmployeeImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmployeeImportJobRepository extends JpaRepository<EmployeeImportJob, String> {
+
+    List<EmployeeImportJob> findByNodeIdAndStatusInOrderByCreatedAtAsc(String nodeId, Collection<EmployeeImportJob.Status> statuses);
+}
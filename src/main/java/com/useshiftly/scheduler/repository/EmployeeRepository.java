@@ -3,11 +3,14 @@ package com.useshiftly.scheduler.repository;
 import com.useshiftly.scheduler.model.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
@@ -24,6 +27,15 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     List<Employee> findByDepartmentId(Long departmentId);
     
     Optional<Employee> findByEmail(String email);
+
+    /**
+     * Returns only the current JWT token version, for revocation checks on the authentication path.
+     */
+    @Query("SELECT e.tokenVersion FROM Employee e WHERE e.id = :id")
+    Optional<Integer> findTokenVersion(@Param("id") Long id);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") java.util.Collection<String> emails);
     
     List<Employee> findByActiveTrue();
     
@@ -37,6 +49,14 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     // Find all employees by building
     List<Employee> findByBuildingId(Long buildingId);
 
+    /**
+     * Returns the employees of the given buildings with department and building fetched.
+     * @param buildingIds Building IDs, normally from TenantContext
+     * @return List of employees
+     */
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.department JOIN FETCH e.building b WHERE b.id IN :buildingIds")
+    List<Employee> findByBuildingIdIn(@Param("buildingIds") java.util.Collection<Long> buildingIds);
+
     /**
      * Returns an employee by ID, eagerly fetching the associated department.
      * @param id Employee ID
@@ -55,4 +75,54 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     @Query("SELECT COUNT(e) FROM Employee e JOIN e.building b JOIN b.employees admin WHERE admin.id = :adminId AND admin.role = 'ADMIN' AND e.role = :role")
     long countByAdminIdAndRole(@Param("adminId") Long adminId, @Param("role") com.useshiftly.scheduler.model.Employee.Role role);
+
+    /**
+     * Returns usage for every active admin in one grouped query: active (not deleted) employees and managers
+     * in the admin's building, and the number of buildings. Admins without a building are included with zeros.
+     */
+    @Query("SELECT admin.id AS adminId, admin.email AS adminEmail, admin.packageType AS packageType, " +
+           "COALESCE(SUM(CASE WHEN e.role = 'EMPLOYEE' AND e.deletedAt IS NULL THEN 1 ELSE 0 END), 0) AS employees, " +
+           "COALESCE(SUM(CASE WHEN e.role = 'MANAGER' AND e.deletedAt IS NULL THEN 1 ELSE 0 END), 0) AS managers, " +
+           "COUNT(DISTINCT b.id) AS buildings " +
+           "FROM Employee admin LEFT JOIN admin.building b LEFT JOIN b.employees e " +
+           "WHERE admin.role = 'ADMIN' AND admin.active = true " +
+           "GROUP BY admin.id, admin.email, admin.packageType")
+    List<AdminUsageRow> findAdminUsage();
+
+    /**
+     * Projection for {@link #findAdminUsage()}.
+     */
+    interface AdminUsageRow {
+        Long getAdminId();
+        String getAdminEmail();
+        String getPackageType();
+        Long getEmployees();
+        Long getManagers();
+        Long getBuildings();
+    }
+
+    /**
+     * Streams active, non-deleted employees of a building for CSV export, as projections ordered by id.
+     * Must be consumed inside a transaction; rows are fetched from a cursor in batches.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.id AS id, e.firstName AS firstName, e.lastName AS lastName, e.email AS email, " +
+           "e.phoneNumber AS phoneNumber, e.role AS role, d.name AS departmentName, e.active AS active " +
+           "FROM Employee e LEFT JOIN e.department d " +
+           "WHERE e.building.id = :buildingId AND e.active = true AND e.deletedAt IS NULL ORDER BY e.id")
+    Stream<EmployeeExportRow> streamActiveForExport(@Param("buildingId") Long buildingId);
+
+    /**
+     * Projection for {@link #streamActiveForExport(Long)}.
+     */
+    interface EmployeeExportRow {
+        Long getId();
+        String getFirstName();
+        String getLastName();
+        String getEmail();
+        String getPhoneNumber();
+        Employee.Role getRole();
+        String getDepartmentName();
+        Boolean getActive();
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +21,7 @@ import java.util.Optional;
  * - findByEmployeeId: Get all shifts for a specific employee
  * - findByDepartmentId: Get all shifts for a specific department
  * - findByDateRange: Get all shifts within a date range
+ * - findByBuildingIds / findByBuildingIdsAndDateRange: Get shifts scoped to the caller's buildings
  * - findByEmployeeAndDateRange: Get shifts for an employee within a date range
  * - findAvailableForPickup: Get all shifts available for pickup/trade
  * - findByDepartmentAndDateRange: Get shifts for a department within a date range
@@ -52,6 +54,28 @@ public interface ShiftRepository extends JpaRepository<Shift, Long> {
     List<Shift> findByDateRange(@Param("startDate") OffsetDateTime startDate, 
                                @Param("endDate") OffsetDateTime endDate);
 
+    /**
+     * Returns all shifts in departments of the given buildings, with department and employee fetched.
+     * @param buildingIds Building IDs, normally from TenantContext
+     * @return List of shifts
+     */
+    @Query("SELECT s FROM Shift s JOIN FETCH s.department d LEFT JOIN FETCH s.employee " +
+           "WHERE d.building.id IN :buildingIds")
+    List<Shift> findByBuildingIds(@Param("buildingIds") Collection<Long> buildingIds);
+
+    /**
+     * Returns shifts in departments of the given buildings within a date range, with department and employee fetched.
+     * @param buildingIds Building IDs, normally from TenantContext
+     * @param startDate Start date/time
+     * @param endDate End date/time
+     * @return List of shifts
+     */
+    @Query("SELECT s FROM Shift s JOIN FETCH s.department d LEFT JOIN FETCH s.employee " +
+           "WHERE d.building.id IN :buildingIds AND s.startTime >= :startDate AND s.endTime <= :endDate")
+    List<Shift> findByBuildingIdsAndDateRange(@Param("buildingIds") Collection<Long> buildingIds,
+                                              @Param("startDate") OffsetDateTime startDate,
+                                              @Param("endDate") OffsetDateTime endDate);
+
     /**
      * Returns all shifts for an employee within a date range.
      * @param employeeId Employee ID
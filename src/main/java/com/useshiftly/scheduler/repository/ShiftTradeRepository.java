@@ -27,6 +27,10 @@ public interface ShiftTradeRepository extends JpaRepository<ShiftTrade, Long> {
     
     List<ShiftTrade> findByStatus(ShiftTrade.TradeStatus status);
     
+    @Query("SELECT st FROM ShiftTrade st JOIN FETCH st.shift s JOIN FETCH s.department d LEFT JOIN FETCH s.employee " +
+           "LEFT JOIN FETCH st.requestingEmployee LEFT JOIN FETCH st.pickupEmployee WHERE d.building.id IN :buildingIds")
+    List<ShiftTrade> findByBuildingIds(@Param("buildingIds") java.util.Collection<Long> buildingIds);
+
     @Query("SELECT st FROM ShiftTrade st WHERE st.shift.department.id = :departmentId")
     List<ShiftTrade> findByDepartmentId(@Param("departmentId") Long departmentId);
     
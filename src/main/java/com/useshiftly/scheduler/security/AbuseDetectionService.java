@@ -1,5 +1,6 @@
 package com.useshiftly.scheduler.security;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +13,6 @@ import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Pattern;
 
 /**
  * Advanced abuse detection and IP blocking service with automatic threat mitigation.
@@ -33,6 +33,9 @@ import java.util.regex.Pattern;
  * - Cross-site scripting attempts
  * - Bot scanning behavior
  * - Unusual request frequencies
+ * 
+ * The permanent blacklist and whitelist are written through to the {@link SecurityStateStore} and, when the store
+ * is shared, reloaded from it on every shared-state sync, so every instance enforces the same lists.
  */
 @Service
 @RequiredArgsConstructor
@@ -41,6 +44,7 @@ public class AbuseDetectionService {
 
     private final SecurityEventService securityEventService;
     private final RateLimitingService rateLimitingService;
+    private final SecurityStateStore stateStore;
 
     @Value("${security.abuse.auth-failure-threshold:10}")
     private int authFailureThreshold;
@@ -57,36 +61,95 @@ public class AbuseDetectionService {
     @Value("${security.abuse.enabled:true}")
     private boolean abuseDetectionEnabled;
 
-    // Track suspicious activities per IP
-    private final ConcurrentHashMap<String, SuspiciousActivityTracker> activityTrackers = new ConcurrentHashMap<>();
+    @Value("${security.abuse.max-tracked-ips:10000}")
+    private int maxTrackedIps;
+
+    @Value("${security.abuse.sketch-width:16384}")
+    private int sketchWidth;
+
+    // Track suspicious activities per IP; bounded so an address spray cannot grow the heap
+    private BoundedTrackerStore<SuspiciousActivityTracker> activityTrackers;
     
     // Permanent blacklist
     private final Set<String> permanentBlacklist = ConcurrentHashMap.newKeySet();
     
     // Whitelist (never block these IPs)
     private final Set<String> whitelist = ConcurrentHashMap.newKeySet();
+
+    // Entries known to be in the shared store; only these are dropped when a refresh no longer finds them
+    private final Set<String> sharedBlacklist = ConcurrentHashMap.newKeySet();
+    private final Set<String> sharedWhitelist = ConcurrentHashMap.newKeySet();
     
-    // Malicious request patterns
-    private final List<MaliciousPattern> maliciousPatterns = Arrays.asList(
-        new MaliciousPattern("sql_injection", 
-            Pattern.compile("(?i).*(union|select|insert|update|delete|drop|create|alter|exec|script).*"),
-            "SQL injection attempt"),
-        new MaliciousPattern("path_traversal", 
-            Pattern.compile(".*(\\.\\./|\\.\\.\\\\|%2e%2e%2f|%2e%2e%5c).*"),
-            "Path traversal attempt"),
-        new MaliciousPattern("xss_attempt", 
-            Pattern.compile("(?i).*(script|javascript|vbscript|onload|onerror|alert|eval).*"),
-            "Cross-site scripting attempt"),
-        new MaliciousPattern("admin_scan", 
-            Pattern.compile("(?i).*(wp-admin|phpmyadmin|administrator|pma|adminer|webadmin|sqladmin|mysqladmin).*"),
-            "Admin interface scanning"),
-        new MaliciousPattern("file_inclusion", 
-            Pattern.compile("(?i).*(php://|file://|data://|expect://|zip://).*"),
-            "File inclusion attempt"),
-        new MaliciousPattern("null_byte", 
-            Pattern.compile(".*(%00|\\x00).*"),
-            "Null byte injection")
-    );
+    // Malicious request signatures, compiled into one automaton so each input is scanned once.
+    // SQL and script signatures are keyword combinations rather than bare words like "select" or "update",
+    // which show up in ordinary query strings.
+    private static final Map<String, String> PATTERN_DESCRIPTIONS = Map.of(
+        "sql_injection", "SQL injection attempt",
+        "path_traversal", "Path traversal attempt",
+        "xss_attempt", "Cross-site scripting attempt",
+        "admin_scan", "Admin interface scanning",
+        "file_inclusion", "File inclusion attempt",
+        "null_byte", "Null byte injection");
+
+    private final SignatureMatcher signatureMatcher = new SignatureMatcher(List.of(
+        SignatureMatcher.Signature.word("sql_injection", "union select"),
+        SignatureMatcher.Signature.word("sql_injection", "union all select"),
+        SignatureMatcher.Signature.of("sql_injection", "union/**/select"),
+        SignatureMatcher.Signature.word("sql_injection", "select * from"),
+        SignatureMatcher.Signature.word("sql_injection", "insert into"),
+        SignatureMatcher.Signature.word("sql_injection", "delete from"),
+        SignatureMatcher.Signature.word("sql_injection", "drop table"),
+        SignatureMatcher.Signature.word("sql_injection", "drop database"),
+        SignatureMatcher.Signature.word("sql_injection", "alter table"),
+        SignatureMatcher.Signature.word("sql_injection", "create table"),
+        SignatureMatcher.Signature.word("sql_injection", "truncate table"),
+        SignatureMatcher.Signature.word("sql_injection", "exec("),
+        SignatureMatcher.Signature.word("sql_injection", "xp_cmdshell"),
+        SignatureMatcher.Signature.word("sql_injection", "information_schema"),
+        SignatureMatcher.Signature.word("sql_injection", "or 1=1"),
+        SignatureMatcher.Signature.of("sql_injection", "' or '"),
+        SignatureMatcher.Signature.of("sql_injection", "' or 1"),
+        SignatureMatcher.Signature.of("sql_injection", "'--"),
+        SignatureMatcher.Signature.of("sql_injection", "'; "),
+        SignatureMatcher.Signature.word("sql_injection", "sleep("),
+        SignatureMatcher.Signature.word("sql_injection", "waitfor delay"),
+        SignatureMatcher.Signature.of("path_traversal", "../"),
+        SignatureMatcher.Signature.of("path_traversal", "..\\"),
+        SignatureMatcher.Signature.of("path_traversal", "%2e%2e%2f"),
+        SignatureMatcher.Signature.of("path_traversal", "%2e%2e%5c"),
+        SignatureMatcher.Signature.of("path_traversal", "..%2f"),
+        SignatureMatcher.Signature.of("path_traversal", "..%5c"),
+        SignatureMatcher.Signature.of("xss_attempt", "<script"),
+        SignatureMatcher.Signature.of("xss_attempt", "%3cscript"),
+        SignatureMatcher.Signature.of("xss_attempt", "javascript:"),
+        SignatureMatcher.Signature.of("xss_attempt", "vbscript:"),
+        SignatureMatcher.Signature.word("xss_attempt", "onload="),
+        SignatureMatcher.Signature.word("xss_attempt", "onerror="),
+        SignatureMatcher.Signature.word("xss_attempt", "alert("),
+        SignatureMatcher.Signature.word("xss_attempt", "eval("),
+        SignatureMatcher.Signature.of("xss_attempt", "document.cookie"),
+        SignatureMatcher.Signature.of("admin_scan", "wp-admin"),
+        SignatureMatcher.Signature.of("admin_scan", "phpmyadmin"),
+        SignatureMatcher.Signature.of("admin_scan", "administrator"),
+        SignatureMatcher.Signature.word("admin_scan", "pma"),
+        SignatureMatcher.Signature.of("admin_scan", "adminer"),
+        SignatureMatcher.Signature.of("admin_scan", "webadmin"),
+        SignatureMatcher.Signature.of("admin_scan", "sqladmin"),
+        SignatureMatcher.Signature.of("admin_scan", "mysqladmin"),
+        SignatureMatcher.Signature.of("file_inclusion", "php://"),
+        SignatureMatcher.Signature.of("file_inclusion", "file://"),
+        SignatureMatcher.Signature.of("file_inclusion", "data://"),
+        SignatureMatcher.Signature.of("file_inclusion", "expect://"),
+        SignatureMatcher.Signature.of("file_inclusion", "zip://"),
+        SignatureMatcher.Signature.of("null_byte", "%00"),
+        SignatureMatcher.Signature.of("null_byte", "\0")
+    ));
+
+    @PostConstruct
+    void initTrackerStore() {
+        activityTrackers = new BoundedTrackerStore<>(maxTrackedIps, sketchWidth,
+            ip -> new SuspiciousActivityTracker(), SuspiciousActivityTracker::estimatedBytes);
+    }
 
     /**
      * Analyzes a request for suspicious patterns and updates threat intelligence.
@@ -102,46 +165,36 @@ public class AbuseDetectionService {
             return false;
         }
 
-        // Get or create activity tracker
-        SuspiciousActivityTracker tracker = activityTrackers.computeIfAbsent(
-            clientIP, k -> new SuspiciousActivityTracker()
-        );
-
         boolean suspicious = false;
         List<String> detectedPatterns = new ArrayList<>();
 
         // Check for malicious patterns in endpoint
-        for (MaliciousPattern pattern : maliciousPatterns) {
-            if (pattern.pattern.matcher(endpoint).matches()) {
-                suspicious = true;
-                detectedPatterns.add(pattern.name);
-                tracker.recordMaliciousPattern(pattern.name);
-                
-                securityEventService.logMaliciousRequest(
-                    request,
-                    pattern.name,
-                    String.format("Pattern: %s, Endpoint: %s", pattern.description, endpoint)
-                );
-            }
+        long endpointMatches = signatureMatcher.scan(endpoint);
+        for (String name : matchedPatterns(endpointMatches)) {
+            suspicious = true;
+            detectedPatterns.add(name);
+
+            securityEventService.logMaliciousRequest(
+                request,
+                name,
+                String.format("Pattern: %s, Endpoint: %s", PATTERN_DESCRIPTIONS.get(name), endpoint)
+            );
         }
 
         // Check parameters for malicious content
         if (parameters != null) {
             for (Map.Entry<String, String> param : parameters.entrySet()) {
                 String value = param.getValue();
-                for (MaliciousPattern pattern : maliciousPatterns) {
-                    if (pattern.pattern.matcher(value).matches()) {
-                        suspicious = true;
-                        detectedPatterns.add(pattern.name + "_param");
-                        tracker.recordMaliciousPattern(pattern.name + "_param");
-                        
-                        securityEventService.logMaliciousRequest(
-                            request,
-                            pattern.name + "_param",
-                            String.format("Pattern: %s, Parameter: %s=%s", 
-                                pattern.description, param.getKey(), value)
-                        );
-                    }
+                for (String name : matchedPatterns(signatureMatcher.scan(value))) {
+                    suspicious = true;
+                    detectedPatterns.add(name + "_param");
+
+                    securityEventService.logMaliciousRequest(
+                        request,
+                        name + "_param",
+                        String.format("Pattern: %s, Parameter: %s=%s",
+                            PATTERN_DESCRIPTIONS.get(name), param.getKey(), value)
+                    );
                 }
             }
         }
@@ -151,7 +204,6 @@ public class AbuseDetectionService {
             if (isSuspiciousUserAgent(userAgent)) {
                 suspicious = true;
                 detectedPatterns.add("suspicious_bot");
-                tracker.recordSuspiciousUserAgent();
                 
                 securityEventService.logSuspiciousActivity(
                     request,
@@ -163,6 +215,15 @@ public class AbuseDetectionService {
 
         // Update tracker and check if blocking is warranted
         if (suspicious) {
+            // Only suspicious requests get a tracker
+            SuspiciousActivityTracker tracker = activityTrackers.track(clientIP);
+            for (String pattern : detectedPatterns) {
+                if (pattern.equals("suspicious_bot")) {
+                    tracker.recordSuspiciousUserAgent();
+                } else {
+                    tracker.recordMaliciousPattern(pattern);
+                }
+            }
             tracker.recordSuspiciousActivity();
             
             if (shouldBlockIP(tracker)) {
@@ -182,9 +243,7 @@ public class AbuseDetectionService {
             return;
         }
 
-        SuspiciousActivityTracker tracker = activityTrackers.computeIfAbsent(
-            clientIP, k -> new SuspiciousActivityTracker()
-        );
+        SuspiciousActivityTracker tracker = activityTrackers.track(clientIP);
 
         tracker.recordAuthFailure(username);
 
@@ -202,9 +261,7 @@ public class AbuseDetectionService {
             return;
         }
 
-        SuspiciousActivityTracker tracker = activityTrackers.computeIfAbsent(
-            clientIP, k -> new SuspiciousActivityTracker()
-        );
+        SuspiciousActivityTracker tracker = activityTrackers.track(clientIP);
 
         tracker.recordRateLimitViolation();
 
@@ -223,6 +280,7 @@ public class AbuseDetectionService {
         if (blockCount >= permBlockThreshold) {
             // Permanent block
             permanentBlacklist.add(clientIP);
+            shareEntry(SecurityStateStore.ListType.BLACKLIST, clientIP, String.join(", ", reasons));
             securityEventService.logIPBlocked(clientIP, 
                 "Permanent block - repeated abuse: " + String.join(", ", reasons), -1);
             log.error("PERMANENT BLOCK: IP {} permanently blocked for repeated abuse. Patterns: {}", 
@@ -331,6 +389,7 @@ public class AbuseDetectionService {
      */
     public void addToWhitelist(String clientIP) {
         whitelist.add(clientIP);
+        shareEntry(SecurityStateStore.ListType.WHITELIST, clientIP, "manual");
         log.info("Added IP {} to whitelist", clientIP);
     }
 
@@ -339,6 +398,7 @@ public class AbuseDetectionService {
      */
     public void addToPermanentBlacklist(String clientIP) {
         permanentBlacklist.add(clientIP);
+        shareEntry(SecurityStateStore.ListType.BLACKLIST, clientIP, "manual");
         log.warn("Added IP {} to permanent blacklist", clientIP);
     }
 
@@ -349,6 +409,69 @@ public class AbuseDetectionService {
         if (permanentBlacklist.remove(clientIP)) {
             log.info("Removed IP {} from permanent blacklist", clientIP);
         }
+        sharedBlacklist.remove(clientIP);
+        try {
+            stateStore.removeEntry(SecurityStateStore.ListType.BLACKLIST, clientIP);
+        } catch (Exception e) {
+            log.error("Could not remove shared blacklist entry for IP {}: {}", clientIP, e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the blacklist and whitelist from the shared store. No-op without a shared store.
+     */
+    @Scheduled(fixedDelayString = "${security.shared-state.flush-interval-ms:2000}")
+    public void refreshSharedLists() {
+        if (!stateStore.isShared()) {
+            return;
+        }
+        try {
+            // Taken before loading, so an entry added during the load is left to the next refresh
+            Set<String> localBlacklist = new HashSet<>(permanentBlacklist);
+            Set<String> localWhitelist = new HashSet<>(whitelist);
+            Set<String> blacklisted = new HashSet<>();
+            Set<String> whitelisted = new HashSet<>();
+            for (SecurityStateStore.IpListEntry entry : stateStore.loadEntries()) {
+                switch (entry.getType()) {
+                    case BLACKLIST -> blacklisted.add(entry.getIp());
+                    case WHITELIST -> whitelisted.add(entry.getIp());
+                    default -> { }
+                }
+            }
+            mergeSharedList(SecurityStateStore.ListType.BLACKLIST, permanentBlacklist, sharedBlacklist, localBlacklist, blacklisted);
+            mergeSharedList(SecurityStateStore.ListType.WHITELIST, whitelist, sharedWhitelist, localWhitelist, whitelisted);
+        } catch (Exception e) {
+            log.warn("Shared IP list refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops entries removed from the shared store since they were last seen there, writes back local entries
+     * whose write-through failed, and adds the other nodes' entries.
+     */
+    private void mergeSharedList(SecurityStateStore.ListType type, Set<String> list, Set<String> seenShared,
+                                 Set<String> localSnapshot, Set<String> stored) {
+        for (String ip : localSnapshot) {
+            if (stored.contains(ip)) {
+                continue;
+            }
+            if (seenShared.remove(ip)) {
+                list.remove(ip);
+            } else if (list.contains(ip)) {
+                shareEntry(type, ip, "resync");
+            }
+        }
+        list.addAll(stored);
+        seenShared.addAll(stored);
+    }
+
+    private void shareEntry(SecurityStateStore.ListType type, String clientIP, String reason) {
+        try {
+            stateStore.saveEntry(type, clientIP, 0, reason);
+            (type == SecurityStateStore.ListType.WHITELIST ? sharedWhitelist : sharedBlacklist).add(clientIP);
+        } catch (Exception e) {
+            log.error("Could not share {} entry for IP {}: {}", type, clientIP, e.getMessage());
+        }
     }
 
     /**
@@ -357,6 +480,8 @@ public class AbuseDetectionService {
     public Map<String, Object> getAbuseStatistics() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("tracked_ips", activityTrackers.size());
+        stats.put("tracker_store", activityTrackers.getStatistics());
+        stats.put("top_offenders", activityTrackers.getTopOffenders(10));
         stats.put("permanent_blocks", permanentBlacklist.size());
         stats.put("whitelist_size", whitelist.size());
         stats.put("detection_enabled", abuseDetectionEnabled);
@@ -365,10 +490,18 @@ public class AbuseDetectionService {
             .mapToLong(tracker -> tracker.getSuspiciousActivityCount())
             .sum();
         stats.put("total_suspicious_activities", totalSuspiciousActivities);
+        stats.put("signature_hits", signatureMatcher.getHitCounts());
         
         return stats;
     }
 
+    /**
+     * Hits per malicious-request signature, keyed <code>category:signature</code>.
+     */
+    public Map<String, Long> getSignatureHitCounts() {
+        return signatureMatcher.getHitCounts();
+    }
+
     /**
      * Scheduled cleanup of old tracking data.
      */
@@ -376,18 +509,19 @@ public class AbuseDetectionService {
     public void cleanupOldData() {
         Instant cutoff = Instant.now().minus(detectionWindowMinutes * 2L, ChronoUnit.MINUTES);
         
-        activityTrackers.entrySet().removeIf(entry -> {
-            SuspiciousActivityTracker tracker = entry.getValue();
-            return tracker.getLastActivity().isBefore(cutoff) && !isPermanentlyBlocked(entry.getKey());
-        });
+        activityTrackers.prune((ip, tracker) ->
+            tracker.getLastActivity().isBefore(cutoff) && !isPermanentlyBlocked(ip));
         
         log.debug("Abuse detection cleanup completed. Active trackers: {}", activityTrackers.size());
     }
 
     /**
      * Internal class to track suspicious activities per IP.
+     * Username tracking is capped so one credential-stuffing IP cannot grow its tracker without limit.
      */
     private static class SuspiciousActivityTracker {
+        private static final int MAX_USERNAMES = 100;
+
         private final AtomicInteger authFailures = new AtomicInteger(0);
         private final AtomicInteger maliciousPatterns = new AtomicInteger(0);
         private final AtomicInteger rateLimitViolations = new AtomicInteger(0);
@@ -400,7 +534,7 @@ public class AbuseDetectionService {
 
         void recordAuthFailure(String username) {
             authFailures.incrementAndGet();
-            if (username != null) {
+            if (username != null && attemptedUsernames.size() < MAX_USERNAMES) {
                 attemptedUsernames.add(username);
             }
             updateLastActivity();
@@ -443,6 +577,14 @@ public class AbuseDetectionService {
         int getSuspiciousActivityCount() { return suspiciousActivities.get(); }
         Instant getLastActivity() { return lastActivity; }
         
+        /**
+         * Rough heap footprint: the object and its counters, two concurrent sets and their elements.
+         */
+        long estimatedBytes() {
+            return 500 + 64L * detectedPatterns.size()
+                + attemptedUsernames.stream().mapToLong(name -> 64L + name.length()).sum();
+        }
+
         int getSuspiciousActivityScore() {
             return authFailures.get() * 2 + 
                    maliciousPatterns.get() * 3 + 
@@ -453,17 +595,19 @@ public class AbuseDetectionService {
     }
 
     /**
-     * Internal class to define malicious request patterns.
+     * Names of the signature categories set in a {@link SignatureMatcher#scan} result.
      */
-    private static class MaliciousPattern {
-        final String name;
-        final Pattern pattern;
-        final String description;
-
-        MaliciousPattern(String name, Pattern pattern, String description) {
-            this.name = name;
-            this.pattern = pattern;
-            this.description = description;
+    private List<String> matchedPatterns(long matches) {
+        if (matches == 0) {
+            return List.of();
+        }
+        List<String> categories = signatureMatcher.getCategories();
+        List<String> names = new ArrayList<>(Long.bitCount(matches));
+        for (int i = 0; i < categories.size(); i++) {
+            if ((matches & (1L << i)) != 0) {
+                names.add(categories.get(i));
+            }
         }
+        return names;
     }
 }
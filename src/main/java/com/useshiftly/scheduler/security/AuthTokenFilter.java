@@ -1,11 +1,14 @@
 package com.useshiftly.scheduler.security;
 
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,6 +32,11 @@ import java.util.Map;
  * If the token is invalid or missing, it returns a 401 Unauthorized response
  * with a JSON error message.
  * <p>
+ * Tokens carrying identity claims are authenticated from the claims alone: the only check against stored state
+ * is the token version, served from {@link PrincipalCache} and read from the database only when the cached
+ * version is missing or stale. A token whose version is behind the employee's is rejected as revoked. Older
+ * subject-only tokens still load the principal through the cache.
+ * <p>
  * <b>Usage:</b> Registered as a Spring bean and automatically applied by Spring
  * Security.
  * <p>
@@ -60,6 +68,31 @@ public class AuthTokenFilter extends OncePerRequestFilter {
      */
     private final AbuseDetectionService abuseDetectionService;
 
+    /**
+     * Short-lived principal cache so authenticated requests skip the employee lookup.
+     */
+    private final PrincipalCache principalCache;
+
+    /**
+     * Reads the current token version when the cached one is missing or stale.
+     */
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * Applies the per-user rate limit policy once the caller is known.
+     */
+    private final RateLimitingService rateLimitingService;
+
+    /**
+     * Classifies the path once per request, shared with {@link EnhancedSecurityFilter}.
+     */
+    private final RouteClassifier routeClassifier;
+
+    /**
+     * Records this filter's own latency.
+     */
+    private final SecurityMetrics securityMetrics;
+
     /**
      * Filters incoming requests to authenticate users based on JWT tokens.
      * <ul>
@@ -78,23 +111,20 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        SecurityMetrics.TimedChain timedChain = new SecurityMetrics.TimedChain(filterChain);
+        try {
+            authenticate(request, response, timedChain);
+        } finally {
+            securityMetrics.filterLatency("jwt_auth").record(System.nanoTime() - start - timedChain.getDownstreamNanos());
+        }
+    }
+
+    private void authenticate(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
         String path = request.getRequestURI();
         // Skip filter for static resources, frontend files, public endpoints, and admin registration endpoints
-        if (path.startsWith("/frontend/") ||
-                path.startsWith("/static/") ||
-                path.startsWith("/public/") ||
-                path.startsWith("/api/public/") ||
-                path.matches(".*\\.(html|css|js|png|jpg|ico)$") || 
-                path.matches("^/frontend/[a-zA-Z0-9_-]+$") ||
-                path.equals("/api/auth/login") ||
-                path.equals("/api/auth/register") ||
-                path.equals("/api/auth/validate-invitation") ||
-                path.equals("/api/auth/change-password") ||
-                path.equals("/api/super-admin/auth/login") ||
-                path.equals("/api/auth/request-admin-access") ||
-                path.equals("/api/auth/verify-admin-code") ||
-                path.equals("/api/auth/register-admin") ||
-                path.equals("/api/auth/check-email")) {
+        if (routeClassifier.classify(request).isPublic()) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -102,21 +132,48 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             String jwt = parseJwt(request);
             log.debug("AuthTokenFilter: Parsed JWT for path {}: {}", path, jwt);
             if (jwt != null) {
-                boolean valid = jwtUtils.validateJwtToken(jwt);
-                log.debug("AuthTokenFilter: JWT validation result for {}: {}", jwt, valid);
-                if (valid) {
-                    String username = jwtUtils.getUserNameFromJwtToken(jwt);
+                Claims claims = jwtUtils.parseVerifiedClaims(jwt);
+                log.debug("AuthTokenFilter: JWT validation result for {}: {}", jwt, claims != null);
+                if (claims != null) {
+                    String username = claims.getSubject();
                     log.debug("AuthTokenFilter: JWT valid, username: {}", username);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    log.debug("AuthTokenFilter: Loaded UserDetails for {}: roles={}", username,
-                            userDetails.getAuthorities());
+                    JwtPrincipal jwtPrincipal = jwtUtils.getJwtPrincipal(claims);
+                    AbstractAuthenticationToken authentication;
+                    if (jwtPrincipal != null) {
+                        if (!principalCache.isTokenVersionCurrent(jwtPrincipal.getEmployeeId(),
+                                jwtPrincipal.getTokenVersion(), employeeRepository::findTokenVersion)) {
+                            log.warn("AuthTokenFilter: Revoked JWT for {} on path {}", username, path);
+                            securityEventService.logAuthenticationFailure(request, username, "Revoked JWT token");
+                            if (!response.isCommitted()) {
+                                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                                response.setContentType("application/json");
+                                response.getWriter().write("{\"error\":\"Token has been revoked\"}");
+                            }
+                            return;
+                        }
+                        authentication = new JwtAuthenticationToken(jwtPrincipal,
+                                () -> principalCache.get(username, userDetailsService::loadUserByUsername));
+                    } else {
+                        UserDetails userDetails = principalCache.get(username, userDetailsService::loadUserByUsername);
+                        log.debug("AuthTokenFilter: Loaded UserDetails for {}: roles={}", username,
+                                userDetails.getAuthorities());
+                        authentication = new UsernamePasswordAuthenticationToken(
+                                userDetails, null,
+                                userDetails.getAuthorities());
+                    }
                     
+                    if (!rateLimitingService.isUserRequestAllowed(username)) {
+                        if (!response.isCommitted()) {
+                            response.setStatus(429);
+                            response.setContentType("application/json");
+                            response.getWriter().write("{\"error\":\"Rate limit exceeded\"}");
+                        }
+                        return;
+                    }
+
                     // Log successful authentication
                     securityEventService.logAuthenticationSuccess(request, username);
                     
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null,
-                            userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                     log.debug("AuthTokenFilter: Authentication set for {}", username);
@@ -0,0 +1,161 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Fixed-capacity store of per-key trackers, for keys chosen by an attacker (e.g. client IPs).
+ * <p>
+ * Every {@link #track} counts the key in a {@link CountMinSketch}. Up to {@code capacity} trackers are kept in an
+ * LRU; when it is full, a new key is only admitted if the sketch has seen it more often than the least recently
+ * used resident, which is then evicted. Otherwise the caller gets a detached tracker that is not stored. An address
+ * spray of one-off keys therefore only touches the sketch, while keys with repeated activity displace quiet ones
+ * and stay resident. Memory is bounded by the sketch plus {@code capacity} trackers.
+ *
+ * @param <T> the tracker type
+ */
+public final class BoundedTrackerStore<T> {
+
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Function<String, T> factory;
+    private final ToLongFunction<T> sizer;
+    private final LinkedHashMap<String, T> residents;
+
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejectedAdmissions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity    maximum resident trackers
+     * @param sketchWidth counters per sketch row
+     * @param factory     creates a tracker for a key
+     * @param sizer       approximate heap bytes of a tracker, for {@link #getMemoryBytes()}
+     */
+    public BoundedTrackerStore(int capacity, int sketchWidth, Function<String, T> factory, ToLongFunction<T> sizer) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Tracker store capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.sketch = new CountMinSketch(sketchWidth);
+        this.factory = factory;
+        this.sizer = sizer;
+        this.residents = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true);
+    }
+
+    /**
+     * Records activity for the key and returns its tracker, which is detached (not stored) if the key was not
+     * admitted.
+     */
+    public T track(String key) {
+        int frequency = sketch.increment(key);
+        synchronized (residents) {
+            T tracker = residents.get(key);
+            if (tracker != null) {
+                return tracker;
+            }
+            if (residents.size() >= capacity) {
+                Iterator<Map.Entry<String, T>> eldest = residents.entrySet().iterator();
+                Map.Entry<String, T> victim = eldest.next();
+                if (frequency <= sketch.estimate(victim.getKey())) {
+                    rejectedAdmissions.increment();
+                    return factory.apply(key);
+                }
+                eldest.remove();
+                evictions.increment();
+            }
+            tracker = factory.apply(key);
+            residents.put(key, tracker);
+            admissions.increment();
+            return tracker;
+        }
+    }
+
+    /**
+     * Removes resident trackers matching the predicate and ages the sketch.
+     *
+     * @return number of trackers removed
+     */
+    public int prune(BiPredicate<String, T> stale) {
+        int removed = 0;
+        synchronized (residents) {
+            Iterator<Map.Entry<String, T>> entries = residents.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, T> entry = entries.next();
+                if (stale.test(entry.getKey(), entry.getValue())) {
+                    entries.remove();
+                    removed++;
+                }
+            }
+        }
+        sketch.halve();
+        return removed;
+    }
+
+    public int size() {
+        synchronized (residents) {
+            return residents.size();
+        }
+    }
+
+    /**
+     * Snapshot of the resident trackers.
+     */
+    public List<T> values() {
+        synchronized (residents) {
+            return new ArrayList<>(residents.values());
+        }
+    }
+
+    /**
+     * Resident keys with the highest sketch frequency, most frequent first.
+     */
+    public Map<String, Integer> getTopOffenders(int limit) {
+        List<String> keys;
+        synchronized (residents) {
+            keys = new ArrayList<>(residents.keySet());
+        }
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ranked.add(Map.entry(key, sketch.estimate(key)));
+        }
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+            top.put(ranked.get(i).getKey(), ranked.get(i).getValue());
+        }
+        return top;
+    }
+
+    /**
+     * Approximate heap used by the sketch and the resident trackers, including their keys and map entries.
+     */
+    public long getMemoryBytes() {
+        long bytes = sketch.getMemoryBytes();
+        synchronized (residents) {
+            for (Map.Entry<String, T> entry : residents.entrySet()) {
+                // LinkedHashMap entry (~40) plus the key string (~40 + chars)
+                bytes += 80 + entry.getKey().length() + sizer.applyAsLong(entry.getValue());
+            }
+        }
+        return bytes;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("capacity", capacity);
+        stats.put("size", size());
+        stats.put("memory_bytes", getMemoryBytes());
+        stats.put("admissions", admissions.sum());
+        stats.put("rejected_admissions", rejectedAdmissions.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,232 @@
+package com.useshiftly.scheduler.security;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-employee cache of the buildings an admin administers or a manager manages, and the departments in them,
+ * so building and department access checks are array lookups instead of loading <code>Building.getManagers()</code>
+ * or <code>Building.getEmployees()</code> on every request.
+ * <p>
+ * An entry is loaded with two id-only queries on the employee's first check after login and reused until it
+ * expires. It is discarded early when the principal's role or building no longer match what it was built from,
+ * and {@code BuildingController} invalidates the manager whenever it adds or removes one. Other instances pick
+ * up manager changes when their entry expires. Departments created after an entry was cached are resolved with
+ * a single-column lookup of their building.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>security.building-access-cache.ttl-seconds</code> - how long an entry is reused; 0 disables the cache (default: 60)</li>
+ *   <li><code>security.building-access-cache.max-entries</code> - upper bound on cached employees (default: 10000)</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class BuildingAccessCache {
+
+    @Value("${security.building-access-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${security.building-access-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final BuildingRepository buildingRepository;
+    private final DepartmentRepository departmentRepository;
+
+    private final ConcurrentHashMap<Long, BuildingAccess> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; loads that started before a bump are not cached
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Returns the employee's building access, loading it on a miss. Employees and super admins get no access
+     * through these checks.
+     */
+    public BuildingAccess get(Employee employee) {
+        if (employee == null) {
+            return BuildingAccess.NONE;
+        }
+        return get(employee.getId(), employee.getRole(),
+            employee.getBuilding() != null ? employee.getBuilding().getId() : null);
+    }
+
+    /**
+     * Same as {@link #get(Employee)} for callers that only have the identity, e.g. from JWT claims.
+     *
+     * @param homeBuildingId the building on the employee record, used to notice moves
+     */
+    public BuildingAccess get(Long employeeId, Employee.Role role, Long homeBuildingId) {
+        if (employeeId == null || (role != Employee.Role.ADMIN && role != Employee.Role.MANAGER)) {
+            return BuildingAccess.NONE;
+        }
+        long now = System.currentTimeMillis();
+        BuildingAccess cached = ttlSeconds > 0 ? entries.get(employeeId) : null;
+        if (cached != null && cached.expiresAt > now && cached.role == role
+                && Objects.equals(cached.homeBuildingId, homeBuildingId)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        long epoch = invalidationEpoch.get();
+        BuildingAccess loaded = load(employeeId, role, homeBuildingId, now + ttlSeconds * 1000);
+        if (ttlSeconds > 0) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(entry -> entry.expiresAt <= now);
+            }
+            if (entries.size() < maxEntries && invalidationEpoch.get() == epoch) {
+                entries.put(employeeId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private BuildingAccess load(Long employeeId, Employee.Role role, Long homeBuildingId, long expiresAt) {
+        List<Long> buildingIds = role == Employee.Role.ADMIN
+            ? buildingRepository.findIdsByAdminId(employeeId)
+            : buildingRepository.findIdsByManagerId(employeeId);
+        List<Long> departmentIds = buildingIds.isEmpty()
+            ? List.of()
+            : departmentRepository.findIdsByBuildingIds(buildingIds);
+        return new BuildingAccess(role, homeBuildingId, sortedIds(buildingIds), sortedIds(departmentIds), expiresAt);
+    }
+
+    /**
+     * Whether the employee administers or manages the department's building. A department missing from the
+     * cached entry is looked up by id, so new departments are reachable before the entry expires.
+     */
+    public boolean canAccessDepartment(Employee employee, Long departmentId) {
+        BuildingAccess access = get(employee);
+        if (access.canAccessDepartment(departmentId)) {
+            return true;
+        }
+        if (access.buildingIds.length == 0 || departmentId == null) {
+            return false;
+        }
+        return departmentRepository.findBuildingIdById(departmentId).map(access::canAccessBuilding).orElse(false);
+    }
+
+    /**
+     * Evicts the employee's entry. Inside a transaction the eviction is repeated after commit, so a check that
+     * read the old assignments while the change was uncommitted cannot leave them cached.
+     */
+    public void invalidate(Long employeeId) {
+        if (employeeId == null) {
+            return;
+        }
+        evict(employeeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(employeeId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts every entry that includes the building, e.g. after one of its departments is created.
+     */
+    public void invalidateBuilding(Long buildingId) {
+        if (buildingId == null) {
+            return;
+        }
+        invalidationEpoch.incrementAndGet();
+        invalidations.incrementAndGet();
+        entries.values().removeIf(entry -> entry.canAccessBuilding(buildingId));
+    }
+
+    private void evict(Long employeeId) {
+        invalidationEpoch.incrementAndGet();
+        invalidations.incrementAndGet();
+        entries.remove(employeeId);
+    }
+
+    /**
+     * Returns cache counters for monitoring.
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ttlSeconds > 0);
+        stats.put("size", entries.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private static long[] sortedIds(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * Buildings and departments one admin or manager can act on, as sorted id arrays.
+     */
+    public static final class BuildingAccess {
+        static final BuildingAccess NONE = new BuildingAccess(null, null, new long[0], new long[0], Long.MAX_VALUE);
+
+        private final Employee.Role role;
+        private final Long homeBuildingId;
+        private final long[] buildingIds;
+        private final long[] departmentIds;
+        private final long expiresAt;
+
+        BuildingAccess(Employee.Role role, Long homeBuildingId, long[] buildingIds, long[] departmentIds,
+                       long expiresAt) {
+            this.role = role;
+            this.homeBuildingId = homeBuildingId;
+            this.buildingIds = buildingIds;
+            this.departmentIds = departmentIds;
+            this.expiresAt = expiresAt;
+        }
+
+        /** The admin of the building, or one of its managers. */
+        public boolean canAccessBuilding(Long buildingId) {
+            return contains(buildingIds, buildingId);
+        }
+
+        public boolean administersBuilding(Long buildingId) {
+            return role == Employee.Role.ADMIN && contains(buildingIds, buildingId);
+        }
+
+        public boolean managesBuilding(Long buildingId) {
+            return role == Employee.Role.MANAGER && contains(buildingIds, buildingId);
+        }
+
+        /** Building ids in ascending order, for scoping repository queries. */
+        public List<Long> getBuildingIds() {
+            return Arrays.stream(buildingIds).boxed().toList();
+        }
+
+        /** Cached departments only; see {@link BuildingAccessCache#canAccessDepartment(Employee, Long)}. */
+        public boolean canAccessDepartment(Long departmentId) {
+            return contains(departmentIds, departmentId);
+        }
+
+        private static boolean contains(long[] ids, Long id) {
+            return id != null && Arrays.binarySearch(ids, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size, thread-safe frequency estimator. Estimates never undercount; they overcount only through hash
+ * collisions, which grow with the number of distinct keys relative to the width.
+ * <p>
+ * {@link #halve()} ages all counters so long-gone keys fade out without tracking them individually.
+ */
+public final class CountMinSketch {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+    private final int mask;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int width) {
+        int size = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.mask = size - 1;
+        this.counters = new AtomicIntegerArray(size * DEPTH);
+    }
+
+    /**
+     * Adds one occurrence of the key and returns its new estimate.
+     */
+    public int increment(Object key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            int value = counters.get(index);
+            if (value < Integer.MAX_VALUE) {
+                value = counters.incrementAndGet(index);
+            }
+            estimate = Math.min(estimate, value);
+        }
+        return estimate;
+    }
+
+    public int estimate(Object key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter. Concurrent increments may be lost, which only makes estimates slightly lower.
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    public long getMemoryBytes() {
+        return (long) counters.length() * Integer.BYTES;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x7FEB352D;
+        h ^= h >>> 15;
+        h *= 0x846CA68B;
+        h ^= h >>> 16;
+        return row * (mask + 1) + (h & mask);
+    }
+}
@@ -35,15 +35,28 @@ public class EnhancedSecurityFilter extends OncePerRequestFilter {
     private final RateLimitingService rateLimitingService;
     private final AbuseDetectionService abuseDetectionService;
     private final SecurityEventService securityEventService;
+    private final RouteClassifier routeClassifier;
+    private final SecurityMetrics securityMetrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        
+        long start = System.nanoTime();
+        SecurityMetrics.TimedChain timedChain = new SecurityMetrics.TimedChain(filterChain);
+        try {
+            applySecurityChecks(request, response, timedChain);
+        } finally {
+            securityMetrics.filterLatency("enhanced_security").record(System.nanoTime() - start - timedChain.getDownstreamNanos());
+        }
+    }
+
+    private void applySecurityChecks(HttpServletRequest request, HttpServletResponse response,
+                                     FilterChain filterChain) throws ServletException, IOException {
         String clientIP = getClientIP(request);
         String endpoint = request.getRequestURI();
         String method = request.getMethod();
         String userAgent = request.getHeader("User-Agent");
+        RouteClassifier.Route route = routeClassifier.classify(request);
         
         // Debug logging for IP detection (remove in production)
         if (log.isDebugEnabled()) {
@@ -59,7 +72,7 @@ public class EnhancedSecurityFilter extends OncePerRequestFilter {
 
         try {
             // Skip security checks for static resources, whitelisted paths, and auth endpoints
-            if (isStaticResource(endpoint) || abuseDetectionService.isWhitelisted(clientIP) || isAuthEndpoint(endpoint)) {
+            if (route.isStaticResource() || abuseDetectionService.isWhitelisted(clientIP) || route.isAuthEndpoint()) {
                 log.debug("EnhancedSecurityFilter: Skipping security checks for {} (static/whitelisted/auth)", endpoint);
                 filterChain.doFilter(request, response);
                 return;
@@ -72,7 +85,7 @@ public class EnhancedSecurityFilter extends OncePerRequestFilter {
             }
 
             // 2. Rate limiting check
-            if (!rateLimitingService.isRequestAllowed(clientIP)) {
+            if (!rateLimitingService.isRequestAllowed(clientIP, endpoint)) {
                 handleRateLimitViolation(request, response, clientIP);
                 return;
             }
@@ -88,7 +101,7 @@ public class EnhancedSecurityFilter extends OncePerRequestFilter {
             addSecurityHeaders(response);
 
             // 5. Log successful security check for monitoring
-            if (isSecuritySensitiveEndpoint(endpoint)) {
+            if (route.isSecuritySensitive()) {
                 securityEventService.logSecurityEvent(
                     SecurityEventService.EventType.SYSTEM_ACCESS,
                     SecurityEventService.Severity.INFO,
@@ -267,50 +280,12 @@ public class EnhancedSecurityFilter extends OncePerRequestFilter {
         return clientIP != null ? clientIP : "unknown";
     }
 
-    /**
-     * Checks if the endpoint is a static resource.
-     */
-    private boolean isStaticResource(String path) {
-        return path.startsWith("/frontend/") ||
-               path.startsWith("/static/") ||
-               path.startsWith("/public/") ||
-               path.startsWith("/css/") ||
-               path.startsWith("/js/") ||
-               path.startsWith("/images/") ||
-               path.matches(".*\\.(html|css|js|png|jpg|jpeg|gif|ico|svg|woff|woff2|ttf|eot)$");
-    }
-
-    /**
-     * Checks if the endpoint is an authentication endpoint that should skip security checks.
-     */
-    private boolean isAuthEndpoint(String path) {
-        return path.startsWith("/api/auth/") ||
-               path.startsWith("/api/super-admin/auth/") ||
-               path.equals("/h2-console");
-    }
-
-    /**
-     * Checks if the endpoint is security-sensitive.
-     */
-    private boolean isSecuritySensitiveEndpoint(String path) {
-        return path.startsWith("/api/auth/") ||
-               path.startsWith("/api/admin/") ||
-               path.startsWith("/api/super-admin/") ||
-               path.contains("/password") ||
-               path.contains("/reset") ||
-               path.contains("/change");
-    }
-
     /**
      * Determines if this filter should be applied to the request.
      */
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        
         // Always apply security filter except for specific exclusions
-        return path.equals("/health") || 
-               path.equals("/actuator/health") ||
-               path.equals("/favicon.ico");
+        return routeClassifier.classify(request).isHealthCheck();
     }
 }
@@ -0,0 +1,83 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * <p>
+ * Producers claim a slot with one CAS on the tail and never block: when the buffer is full {@link #offer}
+ * returns false and the caller counts a drop. The consumer takes events in order; a claimed slot that has not
+ * been written yet simply ends the current drain.
+ *
+ * @param <T> event type
+ */
+public final class EventRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity requested capacity, rounded up to a power of two
+     */
+    public EventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an event without blocking.
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(T event) {
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) (t & mask), event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code max} events to the consumer. Must only be called from the consumer thread.
+     *
+     * @return number of events drained
+     */
+    public int drain(Consumer<T> consumer, int max) {
+        long h = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (h & mask);
+            T event = slots.get(index);
+            if (event == null) {
+                break;
+            }
+            // Free the slot before publishing the new head, so a producer never overwrites an unread event
+            slots.lazySet(index, null);
+            head.lazySet(++h);
+            consumer.accept(event);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Approximate number of buffered events.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+}
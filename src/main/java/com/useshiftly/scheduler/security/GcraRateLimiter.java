@@ -0,0 +1,138 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free rate limiter using the generic cell rate algorithm (GCRA), the continuous form of a token bucket.
+ * <p>
+ * Each key's whole state is one long, its theoretical arrival time (TAT) on the {@link System#nanoTime()} clock,
+ * updated with a single CAS. A request is allowed when advancing the TAT by one emission interval keeps it within
+ * the policy's burst of "now". Capacity refills continuously, so there are no window edges that allow a double
+ * burst. A key whose TAT is in the past is indistinguishable from a new key; {@link #sweep()} removes those.
+ */
+public final class GcraRateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Requests allowed per period, with a burst of up to {@code burst} back-to-back requests.
+     */
+    public static final class Policy {
+        private final String name;
+        private final int limit;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        public Policy(String name, int limit, long periodMillis, int burst) {
+            if (limit <= 0 || periodMillis <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Rate limit policy " + name + " must have a positive limit, period and burst");
+            }
+            this.name = name;
+            this.limit = limit;
+            this.emissionIntervalNanos = Math.max(1, periodMillis * 1_000_000L / limit);
+            this.burstToleranceNanos = emissionIntervalNanos * burst;
+        }
+
+        public static Policy perMinute(String name, int limit, int burst) {
+            return new Policy(name, limit, 60_000L, burst);
+        }
+
+        public String getName() { return name; }
+        public int getLimit() { return limit; }
+        public long getAllowed() { return allowed.sum(); }
+        public long getRejected() { return rejected.sum(); }
+    }
+
+    /**
+     * Takes one request's worth of capacity for the key.
+     *
+     * @return true if allowed, false if the key is over its policy
+     */
+    public boolean tryAcquire(String key, Policy policy) {
+        long now = System.nanoTime();
+        AtomicLong tat = arrivals.get(key);
+        if (tat == null) {
+            tat = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = tat.get();
+            long next = (current - now < 0 ? now : current) + policy.emissionIntervalNanos;
+            if (next - now > policy.burstToleranceNanos) {
+                rejected.increment();
+                policy.rejected.increment();
+                return false;
+            }
+            if (tat.compareAndSet(current, next)) {
+                allowed.increment();
+                policy.allowed.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Counts requests admitted elsewhere (e.g. on another node) against the key, without rejecting anything.
+     * The key is never pushed beyond a full burst.
+     */
+    public void charge(String key, Policy policy, long requests) {
+        if (requests <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        AtomicLong tat = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        long cost = requests > policy.burstToleranceNanos / policy.emissionIntervalNanos
+            ? policy.burstToleranceNanos : requests * policy.emissionIntervalNanos;
+        while (true) {
+            long current = tat.get();
+            long next = (current - now < 0 ? now : current) + cost;
+            if (next - now > policy.burstToleranceNanos) {
+                next = now + policy.burstToleranceNanos;
+            }
+            if (next - current <= 0 || tat.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Approximate number of requests counted against the key that have not yet been refilled.
+     */
+    public int getUsage(String key, Policy policy) {
+        AtomicLong tat = arrivals.get(key);
+        if (tat == null) {
+            return 0;
+        }
+        long ahead = tat.get() - System.nanoTime();
+        return ahead <= 0 ? 0 : (int) ((ahead + policy.emissionIntervalNanos - 1) / policy.emissionIntervalNanos);
+    }
+
+    /**
+     * Removes keys that have fully refilled.
+     *
+     * @return number of keys removed
+     */
+    public int sweep() {
+        long now = System.nanoTime();
+        int before = arrivals.size();
+        arrivals.values().removeIf(tat -> tat.get() - now <= 0);
+        return Math.max(0, before - arrivals.size());
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+
+    public Map<String, Long> getStatistics() {
+        return Map.of(
+            "tracked_keys", (long) arrivals.size(),
+            "allowed", allowed.sum(),
+            "rejected", rejected.sum());
+    }
+}
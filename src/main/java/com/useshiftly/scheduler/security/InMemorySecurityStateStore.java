@@ -0,0 +1,38 @@
+package com.useshiftly.scheduler.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default {@link SecurityStateStore}: nothing is shared, the services' own maps are the only state.
+ */
+@Component
+@ConditionalOnProperty(name = "security.shared-state.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemorySecurityStateStore implements SecurityStateStore {
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public void saveEntry(ListType type, String ip, long expiresAtMillis, String reason) {
+    }
+
+    @Override
+    public void removeEntry(ListType type, String ip) {
+    }
+
+    @Override
+    public List<IpListEntry> loadEntries() {
+        return List.of();
+    }
+
+    @Override
+    public Map<String, Long> exchangeHits(Map<String, Long> localHits) {
+        return Map.of();
+    }
+}
@@ -0,0 +1,133 @@
+package com.useshiftly.scheduler.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PostgreSQL-backed {@link SecurityStateStore}, enabled with <code>security.shared-state.backend=postgres</code>.
+ * <p>
+ * IP lists live in <code>security_ip_lists</code>. Limiter hits are flushed in one batch per sync into
+ * <code>security_rate_limit_hits</code>, one row per key, node and 10-second bucket. Each exchange reads the other
+ * nodes' totals for the current and previous bucket and returns only the growth since the last read, so the sync
+ * interval must stay well under the bucket length. Buckets older than two minutes are purged.
+ * <p>
+ * Only the sync thread calls {@link #exchangeHits}.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>security.shared-state.node-id</code> - identifies this instance's rows (default: random per start)</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "security.shared-state.backend", havingValue = "postgres")
+public class JdbcSecurityStateStore implements SecurityStateStore {
+
+    private static final long BUCKET_MILLIS = 10_000L;
+    private static final long RETAINED_BUCKETS = 12;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    // Other nodes' totals already returned, by bucket then key
+    private final Map<Long, Map<String, Long>> seenRemoteHits = new HashMap<>();
+    private long lastPurgedBucket;
+
+    public JdbcSecurityStateStore(JdbcTemplate jdbcTemplate,
+                                  @Value("${security.shared-state.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        log.info("Shared security state enabled (PostgreSQL), node id {}", this.nodeId);
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public void saveEntry(ListType type, String ip, long expiresAtMillis, String reason) {
+        jdbcTemplate.update(
+            "INSERT INTO security_ip_lists (ip, list_type, expires_at, reason) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (ip, list_type) DO UPDATE SET expires_at = EXCLUDED.expires_at, reason = EXCLUDED.reason",
+            ip, type.name(), expiresAtMillis > 0 ? new Timestamp(expiresAtMillis) : null, truncate(reason));
+    }
+
+    @Override
+    public void removeEntry(ListType type, String ip) {
+        jdbcTemplate.update("DELETE FROM security_ip_lists WHERE ip = ? AND list_type = ?", ip, type.name());
+    }
+
+    @Override
+    public List<IpListEntry> loadEntries() {
+        return jdbcTemplate.query(
+            "SELECT ip, list_type, expires_at, reason FROM security_ip_lists WHERE expires_at IS NULL OR expires_at > ?",
+            (rs, rowNum) -> {
+                Timestamp expiresAt = rs.getTimestamp("expires_at");
+                return new IpListEntry(ListType.valueOf(rs.getString("list_type")), rs.getString("ip"),
+                    expiresAt != null ? expiresAt.getTime() : 0, rs.getString("reason"));
+            },
+            new Timestamp(System.currentTimeMillis()));
+    }
+
+    @Override
+    public Map<String, Long> exchangeHits(Map<String, Long> localHits) {
+        long bucket = System.currentTimeMillis() / BUCKET_MILLIS;
+        if (!localHits.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(localHits.size());
+            localHits.forEach((key, hits) -> batch.add(new Object[] {key, nodeId, bucket, hits}));
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO security_rate_limit_hits (limiter_key, node_id, bucket, hits) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (limiter_key, node_id, bucket) DO UPDATE SET hits = security_rate_limit_hits.hits + EXCLUDED.hits",
+                batch);
+        }
+
+        // Our hits are stored from here on, so read failures must not reach the caller; growth missed now is
+        // returned by the next exchange, which compares against the totals already seen
+        Map<String, Long> remoteGrowth = new HashMap<>();
+        try {
+            readRemoteGrowth(bucket, remoteGrowth);
+            if (bucket - lastPurgedBucket >= RETAINED_BUCKETS / 2) {
+                jdbcTemplate.update("DELETE FROM security_rate_limit_hits WHERE bucket < ?", bucket - RETAINED_BUCKETS);
+                jdbcTemplate.update("DELETE FROM security_ip_lists WHERE expires_at IS NOT NULL AND expires_at < ?",
+                    new Timestamp(System.currentTimeMillis()));
+                lastPurgedBucket = bucket;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Shared security state: reading other nodes' hits failed: {}", e.getMessage());
+        }
+        return remoteGrowth;
+    }
+
+    private void readRemoteGrowth(long bucket, Map<String, Long> remoteGrowth) {
+        jdbcTemplate.query(
+            "SELECT limiter_key, bucket, SUM(hits) AS hits FROM security_rate_limit_hits " +
+            "WHERE bucket >= ? AND node_id <> ? GROUP BY limiter_key, bucket",
+            rs -> {
+                String key = rs.getString("limiter_key");
+                long total = rs.getLong("hits");
+                Long seen = seenRemoteHits.computeIfAbsent(rs.getLong("bucket"), b -> new HashMap<>()).put(key, total);
+                long growth = total - (seen != null ? seen : 0L);
+                if (growth > 0) {
+                    remoteGrowth.merge(key, growth, Long::sum);
+                }
+            },
+            bucket - 1, nodeId);
+        seenRemoteHits.keySet().removeIf(b -> b < bucket - 1);
+    }
+
+    private static String truncate(String reason) {
+        return reason != null && reason.length() > 500 ? reason.substring(0, 500) : reason;
+    }
+}
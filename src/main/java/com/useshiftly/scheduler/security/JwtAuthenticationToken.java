@@ -0,0 +1,66 @@
+package com.useshiftly.scheduler.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.function.Supplier;
+
+/**
+ * Authentication for a request carrying a JWT with identity claims.
+ * <p>
+ * Name and authorities come from the verified claims, so URL and method security never load the employee.
+ * {@link #getPrincipal()} still returns the full {@code Employee} for controllers that take
+ * {@code @AuthenticationPrincipal Employee}; it is resolved on first access (through {@link PrincipalCache})
+ * and reused for the rest of the request.
+ */
+public class JwtAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final JwtPrincipal claims;
+    private final transient Supplier<UserDetails> principalLoader;
+    private transient volatile UserDetails principal;
+
+    public JwtAuthenticationToken(JwtPrincipal claims, Supplier<UserDetails> principalLoader) {
+        super(claims.getAuthorities());
+        this.claims = claims;
+        this.principalLoader = principalLoader;
+        setAuthenticated(true);
+    }
+
+    /**
+     * Returns the identity from the token claims.
+     */
+    public JwtPrincipal getClaims() {
+        return claims;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        UserDetails loaded = principal;
+        if (loaded == null) {
+            loaded = principalLoader.get();
+            principal = loaded;
+        }
+        return loaded;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return claims.getEmail();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof JwtAuthenticationToken other && claims.getEmployeeId().equals(other.claims.getEmployeeId())
+            && claims.getTokenVersion() == other.claims.getTokenVersion();
+    }
+
+    @Override
+    public int hashCode() {
+        return claims.getEmployeeId().hashCode();
+    }
+}
@@ -0,0 +1,41 @@
+package com.useshiftly.scheduler.security;
+
+import com.useshiftly.scheduler.model.Employee;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Lightweight identity built entirely from verified JWT claims: employee id, email, role, building and
+ * token version. Available from {@link JwtAuthenticationToken#getClaims()} without touching the database.
+ * <p>
+ * The building id is null if the employee had no building when the token was issued; assigning a first
+ * building does not revoke the token, so callers that need the building should then use the loaded employee.
+ */
+public final class JwtPrincipal {
+
+    private final Long employeeId;
+    private final String email;
+    private final Employee.Role role;
+    private final Long buildingId;
+    private final int tokenVersion;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(Long employeeId, String email, Employee.Role role, Long buildingId, int tokenVersion) {
+        this.employeeId = employeeId;
+        this.email = email;
+        this.role = role;
+        this.buildingId = buildingId;
+        this.tokenVersion = tokenVersion;
+        // Same authority format as Employee.getAuthorities()
+        this.authorities = List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    public Long getEmployeeId() { return employeeId; }
+    public String getEmail() { return email; }
+    public Employee.Role getRole() { return role; }
+    public Long getBuildingId() { return buildingId; }
+    public int getTokenVersion() { return tokenVersion; }
+    public List<GrantedAuthority> getAuthorities() { return authorities; }
+}
@@ -1,5 +1,6 @@
 package com.useshiftly.scheduler.security;
 
+import com.useshiftly.scheduler.model.Employee;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -7,10 +8,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
@@ -21,12 +30,26 @@ import java.util.function.Function;
  * <p>
  * <b>Usage:</b> Injected as a Spring bean wherever JWT operations are needed (e.g., filters, controllers).
  * <p>
- * <b>Configuration:</b> Uses properties <code>app.jwt.secret</code> and <code>app.jwt.expiration</code> from application configuration.
+ * Tokens issued for an {@link Employee} carry the employee id, role, building id and token version as claims,
+ * so {@link AuthTokenFilter} can authenticate a request from the token alone (see {@link #getJwtPrincipal(Claims)}).
+ * <p>
+ * Verified claims are cached per token, keyed by the token's SHA-256 digest, until the token expires, so a token a
+ * client sends on every request is signature-checked and parsed once per node. Cached claims are shared and must
+ * not be modified.
+ * <p>
+ * <b>Configuration:</b> Uses properties <code>app.jwt.secret</code> and <code>app.jwt.expiration</code> from application
+ * configuration, and <code>security.jwt-cache.max-entries</code> - upper bound on cached verified tokens; 0 disables
+ * the cache (default: 10000).
  */
 @Component
 @Slf4j
 public class JwtUtils {
 
+    static final String CLAIM_EMPLOYEE_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_BUILDING_ID = "bid";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
     /**
      * Secret key for signing JWT tokens (configured in application properties).
      */
@@ -39,6 +62,27 @@ public class JwtUtils {
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${security.jwt-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries;
+
+    private final ConcurrentHashMap<ByteBuffer, CachedClaims> verifiedClaims = new ConcurrentHashMap<>();
+    private final AtomicLong claimsCacheHits = new AtomicLong();
+    private final AtomicLong claimsCacheMisses = new AtomicLong();
+    private final AtomicLong claimsCacheEvictions = new AtomicLong();
+
+    // Signature verification time, cache misses only
+    private final LatencyHistogram verifyLatency = new LatencyHistogram();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private volatile JwtParser parser;
+
     /**
      * Returns the signing key used for JWT operations.
      *
@@ -55,7 +99,17 @@ public class JwtUtils {
      * @return the generated JWT token as a String
      */
     public String generateJwtToken(UserDetails userPrincipal) {
-        return generateTokenFromUsername(userPrincipal.getUsername());
+        if (!(userPrincipal instanceof Employee employee) || employee.getId() == null || employee.getRole() == null) {
+            return generateTokenFromUsername(userPrincipal.getUsername());
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_EMPLOYEE_ID, employee.getId());
+        claims.put(CLAIM_ROLE, employee.getRole().name());
+        if (employee.getBuilding() != null) {
+            claims.put(CLAIM_BUILDING_ID, employee.getBuilding().getId());
+        }
+        claims.put(CLAIM_TOKEN_VERSION, employee.getTokenVersion());
+        return createToken(claims, employee.getUsername());
     }
 
     /**
@@ -126,11 +180,135 @@ public class JwtUtils {
      * @return the {@link Claims} object containing all claims
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (claimsCacheMaxEntries <= 0 || token == null) {
+            return verify(token);
+        }
+        ByteBuffer key = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        long now = System.currentTimeMillis();
+        CachedClaims cached = verifiedClaims.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                claimsCacheHits.incrementAndGet();
+                return cached.claims;
+            }
+            verifiedClaims.remove(key, cached);
+        }
+        claimsCacheMisses.incrementAndGet();
+        // Throws for a bad signature or an expired token, so only verified claims are cached
+        Claims claims = verify(token);
+        if (claims.getExpiration() != null) {
+            if (verifiedClaims.size() >= claimsCacheMaxEntries) {
+                makeRoom(now);
+            }
+            verifiedClaims.put(key, new CachedClaims(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private Claims verify(String token) {
+        long start = System.nanoTime();
+        try {
+            return parser().parseClaimsJws(token).getBody();
+        } finally {
+            verifyLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Time spent verifying token signatures (cache misses only).
+     */
+    public LatencyHistogram getVerifyLatency() {
+        return verifyLatency;
+    }
+
+    /**
+     * Returns the verified-token cache counters for monitoring.
+     */
+    public Map<String, Object> getClaimsCacheStatistics() {
+        long hitCount = claimsCacheHits.get();
+        long missCount = claimsCacheMisses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", claimsCacheMaxEntries > 0);
+        stats.put("size", verifiedClaims.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", claimsCacheEvictions.get());
+        return stats;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
+    }
+
+    private void makeRoom(long now) {
+        verifiedClaims.values().removeIf(entry -> entry.expiresAt <= now);
+        if (verifiedClaims.size() < claimsCacheMaxEntries) {
+            return;
+        }
+        // Still full: drop an arbitrary tenth rather than tracking recency on the hot path
+        int toDrop = verifiedClaims.size() - claimsCacheMaxEntries + Math.max(1, claimsCacheMaxEntries / 10);
+        Iterator<ByteBuffer> keys = verifiedClaims.keySet().iterator();
+        while (toDrop-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            claimsCacheEvictions.incrementAndGet();
+        }
+    }
+
+    private static final class CachedClaims {
+        final Claims claims;
+        final long expiresAt;
+
+        CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Verifies the token's signature and expiry and returns its claims.
+     *
+     * @param token the JWT token
+     * @return the verified claims, or null if the token is invalid (the reason is logged)
+     */
+    public Claims parseVerifiedClaims(String token) {
+        try {
+            return getAllClaimsFromToken(token);
+        } catch (SecurityException e) {
+            log.error("Invalid JWT signature: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            log.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("JWT claims string is empty: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Builds the lightweight principal from verified claims.
+     *
+     * @param claims claims returned by {@link #parseVerifiedClaims(String)}
+     * @return the principal, or null for tokens issued without identity claims (subject only)
+     */
+    public JwtPrincipal getJwtPrincipal(Claims claims) {
+        Long employeeId = claims.get(CLAIM_EMPLOYEE_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (employeeId == null || role == null || version == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new JwtPrincipal(employeeId, claims.getSubject(), Employee.Role.valueOf(role),
+            claims.get(CLAIM_BUILDING_ID, Long.class), version);
     }
 
     /**
@@ -152,7 +330,7 @@ public class JwtUtils {
      */
     public Boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
+            getAllClaimsFromToken(authToken);
             return true;
         } catch (SecurityException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
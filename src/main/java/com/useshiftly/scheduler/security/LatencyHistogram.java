@@ -0,0 +1,90 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed buckets from 10 microseconds to 2.5 seconds.
+ * <p>
+ * Recording is one bucket search and two adds. Percentiles are estimated as the upper bound of the bucket holding
+ * the requested rank, which is what a Prometheus <code>histogram_quantile</code> over these buckets would report.
+ */
+public final class LatencyHistogram {
+
+    /** Bucket upper bounds in nanoseconds; the implicit last bucket is +Inf. */
+    static final long[] BOUNDS_NANOS = {
+        10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+        1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = 0;
+        while (bucket < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Per-bucket counts (not cumulative); the last entry is the +Inf bucket.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Count, mean and p50/p95/p99 in milliseconds, for dashboards.
+     */
+    public Map<String, Object> getSnapshot() {
+        long[] counts = getBucketCounts();
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", count);
+        snapshot.put("mean_ms", count == 0 ? 0.0 : getSumNanos() / 1e6 / count);
+        snapshot.put("p50_ms", percentileMillis(counts, count, 0.50));
+        snapshot.put("p95_ms", percentileMillis(counts, count, 0.95));
+        snapshot.put("p99_ms", percentileMillis(counts, count, 0.99));
+        return snapshot;
+    }
+
+    private static double percentileMillis(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BOUNDS_NANOS[i] / 1e6;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
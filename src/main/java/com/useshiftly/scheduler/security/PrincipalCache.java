@@ -0,0 +1,267 @@
+package com.useshiftly.scheduler.security;
+
+import com.useshiftly.scheduler.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of authenticated principals, keyed by username (email), used by {@link AuthTokenFilter}
+ * so a JWT-authenticated request does not have to load the employee from the database.
+ * <p>
+ * Entries expire after a short TTL and the cache is size-bounded. {@code EmployeeService} evicts an employee
+ * whenever it saves a change that affects authentication or authorization (role, active flag, deletion,
+ * password, building or department). A load that overlaps any eviction is not cached, so a stale principal
+ * can never be stored after the change that invalidated it.
+ * <p>
+ * Each request gets its own copy of a cached employee, so a controller that modifies its principal cannot change
+ * what concurrent requests see. Writes should still load a managed entity and go through {@code EmployeeService},
+ * which evicts the entry.
+ * <p>
+ * The cache also holds each employee's current JWT token version, keyed by id, so tokens carrying a version
+ * claim can be checked for revocation without a database read. Versions only grow, so the database is read
+ * only when the cached version is missing, expired or older than the token's; eviction clears both maps.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>security.principal-cache.ttl-seconds</code> - how long a principal is reused; 0 disables the cache (default: 30)</li>
+ *   <li><code>security.principal-cache.max-entries</code> - upper bound on cached principals (default: 10000)</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    @Value("${security.principal-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${security.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, CachedPrincipal> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; loads that started before a bump are not cached
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong versionHits = new AtomicLong();
+    private final AtomicLong versionMisses = new AtomicLong();
+    private final AtomicLong revokedTokens = new AtomicLong();
+
+    /**
+     * Returns the cached principal for the username, loading and caching it on a miss.
+     *
+     * @param username the JWT subject
+     * @param loader   loads the principal from the database on a miss
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (ttlSeconds <= 0) {
+            return loader.apply(username);
+        }
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = entries.get(username);
+        if (cached != null && cached.expiresAt > now) {
+            hits.incrementAndGet();
+            return copyOf(cached.principal);
+        }
+        misses.incrementAndGet();
+        long epoch = invalidationEpoch.get();
+        UserDetails loaded = loader.apply(username);
+        if (entries.size() >= maxEntries) {
+            makeRoom(entries, now);
+        }
+        if (invalidationEpoch.get() == epoch) {
+            entries.put(username, new CachedPrincipal(copyOf(loaded), now + ttlSeconds * 1000));
+        }
+        return loaded;
+    }
+
+    private static UserDetails copyOf(UserDetails principal) {
+        return principal instanceof Employee employee ? employee.copy() : principal;
+    }
+
+    /**
+     * Checks a token's version claim against the employee's current token version.
+     *
+     * @param employeeId   the token's employee id claim
+     * @param tokenVersion the token's version claim
+     * @param loader       reads the current version from the database; empty if the employee no longer exists
+     * @return true if the token is current, false if it has been revoked
+     */
+    public boolean isTokenVersionCurrent(Long employeeId, int tokenVersion, Function<Long, Optional<Integer>> loader) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = ttlSeconds > 0 ? versions.get(employeeId) : null;
+        if (cached != null && cached.expiresAt > now && tokenVersion <= cached.version) {
+            versionHits.incrementAndGet();
+            return countRevoked(tokenVersion == cached.version);
+        }
+        // Missing, expired, or the token is newer than what this instance has seen
+        versionMisses.incrementAndGet();
+        long epoch = invalidationEpoch.get();
+        Optional<Integer> current = loader.apply(employeeId);
+        if (current.isEmpty()) {
+            return countRevoked(false);
+        }
+        if (ttlSeconds > 0) {
+            if (versions.size() >= maxEntries) {
+                makeRoom(versions, now);
+            }
+            if (invalidationEpoch.get() == epoch) {
+                versions.put(employeeId, new CachedVersion(current.get(), now + ttlSeconds * 1000));
+            }
+        }
+        return countRevoked(tokenVersion == current.get());
+    }
+
+    private boolean countRevoked(boolean current) {
+        if (!current) {
+            revokedTokens.incrementAndGet();
+        }
+        return current;
+    }
+
+    /**
+     * Evicts the employee, both under its current email and any entry with the same id (e.g. after an email change).
+     * Inside a transaction the eviction is repeated after commit, so a request that read the old row while the
+     * change was uncommitted cannot leave it cached.
+     */
+    public void invalidate(Employee employee) {
+        if (employee == null) {
+            return;
+        }
+        evict(employee);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(employee);
+                }
+            });
+        }
+    }
+
+    private void evict(Employee employee) {
+        invalidationEpoch.incrementAndGet();
+        invalidations.incrementAndGet();
+        if (employee.getEmail() != null) {
+            entries.remove(employee.getEmail());
+        }
+        if (employee.getId() != null) {
+            versions.remove(employee.getId());
+            entries.values().removeIf(entry -> entry.principal instanceof Employee cached
+                && employee.getId().equals(cached.getId()));
+        }
+    }
+
+    /**
+     * Evicts several employees in one pass.
+     */
+    public void invalidateAll(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        invalidationEpoch.incrementAndGet();
+        invalidations.addAndGet(employees.size());
+        Set<Long> ids = new HashSet<>();
+        for (Employee employee : employees) {
+            if (employee.getEmail() != null) {
+                entries.remove(employee.getEmail());
+            }
+            if (employee.getId() != null) {
+                ids.add(employee.getId());
+            }
+        }
+        versions.keySet().removeAll(ids);
+        entries.values().removeIf(entry -> entry.principal instanceof Employee cached && ids.contains(cached.getId()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Employee> committed = List.copyOf(employees);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.forEach(PrincipalCache.this::evict);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns cache counters for monitoring.
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ttlSeconds > 0);
+        stats.put("size", entries.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("tokenVersions", versions.size());
+        stats.put("tokenVersionHits", versionHits.get());
+        stats.put("tokenVersionMisses", versionMisses.get());
+        stats.put("revokedTokens", revokedTokens.get());
+        return stats;
+    }
+
+    private <K> void makeRoom(ConcurrentHashMap<K, ? extends Expiring> map, long now) {
+        map.values().removeIf(entry -> entry.expiresAt <= now);
+        if (map.size() < maxEntries) {
+            return;
+        }
+        // Still full: drop an arbitrary tenth rather than tracking recency on the hot path
+        int toDrop = map.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<K> keys = map.keySet().iterator();
+        while (toDrop-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private abstract static class Expiring {
+        final long expiresAt;
+
+        Expiring(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class CachedPrincipal extends Expiring {
+        final UserDetails principal;
+
+        CachedPrincipal(UserDetails principal, long expiresAt) {
+            super(expiresAt);
+            this.principal = principal;
+        }
+    }
+
+    private static final class CachedVersion extends Expiring {
+        final int version;
+
+        CachedVersion(int version, long expiresAt) {
+            super(expiresAt);
+            this.version = version;
+        }
+    }
+}
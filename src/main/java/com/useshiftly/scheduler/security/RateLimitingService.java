@@ -1,35 +1,54 @@
 package com.useshiftly.scheduler.security;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Rate limiting service that implements IP-based request throttling with configurable policies.
  * 
  * Features:
- * - Sliding window rate limiting per IP address
+ * - Lock-free GCRA (token bucket) limiting per IP address, see {@link GcraRateLimiter}
+ * - Optional per-route policies (by path prefix, per IP) and a per-user policy for authenticated requests
  * - Exponential backoff for repeat offenders
  * - Configurable thresholds and time windows
- * - Automatic cleanup of expired entries
+ * - Background sweeping of expired entries (never on the request thread)
  * - Thread-safe operations
  * 
+ * Exceeding the per-IP limit blocks the IP; exceeding a route or user policy only rejects that request.
+ * 
+ * With a shared {@link SecurityStateStore} (several instances behind the proxy), each node keeps deciding from its
+ * local limiter and block map, and a background sync every flush interval sends this node's admitted requests in
+ * one batch, charges the other nodes' requests against the local limiter, and reloads the shared blocks. Limits
+ * therefore hold cluster-wide, within one flush interval, and blocks survive restarts.
+ * 
  * Configuration properties:
- * - security.rate-limit.requests-per-minute: Maximum requests per minute per IP (default: 60)
- * - security.rate-limit.burst-threshold: Maximum burst requests (default: 10)
+ * - security.rate-limit.requests-per-minute: Maximum requests per minute per IP, also the burst size (default: 60)
+ * - security.rate-limit.burst-threshold: Requests in flight above which a warning is logged (default: 10)
  * - security.rate-limit.block-duration-minutes: Block duration in minutes (default: 15)
- * - security.rate-limit.cleanup-interval-minutes: Cleanup interval in minutes (default: 5)
+ * - security.rate-limit.cleanup-interval-minutes: Sweep interval in minutes (default: 5)
+ * - security.rate-limit.routes: Comma-separated per-route policies, <code>/path/prefix=requestsPerMinute</code> (default: none)
+ * - security.rate-limit.user-requests-per-minute: Maximum requests per minute per authenticated user; 0 disables (default: 0)
+ * - security.shared-state.flush-interval-ms: How often shared counters and blocks are synchronized (default: 2000)
  */
 @Service
 @Slf4j
 public class RateLimitingService {
 
+    private static final String USER_KEY_PREFIX = "user|";
+
     @Value("${security.rate-limit.requests-per-minute:60}")
     private int requestsPerMinute;
 
@@ -39,16 +58,48 @@ public class RateLimitingService {
     @Value("${security.rate-limit.block-duration-minutes:15}")
     private int blockDurationMinutes;
 
-    @Value("${security.rate-limit.cleanup-interval-minutes:5}")
-    private int cleanupIntervalMinutes;
+    @Value("${security.rate-limit.routes:}")
+    private String routePolicies;
+
+    @Value("${security.rate-limit.user-requests-per-minute:0}")
+    private int userRequestsPerMinute;
+
+    private final GcraRateLimiter limiter = new GcraRateLimiter();
+
+    private final SecurityStateStore stateStore;
+
+    // Requests admitted on this node since the last shared-state sync, only tracked when the store is shared
+    private final ConcurrentHashMap<String, LongAdder> pendingHits = new ConcurrentHashMap<>();
 
-    // Track request counts per IP with sliding window
-    private final ConcurrentHashMap<String, RateLimitInfo> rateLimitMap = new ConcurrentHashMap<>();
+    private GcraRateLimiter.Policy ipPolicy;
+    private GcraRateLimiter.Policy userPolicy;
+
+    // Longest prefix first, so the most specific route policy wins
+    private List<RoutePolicy> routes = List.of();
     
     // Track blocked IPs with expiration times
     private final ConcurrentHashMap<String, BlockInfo> blockedIPs = new ConcurrentHashMap<>();
-    
-    private AtomicLong lastCleanup = new AtomicLong(System.currentTimeMillis());
+
+    public RateLimitingService() {
+        this(new InMemorySecurityStateStore());
+    }
+
+    @Autowired
+    public RateLimitingService(SecurityStateStore stateStore) {
+        this.stateStore = stateStore;
+    }
+
+    @PostConstruct
+    public void init() {
+        ipPolicy = GcraRateLimiter.Policy.perMinute("ip", requestsPerMinute, requestsPerMinute);
+        userPolicy = userRequestsPerMinute > 0
+            ? GcraRateLimiter.Policy.perMinute("user", userRequestsPerMinute, userRequestsPerMinute)
+            : null;
+        routes = parseRoutePolicies(routePolicies);
+        if (!routes.isEmpty()) {
+            log.info("Rate limit: {} route policies configured", routes.size());
+        }
+    }
 
     /**
      * Checks if a request from the given IP should be allowed.
@@ -57,47 +108,68 @@ public class RateLimitingService {
      * @return true if request is allowed, false if rate limited
      */
     public boolean isRequestAllowed(String clientIP) {
-        // Clean up expired entries periodically
-        performPeriodicCleanup();
-        
         // Check if IP is currently blocked
         if (isIPBlocked(clientIP)) {
             log.warn("Rate limit: Blocked IP {} attempted request", clientIP);
             return false;
         }
         
-        // Get or create rate limit info for this IP
-        RateLimitInfo rateLimitInfo = rateLimitMap.computeIfAbsent(clientIP, 
-            k -> new RateLimitInfo());
-        
-        Instant now = Instant.now();
+        if (!acquire(clientIP, ipPolicy())) {
+            // Block the IP
+            blockIP(clientIP, "Rate limit exceeded");
+            log.warn("Rate limit: IP {} exceeded limit ({} requests/minute), blocking for {} minutes", 
+                clientIP, requestsPerMinute, blockDurationMinutes);
+            return false;
+        }
         
-        synchronized (rateLimitInfo) {
-            // Reset window if enough time has passed
-            if (now.isAfter(rateLimitInfo.windowStart.plus(1, ChronoUnit.MINUTES))) {
-                rateLimitInfo.requestCount.set(0);
-                rateLimitInfo.windowStart = now;
-            }
-            
-            int currentCount = rateLimitInfo.requestCount.incrementAndGet();
-            
-            // Check for rate limit violation
-            if (currentCount > requestsPerMinute) {
-                // Block the IP
-                blockIP(clientIP, "Rate limit exceeded");
-                log.warn("Rate limit: IP {} exceeded limit ({} requests/minute), blocking for {} minutes", 
-                    clientIP, requestsPerMinute, blockDurationMinutes);
-                return false;
-            }
-            
-            // Check for burst threshold
+        // Check for burst threshold
+        if (burstThreshold > 0 && log.isWarnEnabled()) {
+            int currentCount = limiter.getUsage(clientIP, ipPolicy());
             if (currentCount > burstThreshold) {
                 log.warn("Rate limit: IP {} approaching limit ({} requests in current window)", 
                     clientIP, currentCount);
             }
-            
+        }
+        
+        return true;
+    }
+
+    /**
+     * Checks the per-IP limit and then the most specific route policy matching the path, if any.
+     * 
+     * @param clientIP the client IP address
+     * @param path the request path
+     * @return true if request is allowed, false if rate limited
+     */
+    public boolean isRequestAllowed(String clientIP, String path) {
+        if (!isRequestAllowed(clientIP)) {
+            return false;
+        }
+        RoutePolicy route = findRoute(path);
+        if (route != null && !acquire(route.prefix + '|' + clientIP, route.policy)) {
+            log.warn("Rate limit: IP {} exceeded route policy {} ({} requests/minute)",
+                clientIP, route.prefix, route.policy.getLimit());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the per-user policy for an authenticated request. Always true when no user policy is configured.
+     * 
+     * @param username the authenticated username
+     * @return true if request is allowed, false if rate limited
+     */
+    public boolean isUserRequestAllowed(String username) {
+        GcraRateLimiter.Policy policy = userPolicy;
+        if (policy == null || username == null) {
             return true;
         }
+        if (!acquire(USER_KEY_PREFIX + username, policy)) {
+            log.warn("Rate limit: User {} exceeded limit ({} requests/minute)", username, policy.getLimit());
+            return false;
+        }
+        return true;
     }
     
     /**
@@ -109,11 +181,11 @@ public class RateLimitingService {
     public boolean isIPBlocked(String clientIP) {
         BlockInfo blockInfo = blockedIPs.get(clientIP);
         if (blockInfo != null) {
-            if (Instant.now().isBefore(blockInfo.unblockTime)) {
+            if (System.currentTimeMillis() < blockInfo.unblockAtMillis) {
                 return true;
             } else {
                 // Block has expired, remove it
-                blockedIPs.remove(clientIP);
+                blockedIPs.remove(clientIP, blockInfo);
                 log.info("Rate limit: Unblocked IP {} (block expired)", clientIP);
             }
         }
@@ -137,8 +209,9 @@ public class RateLimitingService {
                 clientIP, blockDuration);
         }
         
-        Instant unblockTime = Instant.now().plus(blockDuration, ChronoUnit.MINUTES);
-        blockedIPs.put(clientIP, new BlockInfo(unblockTime, reason));
+        BlockInfo block = new BlockInfo(System.currentTimeMillis() + blockDuration * 60_000L, reason);
+        blockedIPs.put(clientIP, block);
+        shareBlock(clientIP, block);
         
         log.warn("Rate limit: Blocked IP {} for {} minutes. Reason: {}", 
             clientIP, blockDuration, reason);
@@ -153,17 +226,21 @@ public class RateLimitingService {
         if (blockedIPs.remove(clientIP) != null) {
             log.info("Rate limit: Manually unblocked IP {}", clientIP);
         }
+        try {
+            stateStore.removeEntry(SecurityStateStore.ListType.TEMPORARY_BLOCK, clientIP);
+        } catch (Exception e) {
+            log.error("Rate limit: Could not remove shared block for IP {}: {}", clientIP, e.getMessage());
+        }
     }
     
     /**
      * Get current request count for an IP.
      * 
      * @param clientIP the client IP address
-     * @return current request count in the current window
+     * @return requests counted against the IP that have not yet been refilled
      */
     public int getCurrentRequestCount(String clientIP) {
-        RateLimitInfo info = rateLimitMap.get(clientIP);
-        return info != null ? info.requestCount.get() : 0;
+        return limiter.getUsage(clientIP, ipPolicy());
     }
     
     /**
@@ -175,85 +252,231 @@ public class RateLimitingService {
     public long getTimeUntilUnblock(String clientIP) {
         BlockInfo blockInfo = blockedIPs.get(clientIP);
         if (blockInfo != null) {
-            long seconds = Instant.now().until(blockInfo.unblockTime, ChronoUnit.SECONDS);
-            return Math.max(0, seconds);
+            long millis = blockInfo.unblockAtMillis - System.currentTimeMillis();
+            return Math.max(0, (millis + 999) / 1000);
         }
         return 0;
     }
     
     /**
-     * Performs periodic cleanup of expired entries.
+     * Cleans up refilled limiter keys and expired blocks. Runs on the scheduler thread.
      */
-    private void performPeriodicCleanup() {
+    @Scheduled(fixedDelayString = "#{${security.rate-limit.cleanup-interval-minutes:5} * 60000}")
+    public void cleanupExpiredEntries() {
         long now = System.currentTimeMillis();
-        long timeSinceLastCleanup = now - lastCleanup.get();
-        
-        if (timeSinceLastCleanup > cleanupIntervalMinutes * 60 * 1000) {
-            if (lastCleanup.compareAndSet(now - timeSinceLastCleanup, now)) {
-                cleanupExpiredEntries();
-            }
-        }
-    }
-    
-    /**
-     * Cleans up expired rate limit and block entries.
-     */
-    private void cleanupExpiredEntries() {
-        Instant now = Instant.now();
-        AtomicInteger rateLimitCleaned = new AtomicInteger(0);
+        int rateLimitCleaned = limiter.sweep();
         AtomicInteger blocksCleaned = new AtomicInteger(0);
         
-        // Clean up old rate limit entries (older than 2 minutes)
-        rateLimitMap.entrySet().removeIf(entry -> {
-            if (now.isAfter(entry.getValue().windowStart.plus(2, ChronoUnit.MINUTES))) {
-                rateLimitCleaned.incrementAndGet();
-                return true;
-            }
-            return false;
-        });
-        
         // Clean up expired blocks
         blockedIPs.entrySet().removeIf(entry -> {
-            if (now.isAfter(entry.getValue().unblockTime)) {
+            if (now >= entry.getValue().unblockAtMillis) {
                 blocksCleaned.incrementAndGet();
                 return true;
             }
             return false;
         });
         
-        if (rateLimitCleaned.get() > 0 || blocksCleaned.get() > 0) {
+        if (rateLimitCleaned > 0 || blocksCleaned.get() > 0) {
             log.debug("Rate limit cleanup: Removed {} rate limit entries and {} expired blocks", 
-                rateLimitCleaned.get(), blocksCleaned.get());
+                rateLimitCleaned, blocksCleaned.get());
         }
     }
     
+    /**
+     * Exchanges limiter hits with the other nodes and reloads shared blocks. No-op without a shared store.
+     */
+    @Scheduled(fixedDelayString = "${security.shared-state.flush-interval-ms:2000}")
+    public void syncSharedState() {
+        if (!stateStore.isShared()) {
+            return;
+        }
+        Map<String, Long> localHits = new HashMap<>();
+        pendingHits.forEach((key, adder) -> {
+            long hits = adder.sumThenReset();
+            if (hits > 0) {
+                localHits.put(key, hits);
+            } else {
+                pendingHits.remove(key, adder);
+            }
+        });
+        Map<String, Long> remoteHits;
+        try {
+            remoteHits = stateStore.exchangeHits(localHits);
+        } catch (Exception e) {
+            // Nothing was recorded; keep the hits so the next exchange sends them
+            localHits.forEach((key, hits) -> pendingHits.computeIfAbsent(key, k -> new LongAdder()).add(hits));
+            log.warn("Rate limit: Shared hit exchange failed: {}", e.getMessage());
+            remoteHits = Map.of();
+        }
+        remoteHits.forEach((key, hits) -> {
+            GcraRateLimiter.Policy policy = policyForKey(key);
+            if (policy != null) {
+                limiter.charge(key, policy, hits);
+            }
+        });
+        try {
+            // Taken before loading, so a block created during the load is left to the next sync
+            Map<String, BlockInfo> local = new HashMap<>(blockedIPs);
+            Map<String, BlockInfo> shared = new HashMap<>();
+            for (SecurityStateStore.IpListEntry entry : stateStore.loadEntries()) {
+                if (entry.getType() == SecurityStateStore.ListType.TEMPORARY_BLOCK) {
+                    BlockInfo block = new BlockInfo(entry.getExpiresAtMillis(), entry.getReason());
+                    block.shared = true;
+                    shared.put(entry.getIp(), block);
+                }
+            }
+            long now = System.currentTimeMillis();
+            local.forEach((ip, block) -> {
+                if (block.shared) {
+                    if (!shared.containsKey(ip)) {
+                        // Lifted on another node
+                        blockedIPs.remove(ip, block);
+                    }
+                } else if (now < block.unblockAtMillis && blockedIPs.get(ip) == block) {
+                    // The write-through failed; other nodes only learn of the block once it is stored
+                    shareBlock(ip, block);
+                }
+            });
+            shared.forEach(blockedIPs::putIfAbsent);
+        } catch (Exception e) {
+            log.warn("Rate limit: Shared state sync failed: {}", e.getMessage());
+        }
+    }
+
     /**
      * Get statistics about current rate limiting state.
      * 
      * @return formatted statistics string
      */
     public String getStatistics() {
-        return String.format("Active rate limits: %d, Blocked IPs: %d", 
-            rateLimitMap.size(), blockedIPs.size());
+        Map<String, Long> stats = limiter.getStatistics();
+        return String.format("Active rate limits: %d, Blocked IPs: %d, Allowed: %d, Rejected: %d", 
+            stats.get("tracked_keys"), blockedIPs.size(), stats.get("allowed"), stats.get("rejected"));
     }
-    
+
+    /**
+     * The active limiter policies (IP, per-user if enabled, and routes) with their decision counters.
+     */
+    public List<GcraRateLimiter.Policy> getPolicies() {
+        List<GcraRateLimiter.Policy> policies = new ArrayList<>();
+        policies.add(ipPolicy());
+        if (userPolicy != null) {
+            policies.add(userPolicy);
+        }
+        for (RoutePolicy route : routes) {
+            policies.add(route.policy);
+        }
+        return policies;
+    }
+
+    private void shareBlock(String clientIP, BlockInfo block) {
+        try {
+            stateStore.saveEntry(SecurityStateStore.ListType.TEMPORARY_BLOCK, clientIP, block.unblockAtMillis, block.reason);
+            block.shared = true;
+        } catch (Exception e) {
+            log.error("Rate limit: Could not share block for IP {}: {}", clientIP, e.getMessage());
+        }
+    }
+
+    private GcraRateLimiter.Policy ipPolicy() {
+        GcraRateLimiter.Policy policy = ipPolicy;
+        if (policy == null) {
+            // Constructed outside Spring: fall back to the field defaults
+            init();
+            policy = ipPolicy;
+        }
+        return policy;
+    }
+
+    private boolean acquire(String key, GcraRateLimiter.Policy policy) {
+        if (!limiter.tryAcquire(key, policy)) {
+            return false;
+        }
+        if (stateStore.isShared()) {
+            LongAdder hits = pendingHits.get(key);
+            if (hits == null) {
+                hits = pendingHits.computeIfAbsent(key, k -> new LongAdder());
+            }
+            hits.increment();
+        }
+        return true;
+    }
+
     /**
-     * Internal class to track rate limiting information per IP.
+     * Resolves the policy from a limiter key: bare IPs, <code>user|name</code> or <code>routePrefix|ip</code>.
      */
-    private static class RateLimitInfo {
-        AtomicInteger requestCount = new AtomicInteger(0);
-        volatile Instant windowStart = Instant.now();
+    private GcraRateLimiter.Policy policyForKey(String key) {
+        if (key.startsWith(USER_KEY_PREFIX)) {
+            return userPolicy;
+        }
+        int separator = key.lastIndexOf('|');
+        if (separator < 0) {
+            return ipPolicy();
+        }
+        String prefix = key.substring(0, separator);
+        for (RoutePolicy route : routes) {
+            if (route.prefix.equals(prefix)) {
+                return route.policy;
+            }
+        }
+        return null;
+    }
+
+    private RoutePolicy findRoute(String path) {
+        if (path == null) {
+            return null;
+        }
+        for (RoutePolicy route : routes) {
+            if (path.startsWith(route.prefix)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    static List<RoutePolicy> parseRoutePolicies(String spec) {
+        List<RoutePolicy> parsed = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return parsed;
+        }
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            int eq = trimmed.lastIndexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid rate limit route policy: " + trimmed);
+            }
+            String prefix = trimmed.substring(0, eq).trim();
+            int limit = Integer.parseInt(trimmed.substring(eq + 1).trim());
+            parsed.add(new RoutePolicy(prefix, GcraRateLimiter.Policy.perMinute(prefix, limit, limit)));
+        }
+        parsed.sort(Comparator.comparingInt((RoutePolicy route) -> route.prefix.length()).reversed());
+        return List.copyOf(parsed);
+    }
+
+    /**
+     * Rate limit applied to requests whose path starts with the prefix.
+     */
+    static final class RoutePolicy {
+        final String prefix;
+        final GcraRateLimiter.Policy policy;
+
+        RoutePolicy(String prefix, GcraRateLimiter.Policy policy) {
+            this.prefix = prefix;
+            this.policy = policy;
+        }
     }
     
     /**
      * Internal class to track blocked IP information.
      */
     private static class BlockInfo {
-        final Instant unblockTime;
+        final long unblockAtMillis;
         final String reason;
+        // Set once the block is known to be in the shared store; only such blocks are dropped when it loses them
+        volatile boolean shared;
         
-        BlockInfo(Instant unblockTime, String reason) {
-            this.unblockTime = unblockTime;
+        BlockInfo(long unblockAtMillis, String reason) {
+            this.unblockAtMillis = unblockAtMillis;
             this.reason = reason;
         }
     }
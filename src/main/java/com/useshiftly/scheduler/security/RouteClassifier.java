@@ -0,0 +1,175 @@
+package com.useshiftly.scheduler.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classifies request paths for the security filters' skip-lists, once per request.
+ * <p>
+ * Path rules are held in a trie over path segments; each node carries flags that apply when the path ends there
+ * (exact match) or continues below it (prefix match, i.e. <code>startsWith("/a/b/")</code>). File extensions are
+ * looked up in a suffix set, and segments starting with a sensitive word (password, reset, change) are flagged
+ * during the same walk. Nothing is compiled per request.
+ * <p>
+ * The result is stored in a request attribute, so {@link EnhancedSecurityFilter} and {@link AuthTokenFilter}
+ * share one classification.
+ */
+@Component
+public class RouteClassifier {
+
+    static final String ATTRIBUTE = RouteClassifier.class.getName() + ".route";
+
+    private static final int PUBLIC = 1;
+    private static final int STATIC_RESOURCE = 1 << 1;
+    private static final int AUTH_ENDPOINT = 1 << 2;
+    private static final int SECURITY_SENSITIVE = 1 << 3;
+    private static final int HEALTH_CHECK = 1 << 4;
+
+    private static final Route[] ROUTES = new Route[1 << 5];
+
+    static {
+        for (int flags = 0; flags < ROUTES.length; flags++) {
+            ROUTES[flags] = new Route(flags);
+        }
+    }
+
+    private static final Set<String> PUBLIC_EXTENSIONS = Set.of("html", "css", "js", "png", "jpg", "ico");
+    private static final Set<String> STATIC_EXTENSIONS = Set.of(
+        "html", "css", "js", "png", "jpg", "jpeg", "gif", "ico", "svg", "woff", "woff2", "ttf", "eot");
+    private static final String[] SENSITIVE_SEGMENTS = {"password", "reset", "change"};
+
+    private final Node root = new Node();
+
+    /**
+     * What the security filters need to know about a path.
+     */
+    public static final class Route {
+        private final int flags;
+
+        private Route(int flags) {
+            this.flags = flags;
+        }
+
+        /** Public to the JWT filter: static files and unauthenticated auth endpoints. */
+        public boolean isPublic() { return (flags & PUBLIC) != 0; }
+        public boolean isStaticResource() { return (flags & STATIC_RESOURCE) != 0; }
+        public boolean isAuthEndpoint() { return (flags & AUTH_ENDPOINT) != 0; }
+        public boolean isSecuritySensitive() { return (flags & SECURITY_SENSITIVE) != 0; }
+        public boolean isHealthCheck() { return (flags & HEALTH_CHECK) != 0; }
+    }
+
+    public RouteClassifier() {
+        for (String prefix : new String[] {"/frontend/", "/static/", "/public/"}) {
+            prefix(prefix, PUBLIC | STATIC_RESOURCE);
+        }
+        prefix("/api/public/", PUBLIC);
+        for (String prefix : new String[] {"/css/", "/js/", "/images/"}) {
+            prefix(prefix, STATIC_RESOURCE);
+        }
+        for (String path : new String[] {
+                "/api/auth/login", "/api/auth/register", "/api/auth/validate-invitation", "/api/auth/change-password",
+                "/api/super-admin/auth/login", "/api/auth/request-admin-access", "/api/auth/verify-admin-code",
+                "/api/auth/register-admin", "/api/auth/check-email"}) {
+            exact(path, PUBLIC);
+        }
+        prefix("/api/auth/", AUTH_ENDPOINT | SECURITY_SENSITIVE);
+        prefix("/api/super-admin/auth/", AUTH_ENDPOINT);
+        exact("/h2-console", AUTH_ENDPOINT);
+        prefix("/api/admin/", SECURITY_SENSITIVE);
+        prefix("/api/super-admin/", SECURITY_SENSITIVE);
+        for (String path : new String[] {"/health", "/actuator/health", "/favicon.ico"}) {
+            exact(path, HEALTH_CHECK);
+        }
+    }
+
+    /**
+     * Returns the request's classification, computing and storing it on first use.
+     */
+    public Route classify(HttpServletRequest request) {
+        Object cached = request.getAttribute(ATTRIBUTE);
+        if (cached instanceof Route route) {
+            return route;
+        }
+        Route route = classify(request.getRequestURI());
+        request.setAttribute(ATTRIBUTE, route);
+        return route;
+    }
+
+    public Route classify(String path) {
+        if (path == null) {
+            return ROUTES[0];
+        }
+        int flags = extensionFlags(path);
+        boolean sensitive = false;
+        Node node = path.startsWith("/") ? root : null;
+        int start = 1;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            boolean last = end < 0;
+            if (last) {
+                end = path.length();
+            }
+            sensitive |= startsWithSensitiveWord(path, start);
+            if (node != null) {
+                node = node.children.get(path.substring(start, end));
+                if (node != null) {
+                    flags |= last ? node.exactFlags : node.prefixFlags;
+                }
+            }
+            if (last) {
+                break;
+            }
+            start = end + 1;
+        }
+        if (sensitive) {
+            flags |= SECURITY_SENSITIVE;
+        }
+        return ROUTES[flags];
+    }
+
+    private static int extensionFlags(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot < 0) {
+            return 0;
+        }
+        String extension = path.substring(dot + 1);
+        return (PUBLIC_EXTENSIONS.contains(extension) ? PUBLIC : 0)
+            | (STATIC_EXTENSIONS.contains(extension) ? STATIC_RESOURCE : 0);
+    }
+
+    private static boolean startsWithSensitiveWord(String path, int segmentStart) {
+        for (String word : SENSITIVE_SEGMENTS) {
+            if (path.startsWith(word, segmentStart)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prefix(String prefix, int flags) {
+        // "/a/b/" marks node b for anything below it
+        node(prefix.substring(1, prefix.length() - 1)).prefixFlags |= flags;
+    }
+
+    private void exact(String path, int flags) {
+        node(path.substring(1)).exactFlags |= flags;
+    }
+
+    private Node node(String segments) {
+        Node node = root;
+        for (String segment : segments.split("/")) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        return node;
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        int exactFlags;
+        int prefixFlags;
+    }
+}
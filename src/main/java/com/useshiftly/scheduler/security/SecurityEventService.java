@@ -1,6 +1,8 @@
 package com.useshiftly.scheduler.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +14,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Enhanced security event logging service with structured logging and monitoring.
@@ -38,6 +41,15 @@ import java.util.concurrent.atomic.AtomicLong;
  *   "request_id": "req-456",
  *   "additional_data": {}
  * }
+ *
+ * Logging is asynchronous: callers only capture the request fields into a compact event and enqueue it on a
+ * lock-free {@link EventRingBuffer}; a single background thread builds the JSON and writes events in batches.
+ * When the buffer is full the event is dropped and counted rather than blocking the request. Events below the
+ * logger's enabled level are skipped before they are queued.
+ *
+ * Configuration:
+ * - security.events.buffer-size - queued events before new ones are dropped (default: 8192)
+ * - security.events.batch-size - events written per drain (default: 256)
  */
 @Service
 @Slf4j
@@ -49,6 +61,15 @@ public class SecurityEventService {
     @Value("${security.monitoring.time-window-minutes:10}")
     private int timeWindowMinutes;
 
+    @Value("${security.events.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${security.events.batch-size:256}")
+    private int batchSize;
+
+    // Idle wait between drains when the buffer is empty
+    private static final long IDLE_PARK_NANOS = 5_000_000L;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final DateTimeFormatter timestampFormatter = DateTimeFormatter.ISO_INSTANT;
     
@@ -57,6 +78,14 @@ public class SecurityEventService {
     private final AtomicLong abuseAttemptCount = new AtomicLong(0);
     private final AtomicLong rateLimitViolationCount = new AtomicLong(0);
     private volatile long lastAlertTime = 0;
+
+    private volatile EventRingBuffer<QueuedEvent> buffer;
+    private volatile boolean running;
+    private Thread writer;
+    private final AtomicLong eventsEnqueued = new AtomicLong();
+    private final AtomicLong eventsDropped = new AtomicLong();
+    private final AtomicLong eventsWritten = new AtomicLong();
+    private long reportedDrops;
     
     /**
      * Security event types for categorization.
@@ -82,6 +111,34 @@ public class SecurityEventService {
         INFO, WARN, ERROR, CRITICAL
     }
 
+    /**
+     * Starts the background writer.
+     */
+    @PostConstruct
+    public void start() {
+        buffer = new EventRingBuffer<>(bufferSize);
+        running = true;
+        writer = new Thread(this::drainLoop, "security-events");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer after flushing whatever is still queued.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Logs an authentication failure event.
      */
@@ -107,16 +164,13 @@ public class SecurityEventService {
      * Logs an authentication success event.
      */
     public void logAuthenticationSuccess(HttpServletRequest request, String username) {
-        Map<String, Object> additionalData = new HashMap<>();
-        additionalData.put("username", username);
-        
-        logSecurityEvent(
-            EventType.AUTHENTICATION_SUCCESS,
-            Severity.INFO,
-            request,
-            "User authenticated successfully",
-            additionalData
-        );
+        // Called on every authenticated request: no map, the username travels in the event itself
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        enqueue(new QueuedEvent(EventType.AUTHENTICATION_SUCCESS, Severity.INFO, getClientIP(request),
+            request.getHeader("User-Agent"), request.getRequestURI(), request.getMethod(),
+            "User authenticated successfully", username, null));
     }
 
     /**
@@ -238,6 +292,9 @@ public class SecurityEventService {
      */
     public void logSecurityEvent(EventType eventType, Severity severity, HttpServletRequest request, 
                                 String reason, Map<String, Object> additionalData) {
+        if (severity == Severity.INFO && !log.isInfoEnabled()) {
+            return;
+        }
         String clientIP = getClientIP(request);
         String userAgent = request.getHeader("User-Agent");
         String endpoint = request.getRequestURI();
@@ -252,22 +309,73 @@ public class SecurityEventService {
     public void logSecurityEvent(EventType eventType, Severity severity, String clientIP, 
                                 String userAgent, String endpoint, String method, String reason, 
                                 Map<String, Object> additionalData) {
+        if (severity == Severity.INFO && !log.isInfoEnabled()) {
+            return;
+        }
+        enqueue(new QueuedEvent(eventType, severity, clientIP, userAgent, endpoint, method, reason, null,
+            additionalData));
+    }
+
+    private void enqueue(QueuedEvent event) {
+        EventRingBuffer<QueuedEvent> queue = buffer;
+        if (queue == null) {
+            // Not started (e.g. constructed outside Spring): write on the caller thread
+            write(event);
+            return;
+        }
+        if (queue.offer(event)) {
+            eventsEnqueued.incrementAndGet();
+        } else {
+            eventsDropped.incrementAndGet();
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            int drained = buffer.drain(this::write, Math.max(1, batchSize));
+            if (drained == 0) {
+                if (!running) {
+                    return;
+                }
+                reportDrops();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void reportDrops() {
+        long dropped = eventsDropped.get();
+        if (dropped > reportedDrops) {
+            log.warn("Security event buffer full: {} events dropped ({} total)", dropped - reportedDrops, dropped);
+            reportedDrops = dropped;
+        }
+    }
+
+    /**
+     * Serializes and writes one event; runs on the writer thread.
+     */
+    private void write(QueuedEvent event) {
         try {
             Map<String, Object> logEntry = new HashMap<>();
-            logEntry.put("timestamp", timestampFormatter.format(Instant.now().atOffset(ZoneOffset.UTC)));
-            logEntry.put("event_type", eventType.name());
-            logEntry.put("severity", severity.name());
-            logEntry.put("client_ip", clientIP);
-            logEntry.put("user_agent", userAgent);
-            logEntry.put("endpoint", endpoint);
-            logEntry.put("method", method);
-            logEntry.put("reason", reason);
-            logEntry.put("request_id", generateRequestId());
+            logEntry.put("timestamp", timestampFormatter.format(Instant.ofEpochMilli(event.timestamp).atOffset(ZoneOffset.UTC)));
+            logEntry.put("event_type", event.eventType.name());
+            logEntry.put("severity", event.severity.name());
+            logEntry.put("client_ip", event.clientIP);
+            logEntry.put("user_agent", event.userAgent);
+            logEntry.put("endpoint", event.endpoint);
+            logEntry.put("method", event.method);
+            logEntry.put("reason", event.reason);
+            logEntry.put("request_id", "req-" + event.timestamp + "-" + event.threadId);
             
+            Map<String, Object> additionalData = event.additionalData;
+            if (event.username != null) {
+                additionalData = Map.of("username", event.username);
+            }
             if (additionalData != null && !additionalData.isEmpty()) {
                 logEntry.put("additional_data", additionalData);
             }
             
+            Severity severity = event.severity;
             String jsonLog = objectMapper.writeValueAsString(logEntry);
             
             // Log with appropriate level
@@ -278,6 +386,7 @@ public class SecurityEventService {
                 case CRITICAL -> log.error("CRITICAL_SECURITY_EVENT: {}", jsonLog);
             }
             
+            eventsWritten.incrementAndGet();
         } catch (Exception e) {
             log.error("Failed to log security event", e);
         }
@@ -317,13 +426,6 @@ public class SecurityEventService {
         return clientIP;
     }
 
-    /**
-     * Generates a unique request ID for tracking.
-     */
-    private String generateRequestId() {
-        return "req-" + System.currentTimeMillis() + "-" + Thread.currentThread().getId();
-    }
-
     /**
      * Checks for anomalous patterns and triggers alerts.
      */
@@ -383,6 +485,41 @@ public class SecurityEventService {
         stats.put("authentication_failures", authFailureCount.get());
         stats.put("rate_limit_violations", rateLimitViolationCount.get());
         stats.put("abuse_attempts", abuseAttemptCount.get());
+        stats.put("events_enqueued", eventsEnqueued.get());
+        stats.put("events_dropped", eventsDropped.get());
+        stats.put("events_written", eventsWritten.get());
+        EventRingBuffer<QueuedEvent> queue = buffer;
+        stats.put("events_buffered", queue == null ? 0L : queue.size());
         return stats;
     }
+
+    /**
+     * Request fields captured on the calling thread; everything else happens on the writer.
+     */
+    private static final class QueuedEvent {
+        final EventType eventType;
+        final Severity severity;
+        final long timestamp = System.currentTimeMillis();
+        final long threadId = Thread.currentThread().getId();
+        final String clientIP;
+        final String userAgent;
+        final String endpoint;
+        final String method;
+        final String reason;
+        final String username;
+        final Map<String, Object> additionalData;
+
+        QueuedEvent(EventType eventType, Severity severity, String clientIP, String userAgent, String endpoint,
+                    String method, String reason, String username, Map<String, Object> additionalData) {
+            this.eventType = eventType;
+            this.severity = severity;
+            this.clientIP = clientIP;
+            this.userAgent = userAgent;
+            this.endpoint = endpoint;
+            this.method = method;
+            this.reason = reason;
+            this.username = username;
+            this.additionalData = additionalData;
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package com.useshiftly.scheduler.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms for the security filter chain, plus a writer for the Prometheus text exposition format.
+ * <p>
+ * Filters time themselves with {@link TimedChain}, so a filter's latency excludes everything that runs further
+ * down the chain. Counters already kept by the security services (limiter decisions, signature hits, cache hits)
+ * are exported from their statistics at scrape time rather than duplicated here; see
+ * {@code SecurityManagementController#getMetrics()}.
+ */
+@Component
+public class SecurityMetrics {
+
+    private final ConcurrentHashMap<String, LatencyHistogram> filterLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the latency histogram for a filter, creating it on first use.
+     */
+    public LatencyHistogram filterLatency(String filter) {
+        LatencyHistogram histogram = filterLatencies.get(filter);
+        return histogram != null ? histogram : filterLatencies.computeIfAbsent(filter, f -> new LatencyHistogram());
+    }
+
+    public Map<String, LatencyHistogram> getFilterLatencies() {
+        return new TreeMap<>(filterLatencies);
+    }
+
+    /**
+     * Wraps a filter chain and measures the time spent downstream of the filter.
+     */
+    public static final class TimedChain implements FilterChain {
+        private final FilterChain chain;
+        private long downstreamNanos;
+
+        public TimedChain(FilterChain chain) {
+            this.chain = chain;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+            }
+        }
+
+        public long getDownstreamNanos() {
+            return downstreamNanos;
+        }
+    }
+
+    /**
+     * Builds a Prometheus text-format (0.0.4) scrape. Each metric family must be written with a single call or
+     * consecutive calls with the same name.
+     */
+    public static final class PrometheusWriter {
+        private final StringBuilder out = new StringBuilder(4096);
+        private String lastFamily;
+
+        public PrometheusWriter counter(String name, String help, double value, String... labels) {
+            return sample(name, help, "counter", value, labels);
+        }
+
+        public PrometheusWriter gauge(String name, String help, double value, String... labels) {
+            return sample(name, help, "gauge", value, labels);
+        }
+
+        /**
+         * Writes a histogram in seconds.
+         *
+         * @param labels alternating label names and values
+         */
+        public PrometheusWriter histogram(String name, String help, LatencyHistogram histogram, String... labels) {
+            header(name, help, "histogram");
+            long[] counts = histogram.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                String le = i < LatencyHistogram.BOUNDS_NANOS.length
+                    ? BigDecimal.valueOf(LatencyHistogram.BOUNDS_NANOS[i], 9).stripTrailingZeros().toPlainString() : "+Inf";
+                line(name + "_bucket", withLabel(labels, "le", le), cumulative);
+            }
+            line(name + "_sum", labels, histogram.getSumNanos() / 1e9);
+            line(name + "_count", labels, cumulative);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+
+        private PrometheusWriter sample(String name, String help, String type, double value, String... labels) {
+            header(name, help, type);
+            line(name, labels, value);
+            return this;
+        }
+
+        private void header(String name, String help, String type) {
+            if (name.equals(lastFamily)) {
+                return;
+            }
+            lastFamily = name;
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+
+        private void line(String name, String[] labels, double value) {
+            out.append(name);
+            if (labels.length > 0) {
+                out.append('{');
+                for (int i = 0; i + 1 < labels.length; i += 2) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+                }
+                out.append('}');
+            }
+            out.append(' ').append(format(value)).append('\n');
+        }
+
+        private static String[] withLabel(String[] labels, String name, String value) {
+            String[] extended = Arrays.copyOf(labels, labels.length + 2);
+            extended[labels.length] = name;
+            extended[labels.length + 1] = value;
+            return extended;
+        }
+
+        private static String format(double value) {
+            if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+                return Long.toString((long) value);
+            }
+            return Double.toString(value);
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
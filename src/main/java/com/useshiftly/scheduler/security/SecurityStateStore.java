@@ -0,0 +1,72 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared state behind {@link RateLimitingService} and {@link AbuseDetectionService}, so limits and block lists
+ * hold across every instance and survive restarts. Selected with <code>security.shared-state.backend</code>:
+ * {@link InMemorySecurityStateStore} (default, per-JVM) or {@link JdbcSecurityStateStore} (PostgreSQL).
+ * <p>
+ * The services keep serving reads from their local maps; the store is written through on the rare list changes
+ * and synchronized periodically, so no request waits on it.
+ */
+public interface SecurityStateStore {
+
+    /**
+     * Kinds of IP list entries.
+     */
+    enum ListType {
+        TEMPORARY_BLOCK,
+        BLACKLIST,
+        WHITELIST
+    }
+
+    /**
+     * False for the per-JVM default, which lets the services skip hit tracking and list refreshes entirely.
+     */
+    boolean isShared();
+
+    /**
+     * Adds or replaces an entry.
+     *
+     * @param expiresAtMillis epoch millis when the entry lapses, or 0 for never
+     */
+    void saveEntry(ListType type, String ip, long expiresAtMillis, String reason);
+
+    void removeEntry(ListType type, String ip);
+
+    /**
+     * Returns every unexpired entry.
+     */
+    List<IpListEntry> loadEntries();
+
+    /**
+     * Records this node's allowed requests per limiter key and returns the requests other nodes recorded since
+     * the previous exchange. Throws only if <code>localHits</code> were not recorded, so the caller can keep them
+     * for the next exchange.
+     */
+    Map<String, Long> exchangeHits(Map<String, Long> localHits);
+
+    /**
+     * One stored list entry.
+     */
+    final class IpListEntry {
+        private final ListType type;
+        private final String ip;
+        private final long expiresAtMillis;
+        private final String reason;
+
+        public IpListEntry(ListType type, String ip, long expiresAtMillis, String reason) {
+            this.type = type;
+            this.ip = ip;
+            this.expiresAtMillis = expiresAtMillis;
+            this.reason = reason;
+        }
+
+        public ListType getType() { return type; }
+        public String getIp() { return ip; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+        public String getReason() { return reason; }
+    }
+}
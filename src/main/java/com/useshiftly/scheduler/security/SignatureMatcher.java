@@ -0,0 +1,237 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Matches a fixed set of request signatures in one pass with an Aho-Corasick automaton.
+ * <p>
+ * All signatures are compiled into a single DFA over 7-bit characters, so every input is scanned once in
+ * linear time regardless of how many signatures there are. Input is lowercased and runs of whitespace or
+ * <code>+</code> are folded to one space, so <code>UNION++SELECT</code> matches the signature "union select".
+ * Signatures marked word-bounded only match when not preceded or followed by a letter or digit, so "drop table"
+ * does not match inside "backdrop tablet". The check applies only at ends that are themselves letters or digits,
+ * so "alert(" still matches "alert(1)" but not "myalert(1)".
+ * <p>
+ * Each signature belongs to a category (up to 64); {@link #scan} returns the matched categories as a bit mask and
+ * counts a hit for every signature that matched, to help quantify false positives.
+ */
+public final class SignatureMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final List<String> categories;
+    private final List<Signature> signatures;
+    private final LongAdder[] hits;
+    private final int[] categoryOf;
+    private final int[] lengths;
+
+    // DFA: transitions[state * ALPHABET + c] is the next state; outputs[state] lists signature ids ending there
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    /**
+     * One literal signature.
+     */
+    public static final class Signature {
+        private final String category;
+        private final String text;
+        private final boolean wordBounded;
+
+        public Signature(String category, String text, boolean wordBounded) {
+            this.category = category;
+            this.text = text;
+            this.wordBounded = wordBounded;
+        }
+
+        public static Signature of(String category, String text) {
+            return new Signature(category, text, false);
+        }
+
+        public static Signature word(String category, String text) {
+            return new Signature(category, text, true);
+        }
+
+        public String getCategory() { return category; }
+        public String getText() { return text; }
+    }
+
+    public SignatureMatcher(List<Signature> signatures) {
+        this.signatures = List.copyOf(signatures);
+        List<String> names = new ArrayList<>();
+        for (Signature signature : this.signatures) {
+            if (!names.contains(signature.category)) {
+                names.add(signature.category);
+            }
+        }
+        if (names.size() > 64) {
+            throw new IllegalArgumentException("At most 64 signature categories are supported");
+        }
+        this.categories = List.copyOf(names);
+        this.hits = new LongAdder[this.signatures.size()];
+        this.categoryOf = new int[this.signatures.size()];
+        this.lengths = new int[this.signatures.size()];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = new LongAdder();
+            categoryOf[i] = names.indexOf(this.signatures.get(i).category);
+        }
+
+        // Trie
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> terminal = new ArrayList<>();
+        children.add(newNode());
+        terminal.add(new ArrayList<>());
+        for (int id = 0; id < this.signatures.size(); id++) {
+            String text = normalize(this.signatures.get(id).text);
+            if (text.isEmpty()) {
+                throw new IllegalArgumentException("Empty signature in category " + this.signatures.get(id).category);
+            }
+            lengths[id] = text.length();
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                int c = text.charAt(i);
+                if (children.get(state)[c] < 0) {
+                    children.get(state)[c] = children.size();
+                    children.add(newNode());
+                    terminal.add(new ArrayList<>());
+                }
+                state = children.get(state)[c];
+            }
+            terminal.get(state).add(id);
+        }
+
+        // Failure links, breadth first, folded into a complete transition table
+        int states = children.size();
+        this.transitions = new int[states * ALPHABET];
+        this.outputs = new int[states][];
+        int[] fail = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = children.get(0)[c];
+            if (child < 0) {
+                transitions[c] = 0;
+            } else {
+                transitions[c] = child;
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        outputs[0] = new int[0];
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> out = new ArrayList<>(terminal.get(state));
+            for (int id : outputs[fail[state]]) {
+                out.add(id);
+            }
+            outputs[state] = out.stream().mapToInt(Integer::intValue).toArray();
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = children.get(state)[c];
+                if (child < 0) {
+                    transitions[state * ALPHABET + c] = transitions[fail[state] * ALPHABET + c];
+                } else {
+                    transitions[state * ALPHABET + c] = child;
+                    fail[child] = transitions[fail[state] * ALPHABET + c];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the input once.
+     *
+     * @return bit mask of matched categories; bit i is {@code getCategories().get(i)}
+     */
+    public long scan(CharSequence input) {
+        if (input == null || input.length() == 0) {
+            return 0;
+        }
+        char[] text = normalizeToArray(input);
+        long matched = 0;
+        long[] seen = null;
+        int state = 0;
+        for (int i = 0; i < text.length; i++) {
+            state = transitions[state * ALPHABET + text[i]];
+            for (int id : outputs[state]) {
+                if (signatures.get(id).wordBounded && !isBounded(text, i, lengths[id])) {
+                    continue;
+                }
+                if (seen == null) {
+                    seen = new long[(signatures.size() + 63) / 64];
+                }
+                if ((seen[id >> 6] & (1L << id)) == 0) {
+                    seen[id >> 6] |= 1L << id;
+                    hits[id].increment();
+                    matched |= 1L << categoryOf[id];
+                }
+            }
+        }
+        return matched;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Returns hits per signature as <code>category:text</code>, for monitoring.
+     */
+    public Map<String, Long> getHitCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int id = 0; id < signatures.size(); id++) {
+            counts.put(signatures.get(id).category + ":" + signatures.get(id).text, hits[id].sum());
+        }
+        return counts;
+    }
+
+    // A boundary is only required next to a word character of the signature, so "sleep(" matches "sleep(5)"
+    private static boolean isBounded(char[] text, int end, int length) {
+        int start = end - length + 1;
+        boolean leading = start == 0 || !isWordChar(text[start]) || !isWordChar(text[start - 1]);
+        boolean trailing = end + 1 == text.length || !isWordChar(text[end]) || !isWordChar(text[end + 1]);
+        return leading && trailing;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private static String normalize(String text) {
+        return new String(normalizeToArray(text));
+    }
+
+    /**
+     * Lowercases, maps non-ASCII to DEL and folds whitespace and '+' runs into a single space.
+     */
+    private static char[] normalizeToArray(CharSequence input) {
+        char[] out = new char[input.length()];
+        int length = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '+' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                if (length > 0 && out[length - 1] == ' ') {
+                    continue;
+                }
+                c = ' ';
+            } else if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (c >= ALPHABET) {
+                c = 0x7f;
+            }
+            out[length++] = c;
+        }
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+}
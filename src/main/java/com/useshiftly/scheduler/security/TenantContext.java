@@ -0,0 +1,45 @@
+package com.useshiftly.scheduler.security;
+
+import com.useshiftly.scheduler.model.Employee;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The buildings the current request may read, for repository queries that have to stay inside the caller's
+ * tenant instead of scanning the platform.
+ * <p>
+ * Admins and managers get the buildings they administer or manage from {@link BuildingAccessCache}; employees
+ * get their own building. Identity is taken from the JWT claims when they carry a building, so the employee is
+ * not loaded. Without an authenticated employee the list is empty and scoped queries return nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantContext {
+
+    private final BuildingAccessCache buildingAccessCache;
+
+    public List<Long> getBuildingIds() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwt && jwt.getClaims().getBuildingId() != null) {
+            JwtPrincipal claims = jwt.getClaims();
+            return resolve(claims.getEmployeeId(), claims.getRole(), claims.getBuildingId());
+        }
+        // Older tokens, and tokens issued before the employee had a building, need the loaded employee
+        if (authentication != null && authentication.getPrincipal() instanceof Employee employee) {
+            return resolve(employee.getId(), employee.getRole(),
+                employee.getBuilding() != null ? employee.getBuilding().getId() : null);
+        }
+        return List.of();
+    }
+
+    private List<Long> resolve(Long employeeId, Employee.Role role, Long homeBuildingId) {
+        if (role == Employee.Role.EMPLOYEE) {
+            return homeBuildingId != null ? List.of(homeBuildingId) : List.of();
+        }
+        return buildingAccessCache.get(employeeId, role, homeBuildingId).getBuildingIds();
+    }
+}
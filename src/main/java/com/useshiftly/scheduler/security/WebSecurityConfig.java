@@ -1,5 +1,6 @@
 package com.useshiftly.scheduler.security;
 
+import com.useshiftly.scheduler.repository.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -65,6 +66,31 @@ public class WebSecurityConfig {
      */
     private final AuthEntryPointJwt unauthorizedHandler;
 
+    /**
+     * Cache of authenticated principals, shared with EmployeeService for invalidation.
+     */
+    private final PrincipalCache principalCache;
+
+    /**
+     * Used by the JWT filter for token version lookups.
+     */
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * Shared (or per-JVM) rate limit and IP list state for the rate limiting and abuse detection beans.
+     */
+    private final SecurityStateStore securityStateStore;
+
+    /**
+     * Path classification shared by the JWT and enhanced security filters.
+     */
+    private final RouteClassifier routeClassifier;
+
+    /**
+     * Filter latency histograms.
+     */
+    private final SecurityMetrics securityMetrics;
+
     /**
      * Allowed origins for CORS, loaded from application configuration.
      */
@@ -78,7 +104,8 @@ public class WebSecurityConfig {
      */
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
-        return new AuthTokenFilter(jwtUtils(), userDetailsService, securityEventService(), abuseDetectionService());
+        return new AuthTokenFilter(jwtUtils(), userDetailsService, securityEventService(), abuseDetectionService(), principalCache,
+                employeeRepository, rateLimitingService(), routeClassifier, securityMetrics);
     }
     
     /**
@@ -98,7 +125,7 @@ public class WebSecurityConfig {
      */
     @Bean
     public AbuseDetectionService abuseDetectionService() {
-        return new AbuseDetectionService(securityEventService(), rateLimitingService());
+        return new AbuseDetectionService(securityEventService(), rateLimitingService(), securityStateStore);
     }
     
     /**
@@ -108,7 +135,7 @@ public class WebSecurityConfig {
      */
     @Bean
     public RateLimitingService rateLimitingService() {
-        return new RateLimitingService();
+        return new RateLimitingService(securityStateStore);
     }
 
     /**
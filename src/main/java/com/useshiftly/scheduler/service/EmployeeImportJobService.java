@@ -0,0 +1,344 @@
+package com.useshiftly.scheduler.service;
+
+import com.useshiftly.scheduler.dto.BulkEmployeeImportResult.RowResult;
+import com.useshiftly.scheduler.export.CsvReader;
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.model.EmployeeImportJob;
+import com.useshiftly.scheduler.repository.EmployeeImportJobRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs employee CSV imports as background jobs so large files don't hold a request thread or hit proxy timeouts.
+ * <p>
+ * An upload is spooled to disk, its rows are counted, and a QUEUED job is returned straight away. A worker
+ * then feeds the file through {@link EmployeeImportService#processChunk} one chunk at a time; each chunk's
+ * employees and the job's progress counters commit in the same transaction. Jobs left QUEUED or RUNNING by
+ * a restart are picked up again on startup and skip the rows already committed.
+ * <p>
+ * Spool files live on local disk, so every job records the node that accepted it and only that node resumes it.
+ * Within one node a job is never run by two workers at once.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>app.import.jobs.spool-dir</code> - where uploads are kept until the job finishes (default: temp dir)</li>
+ *   <li><code>app.import.jobs.workers</code> - jobs processed at the same time (default: 2)</li>
+ *   <li><code>app.import.jobs.max-rows</code> - data rows accepted per job (default: 200000)</li>
+ *   <li><code>app.import.jobs.node-id</code> - owner recorded on this instance's jobs; must survive restarts
+ *       (default: host name)</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class EmployeeImportJobService {
+
+    private static final int MAX_STORED_ERRORS = 1000;
+
+    private final EmployeeImportJobRepository jobRepository;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeImportService importService;
+    private final ExecutorService workers;
+    private final Path spoolDir;
+    private final String nodeId;
+
+    // Jobs queued or running on this node, so a resume racing a submit cannot start a second worker
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    // Set on shutdown; running jobs stop after their current chunk and resume on the next start
+    private volatile boolean stopping;
+
+    @Value("${app.import.batch-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.jobs.max-rows:200000}")
+    private int maxRows;
+
+    public EmployeeImportJobService(EmployeeImportJobRepository jobRepository,
+                                    EmployeeRepository employeeRepository,
+                                    EmployeeImportService importService,
+                                    @Value("${app.import.jobs.workers:2}") int workerCount,
+                                    @Value("${app.import.jobs.spool-dir:}") String spoolDir,
+                                    @Value("${app.import.jobs.node-id:}") String nodeId) {
+        this.jobRepository = jobRepository;
+        this.employeeRepository = employeeRepository;
+        this.importService = importService;
+        this.spoolDir = spoolDir.isBlank()
+            ? Paths.get(System.getProperty("java.io.tmpdir"), "useshiftly-imports")
+            : Paths.get(spoolDir);
+        this.nodeId = nodeId == null || nodeId.isBlank() ? localHostName() : nodeId;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerCount), runnable -> {
+            Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        workers.shutdown();
+    }
+
+    /**
+     * Spools the upload, validates its size in rows and queues it.
+     *
+     * @throws IOException if the file cannot be stored or is not well-formed CSV
+     * @throws RuntimeException if the caller has no building or the file has too many rows
+     */
+    public EmployeeImportJob submit(MultipartFile file, Employee caller) throws IOException {
+        // Fail fast on callers the worker would reject anyway
+        importService.context(caller);
+        String jobId = UUID.randomUUID().toString();
+        Files.createDirectories(spoolDir);
+        Path spooled = spoolFile(jobId);
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+        }
+        int totalRows;
+        try {
+            totalRows = countRows(spooled);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        EmployeeImportJob job = jobRepository.save(EmployeeImportJob.builder()
+            .id(jobId)
+            .callerId(caller.getId())
+            .nodeId(nodeId)
+            .filename(file.getOriginalFilename())
+            .status(EmployeeImportJob.Status.QUEUED)
+            .totalRows(totalRows)
+            .build());
+        schedule(jobId);
+        log.info("Employee import job {} queued by employee {}: {} rows", jobId, caller.getId(), totalRows);
+        return job;
+    }
+
+    /**
+     * Returns the job if it belongs to the given employee.
+     */
+    public Optional<EmployeeImportJob> getJob(String jobId, Long callerId) {
+        return jobRepository.findById(jobId).filter(job -> job.getCallerId().equals(callerId));
+    }
+
+    /**
+     * Returns progress, errors and throughput for a job, in the shape the status endpoint uses.
+     */
+    public Map<String, Object> describe(EmployeeImportJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getId());
+        status.put("status", job.getStatus());
+        status.put("filename", job.getFilename());
+        status.put("totalRows", job.getTotalRows());
+        status.put("processedRows", job.getProcessedRows());
+        status.put("createdRows", job.getCreatedRows());
+        status.put("failedRows", job.getFailedRows());
+        status.put("percentComplete", job.getTotalRows() == 0 ? 100 : job.getProcessedRows() * 100 / job.getTotalRows());
+        status.put("rowsPerSecond", rowsPerSecond(job));
+        status.put("errors", job.getErrors() == null || job.getErrors().isEmpty()
+            ? List.of() : Arrays.asList(job.getErrors().split("\n")));
+        status.put("failureReason", job.getFailureReason());
+        status.put("createdAt", job.getCreatedAt());
+        status.put("startedAt", job.getStartedAt());
+        status.put("finishedAt", job.getFinishedAt());
+        return status;
+    }
+
+    /**
+     * Re-queues this node's jobs interrupted by a shutdown or crash. Other nodes' jobs are left to them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<EmployeeImportJob> unfinished = jobRepository.findByNodeIdAndStatusInOrderByCreatedAtAsc(nodeId,
+            List.of(EmployeeImportJob.Status.QUEUED, EmployeeImportJob.Status.RUNNING));
+        for (EmployeeImportJob job : unfinished) {
+            if (schedule(job.getId())) {
+                log.info("Resuming employee import job {} at row {}", job.getId(), job.getProcessedRows() + 1);
+            }
+        }
+    }
+
+    /**
+     * Hands the job to a worker unless it is already queued or running on this node.
+     */
+    private boolean schedule(String jobId) {
+        if (!activeJobs.add(jobId)) {
+            return false;
+        }
+        workers.submit(() -> {
+            try {
+                run(jobId);
+            } finally {
+                activeJobs.remove(jobId);
+            }
+        });
+        return true;
+    }
+
+    private void run(String jobId) {
+        EmployeeImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == EmployeeImportJob.Status.COMPLETED
+                || job.getStatus() == EmployeeImportJob.Status.FAILED) {
+            return;
+        }
+        try {
+            Employee caller = employeeRepository.findById(job.getCallerId())
+                .orElseThrow(() -> new RuntimeException("Importing user no longer exists"));
+            EmployeeImportService.Context context = importService.context(caller);
+            job.setStatus(EmployeeImportJob.Status.RUNNING);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+            job = jobRepository.save(job);
+
+            EmployeeImportJob progress = job;
+            try (Reader file = Files.newBufferedReader(spoolFile(jobId), StandardCharsets.UTF_8);
+                 CsvReader reader = importService.openCsv(file)) {
+                // Skip rows committed before an interruption
+                for (int i = 0; i < progress.getProcessedRows(); i++) {
+                    if (importService.nextRecord(reader) == null) {
+                        break;
+                    }
+                }
+                List<List<String>> chunk = new ArrayList<>(chunkSize);
+                List<String> record;
+                do {
+                    record = importService.nextRecord(reader);
+                    if (record != null) {
+                        chunk.add(record);
+                    }
+                    if (chunk.size() >= Math.max(1, chunkSize) || (record == null && !chunk.isEmpty())) {
+                        importService.processChunk(chunk, progress.getProcessedRows() + 1, context,
+                            results -> recordProgress(progress, results));
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                } while (record != null && !stopping);
+            }
+            if (stopping) {
+                return;
+            }
+            progress.setStatus(EmployeeImportJob.Status.COMPLETED);
+            progress.setFinishedAt(LocalDateTime.now());
+            job = jobRepository.save(progress);
+            log.info("Employee import job {} completed: {} rows, {} created, {} failed, {} rows/s",
+                jobId, job.getProcessedRows(), job.getCreatedRows(), job.getFailedRows(),
+                String.format("%.1f", rowsPerSecond(job)));
+        } catch (Exception e) {
+            if (stopping) {
+                log.warn("Employee import job {} interrupted by shutdown; it will resume on restart", jobId);
+                return;
+            }
+            log.error("Employee import job {} failed: {}", jobId, e.getMessage());
+            EmployeeImportJob failed = jobRepository.findById(jobId).orElse(job);
+            failed.setStatus(EmployeeImportJob.Status.FAILED);
+            failed.setFailureReason(truncate(e.getMessage(), 500));
+            failed.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(failed);
+        }
+        try {
+            Files.deleteIfExists(spoolFile(jobId));
+        } catch (IOException e) {
+            log.warn("Could not delete spool file for import job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    // Runs inside the transaction that commits the chunk. Counters are re-read from the database so a rolled
+    // back attempt is never counted twice; the in-memory job is then brought up to date.
+    private void recordProgress(EmployeeImportJob progress, List<RowResult> results) {
+        EmployeeImportJob job = jobRepository.findById(progress.getId()).orElse(progress);
+        int created = 0;
+        StringBuilder errors = new StringBuilder(job.getErrors() == null ? "" : job.getErrors());
+        int storedErrors = job.getErrors() == null || job.getErrors().isEmpty() ? 0 : job.getErrors().split("\n").length;
+        for (RowResult result : results) {
+            if (result.isCreated()) {
+                created++;
+            } else if (storedErrors < MAX_STORED_ERRORS) {
+                if (errors.length() > 0) {
+                    errors.append('\n');
+                }
+                errors.append(EmployeeImportService.describeFailure(result).replace('\n', ' '));
+                storedErrors++;
+            }
+        }
+        job.setProcessedRows(job.getProcessedRows() + results.size());
+        job.setCreatedRows(job.getCreatedRows() + created);
+        job.setFailedRows(job.getFailedRows() + results.size() - created);
+        job.setErrors(errors.toString());
+        jobRepository.save(job);
+        progress.setProcessedRows(job.getProcessedRows());
+        progress.setCreatedRows(job.getCreatedRows());
+        progress.setFailedRows(job.getFailedRows());
+        progress.setErrors(job.getErrors());
+    }
+
+    private int countRows(Path file) throws IOException {
+        int rows = 0;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CsvReader csv = importService.openCsv(reader)) {
+            while (importService.nextRecord(csv) != null) {
+                if (++rows > maxRows) {
+                    throw new RuntimeException("Too many rows. Max " + maxRows + ".");
+                }
+            }
+        }
+        return rows;
+    }
+
+    private Path spoolFile(String jobId) {
+        return spoolDir.resolve(jobId + ".csv");
+    }
+
+    private static double rowsPerSecond(EmployeeImportJob job) {
+        if (job.getStartedAt() == null) {
+            return 0.0;
+        }
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+        return job.getProcessedRows() * 1000.0 / millis;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        if (value == null) return null;
+        return value.length() > max ? value.substring(0, max) : value;
+    }
+}
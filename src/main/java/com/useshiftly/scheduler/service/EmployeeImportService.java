@@ -0,0 +1,507 @@
+package com.useshiftly.scheduler.service;
+
+import com.useshiftly.scheduler.billing.SeatCounterService;
+import com.useshiftly.scheduler.dto.BulkEmployeeImportResult;
+import com.useshiftly.scheduler.dto.BulkEmployeeImportResult.RowResult;
+import com.useshiftly.scheduler.export.CsvReader;
+import com.useshiftly.scheduler.model.Building;
+import com.useshiftly.scheduler.model.Department;
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Imports employees from CSV into the caller's building.
+ * <p>
+ * The pipeline avoids per-row round trips and per-row hashing on the request thread:
+ * <ol>
+ *   <li>rows are read with a streaming {@link CsvReader} and validated in a single scan per field</li>
+ *   <li>emails already in use are found with one <code>IN</code> query per 1000 rows</li>
+ *   <li>temporary passwords are BCrypt-hashed in parallel on a dedicated pool</li>
+ *   <li>employees are inserted in batches (department set up front, no second save), with one seat counter
+ *       update per batch; if a batch fails, its rows are retried one at a time so only the bad rows fail</li>
+ *   <li>registration notifications are sent in the background</li>
+ * </ol>
+ * Every data row gets a {@link RowResult}.
+ * <p>
+ * <b>Configuration:</b>
+ * <ul>
+ *   <li><code>app.import.hash-parallelism</code> - password hashing threads (default: number of CPUs)</li>
+ *   <li><code>app.import.batch-size</code> - employees inserted per transaction (default: 500)</li>
+ *   <li><code>app.import.max-rows</code> - data rows accepted per file (default: 10000)</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class EmployeeImportService {
+
+    private static final int MAX_FIELD_LENGTH = 1024;
+    private static final int MAX_VALUE_LENGTH = 128;
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+    private static final int MIN_COLUMNS = 5;
+
+    // Only consulted for fields containing one of the trigger characters below
+    private static final Pattern SUSPICIOUS = Pattern.compile(
+        "<script|</script|<iframe|<img|<svg|<object|<embed|<applet|<form|<input|<body|<html|<link|<style|<meta|<base|<a |javascript:|data:|onerror=|onload=|eval\\(");
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final EmployeeService employeeService;
+    private final SeatCounterService seatCounterService;
+    private final NotificationService notificationService;
+    private final UserActionLogService userActionLogService;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashPool;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.import.max-rows:10000}")
+    private int maxRows;
+
+    public EmployeeImportService(EmployeeRepository employeeRepository,
+                                 DepartmentRepository departmentRepository,
+                                 EmployeeService employeeService,
+                                 SeatCounterService seatCounterService,
+                                 NotificationService notificationService,
+                                 UserActionLogService userActionLogService,
+                                 PasswordEncoder passwordEncoder,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.import.hash-parallelism:0}") int hashParallelism) {
+        this.employeeRepository = employeeRepository;
+        this.departmentRepository = departmentRepository;
+        this.employeeService = employeeService;
+        this.seatCounterService = seatCounterService;
+        this.notificationService = notificationService;
+        this.userActionLogService = userActionLogService;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int threads = hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    /**
+     * Imports employees from CSV. The first record is treated as a header and skipped.
+     * <p>
+     * Columns: firstName, lastName, email, phone, dateOfBirth, [address, emergencyContactName,
+     * emergencyContactRelation, emergencyContactPhone, role, departmentId].
+     *
+     * @param csv    the CSV content
+     * @param caller the admin or manager performing the import
+     * @return totals, error messages and a result for every data row
+     * @throws IOException if the file cannot be read or is not well-formed CSV
+     */
+    public BulkEmployeeImportResult importCsv(Reader csv, Employee caller) throws IOException {
+        long started = System.currentTimeMillis();
+        Context context = context(caller);
+
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = openCsv(csv)) {
+            List<String> record;
+            while ((record = nextRecord(reader)) != null) {
+                if (records.size() == maxRows) {
+                    throw new IOException("Too many rows. Max " + maxRows + ".");
+                }
+                records.add(record);
+            }
+        }
+
+        List<RowResult> results = new ArrayList<>(records.size());
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < records.size(); from += size) {
+            results.addAll(processChunk(records.subList(from, Math.min(from + size, records.size())), from + 1, context, null));
+        }
+
+        int success = 0;
+        List<String> errors = new ArrayList<>();
+        for (RowResult result : results) {
+            if (result.isCreated()) {
+                success++;
+            } else {
+                errors.add(describeFailure(result));
+            }
+        }
+        userActionLogService.logAction("IMPORTED_EMPLOYEES", caller.getId());
+        log.info("Employee import into building {}: {} rows, {} created in {} ms",
+            context.building.getId(), results.size(), success, System.currentTimeMillis() - started);
+        BulkEmployeeImportResult summary = new BulkEmployeeImportResult(results.size(), success, results.size() - success, errors);
+        summary.setRows(results);
+        return summary;
+    }
+
+    /**
+     * Resolves the caller's building and departments once per import.
+     *
+     * @throws RuntimeException if the caller has no building
+     */
+    public Context context(Employee caller) {
+        Building building = resolveBuilding(caller);
+        if (building == null) {
+            throw new RuntimeException("No building assigned to the importing user");
+        }
+        Map<Long, Department> departments = new HashMap<>();
+        for (Department department : departmentRepository.findAllByBuildingId(building.getId())) {
+            departments.put(department.getId(), department);
+        }
+        return new Context(caller, building, departments);
+    }
+
+    /**
+     * Opens a CSV stream and consumes its header record.
+     *
+     * @throws IOException if the input is empty
+     */
+    public CsvReader openCsv(Reader csv) throws IOException {
+        CsvReader reader = new CsvReader(csv, MAX_FIELD_LENGTH);
+        if (reader.next() == null) {
+            reader.close();
+            throw new IOException("Empty file");
+        }
+        return reader;
+    }
+
+    /**
+     * Returns the next data record, skipping blank lines, or null at end of input.
+     */
+    public List<String> nextRecord(CsvReader reader) throws IOException {
+        List<String> record;
+        do {
+            record = reader.next();
+        } while (record != null && record.size() == 1 && record.get(0).isBlank());
+        return record;
+    }
+
+    /**
+     * Validates, deduplicates, hashes and inserts one chunk of data records.
+     * <p>
+     * When a listener is given it is called exactly once per chunk, inside the transaction that commits the
+     * chunk's employees (or, if the chunk had to be retried row by row, in a transaction of its own afterwards),
+     * so progress recorded by the listener never disagrees with what was inserted.
+     *
+     * @param records        data records, without the header
+     * @param firstRowNumber 1-based row number of the first record
+     * @param context        from {@link #context(Employee)}
+     * @param listener       optional progress callback
+     * @return one result per record, in order
+     */
+    public List<RowResult> processChunk(List<List<String>> records, int firstRowNumber, Context context, ChunkListener listener) {
+        List<RowResult> results = new ArrayList<>(records.size());
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            RowResult result = new RowResult(firstRowNumber + i, null, false, null, null);
+            results.add(result);
+            Candidate candidate = parseRow(records.get(i), result, context.caller, context.building, context.departments);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+
+        candidates = dropDuplicateEmails(candidates);
+
+        List<CompletableFuture<String>> hashes = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            hashes.add(CompletableFuture.supplyAsync(() -> passwordEncoder.encode(candidate.tempPassword), hashPool));
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).employee.setPassword(hashes.get(i).join());
+        }
+
+        insertBatch(candidates, results, listener);
+        return results;
+    }
+
+    /**
+     * Formats a failed row the way the <code>errors</code> list of an import result does.
+     */
+    public static String describeFailure(RowResult result) {
+        return "Row " + result.getRow() + ": " + result.getMessage();
+    }
+
+    private Building resolveBuilding(Employee caller) {
+        if (caller.getRole() == Employee.Role.MANAGER) {
+            return employeeService.getBuildingForManager(caller.getId()).orElse(null);
+        }
+        return caller.getBuilding();
+    }
+
+    private Candidate parseRow(List<String> cols, RowResult result, Employee caller, Building building,
+                               Map<Long, Department> departments) {
+        if (cols.size() > 2) {
+            result.setEmail(cols.get(2).trim());
+        }
+        for (String col : cols) {
+            String problem = checkContent(col);
+            if (problem != null) {
+                result.setMessage(problem);
+                return null;
+            }
+        }
+        if (cols.size() < MIN_COLUMNS) {
+            result.setMessage("Not enough columns");
+            return null;
+        }
+        Employee emp = new Employee();
+        emp.setFirstName(sanitize(cols.get(0)));
+        emp.setLastName(sanitize(cols.get(1)));
+        emp.setEmail(sanitize(cols.get(2)));
+        emp.setPhoneNumber(sanitize(cols.get(3)));
+        emp.setDateOfBirth(sanitize(cols.get(4)));
+        emp.setAddress(column(cols, 5));
+        emp.setEmergencyContactName(column(cols, 6));
+        emp.setEmergencyContactRelation(column(cols, 7));
+        emp.setEmergencyContactPhone(column(cols, 8));
+        if (emp.getFirstName().isEmpty() || emp.getLastName().isEmpty()) {
+            result.setMessage("First and last name are required");
+            return null;
+        }
+        if (emp.getEmail().isEmpty() || emp.getEmail().indexOf('@') < 1) {
+            result.setMessage("Invalid email");
+            return null;
+        }
+        result.setEmail(emp.getEmail());
+
+        String role = column(cols, 9);
+        if (role == null || role.isEmpty()) {
+            emp.setRole(Employee.Role.EMPLOYEE);
+        } else if (role.equalsIgnoreCase("EMPLOYEE")) {
+            emp.setRole(Employee.Role.EMPLOYEE);
+        } else if (role.equalsIgnoreCase("MANAGER") && caller.getRole() == Employee.Role.ADMIN) {
+            emp.setRole(Employee.Role.MANAGER);
+        } else {
+            result.setMessage("Role not allowed: " + role);
+            return null;
+        }
+
+        String departmentId = column(cols, 10);
+        if (departmentId != null && !departmentId.isEmpty()) {
+            Department department;
+            try {
+                department = departments.get(Long.parseLong(departmentId));
+            } catch (NumberFormatException nfe) {
+                result.setMessage("Invalid departmentId format");
+                return null;
+            }
+            if (department == null) {
+                result.setMessage("Department " + departmentId + " not found in this building");
+                return null;
+            }
+            emp.setDepartment(department);
+        }
+
+        emp.setBuilding(building);
+        emp.setActive(true);
+        emp.setMustChangePassword(true); // Always force password change for imported accounts
+        String tempPassword = java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 12) + "!";
+        return new Candidate(emp, tempPassword, result);
+    }
+
+    /**
+     * Returns a description of the first problem in the value, or null if it is acceptable. Printable ASCII
+     * and tabs are allowed; the suspicious-markup pattern only runs when a trigger character is present.
+     */
+    static String checkContent(String value) {
+        boolean trigger = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\t' && (c < 32 || c > 126)) {
+                return "Non-printable or binary data detected";
+            }
+            if (c == '<' || c == ':' || c == '=' || c == '(') {
+                trigger = true;
+            }
+        }
+        if (trigger && SUSPICIOUS.matcher(value).find()) {
+            return "Suspicious content detected";
+        }
+        return null;
+    }
+
+    private List<Candidate> dropDuplicateEmails(List<Candidate> candidates) {
+        Set<String> seen = new HashSet<>();
+        List<Candidate> unique = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (seen.add(candidate.employee.getEmail())) {
+                unique.add(candidate);
+            } else {
+                candidate.result.setMessage("Duplicate email in file");
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        List<String> emails = new ArrayList<>(seen);
+        for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK) {
+            existing.addAll(employeeRepository.findExistingEmails(
+                emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, emails.size()))));
+        }
+        if (existing.isEmpty()) {
+            return unique;
+        }
+        List<Candidate> fresh = new ArrayList<>(unique.size());
+        for (Candidate candidate : unique) {
+            if (existing.contains(candidate.employee.getEmail())) {
+                candidate.result.setMessage("Error: Email is already taken!");
+            } else {
+                fresh.add(candidate);
+            }
+        }
+        return fresh;
+    }
+
+    private void insertBatch(List<Candidate> batch, List<RowResult> results, ChunkListener listener) {
+        if (batch.isEmpty()) {
+            if (listener != null) {
+                transactionTemplate.executeWithoutResult(status -> listener.onChunkCommitted(results));
+            }
+            return;
+        }
+        List<Employee> employees = new ArrayList<>(batch.size());
+        for (Candidate candidate : batch) {
+            employees.add(candidate.employee);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                employeeRepository.saveAll(employees);
+                seatCounterService.recordCreated(employees, "IMPORTED");
+                entityManager.flush();
+                entityManager.clear();
+                markCreated(batch);
+                if (listener != null) {
+                    listener.onChunkCommitted(results);
+                }
+            });
+            notifyCreated(batch);
+        } catch (RuntimeException batchFailure) {
+            log.warn("Import batch of {} failed ({}), retrying rows individually", batch.size(), batchFailure.getMessage());
+            List<Candidate> created = new ArrayList<>();
+            for (Candidate candidate : batch) {
+                candidate.result.setCreated(false);
+                candidate.result.setEmployeeId(null);
+                candidate.employee.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        employeeRepository.save(candidate.employee);
+                        seatCounterService.recordCreated(List.of(candidate.employee), "IMPORTED");
+                        entityManager.flush();
+                        entityManager.clear();
+                    });
+                    created.add(candidate);
+                } catch (RuntimeException rowFailure) {
+                    candidate.employee.setId(null);
+                    candidate.result.setMessage(rowFailure.getMessage());
+                }
+            }
+            markCreated(created);
+            if (listener != null) {
+                transactionTemplate.executeWithoutResult(status -> listener.onChunkCommitted(results));
+            }
+            notifyCreated(created);
+        }
+    }
+
+    private static void markCreated(List<Candidate> created) {
+        for (Candidate candidate : created) {
+            candidate.result.setCreated(true);
+            candidate.result.setEmployeeId(candidate.employee.getId());
+            candidate.result.setMessage(null);
+        }
+    }
+
+    private void notifyCreated(List<Candidate> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        List<Employee> employees = new ArrayList<>(created.size());
+        List<String> passwords = new ArrayList<>(created.size());
+        for (Candidate candidate : created) {
+            employees.add(candidate.employee);
+            passwords.add(candidate.tempPassword);
+        }
+        notificationService.sendEmployeeRegistrationEmails(employees, passwords);
+    }
+
+    private static String column(List<String> cols, int index) {
+        return cols.size() > index ? sanitize(cols.get(index)) : null;
+    }
+
+    private static String sanitize(String input) {
+        if (input == null) return null;
+        // Remove < > " ' ` ;
+        String clean = input.trim().replaceAll("[<>\\\"'`;]", "");
+        return clean.length() > MAX_VALUE_LENGTH ? clean.substring(0, MAX_VALUE_LENGTH) : clean;
+    }
+
+    /**
+     * Receives the results of each committed chunk, inside the committing transaction.
+     */
+    @FunctionalInterface
+    public interface ChunkListener {
+        void onChunkCommitted(List<RowResult> results);
+    }
+
+    /**
+     * Per-import state resolved once: the caller, the target building and its departments.
+     */
+    public static final class Context {
+        final Employee caller;
+        final Building building;
+        final Map<Long, Department> departments;
+
+        Context(Employee caller, Building building, Map<Long, Department> departments) {
+            this.caller = caller;
+            this.building = building;
+            this.departments = departments;
+        }
+
+        public Building getBuilding() {
+            return building;
+        }
+    }
+
+    private static final class Candidate {
+        final Employee employee;
+        final String tempPassword;
+        final RowResult result;
+
+        Candidate(Employee employee, String tempPassword, RowResult result) {
+            this.employee = employee;
+            this.tempPassword = tempPassword;
+            this.result = result;
+        }
+    }
+}
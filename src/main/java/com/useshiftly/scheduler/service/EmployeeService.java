@@ -1,9 +1,12 @@
 
 package com.useshiftly.scheduler.service;
 
+import com.useshiftly.scheduler.billing.SeatCounterService;
 import com.useshiftly.scheduler.model.Employee;
 import com.useshiftly.scheduler.repository.EmployeeRepository;
 import com.useshiftly.scheduler.repository.ShiftTradeRepository;
+import com.useshiftly.scheduler.security.BuildingAccessCache;
+import com.useshiftly.scheduler.security.PrincipalCache;
 import com.useshiftly.scheduler.dto.shift.ShiftTradeResponse;
 
 import lombok.RequiredArgsConstructor;
@@ -58,7 +61,9 @@ public class EmployeeService implements UserDetailsService {
         }
         employee.setPassword(passwordEncoder.encode(employee.getPassword()));
         employee.setMustChangePassword(false);
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        seatCounterService.recordChange(saved, "CREATED");
+        return saved;
     }
     /**
      * Sends a Stripe invoice email to the given admin.
@@ -118,7 +123,8 @@ public class EmployeeService implements UserDetailsService {
         var building = buildingRepository.findById(buildingId)
                 .orElseThrow(() -> new RuntimeException("Building not found"));
         employee.setBuilding(building);
-        employeeRepository.save(employee);
+        seatCounterService.recordChange(employeeRepository.save(employee), "BUILDING_ASSIGNED");
+        principalCache.invalidate(employee);
     }
 
     /**
@@ -186,6 +192,7 @@ public class EmployeeService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("Department not found"));
         employee.setDepartment(department);
         employeeRepository.save(employee);
+        principalCache.invalidate(employee);
     }
 
     /**
@@ -202,6 +209,7 @@ public class EmployeeService implements UserDetailsService {
             employee.setDepartment(department);
         }
         employeeRepository.saveAll(employees);
+        principalCache.invalidateAll(employees);
     }
 
     /**
@@ -214,6 +222,12 @@ public class EmployeeService implements UserDetailsService {
      */
     private final NotificationService notificationService;
 
+    private final SeatCounterService seatCounterService;
+
+    private final PrincipalCache principalCache;
+
+    private final BuildingAccessCache buildingAccessCache;
+
     /**
      * Creates a new employee, generates a temp password, sets mustChangePassword,
      * and sends registration email if created by admin/manager.
@@ -236,6 +250,7 @@ public class EmployeeService implements UserDetailsService {
         }
         employee.setPassword(passwordEncoder.encode(employee.getPassword()));
         Employee saved = employeeRepository.save(employee);
+        seatCounterService.recordChange(saved, "CREATED");
         if (createdByAdminOrManager) {
             notificationService.sendEmployeeRegistrationEmail(saved, tempPassword);
         }
@@ -288,7 +303,10 @@ public class EmployeeService implements UserDetailsService {
      * @return the updated Employee
      */
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        seatCounterService.recordChange(saved, "UPDATED");
+        principalCache.invalidate(saved);
+        return saved;
     }
 
     /**
@@ -301,7 +319,8 @@ public class EmployeeService implements UserDetailsService {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
         employee.setActive(false);
-        employeeRepository.save(employee);
+        seatCounterService.recordChange(employeeRepository.save(employee), "DEACTIVATED");
+        principalCache.invalidate(employee);
     }
 
     /**
@@ -317,7 +336,8 @@ public class EmployeeService implements UserDetailsService {
             // And its setter:
             // public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
             employee.setDeletedAt(java.time.LocalDateTime.now());
-            employeeRepository.save(employee);
+            seatCounterService.recordChange(employeeRepository.save(employee), "DELETED");
+            principalCache.invalidate(employee);
         }
     }
 
@@ -339,11 +359,14 @@ public class EmployeeService implements UserDetailsService {
 
     /**
      * Updates the employee's password and sets mustChangePassword to false.
+     * Returns the flushed employee, whose token version has already moved past every token issued before the change.
      */
-    public void updatePassword(Employee employee, String newPassword) {
+    public Employee updatePassword(Employee employee, String newPassword) {
         employee.setPassword(passwordEncoder.encode(newPassword));
         employee.setMustChangePassword(false);
-        employeeRepository.save(employee);
+        Employee saved = employeeRepository.saveAndFlush(employee);
+        principalCache.invalidate(employee);
+        return saved;
     }
 
     /**
@@ -370,36 +393,28 @@ public class EmployeeService implements UserDetailsService {
      * Checks if the given employee is the admin of the specified building.
      */
     public boolean isAdminOfBuilding(Employee employee, Long buildingId) {
-        return buildingRepository.findById(buildingId)
-                .map(b -> b.getAdmin() != null && b.getAdmin().getId().equals(employee.getId()))
-                .orElse(false);
+        return buildingAccessCache.get(employee).administersBuilding(buildingId);
     }
 
     /**
      * Checks if the given employee is the manager of the specified building.
      */
     public boolean isManagerOfBuilding(Employee employee, Long buildingId) {
-        return buildingRepository.findById(buildingId)
-                .map(b -> b.getManagers() != null && b.getManagers().stream().anyMatch(m -> m.getId().equals(employee.getId())))
-                .orElse(false);
+        return buildingAccessCache.get(employee).managesBuilding(buildingId);
     }
 
     /**
      * Checks if the given employee is the admin of the specified department (via building).
      */
     public boolean isAdminOfDepartment(Employee employee, Long departmentId) {
-        return departmentRepository.findById(departmentId)
-                .map(d -> d.getBuilding() != null && d.getBuilding().getAdmin() != null && d.getBuilding().getAdmin().getId().equals(employee.getId()))
-                .orElse(false);
+        return employee.getRole() == Employee.Role.ADMIN && buildingAccessCache.canAccessDepartment(employee, departmentId);
     }
 
     /**
      * Checks if the given employee is the manager of the specified department (via building).
      */
     public boolean isManagerOfDepartment(Employee employee, Long departmentId) {
-        return departmentRepository.findById(departmentId)
-                .map(d -> d.getBuilding() != null && d.getBuilding().getManagers() != null && d.getBuilding().getManagers().stream().anyMatch(m -> m.getId().equals(employee.getId())))
-                .orElse(false);
+        return employee.getRole() == Employee.Role.MANAGER && buildingAccessCache.canAccessDepartment(employee, departmentId);
     }
 
     // --- Super-admin methods for admin management ---
@@ -460,5 +475,6 @@ public class EmployeeService implements UserDetailsService {
             throw new RuntimeException("Admin not found");
         }
         employeeRepository.deleteById(id);
+        principalCache.invalidate(adminOpt.get());
     }
 }
@@ -2,14 +2,24 @@ package com.useshiftly.scheduler.service;
 
 import com.useshiftly.scheduler.model.Employee;
 import com.useshiftly.scheduler.model.Shift;
+import com.useshiftly.scheduler.notification.NotificationDigestService;
+import com.useshiftly.scheduler.notification.NotificationDigestService.Urgency;
+import com.useshiftly.scheduler.notification.NotificationChannel;
+import com.useshiftly.scheduler.notification.NotificationEventType;
+import com.useshiftly.scheduler.notification.NotificationPreferenceService;
+import com.useshiftly.scheduler.notification.NotificationTemplates;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -21,6 +31,9 @@ import java.util.List;
  *   <li>Sends notifications for shift trades, assignments, updates, cancellations, and pickups.</li>
  *   <li>Notifies managers/admins for trade approvals.</li>
  *   <li>Supports async email sending and logs notification events.</li>
+ *   <li>Coalesces non-urgent emails per recipient via {@link NotificationDigestService}.</li>
+ *   <li>Renders subjects and bodies from precompiled {@link NotificationTemplates}.</li>
+ *   <li>Skips recipients who opted out via {@link NotificationPreferenceService} before rendering.</li>
  * </ul>
  * <b>Usage:</b> Injected into controllers and services to trigger notifications for scheduling events.
  */
@@ -29,10 +42,22 @@ import java.util.List;
 public class NotificationService {
     
     private final com.useshiftly.scheduler.repository.NotificationRepository notificationRepository;
+    private final NotificationDigestService digestService;
+    private final NotificationTemplates templates;
+    private final NotificationPreferenceService preferences;
+    private final Clock clock;
     
     @Autowired
-    public NotificationService(com.useshiftly.scheduler.repository.NotificationRepository notificationRepository) {
+    public NotificationService(com.useshiftly.scheduler.repository.NotificationRepository notificationRepository,
+                               NotificationDigestService digestService,
+                               NotificationTemplates templates,
+                               NotificationPreferenceService preferences,
+                               Clock clock) {
         this.notificationRepository = notificationRepository;
+        this.digestService = digestService;
+        this.templates = templates;
+        this.preferences = preferences;
+        this.clock = clock;
     }
     
     /**
@@ -47,17 +72,32 @@ public class NotificationService {
             return;
         }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-            log.info("General email sent to {}", to);
+            sendEmailOrThrow(to, subject, body);
         } catch (Exception e) {
             log.error("Failed to send general email to {}: {}", to, e.getMessage());
         }
     }
+
+    /**
+     * Sends a general email for callers that record delivery: returns only once the mail server accepted it.
+     * @param to recipient email address
+     * @param subject email subject
+     * @param body email body
+     * @throws IllegalStateException if email notifications are disabled or no mailSender is configured
+     * @throws org.springframework.mail.MailException if sending fails
+     */
+    public void sendEmailOrThrow(String to, String subject, String body) {
+        if (mailSender == null || !emailEnabled) {
+            throw new IllegalStateException("Email notifications disabled or mailSender not configured");
+        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        mailSender.send(message);
+        log.info("General email sent to {}", to);
+    }
     /**
      * Notifies the requesting employee that their shift trade offer was declined.
      * Sends both email and in-app notification.
@@ -65,31 +105,39 @@ public class NotificationService {
      */
     public void sendTradeDeclinedNotification(com.useshiftly.scheduler.model.ShiftTrade trade) {
         if (trade.getRequestingEmployee() != null) {
-            // Save notification entity
-            com.useshiftly.scheduler.model.Notification notification = com.useshiftly.scheduler.model.Notification.builder()
-                .userId(trade.getRequestingEmployee().getId())
-                .title("Shift Trade Declined")
-                .message(String.format("Your shift trade offer was declined by %s %s. Shift: %s Date & Time: %s - %s Department: %s",
-                    trade.getPickupEmployee() != null ? trade.getPickupEmployee().getFirstName() : "",
-                    trade.getPickupEmployee() != null ? trade.getPickupEmployee().getLastName() : "",
-                    trade.getShift() != null ? trade.getShift().getId() : "",
-                    trade.getShift() != null ? trade.getShift().getStartTime().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : "",
-                    trade.getShift() != null ? trade.getShift().getEndTime().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : "",
-                    trade.getShift() != null && trade.getShift().getDepartment() != null ? trade.getShift().getDepartment().getName() : ""
-                ))
-                .type("TRADE_DECLINED")
-                .read(false)
-                .timestamp(java.time.LocalDateTime.now())
-                .build();
-            notificationRepository.save(notification);
+            Long requesterId = trade.getRequestingEmployee().getId();
+            boolean inApp = preferences.isEnabled(requesterId, NotificationChannel.IN_APP, NotificationEventType.TRADE_DECLINED);
+            boolean email = emailEnabled && preferences.isEnabled(requesterId, NotificationChannel.EMAIL, NotificationEventType.TRADE_DECLINED);
+            if (!inApp && !email) {
+                return;
+            }
+            Shift shift = trade.getShift();
+            NotificationTemplates.Message rendered = templates.render(NotificationEventType.TRADE_DECLINED,
+                trade.getPickupEmployee() != null ? trade.getPickupEmployee().getFirstName() : "",
+                trade.getPickupEmployee() != null ? trade.getPickupEmployee().getLastName() : "",
+                shift != null ? String.valueOf(shift.getId()) : "",
+                shift != null ? shift.getStartTime().format(tradeFormatter) : "",
+                shift != null ? shift.getEndTime().format(tradeFormatter) : "",
+                shift != null && shift.getDepartment() != null ? shift.getDepartment().getName() : "");
+            if (inApp) {
+                // Save notification entity
+                com.useshiftly.scheduler.model.Notification notification = com.useshiftly.scheduler.model.Notification.builder()
+                    .userId(requesterId)
+                    .title(rendered.getSubject())
+                    .message(rendered.getBody())
+                    .type(NotificationEventType.TRADE_DECLINED.name())
+                    .read(false)
+                    .timestamp(java.time.LocalDateTime.now())
+                    .build();
+                notificationRepository.save(notification);
+            }
             // Send email
+            if (!email) {
+                return;
+            }
             try {
-                SimpleMailMessage mail = new SimpleMailMessage();
-                mail.setFrom(fromEmail);
-                mail.setTo(trade.getRequestingEmployee().getEmail());
-                mail.setSubject("Shift Trade Declined");
-                mail.setText(notification.getMessage());
-                mailSender.send(mail);
+                deliver(trade.getRequestingEmployee().getEmail(), trade.getRequestingEmployee().getFirstName(),
+                    rendered, cancellationUrgency(shift));
                 log.info("Trade declined email sent to requesting employee {}", trade.getRequestingEmployee().getEmail());
             } catch (Exception e) {
                 log.error("Failed to send trade declined email to requesting employee {}: {}", trade.getRequestingEmployee().getEmail(), e.getMessage());
@@ -140,25 +188,16 @@ public class NotificationService {
 
     /**
      * Returns notification settings for the user.
-     * (This example uses a simple in-memory map; replace with persistent storage as needed.)
      */
     public java.util.Map<String, Object> getNotificationSettings(Long userId) {
-        // TODO: Replace with real settings storage
-        java.util.Map<String, Object> settings = new java.util.HashMap<>();
-        settings.put("emailNotifications", true);
-        settings.put("pushNotifications", true);
-        settings.put("shiftReminders", true);
-        settings.put("tradeNotifications", true);
-        settings.put("scheduleUpdates", true);
-        return settings;
+        return preferences.getSettings(userId);
     }
 
     /**
-     * Updates notification settings for the user.
-     * (This example does not persist settings; implement persistence as needed.)
+     * Updates and persists notification settings for the user.
      */
     public void updateNotificationSettings(Long userId, java.util.Map<String, Object> settings) {
-        // TODO: Persist settings for user
+        preferences.updateSettings(userId, settings);
     }
     /**
      * Notify the requesting employee that they are still responsible for the shift until accepted by the target employee.
@@ -176,29 +215,14 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
+        if (!wantsEmail(requestingEmployee, NotificationEventType.TRADE_OFFER_REMINDER)) {
+            return;
+        }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(requestingEmployee.getEmail());
-            message.setSubject("Shift Trade Offer - Responsibility Reminder");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "You have offered your shift to %s %s. However, you are still responsible for this shift until it is accepted and confirmed.\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n" +
-                "Notes: %s\n\n" +
-                "If the offer is not accepted in time, you are expected to show up for your scheduled shift.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\nShiftly Team",
-                requestingEmployee.getFirstName(),
-                targetEmployee.getFirstName(),
-                targetEmployee.getLastName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName(),
-                shift.getNotes() != null ? shift.getNotes() : "None"
-            ));
-            mailSender.send(message);
+            deliver(requestingEmployee.getEmail(), requestingEmployee.getFirstName(),
+                templates.render(NotificationEventType.TRADE_OFFER_REMINDER,
+                    partyShiftArgs(requestingEmployee.getFirstName(), targetEmployee, shift)),
+                Urgency.NORMAL);
             log.info("Shift trade responsibility notification sent to {}", requestingEmployee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send shift trade responsibility notification to {}: {}", requestingEmployee.getEmail(), e.getMessage());
@@ -220,27 +244,13 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
+        if (!wantsEmail(requestingEmployee, NotificationEventType.SHIFT_POSTED_REMINDER)) {
+            return;
+        }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(requestingEmployee.getEmail());
-            message.setSubject("Shift Posted - Responsibility Reminder");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "You have posted your shift for pickup by other employees. However, you are still responsible for this shift until someone picks it up and it is confirmed.\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n" +
-                "Notes: %s\n\n" +
-                "If no one picks up the shift in time, you are expected to show up for your scheduled shift.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\nShiftly Team",
-                requestingEmployee.getFirstName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName(),
-                shift.getNotes() != null ? shift.getNotes() : "None"
-            ));
-            mailSender.send(message);
+            deliver(requestingEmployee.getEmail(), requestingEmployee.getFirstName(),
+                templates.render(NotificationEventType.SHIFT_POSTED_REMINDER, shiftArgs(requestingEmployee.getFirstName(), shift)),
+                Urgency.NORMAL);
             log.info("Shift posted responsibility notification sent to {}", requestingEmployee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send shift posted responsibility notification to {}: {}", requestingEmployee.getEmail(), e.getMessage());
@@ -256,10 +266,8 @@ public class NotificationService {
     @Value("${app.notification.email.enabled:false}")
     private boolean emailEnabled;
     
-    @Value("${app.notification.base-url:https://useshiftly.com}")
-    private String notificationBaseUrl;
-    
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
+    private final DateTimeFormatter tradeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     
     /**
      * Notifies an employee that they have been assigned a new shift.
@@ -273,28 +281,13 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
+        if (!wantsEmail(employee, NotificationEventType.SHIFT_ASSIGNED)) {
+            return;
+        }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(employee.getEmail());
-            message.setSubject("New Shift Assignment");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "You have been assigned a new shift:\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n" +
-                "Notes: %s\n\n" +
-                "Please log into Shiftly to view more details.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\n" +
-                "Shiftly Team",
-                employee.getFirstName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName(),
-                shift.getNotes() != null ? shift.getNotes() : "None"
-            ));
-            mailSender.send(message);
+            deliver(employee.getEmail(), employee.getFirstName(),
+                templates.render(NotificationEventType.SHIFT_ASSIGNED, shiftArgs(employee.getFirstName(), shift)),
+                Urgency.NORMAL);
             log.info("Shift assignment notification sent to {}", employee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send shift assignment notification to {}: {}", employee.getEmail(), e.getMessage());
@@ -313,28 +306,13 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
+        if (!wantsEmail(employee, NotificationEventType.SHIFT_UPDATED)) {
+            return;
+        }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(employee.getEmail());
-            message.setSubject("Shift Update");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "Your shift has been updated:\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n" +
-                "Notes: %s\n\n" +
-                "Please log into Shiftly to view the updated details.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\n" +
-                "Shiftly Team",
-                employee.getFirstName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName(),
-                shift.getNotes() != null ? shift.getNotes() : "None"
-            ));
-            mailSender.send(message);
+            deliver(employee.getEmail(), employee.getFirstName(),
+                templates.render(NotificationEventType.SHIFT_UPDATED, shiftArgs(employee.getFirstName(), shift)),
+                Urgency.NORMAL);
             log.info("Shift update notification sent to {}", employee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send shift update notification to {}: {}", employee.getEmail(), e.getMessage());
@@ -353,26 +331,13 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
+        if (!wantsEmail(employee, NotificationEventType.SHIFT_CANCELLED)) {
+            return;
+        }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(employee.getEmail());
-            message.setSubject("Shift Cancelled");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "Your shift has been cancelled:\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n\n" +
-                "If you have any questions, please contact your manager.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\n" +
-                "Shiftly Team",
-                employee.getFirstName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName()
-            ));
-            mailSender.send(message);
+            deliver(employee.getEmail(), employee.getFirstName(),
+                templates.render(NotificationEventType.SHIFT_CANCELLED, shiftArgs(employee.getFirstName(), shift)),
+                cancellationUrgency(shift));
             log.info("Shift cancellation notification sent to {}", employee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send shift cancellation notification to {}: {}", employee.getEmail(), e.getMessage());
@@ -394,61 +359,28 @@ public class NotificationService {
         }
         
         // Notify original employee
-        try {
-            SimpleMailMessage messageToOriginal = new SimpleMailMessage();
-            messageToOriginal.setFrom(fromEmail);
-            messageToOriginal.setTo(originalEmployee.getEmail());
-            messageToOriginal.setSubject("Shift Picked Up");
-            messageToOriginal.setText(String.format(
-                "Hello %s,\n\n" +
-                "Your shift has been picked up by %s %s:\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n\n" +
-                "Thank you for making your shift available.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\n" +
-                "Shiftly Team",
-                originalEmployee.getFirstName(),
-                pickupEmployee.getFirstName(),
-                pickupEmployee.getLastName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName()
-            ));
-            
-            mailSender.send(messageToOriginal);
-            log.info("Shift pickup notification sent to original employee {}", originalEmployee.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send shift pickup notification to original employee {}: {}", originalEmployee.getEmail(), e.getMessage());
+        if (wantsEmail(originalEmployee, NotificationEventType.SHIFT_PICKED_UP)) {
+            try {
+                deliver(originalEmployee.getEmail(), originalEmployee.getFirstName(),
+                    templates.render(NotificationEventType.SHIFT_PICKED_UP,
+                        partyShiftArgs(originalEmployee.getFirstName(), pickupEmployee, shift)),
+                    Urgency.NORMAL);
+                log.info("Shift pickup notification sent to original employee {}", originalEmployee.getEmail());
+            } catch (Exception e) {
+                log.error("Failed to send shift pickup notification to original employee {}: {}", originalEmployee.getEmail(), e.getMessage());
+            }
         }
         
         // Notify pickup employee
-        try {
-            SimpleMailMessage messageToPickup = new SimpleMailMessage();
-            messageToPickup.setFrom(fromEmail);
-            messageToPickup.setTo(pickupEmployee.getEmail());
-            messageToPickup.setSubject("Shift Assignment Confirmation");
-            messageToPickup.setText(String.format(
-                "Hello %s,\n\n" +
-                "You have successfully picked up a shift:\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n" +
-                "Notes: %s\n\n" +
-                "Thank you for your flexibility.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\n" +
-                "Shiftly Team",
-                pickupEmployee.getFirstName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName(),
-                shift.getNotes() != null ? shift.getNotes() : "None"
-            ));
-            
-            mailSender.send(messageToPickup);
-            log.info("Shift pickup confirmation sent to pickup employee {}", pickupEmployee.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send shift pickup confirmation to pickup employee {}: {}", pickupEmployee.getEmail(), e.getMessage());
+        if (wantsEmail(pickupEmployee, NotificationEventType.SHIFT_PICKUP_CONFIRMED)) {
+            try {
+                deliver(pickupEmployee.getEmail(), pickupEmployee.getFirstName(),
+                    templates.render(NotificationEventType.SHIFT_PICKUP_CONFIRMED, shiftArgs(pickupEmployee.getFirstName(), shift)),
+                    Urgency.NORMAL);
+                log.info("Shift pickup confirmation sent to pickup employee {}", pickupEmployee.getEmail());
+            } catch (Exception e) {
+                log.error("Failed to send shift pickup confirmation to pickup employee {}: {}", pickupEmployee.getEmail(), e.getMessage());
+            }
         }
     }
     
@@ -465,30 +397,14 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
+        if (!wantsEmail(targetEmployee, NotificationEventType.TRADE_OFFERED)) {
+            return;
+        }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(targetEmployee.getEmail());
-            message.setSubject("Shift Trade Offer");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "%s %s has offered you a shift:\n\n" +
-                "Date & Time: %s - %s\n" +
-                "Department: %s\n" +
-                "Notes: %s\n\n" +
-                "Please log into Shiftly to accept or decline this offer.\n\n" +
-                "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                "Best regards,\n" +
-                "Shiftly Team",
-                targetEmployee.getFirstName(),
-                requestingEmployee.getFirstName(),
-                requestingEmployee.getLastName(),
-                shift.getStartTime().format(formatter),
-                shift.getEndTime().format(formatter),
-                shift.getDepartment().getName(),
-                shift.getNotes() != null ? shift.getNotes() : "None"
-            ));
-            mailSender.send(message);
+            deliver(targetEmployee.getEmail(), targetEmployee.getFirstName(),
+                templates.render(NotificationEventType.TRADE_OFFERED,
+                    partyShiftArgs(targetEmployee.getFirstName(), requestingEmployee, shift)),
+                Urgency.NORMAL);
             log.info("Shift trade offer notification sent to {}", targetEmployee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send shift trade offer notification to {}: {}", targetEmployee.getEmail(), e.getMessage());
@@ -508,32 +424,18 @@ public class NotificationService {
             log.info("Email notifications disabled");
             return;
         }
-        for (Employee employee : allEmployees) {
+        List<Employee> recipients = preferences.filterRecipients(allEmployees, NotificationChannel.EMAIL, NotificationEventType.SHIFT_POSTED);
+        if (recipients.isEmpty()) {
+            return;
+        }
+        // Shift fields are formatted once; only the greeting changes per recipient
+        String[] args = partyShiftArgs(null, requestingEmployee, shift);
+        for (Employee employee : recipients) {
             if (employee.getId().equals(requestingEmployee.getId())) continue; // Don't notify self
             try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(employee.getEmail());
-                message.setSubject("Shift Available for Pickup");
-                message.setText(String.format(
-                    "Hello %s,\n\n" +
-                    "%s %s has posted a shift available for pickup:\n\n" +
-                    "Date & Time: %s - %s\n" +
-                    "Department: %s\n" +
-                    "Notes: %s\n\n" +
-                    "Log into Shiftly to pick up this shift if interested.\n\n" +
-                    "You can log in at: " + notificationBaseUrl + "/\n\n" +
-                    "Best regards,\n" +
-                    "Shiftly Team",
-                    employee.getFirstName(),
-                    requestingEmployee.getFirstName(),
-                    requestingEmployee.getLastName(),
-                    shift.getStartTime().format(formatter),
-                    shift.getEndTime().format(formatter),
-                    shift.getDepartment().getName(),
-                    shift.getNotes() != null ? shift.getNotes() : "None"
-                ));
-                mailSender.send(message);
+                args[0] = employee.getFirstName();
+                deliver(employee.getEmail(), employee.getFirstName(),
+                    templates.render(NotificationEventType.SHIFT_POSTED, args), Urgency.NORMAL);
                 log.info("Shift posted notification sent to {}", employee.getEmail());
             } catch (Exception e) {
                 log.error("Failed to send shift posted notification to {}: {}", employee.getEmail(), e.getMessage());
@@ -552,28 +454,20 @@ public class NotificationService {
             return;
         }
         // Notify pickup employee by email
-        if (trade.getPickupEmployee() != null) {
+        if (trade.getPickupEmployee() != null && wantsEmail(trade.getPickupEmployee(), NotificationEventType.TRADE_ACCEPTED_PICKUP)) {
             try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(trade.getPickupEmployee().getEmail());
-                message.setSubject("Shift Trade Accepted");
-                message.setText("You have accepted a shift trade. Awaiting manager approval.");
-                mailSender.send(message);
+                deliver(trade.getPickupEmployee().getEmail(), trade.getPickupEmployee().getFirstName(),
+                    templates.render(NotificationEventType.TRADE_ACCEPTED_PICKUP), Urgency.NORMAL);
                 log.info("Trade accepted email sent to pickup employee {}", trade.getPickupEmployee().getEmail());
             } catch (Exception e) {
                 log.error("Failed to send trade accepted email to pickup employee {}: {}", trade.getPickupEmployee().getEmail(), e.getMessage());
             }
         }
         // Notify requesting employee by email
-        if (trade.getRequestingEmployee() != null) {
+        if (trade.getRequestingEmployee() != null && wantsEmail(trade.getRequestingEmployee(), NotificationEventType.TRADE_ACCEPTED_REQUESTER)) {
             try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(fromEmail);
-                message.setTo(trade.getRequestingEmployee().getEmail());
-                message.setSubject("Shift Trade Accepted");
-                message.setText("Your shift trade has been accepted and is pending manager approval.");
-                mailSender.send(message);
+                deliver(trade.getRequestingEmployee().getEmail(), trade.getRequestingEmployee().getFirstName(),
+                    templates.render(NotificationEventType.TRADE_ACCEPTED_REQUESTER), Urgency.NORMAL);
                 log.info("Trade accepted email sent to requesting employee {}", trade.getRequestingEmployee().getEmail());
             } catch (Exception e) {
                 log.error("Failed to send trade accepted email to requesting employee {}: {}", trade.getRequestingEmployee().getEmail(), e.getMessage());
@@ -587,24 +481,27 @@ public class NotificationService {
      */
     public void sendTradeRejectedNotification(com.useshiftly.scheduler.model.ShiftTrade trade) {
         // Only notify pickup and requesting employees
-        String reasonMsg = trade.getReason() != null ? " Reason: " + trade.getReason() : "";
-        if (trade.getPickupEmployee() != null) {
+        NotificationTemplates.Message rendered = templates.render(NotificationEventType.TRADE_REJECTED,
+            trade.getReason() != null ? " Reason: " + trade.getReason() : "");
+        if (trade.getPickupEmployee() != null
+                && preferences.isEnabled(trade.getPickupEmployee().getId(), NotificationChannel.IN_APP, NotificationEventType.TRADE_REJECTED)) {
             com.useshiftly.scheduler.model.Notification notification = com.useshiftly.scheduler.model.Notification.builder()
                 .userId(trade.getPickupEmployee().getId())
-                .title("Shift Trade Rejected")
-                .message("Your shift trade was rejected by a manager." + reasonMsg)
-                .type("TRADE_REJECTED")
+                .title(rendered.getSubject())
+                .message(rendered.getBody())
+                .type(NotificationEventType.TRADE_REJECTED.name())
                 .read(false)
                 .timestamp(java.time.LocalDateTime.now())
                 .build();
             notificationRepository.save(notification);
         }
-        if (trade.getRequestingEmployee() != null) {
+        if (trade.getRequestingEmployee() != null
+                && preferences.isEnabled(trade.getRequestingEmployee().getId(), NotificationChannel.IN_APP, NotificationEventType.TRADE_REJECTED)) {
             com.useshiftly.scheduler.model.Notification notification = com.useshiftly.scheduler.model.Notification.builder()
                 .userId(trade.getRequestingEmployee().getId())
-                .title("Shift Trade Rejected")
-                .message("Your shift trade was rejected by a manager." + reasonMsg)
-                .type("TRADE_REJECTED")
+                .title(rendered.getSubject())
+                .message(rendered.getBody())
+                .type(NotificationEventType.TRADE_REJECTED.name())
                 .read(false)
                 .timestamp(java.time.LocalDateTime.now())
                 .build();
@@ -612,6 +509,50 @@ public class NotificationService {
         }
     }
     
+    /**
+     * Sends registration notifications for a batch of imported employees in the background. In-app
+     * notifications are saved in one batch; emails go out one by one on the async thread so the import
+     * request does not wait on the mail server.
+     *
+     * @param employees      the saved employees
+     * @param tempPasswords  the plain temporary password of each employee, in the same order
+     */
+    @Async
+    public void sendEmployeeRegistrationEmails(List<Employee> employees, List<String> tempPasswords) {
+        List<com.useshiftly.scheduler.model.Notification> notifications = new java.util.ArrayList<>(employees.size());
+        List<NotificationTemplates.Message> messages = new java.util.ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            NotificationTemplates.Message rendered = templates.render(NotificationEventType.ACCOUNT_CREATED,
+                employee.getFirstName(), tempPasswords.get(i));
+            messages.add(rendered);
+            notifications.add(com.useshiftly.scheduler.model.Notification.builder()
+                .userId(employee.getId())
+                .title("Welcome to Shiftly Scheduler")
+                .message(rendered.getSummary())
+                .type("info")
+                .read(false)
+                .timestamp(java.time.LocalDateTime.now())
+                .build());
+        }
+        notificationRepository.saveAll(notifications);
+        if (!emailEnabled) {
+            log.info("Email notifications disabled");
+            return;
+        }
+        int sent = 0;
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            try {
+                deliver(employee.getEmail(), employee.getFirstName(), messages.get(i), Urgency.URGENT);
+                sent++;
+            } catch (Exception e) {
+                log.error("Failed to send registration email to {}: {}", employee.getEmail(), e.getMessage());
+            }
+        }
+        log.info("Registration emails sent for {} of {} imported employees", sent, employees.size());
+    }
+
     /**
      * Sends a registration email to a new employee with their temporary password and login instructions.
      * Also saves a notification for the employee.
@@ -619,14 +560,13 @@ public class NotificationService {
      * @param tempPassword The temporary password
      */
     public void sendEmployeeRegistrationEmail(Employee employee, String tempPassword) {
+        NotificationTemplates.Message rendered = templates.render(NotificationEventType.ACCOUNT_CREATED,
+            employee.getFirstName(), tempPassword);
         // Save notification entity
         com.useshiftly.scheduler.model.Notification notification = com.useshiftly.scheduler.model.Notification.builder()
             .userId(employee.getId())
             .title("Welcome to Shiftly Scheduler")
-            .message(String.format(
-                "Your account has been created. Temporary password: %s. You will be required to change your password on first login.",
-                tempPassword
-            ))
+            .message(rendered.getSummary())
             .type("info")
             .read(false)
             .timestamp(java.time.LocalDateTime.now())
@@ -638,25 +578,124 @@ public class NotificationService {
             return;
         }
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(employee.getEmail());
-            message.setSubject("Welcome to Shiftly Scheduler - Account Created");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "Your account has been created on Shiftly Scheduler.\n" +
-                "You can log in at: " + notificationBaseUrl + "\n\n" +
-                "Your temporary password: %s\n" +
-                "You will be required to change your password on first login.\n\n" +
-                "If you have any questions, please contact your manager or HR.\n\n" +
-                "Best regards,\nShiftly Scheduler Team",
-                employee.getFirstName(),
-                tempPassword
-            ));
-            mailSender.send(message);
+            deliver(employee.getEmail(), employee.getFirstName(), rendered, Urgency.URGENT);
             log.info("Registration email sent to {}", employee.getEmail());
         } catch (Exception e) {
             log.error("Failed to send registration email to {}: {}", employee.getEmail(), e.getMessage());
         }
     }
+
+    /**
+     * Drains digest buffers whose window has elapsed and sends one email per recipient.
+     * A buffer holding a single message is sent unchanged; larger buffers are merged into a summary.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.digest.flush-interval-ms:30000}")
+    public void flushNotificationDigests() {
+        sendDigests(digestService.drainDue());
+    }
+
+    /**
+     * Sends anything still buffered when the application shuts down so no notification is silently dropped.
+     */
+    @PreDestroy
+    public void flushAllNotificationDigests() {
+        sendDigests(digestService.drainAll());
+    }
+
+    private void sendDigests(List<NotificationDigestService.Digest> digests) {
+        for (NotificationDigestService.Digest digest : digests) {
+            try {
+                List<NotificationDigestService.Entry> entries = digest.getEntries();
+                if (entries.size() == 1) {
+                    sendMail(digest.getRecipient(), entries.get(0).getSubject(), entries.get(0).getBody());
+                    continue;
+                }
+                StringBuilder items = new StringBuilder();
+                for (NotificationDigestService.Entry entry : entries) {
+                    items.append("- ").append(entry.getSummaryLine()).append("\n");
+                }
+                NotificationTemplates.Message rendered = templates.render(NotificationEventType.DIGEST,
+                    digest.getFirstName(), String.valueOf(entries.size()), items.toString());
+                sendMail(digest.getRecipient(), rendered.getSubject(), rendered.getBody());
+                log.info("Digest of {} notifications sent to {}", entries.size(), digest.getRecipient());
+            } catch (Exception e) {
+                log.error("Failed to send notification digest to {}: {}", digest.getRecipient(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends the email now or hands it to the digest buffer, depending on urgency.
+     */
+    private void deliver(String to, String firstName, NotificationTemplates.Message message, Urgency urgency) {
+        if (digestService.shouldBuffer(urgency)) {
+            digestService.enqueue(to, firstName, message.getSubject(), message.getBody(), message.getSummary());
+            return;
+        }
+        sendMail(to, message.getSubject(), message.getBody());
+    }
+
+    /**
+     * Returns false (and skips rendering) when the employee opted out of this event type by email.
+     */
+    private boolean wantsEmail(Employee employee, NotificationEventType type) {
+        if (preferences.isEnabled(employee.getId(), NotificationChannel.EMAIL, type)) {
+            return true;
+        }
+        log.debug("Employee {} opted out of {} emails", employee.getId(), type);
+        return false;
+    }
+
+    private void sendMail(String to, String subject, String body) {
+        if (mailSender == null) {
+            log.info("mailSender not configured, skipping email to {}", to);
+            return;
+        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        mailSender.send(message);
+    }
+
+    /**
+     * Cancellations of shifts starting soon must reach the employee right away.
+     */
+    private Urgency cancellationUrgency(Shift shift) {
+        if (shift == null || shift.getStartTime() == null) {
+            return Urgency.NORMAL;
+        }
+        OffsetDateTime urgentCutoff = OffsetDateTime.now(clock).plusMinutes(digestService.getUrgentLeadMinutes());
+        return shift.getStartTime().isBefore(urgentCutoff) ? Urgency.URGENT : Urgency.NORMAL;
+    }
+
+    /**
+     * Template arguments for the SHIFT variable list: firstName, start, end, department, notes.
+     */
+    private String[] shiftArgs(String firstName, Shift shift) {
+        return new String[] {
+            firstName,
+            shift.getStartTime().format(formatter),
+            shift.getEndTime().format(formatter),
+            shift.getDepartment().getName(),
+            shift.getNotes() != null ? shift.getNotes() : "None"
+        };
+    }
+
+    /**
+     * Template arguments for the PARTY_SHIFT variable list:
+     * firstName, otherFirstName, otherLastName, start, end, department, notes.
+     */
+    private String[] partyShiftArgs(String firstName, Employee other, Shift shift) {
+        return new String[] {
+            firstName,
+            other.getFirstName(),
+            other.getLastName(),
+            shift.getStartTime().format(formatter),
+            shift.getEndTime().format(formatter),
+            shift.getDepartment().getName(),
+            shift.getNotes() != null ? shift.getNotes() : "None"
+        };
+    }
 }
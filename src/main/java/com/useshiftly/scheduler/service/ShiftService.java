@@ -8,6 +8,7 @@ import com.useshiftly.scheduler.model.Department;
 import com.useshiftly.scheduler.repository.ShiftRepository;
 import com.useshiftly.scheduler.repository.EmployeeRepository;
 import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -39,6 +40,7 @@ public class ShiftService {
     private final DepartmentRepository departmentRepository;
     private final NotificationService notificationService;
     private final com.useshiftly.scheduler.repository.ShiftTradeRepository shiftTradeRepository;
+    private final TenantContext tenantContext;
     private final Clock clock;
 
     /**
@@ -180,14 +182,8 @@ public class ShiftService {
         shift.setStatus(Shift.ShiftStatus.SCHEDULED);
         shift.setAvailableForPickup(false);
         shiftRepository.save(shift);
-        // Fallback: find all trades for this shift and cancel POSTED_TO_EVERYONE
-        List<com.useshiftly.scheduler.model.ShiftTrade> trades;
-        try {
-            trades = shiftTradeRepository.findByShiftId(shiftId);
-        } catch (Exception e) {
-            log.warn("findByShiftId not available, falling back to findAll");
-            trades = shiftTradeRepository.findAll();
-        }
+        // Cancel this shift's POSTED_TO_EVERYONE trades
+        List<com.useshiftly.scheduler.model.ShiftTrade> trades = shiftTradeRepository.findByShiftId(shiftId);
         for (com.useshiftly.scheduler.model.ShiftTrade trade : trades) {
             if (trade.getShift() != null && trade.getShift().getId().equals(shiftId)
                 && trade.getStatus() == com.useshiftly.scheduler.model.ShiftTrade.TradeStatus.POSTED_TO_EVERYONE) {
@@ -228,14 +224,16 @@ public class ShiftService {
             return result;
         }
 
-        java.util.List<Department> departments = departmentRepository.findAll();
+        java.util.List<Long> buildingIds = tenantContext.getBuildingIds();
+        if (buildingIds.isEmpty()) {
+            return result;
+        }
+        java.util.List<Department> departments = departmentRepository.findAllByBuildingIds(buildingIds);
+        // One query for every shift in the caller's buildings instead of one per department
+        java.util.Map<Long, java.util.List<Shift>> shiftsByDepartment = findShiftsForBuildings(buildingIds, start, end).stream()
+            .collect(Collectors.groupingBy(s -> s.getDepartment().getId()));
         for (Department dept : departments) {
-            java.util.List<Shift> shifts;
-            if (start != null && end != null) {
-                shifts = shiftRepository.findByDepartmentAndDateRange(dept.getId(), start, end);
-            } else {
-                shifts = shiftRepository.findByDepartmentId(dept.getId());
-            }
+            java.util.List<Shift> shifts = shiftsByDepartment.getOrDefault(dept.getId(), List.of());
             int totalShifts = shifts.size();
             double totalHours = shifts.stream()
                 .mapToDouble(s -> java.time.Duration.between(s.getStartTime(), s.getEndTime()).toHours())
@@ -288,15 +286,26 @@ public class ShiftService {
         }
 
         java.util.List<Employee> employees;
+        // Without a department, one query for every shift in the caller's buildings instead of one per employee
+        java.util.Map<Long, java.util.List<Shift>> shiftsByEmployee = null;
         if (departmentId != null) {
             employees = employeeRepository.findByDepartmentId(departmentId);
         } else {
-            employees = employeeRepository.findAll();
+            java.util.List<Long> buildingIds = tenantContext.getBuildingIds();
+            if (buildingIds.isEmpty()) {
+                return result;
+            }
+            employees = employeeRepository.findByBuildingIdIn(buildingIds);
+            shiftsByEmployee = findShiftsForBuildings(buildingIds, start, end).stream()
+                .filter(s -> s.getEmployee() != null)
+                .collect(Collectors.groupingBy(s -> s.getEmployee().getId()));
         }
 
         for (Employee emp : employees) {
             java.util.List<Shift> shifts;
-            if (start != null && end != null) {
+            if (shiftsByEmployee != null) {
+                shifts = shiftsByEmployee.getOrDefault(emp.getId(), List.of());
+            } else if (start != null && end != null) {
                 shifts = shiftRepository.findByEmployeeAndDateRange(emp.getId(), start, end);
             } else {
                 shifts = shiftRepository.findByEmployeeId(emp.getId());
@@ -350,10 +359,8 @@ public class ShiftService {
             shifts = shiftRepository.findByDepartmentAndDateRange(departmentId, start, end);
         } else if (departmentId != null) {
             shifts = shiftRepository.findByDepartmentId(departmentId);
-        } else if (start != null && end != null) {
-            shifts = shiftRepository.findByDateRange(start, end);
         } else {
-            shifts = shiftRepository.findAll();
+            shifts = findShiftsForBuildings(tenantContext.getBuildingIds(), start, end);
         }
 
         // Shifts per day
@@ -432,10 +439,8 @@ public class ShiftService {
             shifts = shiftRepository.findByDepartmentAndDateRange(departmentId, start, end);
         } else if (departmentId != null) {
             shifts = shiftRepository.findByDepartmentId(departmentId);
-        } else if (start != null && end != null) {
-            shifts = shiftRepository.findByDateRange(start, end);
         } else {
-            shifts = shiftRepository.findAll();
+            shifts = findShiftsForBuildings(tenantContext.getBuildingIds(), start, end);
         }
 
         int totalShifts = shifts.size();
@@ -560,20 +565,28 @@ public class ShiftService {
     }
     
     /**
-     * Retrieves all shifts within an optional date range.
+     * Retrieves all shifts in the caller's buildings within an optional date range.
      *
      * @param startDate start date (optional)
      * @param endDate   end date (optional)
      * @return list of ShiftResponse DTOs
      */
     public List<ShiftResponse> getAllShifts(OffsetDateTime startDate, OffsetDateTime endDate) {
-        List<Shift> shifts;
+        List<Shift> shifts = findShiftsForBuildings(tenantContext.getBuildingIds(), startDate, endDate);
+        return shifts.stream().map(this::convertToResponse).collect(Collectors.toList());
+    }
+
+    /**
+     * Shifts in the given buildings, within the date range when both ends are given.
+     */
+    private List<Shift> findShiftsForBuildings(List<Long> buildingIds, OffsetDateTime startDate, OffsetDateTime endDate) {
+        if (buildingIds.isEmpty()) {
+            return List.of();
+        }
         if (startDate != null && endDate != null) {
-            shifts = shiftRepository.findByDateRange(startDate, endDate);
-        } else {
-            shifts = shiftRepository.findAll();
+            return shiftRepository.findByBuildingIdsAndDateRange(buildingIds, startDate, endDate);
         }
-        return shifts.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return shiftRepository.findByBuildingIds(buildingIds);
     }
     
     /**
@@ -882,9 +895,9 @@ public class ShiftService {
         trade.setStatus(com.useshiftly.scheduler.model.ShiftTrade.TradeStatus.POSTED_TO_EVERYONE);
         trade.setRequestedAt(OffsetDateTime.now(clock));
         shiftTradeRepository.save(trade);
-        // Notify all employees except the requester
-        List<Employee> allEmployees = employeeRepository.findAll();
-        notificationService.sendShiftPostedToEveryoneNotification(shift, requestingEmployee, allEmployees);
+        // Notify the shift's building except the requester
+        List<Employee> buildingEmployees = employeeRepository.findByBuildingId(shift.getDepartment().getBuilding().getId());
+        notificationService.sendShiftPostedToEveryoneNotification(shift, requestingEmployee, buildingEmployees);
         // Notify the requesting employee that they are still responsible until someone picks up
         notificationService.sendShiftPostedResponsibilityNotification(requestingEmployee, shift);
     }
@@ -0,0 +1,22 @@
+-- V10__create_employee_import_jobs.sql
+-- Background employee CSV imports with a per-chunk checkpoint (processed_rows) for resuming.
+-- node_id is the instance holding the spool file; only that instance resumes the job.
+
+CREATE TABLE IF NOT EXISTS employee_import_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    caller_id BIGINT NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
+    node_id VARCHAR(64),
+    filename VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    total_rows INTEGER NOT NULL DEFAULT 0,
+    processed_rows INTEGER NOT NULL DEFAULT 0,
+    created_rows INTEGER NOT NULL DEFAULT 0,
+    failed_rows INTEGER NOT NULL DEFAULT 0,
+    errors TEXT,
+    failure_reason VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_employee_import_jobs_node_status ON employee_import_jobs(node_id, status);
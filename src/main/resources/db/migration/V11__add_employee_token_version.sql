@@ -0,0 +1,4 @@
+-- V11__add_employee_token_version.sql
+-- Issued JWTs carry the employee's token version; bumping it revokes every token issued before the change.
+
+ALTER TABLE employees ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,22 @@
+-- V12__create_shared_security_state.sql
+-- Shared rate-limit counters and IP lists, used when security.shared-state.backend=postgres.
+
+CREATE TABLE IF NOT EXISTS security_ip_lists (
+    ip VARCHAR(64) NOT NULL,
+    list_type VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP,
+    reason VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (ip, list_type)
+);
+
+-- One row per limiter key, node and 10-second bucket; nodes add their own hits and read everyone else's
+CREATE TABLE IF NOT EXISTS security_rate_limit_hits (
+    limiter_key VARCHAR(255) NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    bucket BIGINT NOT NULL,
+    hits BIGINT NOT NULL,
+    PRIMARY KEY (limiter_key, node_id, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS idx_security_rate_limit_hits_bucket ON security_rate_limit_hits(bucket);
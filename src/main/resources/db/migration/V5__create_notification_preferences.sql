@@ -0,0 +1,9 @@
+-- V5__create_notification_preferences.sql
+-- Per-employee notification opt-outs, stored as a channel x event-type bitmask.
+-- Employees without a row receive every notification.
+
+CREATE TABLE IF NOT EXISTS notification_preferences (
+    employee_id BIGINT PRIMARY KEY REFERENCES employees(id) ON DELETE CASCADE,
+    enabled_mask BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
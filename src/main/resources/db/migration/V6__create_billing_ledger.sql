@@ -0,0 +1,31 @@
+-- V6__create_billing_ledger.sql
+-- Append-only billing ledger (receipts and billing audit events), replacing the in-memory lists,
+-- plus the billing_log table that BillingLog maps to.
+
+CREATE SEQUENCE IF NOT EXISTS billing_ledger_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS billing_ledger (
+    id BIGINT PRIMARY KEY,
+    entry_type VARCHAR(20) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    admin_email VARCHAR(255) NOT NULL,
+    period VARCHAR(20),
+    amount INTEGER,
+    details TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_billing_ledger_admin_period ON billing_ledger(admin_email, period);
+CREATE INDEX IF NOT EXISTS idx_billing_ledger_type_created ON billing_ledger(entry_type, created_at);
+
+CREATE TABLE IF NOT EXISTS billing_log (
+    id BIGSERIAL PRIMARY KEY,
+    admin_id BIGINT NOT NULL,
+    billing_period DATE NOT NULL,
+    employee_ids VARCHAR(2048) NOT NULL,
+    billable_users INTEGER NOT NULL,
+    amount DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_billing_log_admin_period ON billing_log(admin_id, billing_period);
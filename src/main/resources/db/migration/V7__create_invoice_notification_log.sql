@@ -0,0 +1,12 @@
+-- V7__create_invoice_notification_log.sql
+-- Per-period checkpoint for the upcoming-invoice notification run, so a restarted run never emails an admin twice.
+
+CREATE TABLE IF NOT EXISTS invoice_notification_log (
+    id BIGSERIAL PRIMARY KEY,
+    period VARCHAR(20) NOT NULL,
+    admin_id BIGINT NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP,
+    CONSTRAINT uk_invoice_notification_period_admin UNIQUE (period, admin_id)
+);
@@ -0,0 +1,34 @@
+-- V8__create_billing_seat_counter.sql
+-- Per-building billable seat counter and seat-change history, maintained on employee lifecycle changes.
+
+CREATE TABLE IF NOT EXISTS billing_seat_counter (
+    building_id BIGINT PRIMARY KEY REFERENCES building(id) ON DELETE CASCADE,
+    seats INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Stripe subscription billed for the building's seats, if any
+    stripe_subscription_id VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS billing_seat_history (
+    id BIGSERIAL PRIMARY KEY,
+    building_id BIGINT NOT NULL REFERENCES building(id) ON DELETE CASCADE,
+    employee_id BIGINT,
+    delta INTEGER NOT NULL,
+    reason VARCHAR(50) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_billing_seat_history_building_changed ON billing_seat_history(building_id, changed_at);
+CREATE INDEX IF NOT EXISTS idx_billing_seat_history_employee ON billing_seat_history(employee_id);
+
+-- Seed history and counters from existing employees
+INSERT INTO billing_seat_history (building_id, employee_id, delta, reason)
+SELECT building_id, id, 1, 'BACKFILL'
+FROM employees
+WHERE role = 'EMPLOYEE' AND active = TRUE AND deleted_at IS NULL AND building_id IS NOT NULL;
+
+INSERT INTO billing_seat_counter (building_id, seats)
+SELECT building_id, SUM(delta)
+FROM billing_seat_history
+GROUP BY building_id
+ON CONFLICT (building_id) DO NOTHING;
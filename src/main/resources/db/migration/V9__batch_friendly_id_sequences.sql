@@ -0,0 +1,6 @@
+-- V9__batch_friendly_id_sequences.sql
+-- Employees and seat history ids are allocated by Hibernate in blocks of 50 so bulk imports can use JDBC
+-- batch inserts. The pooled optimizer treats each nextval as the top of a block, so the sequences must step by 50.
+
+ALTER SEQUENCE employees_id_seq INCREMENT BY 50;
+ALTER SEQUENCE billing_seat_history_id_seq INCREMENT BY 50;
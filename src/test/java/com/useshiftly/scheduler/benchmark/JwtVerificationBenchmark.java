@@ -0,0 +1,83 @@
+package com.useshiftly.scheduler.benchmark;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating the same token: the old validate-then-extract path (two signature
+ * verifications), a single uncached verification, and a hit in the verified-claims cache.
+ * <p>
+ * Run from the IDE or with:
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.useshiftly.scheduler.benchmark.JwtVerificationBenchmark</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtUtils uncached;
+    private JwtUtils cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = jwtUtils(0);
+        cached = jwtUtils(10000);
+        Employee employee = new Employee();
+        employee.setId(42L);
+        employee.setEmail("jordan@example.com");
+        employee.setRole(Employee.Role.EMPLOYEE);
+        token = cached.generateJwtToken(employee);
+    }
+
+    private static JwtUtils jwtUtils(int cacheEntries) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsCacheMaxEntries", cacheEntries);
+        return jwtUtils;
+    }
+
+    @Benchmark
+    public String validateThenExtract() {
+        return uncached.validateJwtToken(token) ? uncached.getUserNameFromJwtToken(token) : null;
+    }
+
+    @Benchmark
+    public Claims singleVerification() {
+        return uncached.parseVerifiedClaims(token);
+    }
+
+    @Benchmark
+    public Claims cachedVerification() {
+        return cached.parseVerifiedClaims(token);
+    }
+
+    public static void main(String[] argv) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtVerificationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.useshiftly.scheduler.benchmark;
+
+import com.useshiftly.scheduler.notification.NotificationEventType;
+import com.useshiftly.scheduler.notification.NotificationTemplates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering a shift-assignment email with {@link String#format} against the precompiled
+ * {@link NotificationTemplates}.
+ * <p>
+ * Run from the IDE or with:
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.useshiftly.scheduler.benchmark.NotificationTemplateBenchmark</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+
+    private static final String BASE_URL = "https://useshiftly.com";
+
+    private NotificationTemplates templates;
+    private String[] args;
+
+    @Setup
+    public void setUp() {
+        templates = new NotificationTemplates(BASE_URL);
+        args = new String[] {"Jordan", "07/14/2025 09:00", "07/14/2025 17:00", "Front Desk", "Cover the lobby"};
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(
+            "Hello %s,\n\n" +
+            "You have been assigned a new shift:\n\n" +
+            "Date & Time: %s - %s\n" +
+            "Department: %s\n" +
+            "Notes: %s\n\n" +
+            "Please log into Shiftly to view more details.\n\n" +
+            "You can log in at: " + BASE_URL + "/\n\n" +
+            "Best regards,\n" +
+            "Shiftly Team",
+            args[0], args[1], args[2], args[3], args[4]);
+    }
+
+    @Benchmark
+    public NotificationTemplates.Message precompiledTemplate() {
+        return templates.render(NotificationEventType.SHIFT_ASSIGNED, args);
+    }
+
+    public static void main(String[] argv) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NotificationTemplateBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package com.useshiftly.scheduler.billing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useshiftly.scheduler.billing.BillingLedgerEntry.EntryType;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BillingReceiptServiceTest {
+
+    private final BillingLedgerRepository ledgerRepository = mock(BillingLedgerRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final BillingReceiptService receiptService = new BillingReceiptService(ledgerRepository,
+        new BillingEventLogger(ledgerRepository, new ObjectMapper()), emailService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesOneReceiptAndOneAuditEventPerInvoiceInASingleBatch() {
+        when(ledgerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Map<String, Integer> amounts = new LinkedHashMap<>();
+        amounts.put("a@example.com", 1200);
+        amounts.put("b@example.com", 300);
+
+        List<Map<String, Object>> receipts = receiptService.generateReceipts(amounts, "2025-07");
+
+        ArgumentCaptor<List<BillingLedgerEntry>> saved = ArgumentCaptor.forClass(List.class);
+        verify(ledgerRepository, times(1)).saveAll(saved.capture());
+        verify(ledgerRepository, never()).save(any(BillingLedgerEntry.class));
+        List<BillingLedgerEntry> entries = saved.getValue();
+        assertEquals(4, entries.size());
+        for (int i = 0; i < entries.size(); i += 2) {
+            BillingLedgerEntry receipt = entries.get(i);
+            BillingLedgerEntry event = entries.get(i + 1);
+            assertEquals(EntryType.RECEIPT, receipt.getEntryType());
+            assertEquals("2025-07", receipt.getPeriod());
+            assertEquals(amounts.get(receipt.getAdminEmail()), receipt.getAmount());
+            assertEquals(EntryType.EVENT, event.getEntryType());
+            assertEquals("RECEIPT_GENERATED", event.getEventType());
+            assertEquals(receipt.getAdminEmail(), event.getAdminEmail());
+            assertEquals("2025-07", event.getPeriod());
+            assertNull(event.getAmount());
+        }
+
+        assertEquals(2, receipts.size());
+        assertEquals(1200, receipts.get(0).get("amount"));
+        verify(emailService).sendReceiptEmail(eq("a@example.com"), anyString(), contains("$1200"));
+        verify(emailService).sendReceiptEmail(eq("b@example.com"), anyString(), contains("$300"));
+    }
+
+    @Test
+    void receiptEmailsWaitForTheCommit() {
+        when(ledgerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            receiptService.generateReceipts(Map.of("a@example.com", 1200), "2025-07");
+            verify(emailService, never()).sendReceiptEmail(anyString(), anyString(), anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(emailService).sendReceiptEmail(eq("a@example.com"), anyString(), contains("$1200"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackReceiptsAreNeverEmailed() {
+        when(ledgerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            receiptService.generateReceipts(Map.of("a@example.com", 1200), "2025-07");
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(emailService, never()).sendReceiptEmail(anyString(), anyString(), anyString());
+    }
+}
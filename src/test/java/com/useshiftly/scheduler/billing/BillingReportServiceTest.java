@@ -0,0 +1,36 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.billing.BillingLedgerEntry.EntryType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BillingReportServiceTest {
+
+    private final BillingLedgerRepository ledgerRepository = mock(BillingLedgerRepository.class);
+    private final BillingReportService reportService = new BillingReportService(ledgerRepository);
+
+    @Test
+    void revenueTotalsAboveIntRangeDoNotOverflow() {
+        long total = Integer.MAX_VALUE + 1000L;
+        when(ledgerRepository.sumAmountByEntryType(EntryType.RECEIPT)).thenReturn(total);
+        when(ledgerRepository.countDistinctAdminsByEntryType(EntryType.RECEIPT)).thenReturn(2L);
+        when(ledgerRepository.sumAmountByAdmin(EntryType.RECEIPT)).thenReturn(List.of(
+            new Object[] {"a@example.com", total - 500L},
+            new Object[] {"b@example.com", 500L}));
+
+        assertEquals(total, reportService.getTotalRevenue());
+        assertEquals(total / 2.0, reportService.getARPU(), 1e-9);
+        assertEquals(Map.of("a@example.com", total - 500L, "b@example.com", 500L), reportService.getRevenueByAdmin());
+    }
+
+    @Test
+    void arpuIsZeroWithoutReceipts() {
+        assertEquals(0L, reportService.getTotalRevenue());
+        assertEquals(0.0, reportService.getARPU(), 0.0);
+    }
+}
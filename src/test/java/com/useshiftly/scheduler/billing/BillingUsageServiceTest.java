@@ -0,0 +1,121 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository.AdminUsageRow;
+import com.useshiftly.scheduler.repository.ShiftRepository;
+import com.useshiftly.scheduler.repository.ShiftTradeRepository;
+import com.useshiftly.scheduler.support.TenantDataSeeder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the grouped usage query against the per-admin count queries it replaced, on a seeded H2 database.
+ */
+@SpringBootTest(properties = {
+    // Employee.role is mapped to the PostgreSQL enum type, which H2 only knows as a domain
+    "spring.datasource.url=jdbc:h2:mem:billingusage;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;"
+        + "INIT=CREATE DOMAIN IF NOT EXISTS employee_role_enum AS VARCHAR(32)"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BillingUsageServiceTest {
+
+    @Autowired
+    private BillingUsageService usageService;
+
+    @Autowired
+    private BuildingRepository buildingRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftTradeRepository shiftTradeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TenantDataSeeder.Tenant small;
+    private TenantDataSeeder.Tenant large;
+
+    @BeforeAll
+    void seed() {
+        TenantDataSeeder seeder = new TenantDataSeeder(buildingRepository, departmentRepository, employeeRepository,
+            shiftRepository, shiftTradeRepository, transactionManager);
+        small = seeder.seedTenant("Harbor View", 1, 3, 1);
+        large = seeder.seedTenant("Summit Lodge", 3, 4, 1);
+    }
+
+    @Test
+    void groupedUsageMatchesThePerAdminCounts() {
+        Map<Long, AdminUsageRow> usage = usageByAdminId();
+
+        for (Employee admin : List.of(small.getAdmin(), large.getAdmin())) {
+            AdminUsageRow row = usage.get(admin.getId());
+            assertNotNull(row, admin.getEmail());
+            assertEquals(admin.getEmail(), row.getAdminEmail());
+            assertEquals(employeeRepository.countByAdminIdAndRole(admin.getId(), Employee.Role.EMPLOYEE), row.getEmployees());
+            assertEquals(employeeRepository.countByAdminIdAndRole(admin.getId(), Employee.Role.MANAGER), row.getManagers());
+            assertEquals(buildingRepository.countByAdminId(admin.getId()), row.getBuildings());
+        }
+        assertEquals(3L, usage.get(small.getAdmin().getId()).getEmployees());
+        assertEquals(12L, usage.get(large.getAdmin().getId()).getEmployees());
+    }
+
+    @Test
+    void usageMapsCarryTheSameCountsAndFreeTier() {
+        Map<String, Map<String, Object>> rows = usageService.getAllAdminUsage().stream()
+            .collect(Collectors.toMap(row -> (String) row.get("adminEmail"), row -> row));
+
+        Map<String, Object> smallRow = rows.get(small.getAdmin().getEmail());
+        assertEquals(3L, smallRow.get("employees"));
+        assertEquals(1L, smallRow.get("managers"));
+        assertEquals(0L, smallRow.get("billableUsers"));
+        assertEquals(false, smallRow.get("overFreeTier"));
+
+        Map<String, Object> largeRow = rows.get(large.getAdmin().getEmail());
+        assertEquals(7L, largeRow.get("billableUsers"));
+        assertEquals(true, largeRow.get("overFreeTier"));
+    }
+
+    @Test
+    void softDeletedEmployeesAreNotCounted() {
+        Employee deleted = employeeRepository.findById(large.getEmployees().get(0).getId()).orElseThrow();
+        deleted.setDeletedAt(LocalDateTime.now());
+        employeeRepository.save(deleted);
+        try {
+            AdminUsageRow row = usageByAdminId().get(large.getAdmin().getId());
+
+            // The old count query still sees the row; the grouped query must not
+            assertEquals(employeeRepository.countByAdminIdAndRole(large.getAdmin().getId(), Employee.Role.EMPLOYEE) - 1,
+                row.getEmployees());
+        } finally {
+            deleted.setDeletedAt(null);
+            employeeRepository.save(deleted);
+        }
+    }
+
+    private Map<Long, AdminUsageRow> usageByAdminId() {
+        return employeeRepository.findAdminUsage().stream()
+            .collect(Collectors.toMap(AdminUsageRow::getAdminId, row -> row));
+    }
+}
@@ -0,0 +1,209 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository.AdminUsageRow;
+import com.useshiftly.scheduler.service.NotificationService;
+import com.useshiftly.scheduler.service.UserActionLogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InvoiceNotificationSchedulerTest {
+
+    private static final LocalDate BILLING_DATE = LocalDate.of(2025, 8, 1);
+    private static final int ADMINS = 20;
+
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final InvoiceNotificationLogRepository claimRepository = mock(InvoiceNotificationLogRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final BillingUsageService billingUsageService = mock(BillingUsageService.class);
+    // Claims keyed by period and admin id, standing in for the unique constraint on invoice_notification_log
+    private final Map<String, InvoiceNotificationLog> claims = new ConcurrentHashMap<>();
+    private final List<InvoiceNotificationScheduler> schedulers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<AdminUsageRow> usage = new ArrayList<>();
+        Map<String, Integer> seats = new HashMap<>();
+        for (long id = 1; id <= ADMINS; id++) {
+            // The grouped usage query also counts deactivated employees; the seat counters do not
+            usage.add(new Usage(id, "admin" + id + "@example.com", id % 2 == 0 ? "Pro" : "Basic", id + 3));
+            seats.put("admin" + id + "@example.com", (int) id);
+        }
+        when(employeeRepository.findAdminUsage()).thenReturn(usage);
+        when(billingUsageService.getAdminEmployeeCounts()).thenReturn(seats);
+        when(claimRepository.findAdminIdsByPeriod(anyString())).thenAnswer(invocation -> claims.values().stream()
+            .filter(claim -> claim.getPeriod().equals(invocation.getArgument(0)))
+            .map(InvoiceNotificationLog::getAdminId)
+            .collect(Collectors.toSet()));
+        when(claimRepository.saveAndFlush(any(InvoiceNotificationLog.class))).thenAnswer(invocation -> {
+            InvoiceNotificationLog claim = invocation.getArgument(0);
+            if (claims.putIfAbsent(key(claim), claim) != null) {
+                throw new DataIntegrityViolationException("uk_invoice_notification_period_admin");
+            }
+            return claim;
+        });
+        doAnswer(invocation -> claims.remove(key(invocation.getArgument(0))))
+            .when(claimRepository).delete(any(InvoiceNotificationLog.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        schedulers.forEach(InvoiceNotificationScheduler::shutdown);
+    }
+
+    @Test
+    void concurrentSchedulersNeverEmailAnAdminTwice() throws Exception {
+        // Both instances read the checkpoint table before either has claimed anyone
+        when(claimRepository.findAdminIdsByPeriod(anyString())).thenReturn(Set.of());
+        InvoiceNotificationScheduler first = scheduler();
+        InvoiceNotificationScheduler second = scheduler();
+        CountDownLatch start = new CountDownLatch(1);
+
+        CompletableFuture<InvoiceNotificationScheduler.RunMetrics> firstRun = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return first.runInvoiceNotifications(BILLING_DATE);
+        });
+        CompletableFuture<InvoiceNotificationScheduler.RunMetrics> secondRun = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return second.runInvoiceNotifications(BILLING_DATE);
+        });
+        start.countDown();
+        InvoiceNotificationScheduler.RunMetrics a = firstRun.get();
+        InvoiceNotificationScheduler.RunMetrics b = secondRun.get();
+
+        assertEquals(ADMINS, a.getSent() + b.getSent());
+        assertEquals(ADMINS, a.getSkipped() + b.getSkipped());
+        assertEquals(0, a.getFailed() + b.getFailed());
+        for (long id = 1; id <= ADMINS; id++) {
+            verify(notificationService, times(1)).sendEmailOrThrow(eq("admin" + id + "@example.com"), anyString(), anyString());
+        }
+        assertEquals(ADMINS, claims.size());
+        assertTrue(claims.values().stream().allMatch(claim -> claim.getStatus() == InvoiceNotificationLog.Status.SENT));
+    }
+
+    @Test
+    void rerunForTheSamePeriodSkipsEveryHandledAdmin() {
+        InvoiceNotificationScheduler scheduler = scheduler();
+        assertEquals(ADMINS, scheduler.runInvoiceNotifications(BILLING_DATE).getSent());
+
+        InvoiceNotificationScheduler.RunMetrics rerun = scheduler().runInvoiceNotifications(BILLING_DATE);
+
+        assertEquals(0, rerun.getSent());
+        assertEquals(ADMINS, rerun.getSkipped());
+        verify(notificationService, times(ADMINS)).sendEmailOrThrow(anyString(), anyString(), anyString());
+        assertEquals(ADMINS, scheduler().runInvoiceNotifications(BILLING_DATE.plusMonths(1)).getSent());
+    }
+
+    @Test
+    void failedSendReleasesTheClaimForTheNextRun() {
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (failOnce.compareAndSet(true, false)) {
+                throw new IllegalStateException("SMTP unavailable");
+            }
+            return null;
+        }).when(notificationService).sendEmailOrThrow(eq("admin7@example.com"), anyString(), anyString());
+
+        InvoiceNotificationScheduler.RunMetrics first = scheduler().runInvoiceNotifications(BILLING_DATE);
+        InvoiceNotificationScheduler.RunMetrics retry = scheduler().runInvoiceNotifications(BILLING_DATE);
+
+        assertEquals(ADMINS - 1, first.getSent());
+        assertEquals(1, first.getFailed());
+        assertEquals(1, retry.getSent());
+        assertEquals(ADMINS - 1, retry.getSkipped());
+        verify(notificationService, times(2)).sendEmailOrThrow(eq("admin7@example.com"), anyString(), anyString());
+    }
+
+    @Test
+    void invoiceIsBilledFromTheSeatCounters() {
+        scheduler().runInvoiceNotifications(BILLING_DATE);
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(notificationService).sendEmailOrThrow(eq("admin8@example.com"), anyString(), body.capture());
+        assertTrue(body.getValue().contains("Employees: 8\n"));
+        assertTrue(body.getValue().contains("Projected Charge: $" + new BillingCalculationService().calculateBill(8, "Pro")));
+    }
+
+    @Test
+    void undeliveredEmailIsNotMarkedSent() {
+        // What the send path reports while email notifications are switched off
+        doThrow(new IllegalStateException("Email notifications disabled or mailSender not configured"))
+            .when(notificationService).sendEmailOrThrow(anyString(), anyString(), anyString());
+
+        InvoiceNotificationScheduler.RunMetrics run = scheduler().runInvoiceNotifications(BILLING_DATE);
+
+        assertEquals(0, run.getSent());
+        assertEquals(ADMINS, run.getFailed());
+        assertTrue(claims.isEmpty());
+    }
+
+    private InvoiceNotificationScheduler scheduler() {
+        InvoiceNotificationScheduler scheduler = new InvoiceNotificationScheduler(4);
+        ReflectionTestUtils.setField(scheduler, "employeeRepository", employeeRepository);
+        ReflectionTestUtils.setField(scheduler, "invoiceNotificationLogRepository", claimRepository);
+        ReflectionTestUtils.setField(scheduler, "billingCalculationService", new BillingCalculationService());
+        ReflectionTestUtils.setField(scheduler, "billingUsageService", billingUsageService);
+        ReflectionTestUtils.setField(scheduler, "notificationService", notificationService);
+        ReflectionTestUtils.setField(scheduler, "userActionLogService", mock(UserActionLogService.class));
+        ReflectionTestUtils.setField(scheduler, "clock", Clock.fixed(Instant.parse("2025-07-30T09:00:00Z"), ZoneOffset.UTC));
+        ReflectionTestUtils.setField(scheduler, "leadDays", 2L);
+        ReflectionTestUtils.setField(scheduler, "chunkSize", 3);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private static String key(InvoiceNotificationLog claim) {
+        return claim.getPeriod() + ":" + claim.getAdminId();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Usage implements AdminUsageRow {
+        private final Long adminId;
+        private final String adminEmail;
+        private final String packageType;
+        private final Long employees;
+
+        Usage(Long adminId, String adminEmail, String packageType, Long employees) {
+            this.adminId = adminId;
+            this.adminEmail = adminEmail;
+            this.packageType = packageType;
+            this.employees = employees;
+        }
+
+        public Long getAdminId() { return adminId; }
+        public String getAdminEmail() { return adminEmail; }
+        public String getPackageType() { return packageType; }
+        public Long getEmployees() { return employees; }
+        public Long getManagers() { return 1L; }
+        public Long getBuildings() { return 1L; }
+    }
+}
@@ -0,0 +1,121 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.repository.ShiftRepository;
+import com.useshiftly.scheduler.repository.ShiftTradeRepository;
+import com.useshiftly.scheduler.support.TenantDataSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the V8 seat backfill against employees created without the seat counter, the way existing tenants were
+ * when the migration shipped, and checks the counters it produces against a live count.
+ */
+@SpringBootTest(properties = {
+    // Employee.role is mapped to the PostgreSQL enum type, which H2 only knows as a domain
+    "spring.datasource.url=jdbc:h2:mem:seatbackfill;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;"
+        + "INIT=CREATE DOMAIN IF NOT EXISTS employee_role_enum AS VARCHAR(32)"
+})
+public class SeatBackfillMigrationTest {
+
+    private static final String V8 = "db/migration/V8__create_billing_seat_counter.sql";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SeatCounterService seatCounterService;
+
+    @Autowired
+    private BuildingRepository buildingRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftTradeRepository shiftTradeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void backfilledCountersMatchALiveCountOfBillableEmployees() throws Exception {
+        TenantDataSeeder seeder = new TenantDataSeeder(buildingRepository, departmentRepository, employeeRepository,
+            shiftRepository, shiftTradeRepository, transactionManager);
+        TenantDataSeeder.Tenant harbor = seeder.seedTenant("Harbor View", 2, 4, 1);
+        TenantDataSeeder.Tenant summit = seeder.seedTenant("Summit Lodge", 1, 3, 1);
+        // Rows the backfill must leave out
+        update(harbor.getEmployees().get(0), employee -> employee.setActive(false));
+        update(harbor.getEmployees().get(1), employee -> employee.setDeletedAt(LocalDateTime.now()));
+        update(summit.getEmployees().get(0), employee -> employee.setBuilding(null));
+
+        // Replace the Hibernate-created tables with the migration's own, then run it over the existing rows
+        jdbcTemplate.execute("DROP TABLE IF EXISTS billing_seat_counter");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS billing_seat_history");
+        // H2 only accepts ON CONFLICT DO NOTHING without a conflict target; the counter table starts empty either way
+        String script = StreamUtils.copyToString(new ClassPathResource(V8).getInputStream(), StandardCharsets.UTF_8)
+            .replace("ON CONFLICT (building_id) DO NOTHING", "ON CONFLICT DO NOTHING");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        Map<Long, Integer> live = new HashMap<>();
+        for (Employee employee : employeeRepository.findAll()) {
+            Long buildingId = SeatCounterService.seatBuildingId(employee);
+            if (buildingId != null) {
+                live.merge(buildingId, 1, Integer::sum);
+            }
+        }
+        Map<Long, Integer> backfilled = jdbcTemplate.queryForList("SELECT building_id, seats FROM billing_seat_counter").stream()
+            .collect(Collectors.toMap(row -> ((Number) row.get("building_id")).longValue(),
+                row -> ((Number) row.get("seats")).intValue()));
+
+        assertEquals(live, backfilled);
+        assertEquals(6, seatCounterService.getSeats(harbor.getBuilding().getId()));
+        assertEquals(2, seatCounterService.getSeats(summit.getBuilding().getId()));
+        List<Long> backfilledEmployees = jdbcTemplate.queryForList(
+            "SELECT employee_id FROM billing_seat_history WHERE reason = 'BACKFILL' AND delta = 1", Long.class);
+        assertEquals(live.values().stream().mapToInt(Integer::intValue).sum(), backfilledEmployees.size());
+        assertFalse(backfilledEmployees.contains(harbor.getEmployees().get(0).getId()));
+        assertFalse(backfilledEmployees.contains(harbor.getEmployees().get(1).getId()));
+        assertFalse(backfilledEmployees.contains(summit.getEmployees().get(0).getId()));
+        assertFalse(backfilledEmployees.contains(harbor.getManager().getId()));
+    }
+
+    private void update(Employee detached, Consumer<Employee> change) {
+        Employee employee = employeeRepository.findById(detached.getId()).orElseThrow();
+        change.accept(employee);
+        employeeRepository.save(employee);
+    }
+}
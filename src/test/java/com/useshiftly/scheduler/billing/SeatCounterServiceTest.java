@@ -0,0 +1,284 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.model.Building;
+import com.useshiftly.scheduler.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SeatCounterServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-01T00:00:00Z"));
+    private final BillingSeatCounterRepository counterRepository = mock(BillingSeatCounterRepository.class);
+    private final BillingSeatChangeRepository changeRepository = mock(BillingSeatChangeRepository.class);
+    private final StripeGateway stripeGateway = mock(StripeGateway.class);
+    // In-memory tables behind the repository mocks
+    private final Map<Long, Integer> counters = new HashMap<>();
+    private final Map<Long, String> subscriptions = new HashMap<>();
+    private final List<BillingSeatChange> history = new ArrayList<>();
+    private final SeatCounterService seatCounterService =
+        new SeatCounterService(counterRepository, changeRepository, stripeGateway, clock);
+
+    private final Building harbor = building(1L);
+    private final Building summit = building(2L);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(counterRepository.addSeats(anyLong(), anyInt(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            Long buildingId = invocation.getArgument(0);
+            if (!counters.containsKey(buildingId)) {
+                return 0;
+            }
+            counters.merge(buildingId, invocation.<Integer>getArgument(1), Integer::sum);
+            return 1;
+        });
+        when(counterRepository.save(any(BillingSeatCounter.class))).thenAnswer(invocation -> {
+            BillingSeatCounter counter = invocation.getArgument(0);
+            counters.put(counter.getBuildingId(), counter.getSeats());
+            if (counter.getStripeSubscriptionId() != null) {
+                subscriptions.put(counter.getBuildingId(), counter.getStripeSubscriptionId());
+            }
+            return counter;
+        });
+        when(counterRepository.findSeats(anyLong()))
+            .thenAnswer(invocation -> Optional.ofNullable(counters.get(invocation.<Long>getArgument(0))));
+        when(counterRepository.linkSubscription(anyLong(), anyString())).thenAnswer(invocation -> {
+            Long buildingId = invocation.getArgument(0);
+            if (!counters.containsKey(buildingId)) {
+                return 0;
+            }
+            subscriptions.put(buildingId, invocation.getArgument(1));
+            return 1;
+        });
+        when(counterRepository.findSubscriptionId(anyLong()))
+            .thenAnswer(invocation -> Optional.ofNullable(subscriptions.get(invocation.<Long>getArgument(0))));
+        when(changeRepository.save(any(BillingSeatChange.class))).thenAnswer(invocation -> {
+            history.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(changeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            history.addAll(invocation.<List<BillingSeatChange>>getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(changeRepository.findSeatedBuildingIds(anyLong())).thenAnswer(invocation -> history.stream()
+            .filter(change -> change.getEmployeeId().equals(invocation.getArgument(0)))
+            .collect(Collectors.groupingBy(BillingSeatChange::getBuildingId, Collectors.summingInt(BillingSeatChange::getDelta)))
+            .entrySet().stream()
+            .filter(entry -> entry.getValue() > 0)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList()));
+        when(changeRepository.findByBuildingIdAndChangedAtAfterOrderByChangedAtDesc(anyLong(), any(LocalDateTime.class)))
+            .thenAnswer(invocation -> history.stream()
+                .filter(change -> change.getBuildingId().equals(invocation.getArgument(0)))
+                .filter(change -> change.getChangedAt().isAfter(invocation.getArgument(1)))
+                .sorted(Comparator.comparing(BillingSeatChange::getChangedAt).reversed())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void createDeactivateAndDeleteMoveTheSeatCount() {
+        Employee employee = employee(10L, harbor, Employee.Role.EMPLOYEE);
+
+        seatCounterService.recordChange(employee, "CREATED");
+        seatCounterService.recordChange(employee, "UPDATED");
+        assertEquals(1, seatCounterService.getSeats(1L));
+        assertEquals(1, history.size());
+
+        employee.setActive(false);
+        seatCounterService.recordChange(employee, "DEACTIVATED");
+        assertEquals(0, seatCounterService.getSeats(1L));
+
+        employee.setActive(true);
+        seatCounterService.recordChange(employee, "UPDATED");
+        assertEquals(1, seatCounterService.getSeats(1L));
+
+        employee.setDeletedAt(LocalDateTime.now(clock));
+        seatCounterService.recordChange(employee, "DELETED");
+        seatCounterService.recordChange(employee, "DELETED");
+        assertEquals(0, seatCounterService.getSeats(1L));
+        assertEquals(List.of("CREATED", "DEACTIVATED", "UPDATED", "DELETED"),
+            history.stream().map(BillingSeatChange::getReason).collect(Collectors.toList()));
+    }
+
+    @Test
+    void buildingMoveTransfersTheSeat() {
+        Employee employee = employee(10L, harbor, Employee.Role.EMPLOYEE);
+        seatCounterService.recordChange(employee, "CREATED");
+
+        employee.setBuilding(summit);
+        seatCounterService.recordChange(employee, "BUILDING_ASSIGNED");
+
+        assertEquals(0, seatCounterService.getSeats(1L));
+        assertEquals(1, seatCounterService.getSeats(2L));
+
+        employee.setBuilding(null);
+        seatCounterService.recordChange(employee, "UPDATED");
+        assertEquals(0, seatCounterService.getSeats(2L));
+    }
+
+    @Test
+    void roleChangeReleasesAndRetakesTheSeat() {
+        Employee employee = employee(10L, harbor, Employee.Role.EMPLOYEE);
+        seatCounterService.recordChange(employee, "CREATED");
+
+        employee.setRole(Employee.Role.MANAGER);
+        seatCounterService.recordChange(employee, "UPDATED");
+        assertEquals(0, seatCounterService.getSeats(1L));
+
+        employee.setRole(Employee.Role.EMPLOYEE);
+        seatCounterService.recordChange(employee, "UPDATED");
+        assertEquals(1, seatCounterService.getSeats(1L));
+
+        seatCounterService.recordChange(employee(11L, harbor, Employee.Role.ADMIN), "CREATED");
+        assertEquals(1, seatCounterService.getSeats(1L));
+    }
+
+    @Test
+    void recordCreatedUpdatesEachBuildingCounterOnce() {
+        seatCounterService.recordCreated(List.of(
+            employee(10L, harbor, Employee.Role.EMPLOYEE),
+            employee(11L, harbor, Employee.Role.EMPLOYEE),
+            employee(12L, harbor, Employee.Role.EMPLOYEE),
+            employee(13L, summit, Employee.Role.EMPLOYEE),
+            employee(14L, summit, Employee.Role.EMPLOYEE),
+            employee(15L, summit, Employee.Role.MANAGER),
+            employee(null, summit, Employee.Role.EMPLOYEE)), "IMPORTED");
+
+        assertEquals(3, seatCounterService.getSeats(1L));
+        assertEquals(2, seatCounterService.getSeats(2L));
+        assertEquals(5, history.size());
+        verify(counterRepository, times(1)).addSeats(eq(1L), eq(3), any(LocalDateTime.class));
+        verify(counterRepository, times(1)).addSeats(eq(2L), eq(2), any(LocalDateTime.class));
+        verify(changeRepository, times(1)).saveAll(anyList());
+
+        // Imported seats are tracked like any other: a later deactivation releases them
+        Employee imported = employee(10L, harbor, Employee.Role.EMPLOYEE);
+        imported.setActive(false);
+        seatCounterService.recordChange(imported, "DEACTIVATED");
+        assertEquals(2, seatCounterService.getSeats(1L));
+    }
+
+    @Test
+    void seatDaysFollowTheHistoryThroughTheWindow() {
+        LocalDateTime from = LocalDateTime.now(clock);
+        Employee first = employee(10L, harbor, Employee.Role.EMPLOYEE);
+        Employee second = employee(11L, harbor, Employee.Role.EMPLOYEE);
+        seatCounterService.recordCreated(List.of(first, second), "CREATED");
+
+        clock.advanceDays(10);
+        second.setActive(false);
+        seatCounterService.recordChange(second, "DEACTIVATED");
+
+        clock.advanceDays(5);
+        first.setBuilding(summit);
+        seatCounterService.recordChange(first, "BUILDING_ASSIGNED");
+
+        clock.advanceDays(15);
+        LocalDateTime to = LocalDateTime.now(clock);
+
+        // Two seats for 10 days, then one for 5 days, in the first building
+        assertEquals(25.0, seatCounterService.getSeatDays(1L, from, to), 1e-9);
+        assertEquals(15.0, seatCounterService.getSeatDays(2L, from, to), 1e-9);
+        assertEquals(10.0, seatCounterService.getSeatDays(1L, from.plusDays(5), from.plusDays(10)), 1e-9);
+        // The current count is assumed to hold into the future
+        assertEquals(30.0, seatCounterService.getSeatDays(2L, to, to.plusDays(30)), 1e-9);
+        assertEquals(0.0, seatCounterService.getSeatDays(1L, to, from), 0.0);
+    }
+
+    @Test
+    void seatChangesInALinkedBuildingAreQueuedForItsSubscription() {
+        seatCounterService.linkSubscription(1L, "sub_harbor");
+        verify(stripeGateway).requestQuantityChange("sub_harbor", 0);
+
+        seatCounterService.recordCreated(List.of(
+            employee(10L, harbor, Employee.Role.EMPLOYEE),
+            employee(11L, harbor, Employee.Role.EMPLOYEE),
+            employee(12L, harbor, Employee.Role.EMPLOYEE),
+            employee(13L, summit, Employee.Role.EMPLOYEE)), "IMPORTED");
+        // One request for the whole import; the unlinked building has nothing to update
+        verify(stripeGateway).requestQuantityChange("sub_harbor", 3);
+        verify(stripeGateway, times(2)).requestQuantityChange(anyString(), anyLong());
+
+        Employee moved = employee(10L, summit, Employee.Role.EMPLOYEE);
+        seatCounterService.recordChange(moved, "BUILDING_ASSIGNED");
+        verify(stripeGateway).requestQuantityChange("sub_harbor", 2);
+
+        // Linking a building that already has seats queues its current count
+        seatCounterService.linkSubscription(2L, "sub_summit");
+        verify(stripeGateway).requestQuantityChange("sub_summit", 2);
+    }
+
+    @Test
+    void subscriptionIsOnlyUpdatedOnceTheChangeCommits() {
+        seatCounterService.linkSubscription(1L, "sub_harbor");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            seatCounterService.recordChange(employee(10L, harbor, Employee.Role.EMPLOYEE), "CREATED");
+            verify(stripeGateway, never()).requestQuantityChange("sub_harbor", 1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(stripeGateway).requestQuantityChange("sub_harbor", 1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Building building(Long id) {
+        Building building = new Building();
+        building.setId(id);
+        return building;
+    }
+
+    private static Employee employee(Long id, Building building, Employee.Role role) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setRole(role);
+        employee.setBuilding(building);
+        return employee;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceDays(long days) {
+            now = now.plusSeconds(days * 86400);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.useshiftly.scheduler.billing;
+
+import com.useshiftly.scheduler.billing.StripeBackend.SubscriptionState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripeGatewayTest {
+
+    private static final long START = Instant.parse("2025-07-14T08:00:00Z").toEpochMilli();
+
+    private final MutableClock clock = new MutableClock(START);
+    private final RecordingBackend backend = new RecordingBackend();
+    private StripeGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new StripeGateway(backend, clock);
+        ReflectionTestUtils.setField(gateway, "debounceMs", 10_000L);
+        ReflectionTestUtils.setField(gateway, "maxWaitMs", 60_000L);
+        ReflectionTestUtils.setField(gateway, "readCacheTtlMs", 30_000L);
+    }
+
+    @Test
+    void burstOfChangesIsCoalescedIntoOneUpdateAfterTheQuietPeriod() throws Exception {
+        for (long quantity = 1; quantity <= 50; quantity++) {
+            gateway.requestQuantityChange("sub_1", quantity);
+            clock.advance(100);
+            gateway.flushDueChanges();
+        }
+        assertEquals(0, backend.getUpdateCalls());
+
+        clock.advance(9_899);
+        gateway.flushDueChanges();
+        assertEquals(0, backend.getUpdateCalls());
+
+        clock.advance(1);
+        gateway.flushDueChanges();
+        gateway.flushDueChanges();
+
+        assertEquals(1, backend.getUpdateCalls());
+        assertEquals(List.of(50L), backend.quantities);
+        assertEquals(List.of("qty-sub_1-50-" + START), backend.keys);
+        assertEquals(50L, gateway.getStats().get("changesRequested"));
+        assertEquals(0, gateway.getStats().get("pendingSubscriptions"));
+        // The update refreshed the read cache, so this read does not reach the backend
+        assertEquals(50L, gateway.getSubscription("sub_1").getQuantity());
+        assertEquals(0, backend.getRetrieveCalls());
+    }
+
+    @Test
+    void maxWaitFlushesASubscriptionThatNeverGoesQuiet() {
+        long quantity = 0;
+        while (backend.getUpdateCalls() == 0) {
+            gateway.requestQuantityChange("sub_1", ++quantity);
+            clock.advance(5_000);
+            gateway.flushDueChanges();
+        }
+
+        // Twelve changes five seconds apart reach the 60 s max wait without a quiet period
+        assertEquals(12, quantity);
+        assertEquals(List.of(12L), backend.quantities);
+        assertEquals(List.of("qty-sub_1-12-" + START), backend.keys);
+
+        // Changes after the forced flush open a new window with a new key
+        gateway.requestQuantityChange("sub_1", 13);
+        long reopenedAt = clock.millis();
+        clock.advance(10_000);
+        gateway.flushDueChanges();
+        assertEquals(List.of(12L, 13L), backend.quantities);
+        assertEquals("qty-sub_1-13-" + reopenedAt, backend.keys.get(1));
+    }
+
+    @Test
+    void failedUpdateIsRequeuedAndRetriedWithTheSameKey() throws Exception {
+        // The first call reaches Stripe but the response is lost
+        backend.applyThenFail = 1;
+        gateway.requestQuantityChange("sub_1", 7);
+        clock.advance(10_000);
+
+        gateway.flushDueChanges();
+        assertEquals(1L, gateway.getStats().get("updatesFailed"));
+        assertEquals(1, gateway.getStats().get("pendingSubscriptions"));
+
+        gateway.flushDueChanges();
+
+        assertEquals(2, backend.getUpdateCalls());
+        assertEquals(List.of(7L, 7L), backend.quantities);
+        assertEquals(backend.keys.get(0), backend.keys.get(1));
+        assertEquals(1L, gateway.getStats().get("updatesSent"));
+        assertEquals(0, gateway.getStats().get("pendingSubscriptions"));
+        assertEquals(7L, backend.retrieveSubscription("sub_1").getQuantity());
+    }
+
+    @Test
+    void newerChangeReplacesARequeuedFailure() {
+        backend.failBeforeApply = 1;
+        gateway.requestQuantityChange("sub_1", 7);
+        clock.advance(10_000);
+        gateway.flushDueChanges();
+
+        gateway.requestQuantityChange("sub_1", 9);
+        clock.advance(10_000);
+        gateway.flushDueChanges();
+
+        // The window still dates from the first request; the key differs because the quantity does
+        assertEquals(List.of(7L, 9L), backend.quantities);
+        assertEquals(List.of("qty-sub_1-7-" + START, "qty-sub_1-9-" + START), backend.keys);
+        assertEquals(0, gateway.getStats().get("pendingSubscriptions"));
+    }
+
+    @Test
+    void shutdownFlushSendsChangesStillInTheirWindow() {
+        gateway.requestQuantityChange("sub_1", 3);
+        gateway.requestQuantityChange("sub_2", 4);
+
+        gateway.flushAll();
+
+        assertEquals(2, backend.getUpdateCalls());
+        assertTrue(backend.quantities.containsAll(List.of(3L, 4L)));
+    }
+
+    /**
+     * The fake backend with every update recorded and optional injected failures.
+     */
+    private static final class RecordingBackend extends FakeStripeBackend {
+        final List<Long> quantities = new ArrayList<>();
+        final List<String> keys = new ArrayList<>();
+        int failBeforeApply;
+        int applyThenFail;
+
+        @Override
+        public SubscriptionState updateSubscriptionQuantity(String subscriptionId, long quantity, String idempotencyKey) throws InterruptedException {
+            quantities.add(quantity);
+            keys.add(idempotencyKey);
+            if (failBeforeApply > 0) {
+                failBeforeApply--;
+                throw new IllegalStateException("connection refused");
+            }
+            SubscriptionState state = super.updateSubscriptionQuantity(subscriptionId, quantity, idempotencyKey);
+            if (applyThenFail > 0) {
+                applyThenFail--;
+                throw new IllegalStateException("read timed out");
+            }
+            return state;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long deltaMillis) {
+            millis += deltaMillis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
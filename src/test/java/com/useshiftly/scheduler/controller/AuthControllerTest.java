@@ -6,12 +6,16 @@ import com.useshiftly.scheduler.dto.auth.LoginRequest;
 import com.useshiftly.scheduler.model.Building;
 import com.useshiftly.scheduler.model.Department;
 import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.model.Invitation;
 import com.useshiftly.scheduler.repository.BuildingRepository;
 import com.useshiftly.scheduler.repository.DepartmentRepository;
 import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.security.JwtUtils;
 import com.useshiftly.scheduler.service.EmployeeService;
+import com.useshiftly.scheduler.service.InvitationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -29,6 +33,8 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
@@ -60,6 +66,12 @@ public class AuthControllerTest {
     @MockBean
     private PasswordEncoder passwordEncoder;
 
+    @MockBean
+    private InvitationService invitationService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
@@ -130,6 +142,64 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Error: An unexpected error occurred during login"));
     }
 
+    @Test
+    void changePassword_AuthenticatedCaller_ReturnsTokenWithNewVersion() throws Exception {
+        // Given
+        Employee caller = createMockEmployee();
+        caller.setMustChangePassword(true);
+        Employee updated = createMockEmployee();
+        updated.setTokenVersion(1);
+        when(employeeService.updatePassword(any(Employee.class), eq("NewPass1!"))).thenReturn(updated);
+
+        // When & Then
+        String body = mockMvc.perform(post("/api/auth/change-password")
+                .with(user(caller))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"newPassword\":\"NewPass1!\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("Bearer"))
+                .andExpect(jsonPath("$.message").value("Password changed successfully!"))
+                .andReturn().getResponse().getContentAsString();
+
+        String token = objectMapper.readTree(body).get("token").asText();
+        assertEquals(1, jwtUtils.getJwtPrincipal(jwtUtils.parseVerifiedClaims(token)).getTokenVersion());
+    }
+
+    @Test
+    void register_WithDepartment_AssignsTheDepartmentsBuilding() throws Exception {
+        // Given
+        Building building = new Building();
+        building.setId(3L);
+        Department department = new Department();
+        department.setId(8L);
+        department.setBuilding(building);
+        when(departmentRepository.findById(8L)).thenReturn(Optional.of(department));
+        when(invitationService.validateInvitation("INV123", "tok")).thenReturn(Optional.of(Invitation.builder()
+                .code("INV123").token("tok").email("new@example.com").role("EMPLOYEE").build()));
+        when(employeeService.getEmployeeByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/register")
+                .param("email", "new@example.com")
+                .param("password", "Password1!")
+                .param("firstName", "New")
+                .param("lastName", "Hire")
+                .param("departmentId", "8")
+                .param("invitationCode", "INV123")
+                .param("invitationToken", "tok")
+                .param("dateOfBirth", "1990-01-01")
+                .param("address", "1 Main St")
+                .param("emergencyContactName", "Pat")
+                .param("emergencyContactRelation", "Sibling")
+                .param("emergencyContactPhone", "555-0100"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Employee> created = ArgumentCaptor.forClass(Employee.class);
+        verify(employeeService).createEmployee(created.capture(), eq(false));
+        assertEquals(department, created.getValue().getDepartment());
+        assertEquals(building, created.getValue().getBuilding());
+    }
+
     private Employee createMockEmployee() {
         Employee employee = new Employee();
         employee.setId(1L);
@@ -0,0 +1,224 @@
+package com.useshiftly.scheduler.controller;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.repository.ShiftRepository;
+import com.useshiftly.scheduler.repository.ShiftTradeRepository;
+import com.useshiftly.scheduler.support.QueryBudget;
+import com.useshiftly.scheduler.support.TenantDataSeeder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement and latency budgets for the read endpoints, run against a seeded H2 database with two tenants.
+ * <p>
+ * Each check measures an endpoint as a user of the first building, grows the second building, and measures again:
+ * the request must stay within its budget and issue the same statements and read the same rows both times. An
+ * N+1 or an unscoped <code>findAll()</code> fallback fails here instead of in production.
+ */
+@SpringBootTest(properties = {
+    // Employee.role is mapped to the PostgreSQL enum type, which H2 only knows as a domain
+    "spring.datasource.url=jdbc:h2:mem:querybudget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;"
+        + "INIT=CREATE DOMAIN IF NOT EXISTS employee_role_enum AS VARCHAR(32)"
+})
+@AutoConfigureWebMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryBudgetRegressionTest {
+
+    private static final int DEPARTMENTS = 4;
+    private static final int EMPLOYEES_PER_DEPARTMENT = 10;
+    private static final int DAYS = 14;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private BuildingRepository buildingRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftTradeRepository shiftTradeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+    private TenantDataSeeder seeder;
+    private TenantDataSeeder.Tenant tenant;
+    private TenantDataSeeder.Tenant otherTenant;
+
+    @BeforeAll
+    void seed() {
+        seeder = new TenantDataSeeder(buildingRepository, departmentRepository, employeeRepository,
+            shiftRepository, shiftTradeRepository, transactionManager);
+        tenant = seeder.seedTenant("Harbor View", DEPARTMENTS, EMPLOYEES_PER_DEPARTMENT, DAYS);
+        // The other building starts out larger, so a cross-tenant scan is visible from the first request
+        otherTenant = seeder.seedTenant("Summit Lodge", DEPARTMENTS + 2, EMPLOYEES_PER_DEPARTMENT + 5, DAYS);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // No springSecurity(): the JWT filters are covered elsewhere and would add their own lookups
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shiftsForDepartmentInRange() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(EMPLOYEES_PER_DEPARTMENT + 5),
+            "/api/shifts?departmentId=" + departmentId() + "&startDate=2026-01-05&endDate=2026-01-12");
+    }
+
+    @Test
+    void myShifts() throws Exception {
+        assertTenantScoped(tenant.getEmployees().get(0), QueryBudget.statements(6), "/api/shifts/my-shifts");
+    }
+
+    @Test
+    void shiftStatisticsForDepartment() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(EMPLOYEES_PER_DEPARTMENT + 6),
+            "/api/shifts/statistics?departmentId=" + departmentId());
+    }
+
+    @Test
+    void employeeHoursForDepartment() throws Exception {
+        // One shift query per employee
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(2 * EMPLOYEES_PER_DEPARTMENT),
+            "/api/shifts/employee-hours?departmentId=" + departmentId());
+    }
+
+    @Test
+    void employeesOfAdminsBuilding() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(DEPARTMENTS + 6), "/api/employees");
+    }
+
+    @Test
+    void employeesByDepartment() throws Exception {
+        // The building check is answered by BuildingAccessCache, not by loading the building's employees
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(6),
+            "/api/employees/department/" + departmentId());
+    }
+
+    @Test
+    void departmentsForAdmin() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(2 * DEPARTMENTS + 4), "/api/departments");
+    }
+
+    @Test
+    void departmentsForManager() throws Exception {
+        assertTenantScoped(tenant.getManager(), QueryBudget.statements(2 * DEPARTMENTS + 4), "/api/departments");
+    }
+
+    @Test
+    void reports() throws Exception {
+        for (String path : List.of("/api/reports/statistics", "/api/reports/shifts-by-day",
+                "/api/reports/hours-by-department", "/api/reports/shift-distribution", "/api/reports/employee-hours",
+                "/api/reports/department-performance", "/api/reports/monthly-trend")) {
+            assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(5), path);
+        }
+    }
+
+    @Test
+    void allShifts() throws Exception {
+        // The scoped shift query, the employees' building and the shifts' creator
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(6), "/api/shifts");
+    }
+
+    @Test
+    void allShiftsInRange() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(6),
+            "/api/shifts?startDate=2026-01-05&endDate=2026-01-12");
+    }
+
+    @Test
+    void shiftStatistics() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(5), "/api/shifts/statistics");
+    }
+
+    @Test
+    void shiftAnalytics() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(5), "/api/shifts/analytics");
+    }
+
+    @Test
+    void employeeHours() throws Exception {
+        // The building's employees and its shifts, grouped in memory
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(5), "/api/shifts/employee-hours");
+    }
+
+    @Test
+    void departmentStats() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(6), "/api/shifts/department-stats");
+    }
+
+    @Test
+    void trades() throws Exception {
+        assertTenantScoped(tenant.getAdmin(), QueryBudget.statements(5), "/api/shifts/trades");
+    }
+
+    /**
+     * Measures <code>path</code> as <code>principal</code>, grows the other tenant and measures again.
+     */
+    private void assertTenantScoped(Employee principal, QueryBudget budget, String path) throws Exception {
+        signIn(principal);
+        // Warm-up, so query plan compilation does not count against the elapsed budget
+        perform(path);
+
+        QueryBudget.Measurement before = QueryBudget.measure(() -> perform(path));
+        budget.assertWithin("GET " + path, before);
+
+        seeder.grow(otherTenant, EMPLOYEES_PER_DEPARTMENT, DAYS);
+        QueryBudget.Measurement after = QueryBudget.measure(() -> perform(path));
+        assertEquals(before.getStatements(), after.getStatements(),
+            "GET " + path + " issued more statements after another building grew");
+        assertEquals(before.getRows(), after.getRows(),
+            "GET " + path + " read rows from another building");
+    }
+
+    private void perform(String path) throws Exception {
+        mockMvc.perform(get(path)).andExpect(status().isOk());
+    }
+
+    private void signIn(Employee principal) {
+        // hasRole() checks expect the ROLE_ prefix
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()))));
+    }
+
+    private Long departmentId() {
+        return tenant.getDepartments().get(0).getId();
+    }
+}
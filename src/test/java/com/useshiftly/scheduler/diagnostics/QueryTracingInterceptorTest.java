@@ -0,0 +1,90 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class QueryTracingInterceptorTest {
+
+    private final QueryTracingService queryTracingService = mock(QueryTracingService.class);
+    private final QueryTracingInterceptor interceptor = new QueryTracingInterceptor(queryTracingService);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final HandlerMethod handler;
+
+    public QueryTracingInterceptorTest() throws NoSuchMethodException {
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        handler = new HandlerMethod(new ExportController(), ExportController.class.getMethod("export"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertNull(QueryContext.current());
+    }
+
+    @Test
+    void contextIsClosedAndRecordedWhenAsyncHandlingStarts() {
+        HttpServletRequest request = request(DispatcherType.REQUEST);
+        interceptor.preHandle(request, response, handler);
+        QueryContext context = QueryContext.current();
+        assertNotNull(context);
+
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertNull(QueryContext.current());
+        verify(queryTracingService).record("ExportController.export", "/api/export", context);
+    }
+
+    @Test
+    void asyncDispatchDoesNotOpenAnotherContext() {
+        HttpServletRequest request = request(DispatcherType.REQUEST);
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        // The container re-dispatches the same request once the stream is written
+        HttpServletRequest asyncDispatch = request(DispatcherType.ASYNC);
+        interceptor.preHandle(asyncDispatch, response, handler);
+        assertNull(QueryContext.current());
+        interceptor.afterCompletion(asyncDispatch, response, handler, null);
+
+        verify(queryTracingService, times(1)).record(anyString(), anyString(), any(QueryContext.class));
+    }
+
+    @Test
+    void synchronousRequestIsRecordedOnCompletion() {
+        HttpServletRequest request = request(DispatcherType.REQUEST);
+        interceptor.preHandle(request, response, handler);
+
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertNull(QueryContext.current());
+        verify(queryTracingService).record(eq("ExportController.export"), eq("/api/export"), any(QueryContext.class));
+    }
+
+    private static HttpServletRequest request(DispatcherType dispatcherType) {
+        Map<String, Object> attributes = new HashMap<>();
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getDispatcherType()).thenReturn(dispatcherType);
+        when(request.getRequestURI()).thenReturn("/api/export");
+        when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(request).setAttribute(anyString(), any());
+        doAnswer(invocation -> attributes.remove(invocation.<String>getArgument(0)))
+            .when(request).removeAttribute(anyString());
+        return request;
+    }
+
+    public static final class ExportController {
+        public void export() {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.useshiftly.scheduler.diagnostics;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracingDataSourceTest {
+
+    @Test
+    void countsStatementsAndRowsInNestedContexts() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = new TracingDataSource(h2);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id INT)");
+            statement.executeUpdate("INSERT INTO items VALUES (1), (2), (3)");
+        }
+
+        try (QueryContext request = QueryContext.open()) {
+            try (QueryContext inner = QueryContext.open();
+                 Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT id FROM items WHERE id > ?")) {
+                statement.setInt(1, 1);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        // drain
+                    }
+                }
+                assertEquals(1, inner.getStatementCount());
+                assertEquals(2, inner.getRowCount());
+            }
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM items WHERE id = 3");
+            }
+            assertEquals(2, request.getStatementCount());
+            assertEquals(2, request.getRowCount());
+            assertSame(request, QueryContext.current());
+        }
+        assertNull(QueryContext.current());
+    }
+}
@@ -0,0 +1,29 @@
+package com.useshiftly.scheduler.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsAndMixedLineEndings() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"two\nlines\",,x\nlast"), 100);
+
+        assertEquals(List.of("a", "b,c", "say \"hi\""), reader.next());
+        assertEquals(List.of("two\nlines", "", "x"), reader.next());
+        assertEquals(List.of("last"), reader.next());
+        assertNull(reader.next());
+        assertEquals(3, reader.getRecordNumber());
+    }
+
+    @Test
+    void rejectsUnterminatedQuotesAndOversizedFields() {
+        assertThrows(IOException.class, () -> new CsvReader(new StringReader("\"open,field\n"), 100).next());
+        assertThrows(IOException.class, () -> new CsvReader(new StringReader("abcdef"), 5).next());
+    }
+}
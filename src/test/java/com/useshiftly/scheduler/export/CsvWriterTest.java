@@ -0,0 +1,29 @@
+package com.useshiftly.scheduler.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvWriterTest {
+
+    @Test
+    void escapesFieldsPerRfc4180() throws Exception {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.row(1, "plain", "a,b", "say \"hi\"", "two\nlines", null, " padded");
+
+        assertEquals("1,plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,\" padded\"\r\n", out.toString());
+    }
+
+    @Test
+    void negotiatesGzipFromAcceptEncoding() {
+        assertTrue(CsvExportService.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CsvExportService.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertFalse(CsvExportService.acceptsGzip("gzip;q=0"));
+        assertFalse(CsvExportService.acceptsGzip("identity"));
+        assertFalse(CsvExportService.acceptsGzip(null));
+    }
+}
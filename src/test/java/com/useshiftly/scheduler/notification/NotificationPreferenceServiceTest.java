@@ -0,0 +1,112 @@
+package com.useshiftly.scheduler.notification;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.notification.NotificationEventType.Category;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class NotificationPreferenceServiceTest {
+
+    private final NotificationPreferenceRepository repository = mock(NotificationPreferenceRepository.class);
+    private final NotificationPreferenceService preferences = new NotificationPreferenceService(repository);
+
+    @Test
+    void usersWithoutSavedPreferencesReceiveEverything() {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            for (NotificationEventType type : NotificationEventType.values()) {
+                assertTrue(preferences.isEnabled(1L, channel, type), channel + " " + type);
+            }
+        }
+        assertEquals(Map.of("emailNotifications", true, "pushNotifications", true, "shiftReminders", true,
+            "tradeNotifications", true, "scheduleUpdates", true), preferences.getSettings(1L));
+    }
+
+    @Test
+    void eachCategoryToggleClearsOnlyItsOwnEventBitsOnEveryChannel() {
+        Map<String, Category> toggles = Map.of(
+            "scheduleUpdates", Category.SCHEDULE,
+            "tradeNotifications", Category.TRADE,
+            "shiftReminders", Category.REMINDER);
+        long employeeId = 1L;
+        for (Map.Entry<String, Category> toggle : toggles.entrySet()) {
+            preferences.updateSettings(employeeId, Map.of(toggle.getKey(), false));
+
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                for (NotificationEventType type : NotificationEventType.values()) {
+                    assertEquals(type.getCategory() != toggle.getValue(), preferences.isEnabled(employeeId, channel, type),
+                        toggle.getKey() + " " + channel + " " + type);
+                }
+            }
+            assertEquals(false, preferences.getSettings(employeeId).get(toggle.getKey()));
+            employeeId++;
+        }
+    }
+
+    @Test
+    void channelToggleClearsEveryOptionalEventOnThatChannelOnly() {
+        preferences.updateSettings(1L, Map.of("emailNotifications", false));
+
+        for (NotificationEventType type : NotificationEventType.values()) {
+            assertEquals(!type.getCategory().isOptional(), preferences.isEnabled(1L, NotificationChannel.EMAIL, type), type.name());
+            assertTrue(preferences.isEnabled(1L, NotificationChannel.IN_APP, type), type.name());
+        }
+
+        preferences.updateSettings(1L, Map.of("emailNotifications", true));
+        assertTrue(preferences.isEnabled(1L, NotificationChannel.EMAIL, NotificationEventType.SHIFT_ASSIGNED));
+    }
+
+    @Test
+    void savedMaskIsLoadedOnceAndRejectsUnknownSettings() {
+        // Built before stubbing: maskWith drives its own mock, which Mockito rejects inside an open when()
+        long tradesOff = maskWith("tradeNotifications", false);
+        when(repository.findById(9L)).thenReturn(Optional.of(NotificationPreference.builder()
+            .employeeId(9L).enabledMask(tradesOff).build()));
+
+        assertFalse(preferences.isEnabled(9L, NotificationChannel.EMAIL, NotificationEventType.TRADE_OFFERED));
+        assertTrue(preferences.isEnabled(9L, NotificationChannel.EMAIL, NotificationEventType.SHIFT_ASSIGNED));
+        verify(repository, times(1)).findById(9L);
+        assertThrows(RuntimeException.class, () -> preferences.updateSettings(9L, Map.of("smsNotifications", true)));
+    }
+
+    @Test
+    void filterRecipientsDropsOptedOutEmployeesWithOneLookup() {
+        Employee optedOut = employee(1L);
+        Employee defaults = employee(2L);
+        long tradesOff = maskWith("tradeNotifications", false);
+        when(repository.findAllById(List.of(1L, 2L))).thenReturn(List.of(NotificationPreference.builder()
+            .employeeId(1L).enabledMask(tradesOff).build()));
+
+        List<Employee> recipients = preferences.filterRecipients(List.of(optedOut, defaults),
+            NotificationChannel.EMAIL, NotificationEventType.SHIFT_POSTED);
+
+        assertEquals(List.of(defaults), recipients);
+        assertEquals(List.of(optedOut, defaults), preferences.filterRecipients(List.of(optedOut, defaults),
+            NotificationChannel.EMAIL, NotificationEventType.SHIFT_ASSIGNED));
+        verify(repository, times(1)).findAllById(List.of(1L, 2L));
+        verify(repository, never()).findById(1L);
+    }
+
+    /**
+     * Returns the mask the settings API would persist for a single toggle applied to the defaults.
+     */
+    private static long maskWith(String setting, boolean enabled) {
+        NotificationPreferenceRepository scratch = mock(NotificationPreferenceRepository.class);
+        new NotificationPreferenceService(scratch).updateSettings(1L, Map.of(setting, enabled));
+        ArgumentCaptor<NotificationPreference> saved = ArgumentCaptor.forClass(NotificationPreference.class);
+        verify(scratch).save(saved.capture());
+        return saved.getValue().getEnabledMask();
+    }
+
+    private static Employee employee(Long id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        return employee;
+    }
+}
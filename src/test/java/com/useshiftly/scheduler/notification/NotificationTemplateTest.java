@@ -0,0 +1,45 @@
+package com.useshiftly.scheduler.notification;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationTemplateTest {
+
+    @Test
+    void rendersPlaceholdersInDeclaredOrder() {
+        NotificationTemplate template = NotificationTemplate.compile("{b} then {a}, {b} again", "a", "b");
+
+        assertEquals("2 then 1, 2 again", template.render("1", "2"));
+        assertEquals("no placeholders", NotificationTemplate.compile("no placeholders").render());
+    }
+
+    @Test
+    void rejectsUnknownPlaceholdersAndWrongArgumentCount() {
+        assertThrows(IllegalArgumentException.class, () -> NotificationTemplate.compile("Hello {name}", "firstName"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationTemplate.compile("Hello {firstName", "firstName"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationTemplate.compile("{a}", "a").render());
+    }
+
+    @Test
+    void shiftAssignmentMatchesLegacyFormat() {
+        NotificationTemplates templates = new NotificationTemplates("https://useshiftly.com");
+
+        NotificationTemplates.Message message = templates.render(NotificationEventType.SHIFT_ASSIGNED,
+            "Jordan", "07/14/2025 09:00", "07/14/2025 17:00", "Front Desk", "None");
+
+        assertEquals("New Shift Assignment", message.getSubject());
+        assertEquals(String.format(
+            "Hello %s,\n\n" +
+            "You have been assigned a new shift:\n\n" +
+            "Date & Time: %s - %s\n" +
+            "Department: %s\n" +
+            "Notes: %s\n\n" +
+            "Please log into Shiftly to view more details.\n\n" +
+            "You can log in at: https://useshiftly.com/\n\n" +
+            "Best regards,\n" +
+            "Shiftly Team",
+            "Jordan", "07/14/2025 09:00", "07/14/2025 17:00", "Front Desk", "None"), message.getBody());
+        assertEquals("New shift: 07/14/2025 09:00 - 07/14/2025 17:00 (Front Desk)", message.getSummary());
+    }
+}
@@ -0,0 +1,68 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AbuseDetectionServiceTest {
+
+    private static final SecurityStateStore.ListType BLACKLIST = SecurityStateStore.ListType.BLACKLIST;
+    private static final SecurityStateStore.ListType WHITELIST = SecurityStateStore.ListType.WHITELIST;
+
+    private final RecordingSecurityStateStore store = new RecordingSecurityStateStore();
+    private final AbuseDetectionService abuseDetectionService = new AbuseDetectionService(
+        mock(SecurityEventService.class), new RateLimitingService(store), store);
+
+    @Test
+    void entryWhoseWriteThroughFailedSurvivesRefreshAndIsWrittenBack() {
+        store.failingSaves = 1;
+        abuseDetectionService.addToPermanentBlacklist("203.0.113.7");
+        assertFalse(store.contains(BLACKLIST, "203.0.113.7"));
+
+        abuseDetectionService.refreshSharedLists();
+
+        assertTrue(abuseDetectionService.isPermanentlyBlocked("203.0.113.7"));
+        assertTrue(store.contains(BLACKLIST, "203.0.113.7"));
+    }
+
+    @Test
+    void entriesRemovedOnAnotherNodeAreDropped() {
+        abuseDetectionService.addToPermanentBlacklist("203.0.113.7");
+        abuseDetectionService.addToWhitelist("198.51.100.4");
+        abuseDetectionService.refreshSharedLists();
+
+        store.removeEntry(BLACKLIST, "203.0.113.7");
+        store.removeEntry(WHITELIST, "198.51.100.4");
+        abuseDetectionService.refreshSharedLists();
+
+        assertFalse(abuseDetectionService.isPermanentlyBlocked("203.0.113.7"));
+        assertFalse(abuseDetectionService.isWhitelisted("198.51.100.4"));
+    }
+
+    @Test
+    void entriesFromOtherNodesAreLoadedAndDroppedWhenRemoved() {
+        store.saveEntry(BLACKLIST, "203.0.113.9", 0, "node-b");
+        store.saveEntry(WHITELIST, "198.51.100.9", 0, "node-b");
+
+        abuseDetectionService.refreshSharedLists();
+        assertTrue(abuseDetectionService.isPermanentlyBlocked("203.0.113.9"));
+        assertTrue(abuseDetectionService.isWhitelisted("198.51.100.9"));
+
+        store.removeEntry(BLACKLIST, "203.0.113.9");
+        abuseDetectionService.refreshSharedLists();
+        assertFalse(abuseDetectionService.isPermanentlyBlocked("203.0.113.9"));
+        assertEquals(2, store.saves);
+    }
+
+    @Test
+    void localRemovalIsNotWrittenBack() {
+        abuseDetectionService.addToPermanentBlacklist("203.0.113.7");
+        abuseDetectionService.removeFromPermanentBlacklist("203.0.113.7");
+
+        abuseDetectionService.refreshSharedLists();
+
+        assertFalse(abuseDetectionService.isPermanentlyBlocked("203.0.113.7"));
+        assertFalse(store.contains(BLACKLIST, "203.0.113.7"));
+    }
+}
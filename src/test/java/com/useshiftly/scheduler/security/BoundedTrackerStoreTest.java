@@ -0,0 +1,39 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedTrackerStoreTest {
+
+    @Test
+    void addressSprayDoesNotDisplaceRepeatOffenders() {
+        BoundedTrackerStore<AtomicInteger> store = new BoundedTrackerStore<>(100, 65536, ip -> new AtomicInteger(), t -> 16);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                store.track("10.0.0." + i).incrementAndGet();
+            }
+        }
+
+        for (int i = 0; i < 50_000; i++) {
+            store.track("spray-" + i).incrementAndGet();
+        }
+
+        assertEquals(100, store.size());
+        assertEquals(5, store.track("10.0.0.7").get());
+        assertTrue(store.getTopOffenders(1).values().iterator().next() >= 5);
+        assertTrue(store.getMemoryBytes() < 2_000_000);
+    }
+
+    @Test
+    void pruneRemovesStaleTrackers() {
+        BoundedTrackerStore<AtomicInteger> store = new BoundedTrackerStore<>(10, 64, ip -> new AtomicInteger(), t -> 16);
+        store.track("a").incrementAndGet();
+        store.track("b");
+
+        assertEquals(1, store.prune((ip, tracker) -> tracker.get() == 0));
+        assertEquals(1, store.size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.useshiftly.scheduler.security;
+
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BuildingAccessCacheTest {
+
+    private BuildingRepository buildingRepository;
+    private DepartmentRepository departmentRepository;
+    private BuildingAccessCache cache;
+
+    @BeforeEach
+    void setUp() {
+        buildingRepository = mock(BuildingRepository.class);
+        departmentRepository = mock(DepartmentRepository.class);
+        cache = new BuildingAccessCache(buildingRepository, departmentRepository);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        when(buildingRepository.findIdsByManagerId(7L)).thenReturn(List.of(20L, 10L));
+        when(buildingRepository.findIdsByAdminId(7L)).thenReturn(List.of(30L));
+        when(departmentRepository.findIdsByBuildingIds(any())).thenReturn(List.of(101L, 100L));
+    }
+
+    private static Employee employee(Employee.Role role) {
+        Employee employee = new Employee();
+        employee.setId(7L);
+        employee.setRole(role);
+        return employee;
+    }
+
+    @Test
+    void answersFromCacheUntilTheManagerIsInvalidated() {
+        Employee manager = employee(Employee.Role.MANAGER);
+
+        BuildingAccessCache.BuildingAccess access = cache.get(manager);
+        assertTrue(access.canAccessBuilding(10L));
+        assertTrue(access.managesBuilding(20L));
+        assertFalse(access.administersBuilding(20L));
+        assertFalse(access.canAccessBuilding(30L));
+        assertTrue(access.canAccessDepartment(100L));
+        assertSame(access, cache.get(manager));
+        verify(buildingRepository, times(1)).findIdsByManagerId(7L);
+
+        cache.invalidate(7L);
+        when(buildingRepository.findIdsByManagerId(7L)).thenReturn(List.of(10L));
+
+        assertFalse(cache.get(manager).canAccessBuilding(20L));
+        verify(buildingRepository, times(2)).findIdsByManagerId(7L);
+    }
+
+    @Test
+    void reloadsWhenThePrincipalsRoleChanges() {
+        assertTrue(cache.get(employee(Employee.Role.MANAGER)).canAccessBuilding(10L));
+
+        BuildingAccessCache.BuildingAccess admin = cache.get(employee(Employee.Role.ADMIN));
+
+        assertTrue(admin.administersBuilding(30L));
+        assertFalse(admin.canAccessBuilding(10L));
+        assertFalse(cache.get(employee(Employee.Role.EMPLOYEE)).canAccessBuilding(30L));
+    }
+
+    @Test
+    void resolvesDepartmentsCreatedAfterTheEntryWasCached() {
+        Employee manager = employee(Employee.Role.MANAGER);
+        when(departmentRepository.findBuildingIdById(102L)).thenReturn(Optional.of(20L));
+        when(departmentRepository.findBuildingIdById(500L)).thenReturn(Optional.of(99L));
+
+        assertTrue(cache.canAccessDepartment(manager, 101L));
+        verify(departmentRepository, never()).findBuildingIdById(101L);
+        assertTrue(cache.canAccessDepartment(manager, 102L));
+        assertFalse(cache.canAccessDepartment(manager, 500L));
+    }
+}
@@ -0,0 +1,45 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventRingBufferTest {
+
+    @Test
+    void dropsInsteadOfBlockingWhenFull() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void drainsInOrderAndFreesSlots() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(round * 4 + i));
+            }
+            assertEquals(2, buffer.drain(drained::add, 2));
+            assertEquals(2, buffer.drain(drained::add, 10));
+        }
+        assertEquals(12, drained.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i, drained.get(i));
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(8, new EventRingBuffer<>(5).capacity());
+        assertEquals(8, new EventRingBuffer<>(8).capacity());
+    }
+}
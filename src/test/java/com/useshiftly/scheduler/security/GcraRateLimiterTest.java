@@ -0,0 +1,39 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GcraRateLimiterTest {
+
+    @Test
+    void allowsTheBurstThenRejects() {
+        GcraRateLimiter limiter = new GcraRateLimiter();
+        GcraRateLimiter.Policy policy = GcraRateLimiter.Policy.perMinute("ip", 60, 60);
+
+        for (int i = 0; i < 60; i++) {
+            assertTrue(limiter.tryAcquire("10.0.0.1", policy));
+        }
+        assertFalse(limiter.tryAcquire("10.0.0.1", policy));
+        assertEquals(60, limiter.getUsage("10.0.0.1", policy));
+        // Other keys are unaffected
+        assertTrue(limiter.tryAcquire("10.0.0.2", policy));
+    }
+
+    @Test
+    void refillsContinuouslyAndSweepsIdleKeys() throws InterruptedException {
+        GcraRateLimiter limiter = new GcraRateLimiter();
+        GcraRateLimiter.Policy policy = new GcraRateLimiter.Policy("fast", 20, 1000, 2);
+
+        assertTrue(limiter.tryAcquire("key", policy));
+        assertTrue(limiter.tryAcquire("key", policy));
+        assertFalse(limiter.tryAcquire("key", policy));
+
+        Thread.sleep(60);
+        assertTrue(limiter.tryAcquire("key", policy));
+
+        Thread.sleep(150);
+        assertEquals(1, limiter.sweep());
+        assertEquals(0, limiter.size());
+    }
+}
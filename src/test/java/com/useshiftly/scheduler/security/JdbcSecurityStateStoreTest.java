@@ -0,0 +1,131 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the store's upserts and reads against PostgreSQL, with the tables created by the V12 migration.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class JdbcSecurityStateStoreTest {
+
+    private static final long BUCKET_MILLIS = 10_000L;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    // One database shared by two nodes
+    private JdbcSecurityStateStore nodeA;
+    private JdbcSecurityStateStore nodeB;
+
+    @BeforeAll
+    static void createTables() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V12__create_shared_security_state.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM security_rate_limit_hits");
+        jdbcTemplate.update("DELETE FROM security_ip_lists");
+        nodeA = new JdbcSecurityStateStore(jdbcTemplate, "node-a");
+        nodeB = new JdbcSecurityStateStore(jdbcTemplate, "node-b");
+    }
+
+    @Test
+    void exchangeReturnsOnlyTheOtherNodesGrowth() {
+        assertEquals(Map.of(), nodeA.exchangeHits(Map.of("203.0.113.7", 3L)));
+        assertEquals(Map.of("203.0.113.7", 3L), nodeB.exchangeHits(Map.of("203.0.113.7", 2L, "user|alice", 1L)));
+
+        assertEquals(Map.of("203.0.113.7", 2L, "user|alice", 1L), nodeA.exchangeHits(Map.of()));
+        // Already returned, nothing new since
+        assertEquals(Map.of(), nodeA.exchangeHits(Map.of()));
+
+        nodeB.exchangeHits(Map.of("203.0.113.7", 4L));
+        assertEquals(Map.of("203.0.113.7", 4L), nodeA.exchangeHits(Map.of("203.0.113.7", 1L)));
+        // Node B saw three of node A's hits earlier; only the new one is returned
+        assertEquals(Map.of("203.0.113.7", 1L), nodeB.exchangeHits(Map.of()));
+    }
+
+    @Test
+    void hitsAccumulateInOneRowPerKeyNodeAndBucket() {
+        long bucket = System.currentTimeMillis() / BUCKET_MILLIS;
+        nodeA.exchangeHits(Map.of("203.0.113.7", 3L));
+        nodeA.exchangeHits(Map.of("203.0.113.7", 2L));
+
+        // The two exchanges may straddle a bucket boundary
+        assertEquals(5L, jdbcTemplate.queryForObject(
+            "SELECT SUM(hits) FROM security_rate_limit_hits WHERE limiter_key = ? AND node_id = ? AND bucket >= ?",
+            Long.class, "203.0.113.7", "node-a", bucket));
+        assertTrue(rowCount("security_rate_limit_hits") <= 2);
+    }
+
+    @Test
+    void firstExchangePurgesOldBucketsAndExpiredEntries() {
+        long bucket = System.currentTimeMillis() / BUCKET_MILLIS;
+        insertHits("203.0.113.7", "node-b", bucket - 20, 9L);
+        insertHits("203.0.113.8", "node-b", bucket - 1, 1L);
+        nodeB.saveEntry(SecurityStateStore.ListType.TEMPORARY_BLOCK, "203.0.113.7", System.currentTimeMillis() - 1000, "old");
+
+        assertEquals(Map.of("203.0.113.8", 1L), nodeA.exchangeHits(Map.of()));
+
+        assertEquals(List.of("203.0.113.8"), jdbcTemplate.queryForList(
+            "SELECT limiter_key FROM security_rate_limit_hits", String.class));
+        assertEquals(0, rowCount("security_ip_lists"));
+        // Not purged again until half the retained window has passed
+        insertHits("203.0.113.9", "node-b", bucket - 20, 9L);
+        nodeA.exchangeHits(Map.of());
+        assertEquals(2, rowCount("security_rate_limit_hits"));
+    }
+
+    @Test
+    void ipListEntriesAreUpsertedLoadedAndRemoved() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        nodeA.saveEntry(SecurityStateStore.ListType.TEMPORARY_BLOCK, "203.0.113.7", expiresAt, "first");
+        nodeA.saveEntry(SecurityStateStore.ListType.TEMPORARY_BLOCK, "203.0.113.7", expiresAt + 1000, "x".repeat(600));
+        nodeA.saveEntry(SecurityStateStore.ListType.BLACKLIST, "203.0.113.7", 0, "manual");
+        nodeA.saveEntry(SecurityStateStore.ListType.TEMPORARY_BLOCK, "203.0.113.8", System.currentTimeMillis() - 1, "expired");
+
+        Map<SecurityStateStore.ListType, SecurityStateStore.IpListEntry> loaded = nodeB.loadEntries().stream()
+            .filter(entry -> entry.getIp().equals("203.0.113.7"))
+            .collect(Collectors.toMap(SecurityStateStore.IpListEntry::getType, entry -> entry));
+
+        assertEquals(3, rowCount("security_ip_lists"));
+        assertEquals(2, nodeB.loadEntries().size());
+        assertEquals(expiresAt + 1000, loaded.get(SecurityStateStore.ListType.TEMPORARY_BLOCK).getExpiresAtMillis());
+        assertEquals(500, loaded.get(SecurityStateStore.ListType.TEMPORARY_BLOCK).getReason().length());
+        assertEquals(0, loaded.get(SecurityStateStore.ListType.BLACKLIST).getExpiresAtMillis());
+
+        nodeB.removeEntry(SecurityStateStore.ListType.BLACKLIST, "203.0.113.7");
+        assertEquals(List.of(SecurityStateStore.ListType.TEMPORARY_BLOCK),
+            nodeA.loadEntries().stream().map(SecurityStateStore.IpListEntry::getType).collect(Collectors.toList()));
+    }
+
+    private static void insertHits(String limiterKey, String nodeId, long bucket, long hits) {
+        jdbcTemplate.update("INSERT INTO security_rate_limit_hits (limiter_key, node_id, bucket, hits) VALUES (?, ?, ?, ?)",
+            limiterKey, nodeId, bucket, hits);
+    }
+
+    private static int rowCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
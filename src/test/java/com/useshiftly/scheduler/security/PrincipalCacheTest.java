@@ -0,0 +1,101 @@
+package com.useshiftly.scheduler.security;
+
+import com.useshiftly.scheduler.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrincipalCacheTest {
+
+    private PrincipalCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrincipalCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        loads = new AtomicInteger();
+    }
+
+    private Employee load(String email) {
+        loads.incrementAndGet();
+        Employee employee = new Employee();
+        employee.setId(1L);
+        employee.setEmail(email);
+        return employee;
+    }
+
+    @Test
+    void servesRepeatLookupsFromCacheUntilInvalidated() {
+        Employee first = (Employee) cache.get("a@example.com", this::load);
+        assertEquals(first.getId(), ((Employee) cache.get("a@example.com", this::load)).getId());
+        assertEquals(1, loads.get());
+
+        cache.invalidate(first);
+
+        cache.get("a@example.com", this::load);
+        assertEquals(2, loads.get());
+        assertEquals(1.0 / 3, (double) cache.getStatistics().get("hitRate"), 1e-9);
+    }
+
+    @Test
+    void eachLookupGetsItsOwnCopyOfTheCachedEmployee() {
+        Employee loaded = (Employee) cache.get("a@example.com", this::load);
+        loaded.setFirstName("Changed by the first request");
+
+        Employee first = (Employee) cache.get("a@example.com", this::load);
+        Employee second = (Employee) cache.get("a@example.com", this::load);
+        first.setFirstName("Changed by another request");
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertNull(second.getFirstName());
+        assertEquals("a@example.com", second.getEmail());
+        assertEquals(1L, second.getId());
+    }
+
+    @Test
+    void doesNotCacheALoadThatOverlapsAnInvalidation() {
+        Employee changed = new Employee();
+        changed.setId(1L);
+        changed.setEmail("a@example.com");
+
+        cache.get("a@example.com", email -> {
+            cache.invalidate(changed);
+            return load(email);
+        });
+        cache.get("a@example.com", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void rejectsOlderTokenVersionsWithoutReloading() {
+        AtomicInteger versionLoads = new AtomicInteger();
+        Function<Long, Optional<Integer>> loader = id -> {
+            versionLoads.incrementAndGet();
+            return Optional.of(2);
+        };
+
+        assertTrue(cache.isTokenVersionCurrent(1L, 2, loader));
+        assertTrue(cache.isTokenVersionCurrent(1L, 2, loader));
+        assertFalse(cache.isTokenVersionCurrent(1L, 1, loader));
+        assertEquals(1, versionLoads.get());
+
+        // A token newer than the cached version means the cache is stale
+        assertFalse(cache.isTokenVersionCurrent(1L, 3, loader));
+        assertEquals(2, versionLoads.get());
+    }
+
+    @Test
+    void rejectsTokensForMissingEmployees() {
+        assertFalse(cache.isTokenVersionCurrent(1L, 0, id -> Optional.empty()));
+    }
+}
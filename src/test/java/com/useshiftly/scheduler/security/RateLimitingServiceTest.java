@@ -0,0 +1,114 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitingServiceTest {
+
+    private static final SecurityStateStore.ListType BLOCK = SecurityStateStore.ListType.TEMPORARY_BLOCK;
+
+    private final RecordingSecurityStateStore store = new RecordingSecurityStateStore();
+    private final RateLimitingService rateLimitingService = new RateLimitingService(store);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateLimitingService, "requestsPerMinute", 5);
+        ReflectionTestUtils.setField(rateLimitingService, "blockDurationMinutes", 15);
+        rateLimitingService.init();
+    }
+
+    @Test
+    void blockWhoseWriteThroughFailedSurvivesSyncAndIsWrittenBack() {
+        store.failingSaves = 1;
+        rateLimitingService.blockIP("203.0.113.7", "manual");
+        assertFalse(store.contains(BLOCK, "203.0.113.7"));
+
+        rateLimitingService.syncSharedState();
+
+        assertTrue(rateLimitingService.isIPBlocked("203.0.113.7"));
+        assertTrue(store.contains(BLOCK, "203.0.113.7"));
+        assertEquals("manual", store.entries.get(BLOCK + ":203.0.113.7").getReason());
+    }
+
+    @Test
+    void blockKeepsBeingRetriedWhileTheStoreRejectsIt() {
+        store.failingSaves = 3;
+        rateLimitingService.blockIP("203.0.113.7", "manual");
+
+        rateLimitingService.syncSharedState();
+        rateLimitingService.syncSharedState();
+        assertTrue(rateLimitingService.isIPBlocked("203.0.113.7"));
+        assertFalse(store.contains(BLOCK, "203.0.113.7"));
+
+        rateLimitingService.syncSharedState();
+        assertTrue(store.contains(BLOCK, "203.0.113.7"));
+        assertEquals(4, store.saves);
+        // Once stored it is not written again
+        rateLimitingService.syncSharedState();
+        assertEquals(4, store.saves);
+    }
+
+    @Test
+    void blockLiftedOnAnotherNodeIsDropped() {
+        rateLimitingService.blockIP("203.0.113.7", "manual");
+        rateLimitingService.syncSharedState();
+        assertTrue(rateLimitingService.isIPBlocked("203.0.113.7"));
+
+        store.removeEntry(BLOCK, "203.0.113.7");
+        rateLimitingService.syncSharedState();
+
+        assertFalse(rateLimitingService.isIPBlocked("203.0.113.7"));
+    }
+
+    @Test
+    void blocksFromOtherNodesAreLoaded() {
+        store.entries.put(BLOCK + ":198.51.100.4",
+            new SecurityStateStore.IpListEntry(BLOCK, "198.51.100.4", System.currentTimeMillis() + 60_000, "node-b"));
+        // Other list types belong to the abuse detector
+        store.entries.put(SecurityStateStore.ListType.BLACKLIST + ":198.51.100.5",
+            new SecurityStateStore.IpListEntry(SecurityStateStore.ListType.BLACKLIST, "198.51.100.5", 0, "node-b"));
+
+        rateLimitingService.syncSharedState();
+
+        assertTrue(rateLimitingService.isIPBlocked("198.51.100.4"));
+        assertFalse(rateLimitingService.isIPBlocked("198.51.100.5"));
+        assertFalse(rateLimitingService.isRequestAllowed("198.51.100.4"));
+    }
+
+    @Test
+    void hitsAreExchangedAndOtherNodesHitsCharged() {
+        assertTrue(rateLimitingService.isRequestAllowed("203.0.113.7"));
+        assertTrue(rateLimitingService.isRequestAllowed("203.0.113.7"));
+        store.remoteHits.put("203.0.113.7", 3L);
+
+        rateLimitingService.syncSharedState();
+
+        assertEquals(List.of(Map.of("203.0.113.7", 2L)), store.exchangedHits);
+        assertEquals(5, rateLimitingService.getCurrentRequestCount("203.0.113.7"));
+        assertFalse(rateLimitingService.isRequestAllowed("203.0.113.7"));
+
+        // Nothing admitted since, so the next exchange sends nothing
+        rateLimitingService.syncSharedState();
+        assertEquals(Map.of(), store.exchangedHits.get(1));
+    }
+
+    @Test
+    void hitsAreResentAfterAFailedExchange() {
+        assertTrue(rateLimitingService.isRequestAllowed("203.0.113.7"));
+        assertTrue(rateLimitingService.isRequestAllowed("203.0.113.7"));
+        store.failingExchanges = 1;
+
+        rateLimitingService.syncSharedState();
+        assertTrue(rateLimitingService.isRequestAllowed("203.0.113.7"));
+        rateLimitingService.syncSharedState();
+
+        assertEquals(List.of(Map.of("203.0.113.7", 2L), Map.of("203.0.113.7", 3L)), store.exchangedHits);
+        assertEquals(3, rateLimitingService.getCurrentRequestCount("203.0.113.7"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.useshiftly.scheduler.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared {@link SecurityStateStore} for the services' sync tests: entries live in a map that the test edits as
+ * "another node" would, saves and exchanges can be made to fail, and the next exchange returns whatever hits the test queued.
+ */
+class RecordingSecurityStateStore implements SecurityStateStore {
+
+    // Stored entries keyed by list type and IP
+    final Map<String, IpListEntry> entries = new ConcurrentHashMap<>();
+    final Map<String, Long> remoteHits = new ConcurrentHashMap<>();
+    final List<Map<String, Long>> exchangedHits = new ArrayList<>();
+    int failingSaves;
+    int failingExchanges;
+    int saves;
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public void saveEntry(ListType type, String ip, long expiresAtMillis, String reason) {
+        saves++;
+        if (failingSaves > 0) {
+            failingSaves--;
+            throw new IllegalStateException("connection reset");
+        }
+        entries.put(type + ":" + ip, new IpListEntry(type, ip, expiresAtMillis, reason));
+    }
+
+    @Override
+    public void removeEntry(ListType type, String ip) {
+        entries.remove(type + ":" + ip);
+    }
+
+    @Override
+    public List<IpListEntry> loadEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    @Override
+    public Map<String, Long> exchangeHits(Map<String, Long> localHits) {
+        exchangedHits.add(localHits);
+        if (failingExchanges > 0) {
+            failingExchanges--;
+            throw new IllegalStateException("connection reset");
+        }
+        Map<String, Long> remote = Map.copyOf(remoteHits);
+        remoteHits.clear();
+        return remote;
+    }
+
+    boolean contains(ListType type, String ip) {
+        return entries.containsKey(type + ":" + ip);
+    }
+}
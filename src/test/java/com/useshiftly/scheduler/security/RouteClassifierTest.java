@@ -0,0 +1,40 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteClassifierTest {
+
+    private final RouteClassifier classifier = new RouteClassifier();
+
+    @Test
+    void classifiesPrefixesExactPathsAndExtensions() {
+        assertTrue(classifier.classify("/frontend/dashboard").isPublic());
+        assertFalse(classifier.classify("/frontend").isPublic());
+        assertTrue(classifier.classify("/api/auth/login").isPublic());
+        assertFalse(classifier.classify("/api/auth/login/extra").isPublic());
+        assertTrue(classifier.classify("/api/auth/login/extra").isAuthEndpoint());
+
+        assertTrue(classifier.classify("/assets/app.woff2").isStaticResource());
+        assertFalse(classifier.classify("/assets/app.woff2").isPublic());
+        assertTrue(classifier.classify("/assets/app.js").isPublic());
+
+        assertTrue(classifier.classify("/api/employees/5/password-reset").isSecuritySensitive());
+        assertFalse(classifier.classify("/api/employees/5").isSecuritySensitive());
+        assertTrue(classifier.classify("/actuator/health").isHealthCheck());
+    }
+
+    @Test
+    void storesTheClassificationOnTheRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/settings");
+
+        RouteClassifier.Route route = classifier.classify(request);
+
+        assertTrue(route.isSecuritySensitive());
+        assertSame(route, request.getAttribute(RouteClassifier.ATTRIBUTE));
+        request.setRequestURI("/health");
+        assertSame(route, classifier.classify(request));
+    }
+}
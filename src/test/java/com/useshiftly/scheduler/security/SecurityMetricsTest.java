@@ -0,0 +1,58 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecurityMetricsTest {
+
+    @Test
+    void histogramEstimatesPercentilesFromBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(40_000L);
+        }
+        histogram.record(3_000_000L);
+
+        Map<String, Object> snapshot = histogram.getSnapshot();
+        assertEquals(100L, snapshot.get("count"));
+        assertEquals(0.05, snapshot.get("p50_ms"));
+        assertEquals(0.05, snapshot.get("p99_ms"));
+    }
+
+    @Test
+    void writesPrometheusTextFormat() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2_000_000L);
+
+        String scrape = new SecurityMetrics.PrometheusWriter()
+            .histogram("security_filter_duration_seconds", "Filter time", histogram, "filter", "jwt_auth")
+            .counter("security_rate_limit_decisions_total", "Decisions", 3, "policy", "ip", "decision", "allowed")
+            .counter("security_rate_limit_decisions_total", "Decisions", 1, "policy", "ip", "decision", "rejected")
+            .toString();
+
+        assertTrue(scrape.contains("# TYPE security_filter_duration_seconds histogram\n"));
+        assertTrue(scrape.contains("security_filter_duration_seconds_bucket{filter=\"jwt_auth\",le=\"0.001\"} 0\n"));
+        assertTrue(scrape.contains("security_filter_duration_seconds_bucket{filter=\"jwt_auth\",le=\"0.0025\"} 1\n"));
+        assertTrue(scrape.contains("security_filter_duration_seconds_count{filter=\"jwt_auth\"} 1\n"));
+        assertTrue(scrape.contains("security_rate_limit_decisions_total{policy=\"ip\",decision=\"rejected\"} 1\n"));
+        assertEquals(1, scrape.split("# TYPE security_rate_limit_decisions_total", -1).length - 1);
+    }
+
+    @Test
+    void timedChainMeasuresDownstreamTime() throws Exception {
+        SecurityMetrics.TimedChain chain = new SecurityMetrics.TimedChain((request, response) -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        chain.doFilter(null, null);
+
+        assertTrue(chain.getDownstreamNanos() >= 5_000_000L);
+    }
+}
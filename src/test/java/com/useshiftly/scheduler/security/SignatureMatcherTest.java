@@ -0,0 +1,69 @@
+package com.useshiftly.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SignatureMatcherTest {
+
+    private final SignatureMatcher matcher = new SignatureMatcher(List.of(
+        SignatureMatcher.Signature.word("sql", "union select"),
+        SignatureMatcher.Signature.word("sql", "drop table"),
+        SignatureMatcher.Signature.of("traversal", "../"),
+        SignatureMatcher.Signature.of("xss", "<script"),
+        SignatureMatcher.Signature.of("xss", "script>")));
+
+    // Word-bounded signatures that end in punctuation, as the abuse detector declares them
+    private final SignatureMatcher calls = new SignatureMatcher(List.of(
+        SignatureMatcher.Signature.word("sql", "sleep("),
+        SignatureMatcher.Signature.word("sql", "exec("),
+        SignatureMatcher.Signature.word("xss", "onerror="),
+        SignatureMatcher.Signature.word("xss", "alert("),
+        SignatureMatcher.Signature.word("xss", "eval(")));
+
+    @Test
+    void matchesEveryCategoryInOnePass() {
+        long matches = matcher.scan("/files/../x?q=1 UNION++Select <SCRIPT>");
+        assertEquals(0b111, matches);
+        assertEquals(List.of("sql", "traversal", "xss"), matcher.getCategories());
+    }
+
+    @Test
+    void wordBoundedSignaturesIgnoreOrdinaryText() {
+        assertEquals(0, matcher.scan("select the backdrop tablet to update"));
+        assertEquals(0, matcher.scan("reunion selection"));
+        assertEquals(1, matcher.scan("1; DROP  TABLE users"));
+        assertEquals(0, matcher.scan(""));
+        assertEquals(0, matcher.scan(null));
+    }
+
+    @Test
+    void countsEachSignatureOncePerScan() {
+        matcher.scan("<script><script>");
+        matcher.scan("../../");
+
+        assertEquals(1L, matcher.getHitCounts().get("xss:<script"));
+        assertEquals(1L, matcher.getHitCounts().get("xss:script>"));
+        assertEquals(1L, matcher.getHitCounts().get("traversal:../"));
+        assertEquals(0L, matcher.getHitCounts().get("sql:union select"));
+    }
+
+    @Test
+    void signaturesEndingInPunctuationMatchRealPayloads() {
+        assertEquals(0b10, calls.scan("<img src=x onerror=alert(1)>"));
+        assertEquals(0b01, calls.scan("1 and sleep(5)"));
+        assertEquals(0b10, calls.scan("javascript:eval(atob('YWxlcnQoMSk='))"));
+        assertEquals(0b01, calls.scan("';EXEC(xp_cmdshell 'dir')--"));
+        assertEquals(0b11, calls.scan("x=sleep(5)&y=<svg/onerror=alert`1`>"));
+    }
+
+    @Test
+    void signaturesEndingInPunctuationStillNeedALeadingBoundary() {
+        assertEquals(0, calls.scan("?callback=myalert(1)"));
+        assertEquals(0, calls.scan("/api/deepsleep(mode)"));
+        assertEquals(0, calls.scan("retrieval(3)"));
+        assertEquals(0b10, calls.scan("(alert(1))"));
+    }
+}
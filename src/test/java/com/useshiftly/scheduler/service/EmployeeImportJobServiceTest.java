@@ -0,0 +1,279 @@
+package com.useshiftly.scheduler.service;
+
+import com.useshiftly.scheduler.dto.BulkEmployeeImportResult.RowResult;
+import com.useshiftly.scheduler.export.CsvReader;
+import com.useshiftly.scheduler.model.Building;
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.model.EmployeeImportJob;
+import com.useshiftly.scheduler.repository.EmployeeImportJobRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EmployeeImportJobServiceTest {
+
+    private static final String HEADER = "firstName,lastName,email,phone,dateOfBirth\n";
+
+    @TempDir
+    Path spoolDir;
+
+    private final EmployeeImportJobRepository jobRepository = mock(EmployeeImportJobRepository.class);
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final EmployeeImportService importService = mock(EmployeeImportService.class);
+    // In-memory employee_import_jobs table behind the repository mock
+    private final Map<String, EmployeeImportJob> jobs = new ConcurrentHashMap<>();
+    // First row number of every chunk handed to the import service, with the committed count at that point
+    private final List<int[]> chunks = Collections.synchronizedList(new ArrayList<>());
+    private final Employee caller = caller(7L);
+    private EmployeeImportJobService jobService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(jobRepository.save(any(EmployeeImportJob.class))).thenAnswer(invocation -> {
+            EmployeeImportJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        when(jobRepository.findByNodeIdAndStatusInOrderByCreatedAtAsc(anyString(), anyCollection()))
+            .thenAnswer(invocation -> jobs.values().stream()
+                .filter(job -> invocation.getArgument(0).equals(job.getNodeId()))
+                .filter(job -> invocation.<Collection<EmployeeImportJob.Status>>getArgument(1).contains(job.getStatus()))
+                .collect(Collectors.toList()));
+        when(employeeRepository.findById(7L)).thenReturn(Optional.of(caller));
+
+        when(importService.context(any(Employee.class)))
+            .thenReturn(new EmployeeImportService.Context(caller, caller.getBuilding(), Map.of()));
+        when(importService.openCsv(any(Reader.class))).thenCallRealMethod();
+        when(importService.nextRecord(any(CsvReader.class))).thenCallRealMethod();
+        when(importService.processChunk(anyList(), anyInt(), any(EmployeeImportService.Context.class),
+                any(EmployeeImportService.ChunkListener.class))).thenAnswer(invocation -> {
+            List<List<String>> records = invocation.getArgument(0);
+            int firstRow = invocation.getArgument(1);
+            EmployeeImportService.ChunkListener listener = invocation.getArgument(3);
+            List<RowResult> results = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                String email = records.get(i).get(2);
+                boolean created = !email.startsWith("invalid");
+                results.add(new RowResult(firstRow + i, email, created, created ? 100L + firstRow + i : null,
+                    created ? "Created" : "Invalid email format"));
+            }
+            String jobId = jobs.keySet().iterator().next();
+            chunks.add(new int[] {firstRow, jobs.get(jobId).getProcessedRows()});
+            listener.onChunkCommitted(results);
+            return results;
+        });
+
+        jobService = service("node-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void submittedJobRunsToCompletionAndRecordsProgressPerChunk() throws Exception {
+        EmployeeImportJob job = jobService.submit(upload(csv(5, 3)), caller);
+
+        assertEquals(5, job.getTotalRows());
+        assertEquals("node-a", job.getNodeId());
+
+        EmployeeImportJob done = awaitFinished(job.getId());
+        assertEquals(EmployeeImportJob.Status.COMPLETED, done.getStatus());
+        assertEquals(5, done.getProcessedRows());
+        assertEquals(4, done.getCreatedRows());
+        assertEquals(1, done.getFailedRows());
+        assertEquals("Row 3: Invalid email format", done.getErrors());
+        assertNotNull(done.getStartedAt());
+        // Chunks of two start at rows 1, 3 and 5, each after the previous chunk's progress was committed
+        assertEquals(List.of("1@0", "3@2", "5@4"), chunkLog());
+        assertEquals(100, jobService.describe(done).get("percentComplete"));
+        awaitSpoolDeleted(job.getId());
+    }
+
+    @Test
+    void resumeSkipsRowsAlreadyCommitted() throws Exception {
+        Files.writeString(spoolDir.resolve("job-1.csv"), csv(5, 0));
+        jobs.put("job-1", job("job-1", "node-a", EmployeeImportJob.Status.RUNNING, 2));
+
+        jobService.resumeUnfinishedJobs();
+
+        EmployeeImportJob done = awaitFinished("job-1");
+        assertEquals(EmployeeImportJob.Status.COMPLETED, done.getStatus());
+        assertEquals(List.of("3@2", "5@4"), chunkLog());
+        assertEquals(5, done.getProcessedRows());
+        assertEquals(5, done.getCreatedRows());
+    }
+
+    @Test
+    void resumeLeavesJobsOwnedByOtherNodes() throws Exception {
+        Files.writeString(spoolDir.resolve("job-1.csv"), csv(2, 0));
+        jobs.put("job-1", job("job-1", "node-b", EmployeeImportJob.Status.QUEUED, 0));
+
+        jobService.resumeUnfinishedJobs();
+        jobService.shutdown();
+        assertTrue(awaitWorkersIdle());
+
+        assertEquals(EmployeeImportJob.Status.QUEUED, jobs.get("job-1").getStatus());
+        assertTrue(chunks.isEmpty());
+        assertTrue(Files.exists(spoolDir.resolve("job-1.csv")));
+    }
+
+    @Test
+    void resumeDoesNotStartASecondWorkerForAJobAlreadyRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(importService.processChunk(anyList(), anyInt(), any(EmployeeImportService.Context.class),
+                any(EmployeeImportService.ChunkListener.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            List<List<String>> records = invocation.getArgument(0);
+            int firstRow = invocation.getArgument(1);
+            chunks.add(new int[] {firstRow, 0});
+            List<RowResult> results = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                results.add(new RowResult(firstRow + i, records.get(i).get(2), true, 100L + firstRow + i, "Created"));
+            }
+            invocation.<EmployeeImportService.ChunkListener>getArgument(3).onChunkCommitted(results);
+            return results;
+        });
+        EmployeeImportJob job = jobService.submit(upload(csv(2, 0)), caller);
+
+        // The startup resume sees the freshly queued job while its first chunk is still running
+        jobService.resumeUnfinishedJobs();
+        release.countDown();
+
+        EmployeeImportJob done = awaitFinished(job.getId());
+        assertEquals(2, done.getProcessedRows());
+        assertEquals(1, chunks.size());
+    }
+
+    @Test
+    void missingSpoolFileFailsTheJob() throws Exception {
+        jobs.put("job-1", job("job-1", "node-a", EmployeeImportJob.Status.QUEUED, 0));
+
+        jobService.resumeUnfinishedJobs();
+
+        EmployeeImportJob failed = awaitFinished("job-1");
+        assertEquals(EmployeeImportJob.Status.FAILED, failed.getStatus());
+        assertNotNull(failed.getFailureReason());
+        assertNotNull(failed.getFinishedAt());
+        assertTrue(chunks.isEmpty());
+    }
+
+    @Test
+    void getJobHidesOtherCallersJobs() {
+        jobs.put("job-1", job("job-1", "node-a", EmployeeImportJob.Status.COMPLETED, 0));
+
+        assertTrue(jobService.getJob("job-1", 7L).isPresent());
+        assertTrue(jobService.getJob("job-1", 8L).isEmpty());
+        assertTrue(jobService.getJob("missing", 7L).isEmpty());
+    }
+
+    private EmployeeImportJobService service(String nodeId) {
+        EmployeeImportJobService service = new EmployeeImportJobService(jobRepository, employeeRepository, importService,
+            1, spoolDir.toString(), nodeId);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "maxRows", 100);
+        return service;
+    }
+
+    private EmployeeImportJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            EmployeeImportJob job = jobs.get(jobId);
+            if (job != null && (job.getStatus() == EmployeeImportJob.Status.COMPLETED
+                    || job.getStatus() == EmployeeImportJob.Status.FAILED)) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    private void awaitSpoolDeleted(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.exists(spoolDir.resolve(jobId + ".csv"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "spool file was not deleted");
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean awaitWorkersIdle() throws InterruptedException {
+        ExecutorService workers = (ExecutorService) ReflectionTestUtils.getField(jobService, "workers");
+        return workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private List<String> chunkLog() {
+        synchronized (chunks) {
+            return chunks.stream().map(chunk -> chunk[0] + "@" + chunk[1]).collect(Collectors.toList());
+        }
+    }
+
+    private static MultipartFile upload(String content) throws Exception {
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getOriginalFilename()).thenReturn("employees.csv");
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return file;
+    }
+
+    /**
+     * Returns a CSV with a header and <code>rows</code> data rows; row <code>invalidRow</code> (1-based) has a bad email.
+     */
+    private static String csv(int rows, int invalidRow) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 1; row <= rows; row++) {
+            String email = (row == invalidRow ? "invalid" : "user") + row + "@example.com";
+            csv.append("First,Last,").append(email).append(",555-0100,1990-01-01\n");
+        }
+        return csv.toString();
+    }
+
+    private static EmployeeImportJob job(String id, String nodeId, EmployeeImportJob.Status status, int processedRows) {
+        return EmployeeImportJob.builder()
+            .id(id)
+            .callerId(7L)
+            .nodeId(nodeId)
+            .filename("employees.csv")
+            .status(status)
+            .totalRows(5)
+            .processedRows(processedRows)
+            .createdRows(processedRows)
+            .build();
+    }
+
+    private static Employee caller(Long id) {
+        Building building = new Building();
+        building.setId(1L);
+        Employee caller = new Employee();
+        caller.setId(id);
+        caller.setRole(Employee.Role.ADMIN);
+        caller.setBuilding(building);
+        return caller;
+    }
+}
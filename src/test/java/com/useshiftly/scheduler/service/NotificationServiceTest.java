@@ -0,0 +1,193 @@
+package com.useshiftly.scheduler.service;
+
+import com.useshiftly.scheduler.model.Department;
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.model.Shift;
+import com.useshiftly.scheduler.notification.NotificationDigestService;
+import com.useshiftly.scheduler.notification.NotificationPreferenceRepository;
+import com.useshiftly.scheduler.notification.NotificationPreferenceService;
+import com.useshiftly.scheduler.notification.NotificationTemplates;
+import com.useshiftly.scheduler.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class NotificationServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-14T08:00:00Z"));
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final NotificationPreferenceRepository preferenceRepository = mock(NotificationPreferenceRepository.class);
+    private final NotificationPreferenceService preferences = new NotificationPreferenceService(preferenceRepository);
+    private NotificationDigestService digestService;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        digestService = new NotificationDigestService(clock);
+        ReflectionTestUtils.setField(digestService, "digestEnabled", true);
+        ReflectionTestUtils.setField(digestService, "windowSeconds", 300L);
+        ReflectionTestUtils.setField(digestService, "maxEntries", 50);
+        ReflectionTestUtils.setField(digestService, "urgentLeadMinutes", 60L);
+
+        notificationService = new NotificationService(mock(NotificationRepository.class), digestService,
+            new NotificationTemplates("https://useshiftly.com"), preferences, clock);
+        ReflectionTestUtils.setField(notificationService, "mailSender", mailSender);
+        ReflectionTestUtils.setField(notificationService, "fromEmail", "noreply@useshiftly.com");
+        ReflectionTestUtils.setField(notificationService, "emailEnabled", true);
+    }
+
+    @Test
+    void scheduledFlushWaitsForTheWindowThenSendsOneDigest() {
+        Employee employee = employee(1L, "jordan@example.com");
+        notificationService.sendShiftAssignmentNotification(employee, shift(48));
+        notificationService.sendShiftUpdateNotification(employee, shift(72));
+
+        clock.advanceSeconds(299);
+        notificationService.flushNotificationDigests();
+        verify(mailSender, never()).send(any(SimpleMailMessage.class));
+
+        clock.advanceSeconds(1);
+        notificationService.flushNotificationDigests();
+
+        List<SimpleMailMessage> sent = sentMessages(1);
+        assertEquals("jordan@example.com", sent.get(0).getTo()[0]);
+        assertEquals("Shiftly Schedule Summary (2 updates)", sent.get(0).getSubject());
+        assertTrue(sent.get(0).getText().contains("- New shift:"));
+        assertTrue(sent.get(0).getText().contains("- Shift updated:"));
+        assertEquals(0, digestService.getPendingRecipientCount());
+    }
+
+    @Test
+    void shutdownFlushSendsEverythingStillBuffered() {
+        notificationService.sendShiftAssignmentNotification(employee(1L, "jordan@example.com"), shift(48));
+        notificationService.sendShiftAssignmentNotification(employee(2L, "sam@example.com"), shift(48));
+        notificationService.sendShiftUpdateNotification(employee(2L, "sam@example.com"), shift(72));
+
+        notificationService.flushAllNotificationDigests();
+
+        List<SimpleMailMessage> sent = sentMessages(2);
+        SimpleMailMessage single = "jordan@example.com".equals(sent.get(0).getTo()[0]) ? sent.get(0) : sent.get(1);
+        SimpleMailMessage merged = single == sent.get(0) ? sent.get(1) : sent.get(0);
+        // A buffer with one message goes out unchanged
+        assertEquals("New Shift Assignment", single.getSubject());
+        assertEquals("Shiftly Schedule Summary (2 updates)", merged.getSubject());
+        assertEquals(0, digestService.getPendingRecipientCount());
+    }
+
+    @Test
+    void lastMinuteCancellationBypassesTheBuffer() {
+        notificationService.sendShiftCancellationNotification(employee(1L, "jordan@example.com"), shift(0));
+
+        assertEquals("Shift Cancelled", sentMessages(1).get(0).getSubject());
+        assertEquals(0, digestService.getPendingRecipientCount());
+    }
+
+    @Test
+    void optedOutEventsAreNeitherSentNorBuffered() {
+        Employee employee = employee(1L, "jordan@example.com");
+        Employee other = employee(2L, "sam@example.com");
+        preferences.updateSettings(1L, Map.of("scheduleUpdates", false));
+
+        notificationService.sendShiftAssignmentNotification(employee, shift(48));
+        notificationService.sendShiftUpdateNotification(employee, shift(48));
+        notificationService.sendShiftCancellationNotification(employee, shift(0));
+        assertEquals(0, digestService.getPendingRecipientCount());
+
+        notificationService.sendShiftTradeOfferNotification(employee, shift(48), other);
+        assertEquals(1, digestService.getPendingRecipientCount());
+        verify(mailSender, never()).send(any(SimpleMailMessage.class));
+    }
+
+    @Test
+    void disabledEmailChannelStillDeliversSystemMessages() {
+        Employee employee = employee(1L, "jordan@example.com");
+        preferences.updateSettings(1L, Map.of("emailNotifications", false));
+
+        notificationService.sendShiftCancellationNotification(employee, shift(0));
+        notificationService.sendShiftPostedResponsibilityNotification(employee, shift(48));
+        notificationService.sendEmployeeRegistrationEmail(employee, "temp-pass");
+
+        assertEquals("Welcome to Shiftly Scheduler - Account Created", sentMessages(1).get(0).getSubject());
+        assertEquals(0, digestService.getPendingRecipientCount());
+    }
+
+    @Test
+    void postedShiftSkipsOptedOutRecipientsAndTheRequester() {
+        Employee requester = employee(1L, "jordan@example.com");
+        Employee optedOut = employee(2L, "sam@example.com");
+        Employee recipient = employee(3L, "alex@example.com");
+        preferences.updateSettings(2L, Map.of("tradeNotifications", false));
+
+        notificationService.sendShiftPostedToEveryoneNotification(shift(48), requester, List.of(requester, optedOut, recipient));
+        notificationService.flushAllNotificationDigests();
+
+        List<SimpleMailMessage> sent = sentMessages(1);
+        assertEquals("alex@example.com", sent.get(0).getTo()[0]);
+    }
+
+    private List<SimpleMailMessage> sentMessages(int expected) {
+        ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender, times(expected)).send(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static Employee employee(Long id, String email) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmail(email);
+        employee.setFirstName("Jordan");
+        employee.setLastName("Lee");
+        return employee;
+    }
+
+    private Shift shift(int hoursFromNow) {
+        Department department = new Department();
+        department.setName("Front Desk");
+        Shift shift = new Shift();
+        shift.setStartTime(OffsetDateTime.now(clock).plusMinutes(30).plusHours(hoursFromNow));
+        shift.setEndTime(shift.getStartTime().plusHours(8));
+        shift.setDepartment(department);
+        return shift;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
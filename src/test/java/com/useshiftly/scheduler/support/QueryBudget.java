@@ -0,0 +1,86 @@
+package com.useshiftly.scheduler.support;
+
+import com.useshiftly.scheduler.diagnostics.QueryContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upper bounds on the JDBC statements and wall-clock time of one piece of work, measured with a
+ * {@link QueryContext} around it:
+ * <pre>
+ * QueryBudget.Measurement measurement = QueryBudget.measure(() -&gt; mockMvc.perform(get("/api/employees")));
+ * QueryBudget.statements(10).elapsedMillis(500).assertWithin("GET /api/employees", measurement);
+ * </pre>
+ */
+public final class QueryBudget {
+
+    /** Elapsed-time bound used unless {@link #elapsedMillis(long)} says otherwise; loose enough for a busy CI host. */
+    public static final long DEFAULT_ELAPSED_MILLIS = 2000;
+
+    private final int maxStatements;
+    private final long maxElapsedMillis;
+
+    private QueryBudget(int maxStatements, long maxElapsedMillis) {
+        this.maxStatements = maxStatements;
+        this.maxElapsedMillis = maxElapsedMillis;
+    }
+
+    public static QueryBudget statements(int maxStatements) {
+        return new QueryBudget(maxStatements, DEFAULT_ELAPSED_MILLIS);
+    }
+
+    public QueryBudget elapsedMillis(long maxElapsedMillis) {
+        return new QueryBudget(maxStatements, maxElapsedMillis);
+    }
+
+    /**
+     * Runs the work on this thread and returns the statements, rows and time it took.
+     */
+    public static Measurement measure(Work work) throws Exception {
+        try (QueryContext context = QueryContext.open()) {
+            work.run();
+            return new Measurement(context.getStatementCount(), context.getRowCount(), context.getElapsedMillis());
+        }
+    }
+
+    public void assertWithin(String label, Measurement measurement) {
+        assertTrue(measurement.statements <= maxStatements,
+            () -> label + " exceeded its budget of " + maxStatements + " statements: " + measurement);
+        assertTrue(measurement.elapsedMillis <= maxElapsedMillis,
+            () -> label + " exceeded its budget of " + maxElapsedMillis + " ms: " + measurement);
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    public static final class Measurement {
+        private final int statements;
+        private final long rows;
+        private final long elapsedMillis;
+
+        Measurement(int statements, long rows, long elapsedMillis) {
+            this.statements = statements;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements, " + rows + " rows, " + elapsedMillis + " ms";
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.useshiftly.scheduler.support;
+
+import com.useshiftly.scheduler.model.Building;
+import com.useshiftly.scheduler.model.Department;
+import com.useshiftly.scheduler.model.Employee;
+import com.useshiftly.scheduler.model.Shift;
+import com.useshiftly.scheduler.model.ShiftTrade;
+import com.useshiftly.scheduler.repository.BuildingRepository;
+import com.useshiftly.scheduler.repository.DepartmentRepository;
+import com.useshiftly.scheduler.repository.EmployeeRepository;
+import com.useshiftly.scheduler.repository.ShiftRepository;
+import com.useshiftly.scheduler.repository.ShiftTradeRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds buildings shaped like real tenants: an admin, a manager, departments of employees, a daily schedule of
+ * shifts and a pending trade per department.
+ * <p>
+ * {@link #grow(Tenant, int, int)} adds another department to an existing tenant, so a test can check that an
+ * endpoint's query count depends only on the caller's building and not on how big the other tenants are.
+ */
+public class TenantDataSeeder {
+
+    /** First day of every seeded schedule. */
+    public static final LocalDate SCHEDULE_START = LocalDate.of(2026, 1, 5);
+
+    private final BuildingRepository buildingRepository;
+    private final DepartmentRepository departmentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ShiftRepository shiftRepository;
+    private final ShiftTradeRepository shiftTradeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private int sequence;
+
+    public TenantDataSeeder(BuildingRepository buildingRepository, DepartmentRepository departmentRepository,
+                            EmployeeRepository employeeRepository, ShiftRepository shiftRepository,
+                            ShiftTradeRepository shiftTradeRepository, PlatformTransactionManager transactionManager) {
+        this.buildingRepository = buildingRepository;
+        this.departmentRepository = departmentRepository;
+        this.employeeRepository = employeeRepository;
+        this.shiftRepository = shiftRepository;
+        this.shiftTradeRepository = shiftTradeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates a building with an admin, one manager and <code>departments</code> departments of
+     * <code>employeesPerDepartment</code> employees, each scheduled for one shift a day over <code>days</code> days.
+     */
+    public Tenant seedTenant(String name, int departments, int employeesPerDepartment, int days) {
+        return transactionTemplate.execute(status -> {
+            Building building = new Building();
+            building.setName(name);
+            building.setAddress(++sequence + " Main Street");
+            building = buildingRepository.save(building);
+
+            Employee admin = employeeRepository.save(employee(building, null, Employee.Role.ADMIN));
+            Employee manager = employeeRepository.save(employee(building, null, Employee.Role.MANAGER));
+            building.getManagers().add(manager);
+
+            Tenant tenant = new Tenant(building, admin, manager);
+            for (int i = 0; i < departments; i++) {
+                addDepartment(tenant, employeesPerDepartment, days);
+            }
+            return tenant;
+        });
+    }
+
+    /**
+     * Adds a department of <code>employees</code> employees with <code>days</code> days of shifts to the tenant.
+     */
+    public void grow(Tenant tenant, int employees, int days) {
+        transactionTemplate.executeWithoutResult(status -> addDepartment(tenant, employees, days));
+    }
+
+    private void addDepartment(Tenant tenant, int employeeCount, int days) {
+        Department department = new Department();
+        department.setName("Department " + ++sequence);
+        department.setBuilding(tenant.building);
+        department.setMinStaffing(2);
+        department.setMaxStaffing(employeeCount);
+        department = departmentRepository.save(department);
+        tenant.departments.add(department);
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < employeeCount; i++) {
+            employees.add(employee(tenant.building, department, Employee.Role.EMPLOYEE));
+        }
+        employees = employeeRepository.saveAll(employees);
+        tenant.employees.addAll(employees);
+
+        List<Shift> shifts = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            // Three staggered eight-hour shifts so a day's schedule spans the whole day
+            LocalTime startsAt = LocalTime.of(6 + (i % 3) * 5, 0);
+            for (int day = 0; day < days; day++) {
+                Shift shift = new Shift();
+                shift.setStartTime(OffsetDateTime.of(SCHEDULE_START.plusDays(day), startsAt, ZoneOffset.UTC));
+                shift.setEndTime(shift.getStartTime().plusHours(8));
+                shift.setEmployee(employees.get(i));
+                shift.setDepartment(department);
+                shift.setCreatedBy(tenant.manager);
+                shift.setStatus(day < days / 2 ? Shift.ShiftStatus.COMPLETED : Shift.ShiftStatus.SCHEDULED);
+                shifts.add(shift);
+            }
+        }
+        shifts = shiftRepository.saveAll(shifts);
+
+        if (!shifts.isEmpty()) {
+            Shift traded = shifts.get(shifts.size() - 1);
+            ShiftTrade trade = new ShiftTrade();
+            trade.setShift(traded);
+            trade.setRequestingEmployee(traded.getEmployee());
+            trade.setReason("Seeded trade");
+            shiftTradeRepository.save(trade);
+        }
+    }
+
+    private Employee employee(Building building, Department department, Employee.Role role) {
+        int id = ++sequence;
+        Employee employee = new Employee();
+        employee.setEmail(role.name().toLowerCase() + id + "@tenant" + building.getId() + ".test");
+        employee.setPassword("not-used");
+        employee.setFirstName(role.name().charAt(0) + role.name().substring(1).toLowerCase());
+        employee.setLastName("No. " + id);
+        employee.setRole(role);
+        employee.setBuilding(building);
+        employee.setDepartment(department);
+        return employee;
+    }
+
+    /**
+     * The entities of one seeded building. All of them are detached once seeding returns.
+     */
+    public static final class Tenant {
+        private final Building building;
+        private final Employee admin;
+        private final Employee manager;
+        private final List<Department> departments = new ArrayList<>();
+        private final List<Employee> employees = new ArrayList<>();
+
+        private Tenant(Building building, Employee admin, Employee manager) {
+            this.building = building;
+            this.admin = admin;
+            this.manager = manager;
+        }
+
+        public Building getBuilding() {
+            return building;
+        }
+
+        public Employee getAdmin() {
+            return admin;
+        }
+
+        public Employee getManager() {
+            return manager;
+        }
+
+        public List<Department> getDepartments() {
+            return departments;
+        }
+
+        /** Employees in departments; excludes the admin and manager. */
+        public List<Employee> getEmployees() {
+            return employees;
+        }
+    }
+}